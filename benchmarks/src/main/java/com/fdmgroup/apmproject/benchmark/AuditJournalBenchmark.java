@@ -0,0 +1,125 @@
+package com.fdmgroup.apmproject.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fdmgroup.apmproject.config.AuditJournalProperties;
+import com.fdmgroup.apmproject.model.AuditAction;
+import com.fdmgroup.apmproject.service.AuditJournal;
+import com.fdmgroup.apmproject.service.AuditJournalReader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Measures the audit journal: the cost of one append on the request path,
+ * including segment roll-overs and the background group sync, and the cost
+ * per record of replaying the journal. Each invocation works on
+ * {@value #RECORDS} records in a fresh journal under {@code target/}, so the
+ * results are per record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditJournalBenchmark {
+
+	static final int RECORDS = 1_000_000;
+
+	/**
+	 * A journal in a new directory under {@code target/}.
+	 */
+	abstract static class JournalState {
+		Path directory;
+		AuditJournal journal;
+
+		void open() throws IOException {
+			directory = Files.createTempDirectory(Files.createDirectories(Paths.get("target")), "audit-benchmark");
+			AuditJournalProperties properties = new AuditJournalProperties();
+			properties.setDirectory(directory.toString());
+			journal = new AuditJournal(properties, new SimpleMeterRegistry());
+		}
+
+		void append(int records) {
+			for (int i = 0; i < records; i++) {
+				journal.append("customer", AuditAction.CARD_PURCHASE, "creditcard/42", i, i + 20.5);
+			}
+		}
+
+		void delete() throws IOException {
+			journal.close();
+			try (Stream<Path> files = Files.walk(directory)) {
+				for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+					Files.delete(file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * An empty journal for every invocation.
+	 */
+	@State(Scope.Benchmark)
+	public static class AppendState extends JournalState {
+		@Setup(Level.Invocation)
+		public void setUp() throws IOException {
+			open();
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() throws IOException {
+			delete();
+		}
+	}
+
+	/**
+	 * A journal of {@value AuditJournalBenchmark#RECORDS} records, written once
+	 * for all replays.
+	 */
+	@State(Scope.Benchmark)
+	public static class ReplayState extends JournalState {
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			open();
+			append(RECORDS);
+			journal.close();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			delete();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public void append(AppendState state) {
+		state.append(RECORDS);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public long replay(ReplayState state) throws IOException {
+		return AuditJournalReader.replay(state.directory, record -> {
+		});
+	}
+}
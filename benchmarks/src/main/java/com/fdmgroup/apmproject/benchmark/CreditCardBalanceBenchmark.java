@@ -0,0 +1,92 @@
+package com.fdmgroup.apmproject.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.service.CreditCardService;
+import com.fdmgroup.apmproject.service.TransactionService;
+
+/**
+ * Measures the credit card balance updates: posting one transaction with
+ * {@link TransactionService#updateCreditCardBalance(Transaction)} and the
+ * monthly billing pass of
+ * {@link CreditCardService#calculateMonthlyBalance(List)} over cards with a
+ * growing transaction history. Saves go to an in-memory stub, so the results
+ * exclude database time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditCardBalanceBenchmark {
+
+	@Param({ "1", "10" })
+	private int cards;
+
+	@Param({ "10", "100", "1000" })
+	private int transactionsPerCard;
+
+	private List<CreditCard> creditCards;
+	private CreditCardService creditCardService;
+	private TransactionService transactionService;
+	private Transaction purchase;
+
+	@Setup
+	public void setUp() {
+		ForeignExchangeCurrency currency = new ForeignExchangeCurrency();
+		currency.setCode("SGD");
+		LocalDateTime start = LocalDateTime.now().minusMonths(3);
+		creditCards = new ArrayList<>();
+		for (int c = 0; c < cards; c++) {
+			CreditCard creditCard = new CreditCard();
+			creditCard.setCreditCardId(c + 1);
+			creditCard.setCreditCardNumber(String.format("9000-0000-0000-%04d", c));
+			List<Transaction> transactions = new ArrayList<>();
+			for (int t = 0; t < transactionsPerCard; t++) {
+				// One payment for every nine purchases, spread over the last three months
+				String type = t % 10 == 9 ? "CC Payment" : "CC Purchase";
+				transactions.add(new Transaction(start.plusHours(t * 2L), type, 10 + t % 50, null, 0.00, creditCard,
+						null, null, currency));
+			}
+			creditCard.setTransactions(transactions);
+			creditCards.add(creditCard);
+		}
+		creditCardService = Fixtures.creditCardService(creditCards.toArray(CreditCard[]::new));
+		transactionService = new TransactionService();
+		Fixtures.inject(transactionService, "creditCardService", creditCardService);
+		Fixtures.inject(transactionService, "auditJournal", Fixtures.disabledAuditJournal());
+		purchase = new Transaction(LocalDateTime.now(), "CC Purchase", 42.0, null, 0.00, creditCards.get(0), null, null,
+				currency);
+	}
+
+	@Benchmark
+	public double updateCreditCardBalance() {
+		transactionService.updateCreditCardBalance(purchase);
+		return creditCards.get(0).getAmountUsed();
+	}
+
+	@Benchmark
+	public double calculateMonthlyBalance() {
+		creditCardService.calculateMonthlyBalance(creditCards);
+		return creditCards.get(0).getMonthlyBalance();
+	}
+}
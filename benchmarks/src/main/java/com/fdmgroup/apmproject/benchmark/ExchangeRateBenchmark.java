@@ -0,0 +1,71 @@
+package com.fdmgroup.apmproject.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
+import com.fdmgroup.apmproject.repository.ForeignExchangeCurrencyRepository;
+import com.fdmgroup.apmproject.service.ForeignExchangeCurrencyService;
+
+/**
+ * Measures {@link ForeignExchangeCurrencyService#getExchangeRate(String, String)}
+ * for each of its conversion paths, with currency lookups answered from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExchangeRateBenchmark {
+
+	/** Base and target currency: same currency, to USD, from USD and cross rate. */
+	@Param({ "SGD-SGD", "SGD-USD", "USD-SGD", "SGD-EUR" })
+	private String pair;
+
+	private ForeignExchangeCurrencyService currencyService;
+	private String baseCurrencyCode;
+	private String targetCurrencyCode;
+
+	@Setup
+	public void setUp() {
+		Map<String, ForeignExchangeCurrency> currencies = Map.of("USD", currency("USD", 1.0), "SGD",
+				currency("SGD", 1.35), "EUR", currency("EUR", 0.93));
+		ForeignExchangeCurrencyRepository repository = Fixtures.stub(ForeignExchangeCurrencyRepository.class,
+				(method, args) -> {
+					if ("findByCurrencyCode".equals(method.getName())) {
+						return currencies.get(args[0]);
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+		currencyService = new ForeignExchangeCurrencyService(repository);
+		baseCurrencyCode = pair.substring(0, 3);
+		targetCurrencyCode = pair.substring(4);
+	}
+
+	private static ForeignExchangeCurrency currency(String code, double rate) {
+		ForeignExchangeCurrency currency = new ForeignExchangeCurrency();
+		currency.setCode(code);
+		currency.setRate(rate);
+		currency.setInverseRate(1 / rate);
+		return currency;
+	}
+
+	@Benchmark
+	public BigDecimal getExchangeRate() {
+		return currencyService.getExchangeRate(baseCurrencyCode, targetCurrencyCode);
+	}
+}
@@ -0,0 +1,102 @@
+package com.fdmgroup.apmproject.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+import com.fdmgroup.apmproject.config.AuditJournalProperties;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.repository.CreditCardRepository;
+import com.fdmgroup.apmproject.service.AuditJournal;
+import com.fdmgroup.apmproject.service.CardAuthorizationCache;
+import com.fdmgroup.apmproject.service.CreditCardService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Builds services outside of Spring for the benchmarks. Repositories are
+ * replaced with in-memory stubs so that only the service code is measured.
+ */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	/**
+	 * A method of a stubbed repository.
+	 */
+	interface Answer {
+		Object answer(Method method, Object[] args);
+	}
+
+	/**
+	 * Creates a repository whose methods are answered in memory.
+	 *
+	 * @param type   The repository interface.
+	 * @param answer Answers the repository methods used by the benchmark.
+	 * @return The stubbed repository.
+	 */
+	static <T> T stub(Class<T> type, Answer answer) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			if (method.getDeclaringClass() == Object.class) {
+				return switch (method.getName()) {
+				case "equals" -> proxy == args[0];
+				case "hashCode" -> System.identityHashCode(proxy);
+				default -> type.getSimpleName() + " stub";
+				};
+			}
+			return answer.answer(method, args);
+		}));
+	}
+
+	/**
+	 * Sets a field that Spring would autowire.
+	 */
+	static void inject(Object target, String fieldName, Object value) {
+		try {
+			Field field = target.getClass().getDeclaredField(fieldName);
+			field.setAccessible(true);
+			field.set(target, value);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot set " + fieldName + " of " + target.getClass().getSimpleName(), e);
+		}
+	}
+
+	/**
+	 * Creates a disabled audit journal, for benchmarks that do not measure
+	 * auditing.
+	 */
+	static AuditJournal disabledAuditJournal() {
+		AuditJournalProperties properties = new AuditJournalProperties();
+		properties.setEnabled(false);
+		return new AuditJournal(properties, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Creates a CreditCardService whose repository finds the given card and
+	 * accepts every save.
+	 */
+	static CreditCardService creditCardService(CreditCard... creditCards) {
+		CreditCardRepository repository = stub(CreditCardRepository.class, (method, args) -> {
+			switch (method.getName()) {
+			case "findById":
+				for (CreditCard creditCard : creditCards) {
+					if (creditCard.getCreditCardId() == (Long) args[0]) {
+						return Optional.of(creditCard);
+					}
+				}
+				return Optional.empty();
+			case "save":
+				return args[0];
+			default:
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+		CreditCardService creditCardService = new CreditCardService();
+		inject(creditCardService, "creditCardRepo", repository);
+		inject(creditCardService, "authorizationCache", new CardAuthorizationCache(10000, new SimpleMeterRegistry()));
+		inject(creditCardService, "auditJournal", disabledAuditJournal());
+		return creditCardService;
+	}
+}
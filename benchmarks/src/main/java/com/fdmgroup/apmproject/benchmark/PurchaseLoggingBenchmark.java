@@ -0,0 +1,120 @@
+package com.fdmgroup.apmproject.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.repository.ForeignExchangeCurrencyRepository;
+import com.fdmgroup.apmproject.service.ForeignExchangeCurrencyService;
+import com.fdmgroup.apmproject.service.TransactionService;
+
+/**
+ * Measures the logging overhead of one card purchase: the exchange rate
+ * lookup, the transaction description and the balance update, with the
+ * repositories answered from memory. Each benchmark runs the same purchase in
+ * a fork with a different logging setup:
+ * <ul>
+ * <li>{@code loggingOff} - nothing is logged, the baseline;</li>
+ * <li>{@code production} - the application's levels with async loggers;</li>
+ * <li>{@code traceAsync} - everything at trace with async loggers;</li>
+ * <li>{@code traceSync} - everything at trace with synchronous loggers, as the
+ * application logged before.</li>
+ * </ul>
+ * The overhead of a setup is its time and allocation less those of
+ * {@code loggingOff}. The trace forks write to {@code target/benchmark.log}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseLoggingBenchmark {
+
+	private static final String SYNC_LOGGERS = "-Dlog4j2.contextSelector=org.apache.logging.log4j.core.selector.ClassLoaderContextSelector";
+
+	private ForeignExchangeCurrencyService currencyService;
+	private TransactionService transactionService;
+	private CreditCard creditCard;
+	private ForeignExchangeCurrency currency;
+
+	@Setup
+	public void setUp() {
+		Map<String, ForeignExchangeCurrency> currencies = Map.of("USD", currency("USD", 1.0), "SGD",
+				currency("SGD", 1.35));
+		ForeignExchangeCurrencyRepository repository = Fixtures.stub(ForeignExchangeCurrencyRepository.class,
+				(method, args) -> {
+					if ("findByCurrencyCode".equals(method.getName())) {
+						return currencies.get(args[0]);
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+		currencyService = new ForeignExchangeCurrencyService(repository);
+		currency = currencies.get("USD");
+
+		creditCard = new CreditCard();
+		creditCard.setCreditCardId(1);
+		creditCard.setCreditCardNumber("9000-0000-0000-0001");
+		creditCard.setCurrencyCode("SGD");
+		creditCard.setTransactions(new ArrayList<>());
+		transactionService = new TransactionService();
+		Fixtures.inject(transactionService, "creditCardService", Fixtures.creditCardService(creditCard));
+		Fixtures.inject(transactionService, "auditJournal", Fixtures.disabledAuditJournal());
+	}
+
+	private static ForeignExchangeCurrency currency(String code, double rate) {
+		ForeignExchangeCurrency currency = new ForeignExchangeCurrency();
+		currency.setCode(code);
+		currency.setRate(rate);
+		currency.setInverseRate(1 / rate);
+		return currency;
+	}
+
+	private double purchase() {
+		BigDecimal exchangeRate = currencyService.getExchangeRate("USD", creditCard.getCurrencyCode());
+		Transaction transaction = new Transaction(LocalDateTime.now(), "CC Purchase",
+				exchangeRate.doubleValue() * 20.5, null, 0.00, creditCard, null, null, currency);
+		transaction.setCreditCardDescription("Amazon", exchangeRate.doubleValue());
+		transactionService.updateCreditCardBalance(transaction);
+		return creditCard.getAmountUsed();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-off.xml")
+	public double loggingOff() {
+		return purchase();
+	}
+
+	@Benchmark
+	public double production() {
+		return purchase();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-trace.xml")
+	public double traceAsync() {
+		return purchase();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = { "-Dlog4j2.configurationFile=log4j2-trace.xml", SYNC_LOGGERS })
+	public double traceSync() {
+		return purchase();
+	}
+}
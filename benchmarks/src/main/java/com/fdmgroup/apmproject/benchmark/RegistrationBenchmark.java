@@ -0,0 +1,52 @@
+package com.fdmgroup.apmproject.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Measures password hashing on registration. {@code registrationPath} builds
+ * a new encoder per call as {@code UserController.processRegistration} does;
+ * {@code sharedEncoder} reuses one, separating the encoder set-up from the
+ * BCrypt work factor itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrationBenchmark {
+
+	/** The BCrypt log rounds; the application uses the default of 10. */
+	@Param({ "10", "12" })
+	private int strength;
+
+	private BCryptPasswordEncoder encoder;
+
+	@Setup
+	public void setUp() {
+		encoder = new BCryptPasswordEncoder(strength);
+	}
+
+	@Benchmark
+	public String registrationPath() {
+		return new BCryptPasswordEncoder(strength).encode("Qwerty123");
+	}
+
+	@Benchmark
+	public String sharedEncoder() {
+		return encoder.encode("Qwerty123");
+	}
+}
@@ -0,0 +1,55 @@
+package com.fdmgroup.apmproject.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
+import com.fdmgroup.apmproject.model.Transaction;
+
+/**
+ * Measures {@link Transaction#setCreditCardDescription(String, double)}, which
+ * formats the purchase amount in the card's currency for every card purchase.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionDescriptionBenchmark {
+
+	/** Same-currency purchases have a rate of 1; foreign ones a fractional rate. */
+	@Param({ "1", "1.3517" })
+	private double rate;
+
+	@Param({ "20.5", "1100.1" })
+	private double amount;
+
+	private Transaction transaction;
+
+	@Setup
+	public void setUp() {
+		ForeignExchangeCurrency currency = new ForeignExchangeCurrency();
+		currency.setCode("SGD");
+		transaction = new Transaction(LocalDateTime.now(), "CC Purchase", amount, null, 0.00, null, null, null,
+				currency);
+	}
+
+	@Benchmark
+	public String setCreditCardDescription() {
+		transaction.setCreditCardDescription("Amazon", rate);
+		return transaction.getDescription();
+	}
+}
@@ -0,0 +1,115 @@
+package com.fdmgroup.apmproject.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fdmgroup.apmproject.loadtest.LatencyStats.Outcome;
+
+/**
+ * One customer's browser: keeps the session cookie between requests and
+ * times every request. Redirects are not followed, so that each page a
+ * journey asks for is timed on its own.
+ * <p>
+ * The first request is timed from the journey's scheduled arrival rather than
+ * from when it was sent, so time the load generator itself fell behind counts
+ * as latency instead of being left out. Later requests follow on from the
+ * previous response, as a customer's next click would.
+ */
+final class Browser {
+
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	private final HttpClient client;
+	private final URI baseUri;
+	private final LatencyStats stats;
+	private String sessionCookie;
+	private long intendedStartNanos;
+
+	/**
+	 * @param scheduledNanos The {@link System#nanoTime()} at which the journey
+	 *                       was scheduled to arrive.
+	 */
+	Browser(HttpClient client, URI baseUri, LatencyStats stats, long scheduledNanos) {
+		this.client = client;
+		this.baseUri = baseUri;
+		this.stats = stats;
+		this.intendedStartNanos = scheduledNanos;
+	}
+
+	/**
+	 * Logs in with the login form.
+	 *
+	 * @return Whether the login was accepted.
+	 */
+	boolean login(String username, String password) {
+		HttpResponse<Void> response = send("POST /login", HttpRequest.newBuilder(baseUri.resolve("/login"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form(Map.of("username", username, "password", password)))));
+		return response != null && response.headers().firstValue("Location").filter(l -> l.endsWith("/dashboard"))
+				.isPresent();
+	}
+
+	void get(String endpoint, String path) {
+		send(endpoint, HttpRequest.newBuilder(baseUri.resolve(path)).GET());
+	}
+
+	void postForm(String endpoint, String path, Map<String, String> fields) {
+		send(endpoint, HttpRequest.newBuilder(baseUri.resolve(path))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form(fields))));
+	}
+
+	void postJson(String endpoint, String path, String json) {
+		send(endpoint, HttpRequest.newBuilder(baseUri.resolve(path)).header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json)));
+	}
+
+	private HttpResponse<Void> send(String endpoint, HttpRequest.Builder request) {
+		if (sessionCookie != null) {
+			request.header("Cookie", sessionCookie);
+		}
+		long start = Math.min(intendedStartNanos, System.nanoTime());
+		try {
+			HttpResponse<Void> response = client.send(request.timeout(REQUEST_TIMEOUT).build(),
+					HttpResponse.BodyHandlers.discarding());
+			intendedStartNanos = System.nanoTime();
+			stats.record(endpoint, intendedStartNanos - start, outcome(response));
+			response.headers().firstValue("Set-Cookie").filter(cookie -> cookie.startsWith("JSESSIONID="))
+					.ifPresent(cookie -> sessionCookie = cookie.split(";", 2)[0]);
+			return response;
+		} catch (IOException e) {
+			intendedStartNanos = System.nanoTime();
+			stats.record(endpoint, intendedStartNanos - start, Outcome.ERROR);
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private static Outcome outcome(HttpResponse<Void> response) {
+		int status = response.statusCode();
+		if (status >= 500) {
+			return Outcome.ERROR;
+		}
+		if (status >= 400) {
+			return Outcome.REJECTED;
+		}
+		// Being sent back to the login page means the session was lost
+		String location = response.headers().firstValue("Location").orElse("");
+		return location.contains("/login") ? Outcome.ERROR : Outcome.OK;
+	}
+
+	private static String form(Map<String, String> fields) {
+		return fields.entrySet().stream().map(field -> URLEncoder.encode(field.getKey(), StandardCharsets.UTF_8) + "="
+				+ URLEncoder.encode(field.getValue(), StandardCharsets.UTF_8)).collect(Collectors.joining("&"));
+	}
+}
@@ -0,0 +1,8 @@
+package com.fdmgroup.apmproject.loadtest;
+
+/**
+ * A seeded customer and the products their journeys use.
+ */
+record Customer(String username, String password, long accountId, String accountName, String accountNumber,
+		long creditCardId, String creditCardNumber, String pin) {
+}
@@ -0,0 +1,112 @@
+package com.fdmgroup.apmproject.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The scripted customer journeys. Browser journeys log in, land on the
+ * dashboard and then perform one task as the pages' forms would; purchases
+ * come from a point-of-sale terminal through the purchase API.
+ */
+enum Journey {
+	DEPOSIT("deposit") {
+		@Override
+		void run(Browser browser, Customer customer, List<Customer> customers) {
+			if (logIn(browser, customer)) {
+				browser.get("GET /bankaccount/deposit", "/bankaccount/deposit");
+				browser.postForm("POST /bankaccount/deposit", "/bankaccount/deposit", Map.of("accountId",
+						Long.toString(customer.accountId()), "depositAmount", amount(), "currency", "SGD"));
+				browser.get("GET /bankaccount/dashboard", "/bankaccount/dashboard");
+			}
+		}
+	},
+	TRANSFER("transfer") {
+		@Override
+		void run(Browser browser, Customer customer, List<Customer> customers) {
+			if (logIn(browser, customer)) {
+				Customer recipient = customers.get(ThreadLocalRandom.current().nextInt(customers.size()));
+				browser.get("GET /bankaccount/transfer", "/bankaccount/transfer");
+				browser.postForm("POST /bankaccount/transfer", "/bankaccount/transfer",
+						Map.of("account", Long.toString(customer.accountId()), "transferAmount", amount(),
+								"accountNumberTransferTo", recipient.accountNumber(), "currency", "SGD"));
+				browser.get("GET /bankaccount/dashboard", "/bankaccount/dashboard");
+			}
+		}
+	},
+	VIEW_TRANSACTIONS("view-transactions") {
+		@Override
+		void run(Browser browser, Customer customer, List<Customer> customers) {
+			if (logIn(browser, customer)) {
+				browser.get("GET /bankaccount/dashboard", "/bankaccount/dashboard");
+				browser.postForm("POST /viewTransactions (account)", "/viewTransactions",
+						Map.of("accountId", Long.toString(customer.accountId())));
+				browser.get("GET /userCards", "/userCards");
+				browser.postForm("POST /viewTransactions (card)", "/viewTransactions",
+						Map.of("creditCardId", Long.toString(customer.creditCardId())));
+			}
+		}
+	},
+	PAY_BILLS("pay-bills") {
+		@Override
+		void run(Browser browser, Customer customer, List<Customer> customers) {
+			if (logIn(browser, customer)) {
+				browser.get("GET /creditCard/paybills", "/creditCard/paybills");
+				browser.postForm("POST /creditCard/paybills", "/creditCard/paybills",
+						Map.of("creditCardId", Long.toString(customer.creditCardId()), "payment", amount(),
+								"balanceType", "custom", "accountId", Long.toString(customer.accountId())));
+				browser.get("GET /userCards", "/userCards");
+			}
+		}
+	},
+	PURCHASE("purchase") {
+		@Override
+		void run(Browser browser, Customer customer, List<Customer> customers) {
+			browser.postJson("POST /api/credit-card/purchase", "/api/credit-card/purchase", String.format(
+					"{\"accountName\":\"%s\",\"accountNumber\":\"%s\",\"creditCardNumber\":\"%s\",\"amount\":%s,"
+							+ "\"pin\":\"%s\",\"mcc\":\"Shopping\",\"currency\":\"SGD\",\"description\":\"Load test\"}",
+					customer.accountName(), customer.accountNumber(), customer.creditCardNumber(), amount(),
+					customer.pin()));
+		}
+	};
+
+	private final String key;
+
+	Journey(String key) {
+		this.key = key;
+	}
+
+	/**
+	 * Plays the journey for a customer.
+	 *
+	 * @param browser   A fresh browser for the journey.
+	 * @param customer  The customer making the journey.
+	 * @param customers All seeded customers, e.g. to pick a transfer recipient.
+	 */
+	abstract void run(Browser browser, Customer customer, List<Customer> customers);
+
+	/**
+	 * @param key The name of the journey in {@code loadtest.mix}.
+	 * @return The journey with that name.
+	 */
+	static Journey fromKey(String key) {
+		for (Journey journey : values()) {
+			if (journey.key.equals(key)) {
+				return journey;
+			}
+		}
+		throw new IllegalArgumentException("Unknown journey " + key);
+	}
+
+	private static boolean logIn(Browser browser, Customer customer) {
+		if (!browser.login(customer.username(), customer.password())) {
+			return false;
+		}
+		browser.get("GET /dashboard", "/dashboard");
+		return true;
+	}
+
+	private static String amount() {
+		return Integer.toString(1 + ThreadLocalRandom.current().nextInt(50));
+	}
+}
@@ -0,0 +1,149 @@
+package com.fdmgroup.apmproject.loadtest;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Collects the latency and outcome of every request, per endpoint, and
+ * prints the throughput, latency percentiles and error rates.
+ * <p>
+ * Latencies go into HdrHistograms with three significant digits, so p99.9 is
+ * exact to within 0.1% whatever the spread.
+ */
+final class LatencyStats {
+
+	/** How a request ended. */
+	enum Outcome {
+		/** The page or response the journey expected. */
+		OK,
+		/** A 4xx answer, such as a declined purchase. */
+		REJECTED,
+		/** A 5xx answer, a lost session or a failed connection. */
+		ERROR
+	}
+
+	private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+	private static final class Endpoint {
+		final Recorder latencies = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+		final LongAdder ok = new LongAdder();
+		final LongAdder rejected = new LongAdder();
+		final LongAdder errors = new LongAdder();
+	}
+
+	private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+	private final LongAdder journeys = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private volatile long startNanos = System.nanoTime();
+
+	/**
+	 * Records one request.
+	 *
+	 * @param endpoint     The method and path template, e.g.
+	 *                     {@code POST /bankaccount/deposit}.
+	 * @param elapsedNanos The time from when the request should have been sent
+	 *                     to reading the response.
+	 * @param outcome      How the request ended.
+	 */
+	void record(String endpoint, long elapsedNanos, Outcome outcome) {
+		Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+		stats.latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_LATENCY_MICROS));
+		switch (outcome) {
+		case OK -> stats.ok.increment();
+		case REJECTED -> stats.rejected.increment();
+		case ERROR -> stats.errors.increment();
+		}
+	}
+
+	void journeyStarted() {
+		journeys.increment();
+	}
+
+	void journeyDropped() {
+		dropped.increment();
+	}
+
+	/**
+	 * Discards everything recorded so far, e.g. at the end of the warm-up.
+	 */
+	void reset() {
+		for (Endpoint stats : endpoints.values()) {
+			stats.latencies.reset();
+			stats.ok.reset();
+			stats.rejected.reset();
+			stats.errors.reset();
+		}
+		journeys.reset();
+		dropped.reset();
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * The totals of a finished run, for the pass or fail check.
+	 */
+	record Summary(long requests, long errors, long worstP99Micros, String worstEndpoint, long journeys,
+			long dropped) {
+		double errorRate() {
+			return requests == 0 ? 0 : (double) errors / requests;
+		}
+
+		/**
+		 * The share of arrivals that were never started, as their latency is
+		 * missing from the percentiles.
+		 */
+		double dropRate() {
+			return journeys + dropped == 0 ? 0 : (double) dropped / (journeys + dropped);
+		}
+	}
+
+	/**
+	 * Prints one line per endpoint and the totals, and returns the totals.
+	 *
+	 * @param out Where to print the report.
+	 * @return The totals of the run.
+	 */
+	Summary report(PrintStream out) {
+		double seconds = (System.nanoTime() - startNanos) / 1e9;
+		long requests = 0;
+		long errors = 0;
+		long worstP99 = 0;
+		String worstEndpoint = null;
+
+		out.printf("%n%-44s %9s %8s %9s %9s %9s %9s %7s %7s%n", "Endpoint", "Requests", "Req/s", "p50 ms", "p99 ms",
+				"p99.9 ms", "max ms", "4xx %", "Err %");
+		for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+			Endpoint stats = entry.getValue();
+			Histogram histogram = stats.latencies.getIntervalHistogram();
+			long count = stats.ok.sum() + stats.rejected.sum() + stats.errors.sum();
+			if (count == 0) {
+				continue;
+			}
+			out.printf("%-44s %9d %8.1f %9.1f %9.1f %9.1f %9.1f %7.2f %7.2f%n", entry.getKey(), count, count / seconds,
+					millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+					millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()),
+					100.0 * stats.rejected.sum() / count, 100.0 * stats.errors.sum() / count);
+			requests += count;
+			errors += stats.errors.sum();
+			if (histogram.getValueAtPercentile(99) > worstP99) {
+				worstP99 = histogram.getValueAtPercentile(99);
+				worstEndpoint = entry.getKey();
+			}
+		}
+		out.printf("%nJourneys: %d started, %d dropped at the concurrency limit, %.1f/s over %.0f s%n", journeys.sum(),
+				dropped.sum(), journeys.sum() / seconds, seconds);
+		out.printf("Requests: %d, %.1f/s, %.2f%% errors%n", requests, requests / seconds,
+				requests == 0 ? 0 : 100.0 * errors / requests);
+		return new Summary(requests, errors, worstP99, worstEndpoint, journeys.sum(), dropped.sum());
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+}
@@ -0,0 +1,127 @@
+package com.fdmgroup.apmproject.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fdmgroup.apmproject.ApmProjectApplication;
+
+/**
+ * Starts the application on an in-memory database, replays a mix of customer
+ * journeys against it at a steady arrival rate, and prints the throughput,
+ * latency percentiles and error rate of every endpoint.
+ * <p>
+ * Arrivals follow an open model: journeys start at random intervals averaging
+ * {@code loadtest.rate} per second whether or not earlier ones have finished,
+ * so a slow server shows up as queueing and latency rather than as fewer
+ * requests. Latency is measured from each journey's scheduled arrival, so a
+ * load generator that falls behind does not hide the queueing. The run fails
+ * when the error rate, p99 latency or share of dropped arrivals is above the
+ * configured limit, so it can gate a release build.
+ *
+ * @see LoadTestConfig
+ */
+public class LoadTest {
+
+	public static void main(String[] args) throws Exception {
+		LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+		SpringApplication application = new SpringApplication(ApmProjectApplication.class);
+		application.setAdditionalProfiles("loadtest");
+		try (ConfigurableApplicationContext context = application.run("--server.port=0")) {
+			URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+			List<Customer> customers = LoadTestData.seed(context, config.customers());
+			System.out.printf("Application started at %s with %d customers; mix %s%n", baseUri, customers.size(),
+					config.mix());
+
+			LatencyStats stats = new LatencyStats();
+			run(config, baseUri, customers, stats);
+			LatencyStats.Summary summary = stats.report(System.out);
+			check(config, summary);
+		}
+	}
+
+	private static void run(LoadTestConfig config, URI baseUri, List<Customer> customers, LatencyStats stats)
+			throws InterruptedException {
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5))
+				.followRedirects(HttpClient.Redirect.NEVER).build();
+		Journey[] journeys = weighted(config.mix());
+		ExecutorService executor = Executors.newCachedThreadPool();
+		Semaphore inFlight = new Semaphore(config.concurrency());
+
+		long start = System.nanoTime();
+		long measureFrom = start + TimeUnit.SECONDS.toNanos(config.warmup());
+		long end = measureFrom + TimeUnit.SECONDS.toNanos(config.duration());
+		long next = start;
+		boolean measuring = config.warmup() == 0;
+		System.out.printf("Warming up for %d s, then measuring for %d s at %.1f journeys/s%n", config.warmup(),
+				config.duration(), config.rate());
+		while (next < end) {
+			// Exponential gaps between arrivals give a Poisson arrival process
+			next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) / config.rate() * 1e9);
+			long scheduled = next;
+			LockSupport.parkNanos(scheduled - System.nanoTime());
+			if (!measuring && System.nanoTime() >= measureFrom) {
+				stats.reset();
+				measuring = true;
+			}
+			if (!inFlight.tryAcquire()) {
+				stats.journeyDropped();
+				continue;
+			}
+			stats.journeyStarted();
+			Journey journey = journeys[ThreadLocalRandom.current().nextInt(journeys.length)];
+			Customer customer = customers.get(ThreadLocalRandom.current().nextInt(customers.size()));
+			executor.execute(() -> {
+				try {
+					journey.run(new Browser(client, baseUri, stats, scheduled), customer, customers);
+				} finally {
+					inFlight.release();
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * Expands the mix into an array holding each journey as many times as its
+	 * weight, so picking a random element follows the mix.
+	 */
+	private static Journey[] weighted(Map<Journey, Integer> mix) {
+		return mix.entrySet().stream()
+				.flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+				.toArray(Journey[]::new);
+	}
+
+	private static void check(LoadTestConfig config, LatencyStats.Summary summary) {
+		if (summary.requests() == 0) {
+			throw new IllegalStateException("No requests were completed");
+		}
+		if (summary.dropRate() > config.maxDropRate()) {
+			throw new IllegalStateException(String.format(
+					"%.2f%% of arrivals were dropped at the concurrency limit of %d, above the limit of %.2f%%",
+					100 * summary.dropRate(), config.concurrency(), 100 * config.maxDropRate()));
+		}
+		if (summary.errorRate() > config.maxErrorRate()) {
+			throw new IllegalStateException(String.format("Error rate %.2f%% is above the limit of %.2f%%",
+					100 * summary.errorRate(), 100 * config.maxErrorRate()));
+		}
+		if (config.maxP99Millis() > 0
+				&& summary.worstP99Micros() > TimeUnit.MILLISECONDS.toMicros(config.maxP99Millis())) {
+			throw new IllegalStateException(String.format("p99 latency of %s is %.1f ms, above the limit of %d ms",
+					summary.worstEndpoint(), summary.worstP99Micros() / 1000.0, config.maxP99Millis()));
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.fdmgroup.apmproject.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The settings of a load test run, read from system properties so they can be
+ * given on the Maven command line.
+ *
+ * @param rate         {@code loadtest.rate}: journeys started per second, on
+ *                     average. Arrivals are random, as from independent
+ *                     customers. Default 10.
+ * @param warmup       {@code loadtest.warmup}: seconds of traffic before
+ *                     measuring starts. Default 10.
+ * @param duration     {@code loadtest.duration}: seconds of measured traffic.
+ *                     Default 60.
+ * @param customers    {@code loadtest.customers}: customers seeded, each with
+ *                     two accounts and a credit card. Default 200.
+ * @param concurrency  {@code loadtest.concurrency}: journeys allowed in flight
+ *                     at once; arrivals beyond it are counted as dropped.
+ *                     Default 200.
+ * @param mix          {@code loadtest.mix}: relative weight of each journey,
+ *                     e.g. {@code deposit=30,transfer=20,view-transactions=25,pay-bills=10,purchase=15}.
+ * @param maxErrorRate {@code loadtest.max-error-rate}: the run fails when a
+ *                     larger share of requests end in an error. Default 0.01.
+ * @param maxP99Millis {@code loadtest.max-p99-ms}: the run fails when any
+ *                     endpoint's p99 latency is higher. 0, the default, does
+ *                     not check latency.
+ * @param maxDropRate  {@code loadtest.max-drop-rate}: the run fails when a
+ *                     larger share of arrivals is dropped at the concurrency
+ *                     limit, as their latency is not measured. Default 0.
+ */
+record LoadTestConfig(double rate, int warmup, int duration, int customers, int concurrency,
+		Map<Journey, Integer> mix, double maxErrorRate, long maxP99Millis, double maxDropRate) {
+
+	static final String DEFAULT_MIX = "deposit=30,transfer=20,view-transactions=25,pay-bills=10,purchase=15";
+
+	static LoadTestConfig fromSystemProperties() {
+		return new LoadTestConfig(Double.parseDouble(System.getProperty("loadtest.rate", "10")),
+				Integer.getInteger("loadtest.warmup", 10), Integer.getInteger("loadtest.duration", 60),
+				Integer.getInteger("loadtest.customers", 200), Integer.getInteger("loadtest.concurrency", 200),
+				parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+				Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")),
+				Long.getLong("loadtest.max-p99-ms", 0),
+				Double.parseDouble(System.getProperty("loadtest.max-drop-rate", "0")));
+	}
+
+	static Map<Journey, Integer> parseMix(String mix) {
+		Map<Journey, Integer> weights = new EnumMap<>(Journey.class);
+		for (String entry : mix.split(",")) {
+			String[] keyAndWeight = entry.trim().split("=");
+			if (keyAndWeight.length != 2) {
+				throw new IllegalArgumentException("Mix entries look like journey=weight, not " + entry);
+			}
+			weights.put(Journey.fromKey(keyAndWeight[0].trim()), Integer.parseInt(keyAndWeight[1].trim()));
+		}
+		if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+			throw new IllegalArgumentException("The journey mix has no weight: " + mix);
+		}
+		return weights;
+	}
+}
@@ -0,0 +1,61 @@
+package com.fdmgroup.apmproject.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.Status;
+import com.fdmgroup.apmproject.model.User;
+import com.fdmgroup.apmproject.repository.AccountRepository;
+import com.fdmgroup.apmproject.repository.CreditCardRepository;
+import com.fdmgroup.apmproject.repository.StatusRepository;
+import com.fdmgroup.apmproject.repository.UserRepository;
+
+/**
+ * Seeds the customers that the journeys log in as, on top of the
+ * application's demo data.
+ */
+final class LoadTestData {
+
+	static final String PASSWORD = "LoadTest123";
+	static final String PIN = "123";
+
+	private LoadTestData() {
+	}
+
+	/**
+	 * Creates customers, each with two approved SGD accounts and an approved
+	 * credit card.
+	 *
+	 * @param context   The running application.
+	 * @param customers The number of customers to create.
+	 * @return The customers created.
+	 */
+	static List<Customer> seed(ApplicationContext context, int customers) {
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		AccountRepository accountRepository = context.getBean(AccountRepository.class);
+		CreditCardRepository creditCardRepository = context.getBean(CreditCardRepository.class);
+		Status approved = context.getBean(StatusRepository.class).findByStatusName("Approved").orElseThrow();
+		// Hashing once keeps seeding fast; logins still pay the full BCrypt check
+		String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+
+		List<Customer> created = new ArrayList<>(customers);
+		for (int i = 0; i < customers; i++) {
+			User user = userRepository.save(new User("loadtest" + i, passwordHash, "Address " + i, "Load", "Test" + i));
+			Account savings = accountRepository.save(new Account("Savings", 1_000_000,
+					String.format("%03d-%03d-001", 800 + i / 1000, i % 1000), user, approved, "SGD"));
+			accountRepository.save(new Account("Current", 1_000_000,
+					String.format("%03d-%03d-002", 800 + i / 1000, i % 1000), user, approved, "SGD"));
+			CreditCard creditCard = creditCardRepository.save(new CreditCard(
+					String.format("8000-%04d-%04d-0001", i / 10000, i % 10000), PIN, 1_000_000, "Ultimate Cashback Card",
+					approved, 0, user, "SGD"));
+			created.add(new Customer(user.getUsername(), PASSWORD, savings.getAccountId(), savings.getAccountName(),
+					savings.getAccountNumber(), creditCard.getCreditCardId(), creditCard.getCreditCardNumber(), PIN));
+		}
+		return created;
+	}
+}
@@ -0,0 +1,58 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the settings of the audit journal.
+ * <p>
+ * Settings are bound from the {@code audit.journal} properties. The journal is
+ * written to segment files of {@code segment-size} bytes in
+ * {@code directory}, and written records are forced to disk every
+ * {@code sync-interval-ms} milliseconds.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "audit.journal")
+public class AuditJournalProperties {
+
+	private boolean enabled = true;
+	private String directory = "audit";
+	private int segmentSize = 64 * 1024 * 1024;
+	private long syncIntervalMs = 50;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	public void setSegmentSize(int segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	public long getSyncIntervalMs() {
+		return syncIntervalMs;
+	}
+
+	public void setSyncIntervalMs(long syncIntervalMs) {
+		this.syncIntervalMs = syncIntervalMs;
+	}
+}
@@ -0,0 +1,69 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the settings of the partitioned monthly billing run.
+ * <p>
+ * Settings are bound from the {@code billing} properties. Each cycle's credit
+ * cards are split into {@code partitions} ranges of card ids. A node claims a
+ * partition for {@code lease-ms} milliseconds and renews the lease every
+ * {@code heartbeat-ms} while billing it; when no partition is free it checks
+ * again every {@code poll-ms} until all are billed. {@code node-id} names the
+ * node in the leases and defaults to its host name and process id.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "billing")
+public class BillingProperties {
+
+	private String nodeId = "";
+	private int partitions = 16;
+	private long leaseMs = 60000;
+	private long heartbeatMs = 15000;
+	private long pollMs = 5000;
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public void setNodeId(String nodeId) {
+		this.nodeId = nodeId;
+	}
+
+	public int getPartitions() {
+		return partitions;
+	}
+
+	public void setPartitions(int partitions) {
+		this.partitions = partitions;
+	}
+
+	public long getLeaseMs() {
+		return leaseMs;
+	}
+
+	public void setLeaseMs(long leaseMs) {
+		this.leaseMs = leaseMs;
+	}
+
+	public long getHeartbeatMs() {
+		return heartbeatMs;
+	}
+
+	public void setHeartbeatMs(long heartbeatMs) {
+		this.heartbeatMs = heartbeatMs;
+	}
+
+	public long getPollMs() {
+		return pollMs;
+	}
+
+	public void setPollMs(long pollMs) {
+		this.pollMs = pollMs;
+	}
+}
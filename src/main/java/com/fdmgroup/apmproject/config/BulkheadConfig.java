@@ -0,0 +1,32 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fdmgroup.apmproject.controller.BulkheadFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class registers the {@link BulkheadFilter} for all requests.
+ * <p>
+ * It is ordered after Spring Security's filter chain, so that requests can be
+ * classified by the roles of the authenticated user.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+public class BulkheadConfig {
+
+	@Bean
+	public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(BulkheadProperties properties,
+			MeterRegistry meterRegistry) {
+		FilterRegistrationBean<BulkheadFilter> registration = new FilterRegistrationBean<>(
+				new BulkheadFilter(properties, meterRegistry));
+		registration.addUrlPatterns("/*");
+		return registration;
+	}
+}
@@ -0,0 +1,128 @@
+package com.fdmgroup.apmproject.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the partitions that web requests are isolated into.
+ * <p>
+ * Settings are bound from the {@code bulkhead} properties. A request belongs
+ * to the first partition under {@code partitions} whose {@code paths} match
+ * its path or whose {@code roles} include a role of its user, and otherwise to
+ * the {@code default-partition}. Each partition runs at most
+ * {@code max-concurrent} requests; up to {@code max-queued} more wait at most
+ * {@code max-wait-ms} for a slot, and the rest are turned away.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+	private boolean enabled = true;
+	private String defaultPartition = "customer";
+	private Map<String, Partition> partitions = defaultPartitions();
+
+	/**
+	 * @return Admin pages, which may queue briefly, and everything else.
+	 */
+	private static Map<String, Partition> defaultPartitions() {
+		Map<String, Partition> partitions = new LinkedHashMap<>();
+		partitions.put("admin", new Partition(List.of("/admin/**"), 4, 8, 2000));
+		partitions.put("customer", new Partition(List.of(), 150, 0, 0));
+		return partitions;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getDefaultPartition() {
+		return defaultPartition;
+	}
+
+	public void setDefaultPartition(String defaultPartition) {
+		this.defaultPartition = defaultPartition;
+	}
+
+	public Map<String, Partition> getPartitions() {
+		return partitions;
+	}
+
+	public void setPartitions(Map<String, Partition> partitions) {
+		this.partitions = partitions;
+	}
+
+	/**
+	 * A partition: the requests it covers and how many of them it runs and
+	 * queues at once.
+	 */
+	public static class Partition {
+		private List<String> paths = new ArrayList<>();
+		private List<String> roles = new ArrayList<>();
+		private int maxConcurrent = 10;
+		private int maxQueued = 0;
+		private long maxWaitMs = 0;
+
+		public Partition() {
+		}
+
+		public Partition(List<String> paths, int maxConcurrent, int maxQueued, long maxWaitMs) {
+			this.paths = new ArrayList<>(paths);
+			this.maxConcurrent = maxConcurrent;
+			this.maxQueued = maxQueued;
+			this.maxWaitMs = maxWaitMs;
+		}
+
+		public List<String> getPaths() {
+			return paths;
+		}
+
+		public void setPaths(List<String> paths) {
+			this.paths = paths;
+		}
+
+		public List<String> getRoles() {
+			return roles;
+		}
+
+		public void setRoles(List<String> roles) {
+			this.roles = roles;
+		}
+
+		public int getMaxConcurrent() {
+			return maxConcurrent;
+		}
+
+		public void setMaxConcurrent(int maxConcurrent) {
+			this.maxConcurrent = maxConcurrent;
+		}
+
+		public int getMaxQueued() {
+			return maxQueued;
+		}
+
+		public void setMaxQueued(int maxQueued) {
+			this.maxQueued = maxQueued;
+		}
+
+		public long getMaxWaitMs() {
+			return maxWaitMs;
+		}
+
+		public void setMaxWaitMs(long maxWaitMs) {
+			this.maxWaitMs = maxWaitMs;
+		}
+	}
+}
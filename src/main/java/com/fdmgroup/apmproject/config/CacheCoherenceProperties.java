@@ -0,0 +1,91 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the settings of the cache coherence channel between
+ * instances.
+ * <p>
+ * Settings are bound from the {@code cache.coherence} properties. Each
+ * instance reads up to {@code batch-size} new invalidations every
+ * {@code poll-ms} milliseconds, which bounds how long its caches may serve an
+ * entry another instance has changed. Invalidations younger than
+ * {@code settle-ms} are read again on later polls, so that a transaction that
+ * took an earlier version but committed later is not skipped. Invalidations
+ * older than {@code retention-ms} are deleted every
+ * {@code cleanup-interval-ms}. {@code node-id} names the instance and defaults
+ * to its host name and process id.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cache.coherence")
+public class CacheCoherenceProperties {
+
+	private boolean enabled = true;
+	private String nodeId = "";
+	private long pollMs = 200;
+	private int batchSize = 500;
+	private long settleMs = 2000;
+	private long retentionMs = 3_600_000;
+	private long cleanupIntervalMs = 60_000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public void setNodeId(String nodeId) {
+		this.nodeId = nodeId;
+	}
+
+	public long getPollMs() {
+		return pollMs;
+	}
+
+	public void setPollMs(long pollMs) {
+		this.pollMs = pollMs;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public long getSettleMs() {
+		return settleMs;
+	}
+
+	public void setSettleMs(long settleMs) {
+		this.settleMs = settleMs;
+	}
+
+	public long getRetentionMs() {
+		return retentionMs;
+	}
+
+	public void setRetentionMs(long retentionMs) {
+		this.retentionMs = retentionMs;
+	}
+
+	public long getCleanupIntervalMs() {
+		return cleanupIntervalMs;
+	}
+
+	public void setCleanupIntervalMs(long cleanupIntervalMs) {
+		this.cleanupIntervalMs = cleanupIntervalMs;
+	}
+}
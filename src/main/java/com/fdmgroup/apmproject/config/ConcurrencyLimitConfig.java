@@ -0,0 +1,41 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fdmgroup.apmproject.controller.ConcurrencyLimitFilter;
+import com.fdmgroup.apmproject.service.AdaptiveConcurrencyLimiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class registers the {@link ConcurrencyLimitFilter} for all requests.
+ * <p>
+ * It is ordered before Spring Security's filter chain, so that shed requests
+ * never reach the session or user lookups, and logins are limited too.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+	@Bean
+	public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties,
+			MeterRegistry meterRegistry) {
+		return new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+	}
+
+	@Bean
+	public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+			ConcurrencyLimitProperties properties, AdaptiveConcurrencyLimiter limiter) {
+		FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+				new ConcurrencyLimitFilter(properties, limiter));
+		registration.addUrlPatterns("/*");
+		registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+		return registration;
+	}
+}
@@ -0,0 +1,129 @@
+package com.fdmgroup.apmproject.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the settings of the adaptive concurrency limit in front of
+ * the application.
+ * <p>
+ * Settings are bound from the {@code concurrency.limit} properties. The limit
+ * starts at {@code initial-limit} and moves between {@code min-limit} and
+ * {@code max-limit}: it grows by one per limit's worth of requests that finish
+ * within {@code latency-threshold-ms}, and is multiplied by
+ * {@code backoff-ratio} when one takes longer. Requests matching
+ * {@code critical-paths} may use the whole limit, those matching
+ * {@code low-paths} only {@code low-share} of it and all others
+ * {@code normal-share}, so low priority requests are shed first.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "concurrency.limit")
+public class ConcurrencyLimitProperties {
+
+	private boolean enabled = true;
+	private int initialLimit = 20;
+	private int minLimit = 4;
+	private int maxLimit = 200;
+	private long latencyThresholdMs = 500;
+	private double backoffRatio = 0.9;
+	private double normalShare = 0.8;
+	private double lowShare = 0.5;
+	private int retryAfterSeconds = 1;
+	private List<String> criticalPaths = new ArrayList<>(List.of("/api/credit-card/purchase", "/login"));
+	private List<String> lowPaths = new ArrayList<>(List.of("/admin/**"));
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	public void setInitialLimit(int initialLimit) {
+		this.initialLimit = initialLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public void setMinLimit(int minLimit) {
+		this.minLimit = minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+
+	public long getLatencyThresholdMs() {
+		return latencyThresholdMs;
+	}
+
+	public void setLatencyThresholdMs(long latencyThresholdMs) {
+		this.latencyThresholdMs = latencyThresholdMs;
+	}
+
+	public double getBackoffRatio() {
+		return backoffRatio;
+	}
+
+	public void setBackoffRatio(double backoffRatio) {
+		this.backoffRatio = backoffRatio;
+	}
+
+	public double getNormalShare() {
+		return normalShare;
+	}
+
+	public void setNormalShare(double normalShare) {
+		this.normalShare = normalShare;
+	}
+
+	public double getLowShare() {
+		return lowShare;
+	}
+
+	public void setLowShare(double lowShare) {
+		this.lowShare = lowShare;
+	}
+
+	public int getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+	public void setRetryAfterSeconds(int retryAfterSeconds) {
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public List<String> getCriticalPaths() {
+		return criticalPaths;
+	}
+
+	public void setCriticalPaths(List<String> criticalPaths) {
+		this.criticalPaths = criticalPaths;
+	}
+
+	public List<String> getLowPaths() {
+		return lowPaths;
+	}
+
+	public void setLowPaths(List<String> lowPaths) {
+		this.lowPaths = lowPaths;
+	}
+}
@@ -0,0 +1,40 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the settings of the domain event bus.
+ * <p>
+ * Settings are bound from the {@code domain.events} properties. Each listener
+ * has a queue of {@code queue-capacity} events; when it is full the publishing
+ * thread handles the event itself. On shutdown the listeners get
+ * {@code shutdown-timeout-ms} milliseconds to finish their queues.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "domain.events")
+public class DomainEventProperties {
+
+	private int queueCapacity = 1024;
+	private long shutdownTimeoutMs = 5000;
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public long getShutdownTimeoutMs() {
+		return shutdownTimeoutMs;
+	}
+
+	public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+		this.shutdownTimeoutMs = shutdownTimeoutMs;
+	}
+}
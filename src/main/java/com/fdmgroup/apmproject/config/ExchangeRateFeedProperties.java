@@ -0,0 +1,68 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the settings of the external exchange rate feed.
+ * <p>
+ * Settings are bound from the {@code fx.feed} properties. Rates are fetched
+ * from {@code url}, giving up after {@code connect-timeout-ms} to connect and
+ * {@code read-timeout-ms} to read. After {@code failure-threshold} failures in
+ * a row the feed is not called for {@code open-ms} milliseconds, after which
+ * one call probes whether it has recovered.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "fx.feed")
+public class ExchangeRateFeedProperties {
+
+	private String url = "http://www.floatrates.com/daily/usd.json";
+	private int connectTimeoutMs = 2000;
+	private int readTimeoutMs = 5000;
+	private int failureThreshold = 3;
+	private long openMs = 60000;
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public int getConnectTimeoutMs() {
+		return connectTimeoutMs;
+	}
+
+	public void setConnectTimeoutMs(int connectTimeoutMs) {
+		this.connectTimeoutMs = connectTimeoutMs;
+	}
+
+	public int getReadTimeoutMs() {
+		return readTimeoutMs;
+	}
+
+	public void setReadTimeoutMs(int readTimeoutMs) {
+		this.readTimeoutMs = readTimeoutMs;
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+
+	public long getOpenMs() {
+		return openMs;
+	}
+
+	public void setOpenMs(long openMs) {
+		this.openMs = openMs;
+	}
+}
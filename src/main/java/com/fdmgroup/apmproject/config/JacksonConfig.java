@@ -0,0 +1,36 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * This class configures the application's shared Jackson ObjectMapper, which
+ * Spring MVC uses for every JSON response.
+ * <p>
+ * Dates are written as ISO-8601 strings. REST API summaries are annotated
+ * with the {@link #FIELDS_FILTER} filter; by default it writes every property,
+ * and a request can replace it to select only some fields.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+public class JacksonConfig {
+
+	/**
+	 * The id of the property filter used for sparse fieldsets.
+	 */
+	public static final String FIELDS_FILTER = "fields";
+
+	@Bean
+	public Jackson2ObjectMapperBuilderCustomizer objectMapperCustomizer() {
+		return builder -> builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.filters(new SimpleFilterProvider().addFilter(FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+	}
+}
@@ -0,0 +1,27 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class enables the {@code @Timed} annotation on Spring beans, so that
+ * business hot paths are timed and counted in the shared meter registry.
+ * <p>
+ * HTTP requests, repository calls, the HikariCP pool, the JVM and Tomcat's
+ * threads are measured by Spring Boot itself; see application.properties.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+public class MetricsConfig {
+
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry registry) {
+		return new TimedAspect(registry);
+	}
+}
@@ -0,0 +1,79 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the settings of the outbox relay.
+ * <p>
+ * Settings are bound from the {@code outbox.relay} properties. Each consumer is
+ * polled every {@code poll-interval-ms} milliseconds for up to
+ * {@code batch-size} events. A gap in the event ids is waited on until the
+ * event after it is {@code settle-ms} old, so that a transaction that took an
+ * earlier id but committed later is not skipped. An event a consumer fails on
+ * {@code max-attempts} times in a row is parked as a dead letter. Events every
+ * consumer has handled are deleted every {@code cleanup-interval-ms}.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "outbox.relay")
+public class OutboxProperties {
+
+	private boolean enabled = true;
+	private long pollIntervalMs = 500;
+	private int batchSize = 200;
+	private long settleMs = 1000;
+	private long cleanupIntervalMs = 60_000;
+	private int maxAttempts = 10;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getPollIntervalMs() {
+		return pollIntervalMs;
+	}
+
+	public void setPollIntervalMs(long pollIntervalMs) {
+		this.pollIntervalMs = pollIntervalMs;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public long getSettleMs() {
+		return settleMs;
+	}
+
+	public void setSettleMs(long settleMs) {
+		this.settleMs = settleMs;
+	}
+
+	public long getCleanupIntervalMs() {
+		return cleanupIntervalMs;
+	}
+
+	public void setCleanupIntervalMs(long cleanupIntervalMs) {
+		this.cleanupIntervalMs = cleanupIntervalMs;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public void setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = maxAttempts;
+	}
+}
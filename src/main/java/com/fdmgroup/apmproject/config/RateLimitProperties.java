@@ -0,0 +1,108 @@
+package com.fdmgroup.apmproject.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the token-bucket budgets used to throttle the purchase API.
+ * <p>
+ * Budgets are bound from the {@code purchase.rate-limit} properties. Every
+ * credit card shares the {@code card} budget, while POS clients receive the
+ * {@code client} budget unless a dedicated budget is configured for their
+ * client id under {@code clients}.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "purchase.rate-limit")
+public class RateLimitProperties {
+
+	private boolean enabled = true;
+	private String clientHeader = "X-Client-Id";
+	private Budget card = new Budget(5, 0.2);
+	private Budget client = new Budget(100, 50);
+	private Map<String, Budget> clients = new HashMap<>();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getClientHeader() {
+		return clientHeader;
+	}
+
+	public void setClientHeader(String clientHeader) {
+		this.clientHeader = clientHeader;
+	}
+
+	public Budget getCard() {
+		return card;
+	}
+
+	public void setCard(Budget card) {
+		this.card = card;
+	}
+
+	public Budget getClient() {
+		return client;
+	}
+
+	public void setClient(Budget client) {
+		this.client = client;
+	}
+
+	public Map<String, Budget> getClients() {
+		return clients;
+	}
+
+	public void setClients(Map<String, Budget> clients) {
+		this.clients = clients;
+	}
+
+	/**
+	 * A token-bucket budget: the bucket holds at most {@code capacity} tokens and
+	 * regains {@code refillPerSecond} tokens every second.
+	 */
+	public static class Budget {
+		private int capacity;
+		private double refillPerSecond;
+
+		public Budget() {
+		}
+
+		public Budget(int capacity, double refillPerSecond) {
+			setCapacity(capacity);
+			setRefillPerSecond(refillPerSecond);
+		}
+
+		public int getCapacity() {
+			return capacity;
+		}
+
+		public void setCapacity(int capacity) {
+			this.capacity = capacity;
+		}
+
+		public double getRefillPerSecond() {
+			return refillPerSecond;
+		}
+
+		public void setRefillPerSecond(double refillPerSecond) {
+			this.refillPerSecond = refillPerSecond;
+		}
+
+		@Override
+		public String toString() {
+			return "Budget [capacity=" + capacity + ", refillPerSecond=" + refillPerSecond + "]";
+		}
+	}
+}
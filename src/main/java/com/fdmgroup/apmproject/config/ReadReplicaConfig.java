@@ -0,0 +1,81 @@
+package com.fdmgroup.apmproject.config;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class replaces the application's DataSource with one that sends
+ * read-only service methods to a read replica, when
+ * {@code datasource.replica.enabled} is set.
+ * <p>
+ * The primary and the replica have separate connection pools, named "primary"
+ * and "replica" in the {@code hikaricp.*} metrics, so reports and dashboards
+ * on the replica never take connections from money movements on the primary.
+ * The primary pool is configured by the usual {@code spring.datasource}
+ * properties.
+ * <p>
+ * Hibernate normally holds a connection until the entity manager is closed,
+ * which with open-in-view is the end of the request, so the first transaction
+ * of a request would pick the database for all the others. Here it releases
+ * the connection after each transaction instead, so each transaction is routed
+ * on its own.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ * @see ReadWriteRoutingDataSource
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+		return dataSource;
+	}
+
+	@Bean
+	public HikariDataSource replicaDataSource(ReplicaProperties properties) {
+		HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+				.driverClassName(properties.getDriverClassName()).url(properties.getUrl())
+				.username(properties.getUsername()).password(properties.getPassword()).build();
+		dataSource.setPoolName(ReadWriteRoutingDataSource.REPLICA);
+		dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+			@Qualifier("replicaDataSource") DataSource replicaDataSource, ReplicaProperties properties,
+			MeterRegistry meterRegistry) {
+		return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+				properties.getReadYourWritesMs(), meterRegistry, System::currentTimeMillis));
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer connectionPerTransaction() {
+		return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+}
@@ -0,0 +1,206 @@
+package com.fdmgroup.apmproject.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * This class routes each connection to the primary database or to its read
+ * replica.
+ * <p>
+ * A connection goes to the replica only inside a read-only transaction started
+ * by an application service method, i.e. one annotated with
+ * {@code @Transactional(readOnly = true)}. The read-only transactions that
+ * Spring Data repositories open for their own finders stay on the primary, as
+ * money movements read balances through them before writing. Work without an
+ * authenticated user, such as scheduled billing and the domain event
+ * listeners that refresh cached users, also stays on the primary. A user who
+ * wrote within the read-your-writes window is kept on the primary too, so their
+ * own pages never miss their changes because of replication lag. The time of
+ * the write is kept on this instance and also sent to the browser in the
+ * {@value #LAST_WRITE_COOKIE} cookie, so whichever instance serves the next
+ * request keeps the user on the primary without sticky sessions; instance
+ * clocks must agree to well within the window. A request marked with the
+ * {@value #PRIMARY_ONLY_ATTRIBUTE} attribute, such as a page sent with an ETag
+ * taken from the primary, reads only from the primary, so the page never pairs
+ * a new ETag with stale replica data. It must be wrapped in a
+ * {@code LazyConnectionDataSourceProxy}, so that the connection is chosen once
+ * the transaction is marked read-only.
+ * <p>
+ * Connections are counted in the {@code datasource.routing} counter, tagged
+ * with the target.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+	public static final String REPLICA = "replica";
+
+	/** Transactions named after methods of this package may go to the replica. */
+	static final String SERVICE_PACKAGE = "com.fdmgroup.apmproject.service.";
+
+	/** The cookie that carries the time of the user's last write between instances. */
+	public static final String LAST_WRITE_COOKIE = "LAST_WRITE";
+
+	/** The request attribute that keeps every read of the request on the primary. */
+	public static final String PRIMARY_ONLY_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".PRIMARY_ONLY";
+
+	private static final int MAX_TRACKED_WRITERS = 10_000;
+
+	private final long readYourWritesMs;
+	private final LongSupplier clock;
+	private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+	private final Counter primaryConnections;
+	private final Counter replicaConnections;
+
+	/**
+	 * Constructs a new routing DataSource.
+	 *
+	 * @param primary          The primary database, which takes every write.
+	 * @param replica          The read replica.
+	 * @param readYourWritesMs How long a user's reads stay on the primary after
+	 *                         their write.
+	 * @param meterRegistry    The registry the routing counter is published to.
+	 * @param clock            The wall clock, in milliseconds.
+	 */
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, long readYourWritesMs,
+			MeterRegistry meterRegistry, LongSupplier clock) {
+		this.readYourWritesMs = readYourWritesMs;
+		this.clock = clock;
+		this.primaryConnections = Counter.builder("datasource.routing").tag("target", PRIMARY)
+				.description("Connections routed to each database").register(meterRegistry);
+		this.replicaConnections = Counter.builder("datasource.routing").tag("target", REPLICA)
+				.description("Connections routed to each database").register(meterRegistry);
+		setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		String user = currentUser();
+		boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		if (user != null && readOnly && isServiceTransaction() && !isPrimaryOnlyRequest()
+				&& !wroteRecently(user)) {
+			replicaConnections.increment();
+			return REPLICA;
+		}
+		if (user != null && !readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+			recordWrite(user);
+		}
+		primaryConnections.increment();
+		return PRIMARY;
+	}
+
+	/**
+	 * @return Whether the current transaction was started by a service method.
+	 */
+	private static boolean isServiceTransaction() {
+		String name = TransactionSynchronizationManager.getCurrentTransactionName();
+		return name != null && name.startsWith(SERVICE_PACKAGE);
+	}
+
+	/**
+	 * @return Whether the current request must read only from the primary.
+	 */
+	private static boolean isPrimaryOnlyRequest() {
+		HttpServletRequest request = currentRequest();
+		return request != null && request.getAttribute(PRIMARY_ONLY_ATTRIBUTE) != null;
+	}
+
+	private boolean wroteRecently(String user) {
+		Long lastWrite = lastWrites.get(user);
+		long now = clock.getAsLong();
+		if (lastWrite != null && now - lastWrite < readYourWritesMs) {
+			return true;
+		}
+		// The write may have gone through another instance
+		HttpServletRequest request = currentRequest();
+		if (request == null || request.getCookies() == null) {
+			return false;
+		}
+		for (Cookie cookie : request.getCookies()) {
+			if (LAST_WRITE_COOKIE.equals(cookie.getName())) {
+				try {
+					return now - Long.parseLong(cookie.getValue()) < readYourWritesMs;
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Starts the user's read-your-writes window, and restarts it when the
+	 * transaction completes so a long transaction does not use it up.
+	 */
+	private void recordWrite(String user) {
+		if (lastWrites.size() >= MAX_TRACKED_WRITERS) {
+			long expired = clock.getAsLong() - readYourWritesMs;
+			lastWrites.values().removeIf(lastWrite -> lastWrite < expired);
+		}
+		lastWrites.put(user, clock.getAsLong());
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					long completed = clock.getAsLong();
+					lastWrites.put(user, completed);
+					sendLastWrite(completed);
+				}
+			});
+		} else {
+			sendLastWrite(clock.getAsLong());
+		}
+	}
+
+	/**
+	 * Tells the browser when the user last wrote, for the instance that serves
+	 * its next request.
+	 */
+	private void sendLastWrite(long lastWrite) {
+		if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+			return;
+		}
+		HttpServletResponse response = attributes.getResponse();
+		if (response == null || response.isCommitted()) {
+			return;
+		}
+		Cookie cookie = new Cookie(LAST_WRITE_COOKIE, Long.toString(lastWrite));
+		cookie.setPath("/");
+		cookie.setHttpOnly(true);
+		cookie.setMaxAge((int) Math.max(1, (readYourWritesMs + 999) / 1000));
+		response.addCookie(cookie);
+	}
+
+	private static HttpServletRequest currentRequest() {
+		return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+				? attributes.getRequest()
+				: null;
+	}
+
+	private static String currentUser() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+	}
+}
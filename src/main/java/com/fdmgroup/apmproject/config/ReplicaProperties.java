@@ -0,0 +1,86 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the settings of the read replica.
+ * <p>
+ * Settings are bound from the {@code datasource.replica} properties. When
+ * {@code enabled}, read-only service methods are sent to the replica at
+ * {@code url} through a pool of at most {@code maximum-pool-size}
+ * connections, except for a user who wrote to the primary within the last
+ * {@code read-your-writes-ms} milliseconds.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaProperties {
+
+	private boolean enabled = false;
+	private String url;
+	private String username;
+	private String password;
+	private String driverClassName;
+	private int maximumPoolSize = 10;
+	private long readYourWritesMs = 5000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public String getDriverClassName() {
+		return driverClassName;
+	}
+
+	public void setDriverClassName(String driverClassName) {
+		this.driverClassName = driverClassName;
+	}
+
+	public int getMaximumPoolSize() {
+		return maximumPoolSize;
+	}
+
+	public void setMaximumPoolSize(int maximumPoolSize) {
+		this.maximumPoolSize = maximumPoolSize;
+	}
+
+	public long getReadYourWritesMs() {
+		return readYourWritesMs;
+	}
+
+	public void setReadYourWritesMs(long readYourWritesMs) {
+		this.readYourWritesMs = readYourWritesMs;
+	}
+}
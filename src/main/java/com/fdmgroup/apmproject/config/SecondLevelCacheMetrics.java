@@ -0,0 +1,68 @@
+package com.fdmgroup.apmproject.config;
+
+import java.util.function.ToDoubleFunction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * This class publishes the hit ratio of every Hibernate second-level cache
+ * region and of the query cache, so that region sizes and TTLs can be tuned.
+ * <p>
+ * The raw hit, miss and put counts are published by Spring Boot's Hibernate
+ * metrics; the ratios here are read from the same statistics, which are only
+ * collected when {@code hibernate.generate_statistics} is enabled.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+	private final Statistics statistics;
+
+	public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (String region : statistics.getSecondLevelCacheRegionNames()) {
+			Gauge.builder("hibernate.cache.hit.ratio", statistics,
+					ratio(stats -> hitCount(stats, region), stats -> missCount(stats, region)))
+					.tag("region", region).description("Hit ratio of a second-level cache region")
+					.register(registry);
+		}
+		Gauge.builder("hibernate.query.cache.hit.ratio", statistics,
+				ratio(Statistics::getQueryCacheHitCount, Statistics::getQueryCacheMissCount))
+				.description("Hit ratio of the query cache").register(registry);
+	}
+
+	// The update timestamps region has no region statistics
+	private static long hitCount(Statistics statistics, String region) {
+		CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+		return regionStatistics == null ? 0 : regionStatistics.getHitCount();
+	}
+
+	private static long missCount(Statistics statistics, String region) {
+		CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+		return regionStatistics == null ? 0 : regionStatistics.getMissCount();
+	}
+
+	private static ToDoubleFunction<Statistics> ratio(ToDoubleFunction<Statistics> hits,
+			ToDoubleFunction<Statistics> misses) {
+		return stats -> {
+			double hitCount = hits.applyAsDouble(stats);
+			double total = hitCount + misses.applyAsDouble(stats);
+			return total == 0 ? 0 : hitCount / total;
+		};
+	}
+}
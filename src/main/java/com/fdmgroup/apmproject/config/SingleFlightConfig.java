@@ -0,0 +1,43 @@
+package com.fdmgroup.apmproject.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.service.SingleFlight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class defines the single-flight groups of the expensive loads that
+ * concurrent requests share: the supported currency catalog, the exchange rate
+ * feed and the admin transaction list.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ * @see SingleFlight
+ */
+@Configuration
+public class SingleFlightConfig {
+
+	@Bean
+	public SingleFlight<String, List<ForeignExchangeCurrency>> currencyCatalogLoads(MeterRegistry meterRegistry) {
+		return new SingleFlight<>("currency-catalog", meterRegistry);
+	}
+
+	@Bean
+	public SingleFlight<String, Map<String, ForeignExchangeCurrency>> exchangeRateLoads(
+			MeterRegistry meterRegistry) {
+		return new SingleFlight<>("fx-refresh", meterRegistry);
+	}
+
+	@Bean
+	public SingleFlight<String, List<Transaction>> adminTransactionLoads(MeterRegistry meterRegistry) {
+		return new SingleFlight<>("admin-transactions", meterRegistry);
+	}
+}
@@ -0,0 +1,153 @@
+package com.fdmgroup.apmproject.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class holds the velocity rules used to screen purchases.
+ * <p>
+ * Rules are bound from the {@code purchase.velocity} properties. Each rule caps
+ * the number and/or amount of purchases a card may make within a window, either
+ * in total or per merchant category or per currency. A limit of zero or less
+ * disables that part of the rule.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+@ConfigurationProperties(prefix = "purchase.velocity")
+public class VelocityProperties {
+
+	private boolean enabled = true;
+	private int maxCounters = 1 << 18;
+	private double ewmaAlpha = 0.1;
+	private double outlierFactor = 4;
+	private int outlierWarmup = 5;
+	private List<Rule> rules = new ArrayList<>();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMaxCounters() {
+		return maxCounters;
+	}
+
+	public void setMaxCounters(int maxCounters) {
+		this.maxCounters = maxCounters;
+	}
+
+	public double getEwmaAlpha() {
+		return ewmaAlpha;
+	}
+
+	public void setEwmaAlpha(double ewmaAlpha) {
+		this.ewmaAlpha = ewmaAlpha;
+	}
+
+	public double getOutlierFactor() {
+		return outlierFactor;
+	}
+
+	public void setOutlierFactor(double outlierFactor) {
+		this.outlierFactor = outlierFactor;
+	}
+
+	public int getOutlierWarmup() {
+		return outlierWarmup;
+	}
+
+	public void setOutlierWarmup(int outlierWarmup) {
+		this.outlierWarmup = outlierWarmup;
+	}
+
+	public List<Rule> getRules() {
+		return rules;
+	}
+
+	public void setRules(List<Rule> rules) {
+		this.rules = rules;
+	}
+
+	/**
+	 * The sliding windows a rule can be evaluated over.
+	 */
+	public enum Window {
+		MINUTE, HOUR, DAY
+	}
+
+	/**
+	 * What a rule counts purchases by: the card as a whole, the card within one
+	 * merchant category, or the card within one currency.
+	 */
+	public enum Scope {
+		CARD, MCC, CURRENCY
+	}
+
+	/**
+	 * A velocity rule: at most {@code maxCount} purchases and at most
+	 * {@code maxAmount} spent per {@code scope} within the {@code window}.
+	 */
+	public static class Rule {
+		private Window window = Window.HOUR;
+		private Scope scope = Scope.CARD;
+		private int maxCount;
+		private double maxAmount;
+
+		public Rule() {
+		}
+
+		public Rule(Window window, Scope scope, int maxCount, double maxAmount) {
+			setWindow(window);
+			setScope(scope);
+			setMaxCount(maxCount);
+			setMaxAmount(maxAmount);
+		}
+
+		public Window getWindow() {
+			return window;
+		}
+
+		public void setWindow(Window window) {
+			this.window = window;
+		}
+
+		public Scope getScope() {
+			return scope;
+		}
+
+		public void setScope(Scope scope) {
+			this.scope = scope;
+		}
+
+		public int getMaxCount() {
+			return maxCount;
+		}
+
+		public void setMaxCount(int maxCount) {
+			this.maxCount = maxCount;
+		}
+
+		public double getMaxAmount() {
+			return maxAmount;
+		}
+
+		public void setMaxAmount(double maxAmount) {
+			this.maxAmount = maxAmount;
+		}
+
+		@Override
+		public String toString() {
+			return "Rule [window=" + window + ", scope=" + scope + ", maxCount=" + maxCount + ", maxAmount="
+					+ maxAmount + "]";
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.fdmgroup.apmproject.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fdmgroup.apmproject.controller.ConditionalGetInterceptor;
+
+/**
+ * This class registers the application's Spring MVC interceptors.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+	@Autowired
+	private ConditionalGetInterceptor conditionalGetInterceptor;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		// Pages that show nothing but the logged-in user's own data
+		registry.addInterceptor(conditionalGetInterceptor).addPathPatterns("/dashboard", "/bankaccount/dashboard",
+				"/userCards");
+	}
+}
@@ -16,15 +16,20 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.AuditAction;
 import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
 import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.model.TransferCompleted;
 import com.fdmgroup.apmproject.model.User;
 import com.fdmgroup.apmproject.service.AccountService;
+import com.fdmgroup.apmproject.service.AuditJournal;
+import com.fdmgroup.apmproject.service.DomainEventBus;
 import com.fdmgroup.apmproject.service.ForeignExchangeCurrencyService;
 import com.fdmgroup.apmproject.service.StatusService;
 import com.fdmgroup.apmproject.service.TransactionService;
 import com.fdmgroup.apmproject.service.UserService;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.servlet.http.HttpSession;
 
 /**
@@ -55,6 +60,12 @@ public class AccountController {
 	@Autowired
 	private UserService userService;
 
+	@Autowired
+	private AuditJournal auditJournal;
+
+	@Autowired
+	private DomainEventBus domainEventBus;
+
 	private static final Logger LOGGER = LogManager.getLogger(AccountController.class);
 
 	private final int LEASTINITIALDEPOSIT = 5000;
@@ -121,7 +132,7 @@ public class AccountController {
 		// If user has accounts, both current list of accounts and supported currencies
 		// will be added to model for front-end processing.
 		model.addAttribute("accounts", accounts);
-		LOGGER.info("Currencies List: " + currenciesList);
+		LOGGER.debug("{} supported currencies", currenciesList.size());
 		model.addAttribute("currencies", currenciesList);
 
 		// Check for the flash attribute directly in the model. If present, it adds to
@@ -146,6 +157,7 @@ public class AccountController {
 	 *                               error messages to the next request.
 	 * @return The name of the view to render.
 	 */
+	@Timed(value = "account.money.movements", extraTags = { "type", "withdrawal" })
 	@PostMapping("/bankaccount/withdrawal")
 	public String processWithdrawal(@RequestParam("account") long accountId,
 			@RequestParam("currency") String withdrawalCurrencyCode, @RequestParam BigDecimal amount,
@@ -173,14 +185,13 @@ public class AccountController {
 		// If balance in account is less than withdrawal amount, user redirected back to
 		// withdrawal page + errorInsufficient flash attribute added for subsequent use.
 		if (retrievedAccountBalance.compareTo(adjustedAmount) < 0) {
-			LOGGER.info(
-					"Bank account id" + retrievedAccount.getAccountName() + "has insufficient money for withdrawal");
+			LOGGER.info("Bank account {} has insufficient money for withdrawal", retrievedAccount.getAccountName());
 			redirectAttributes.addFlashAttribute("errorInsufficient", true);
 			return "redirect:/bankaccount/withdrawal";
 		}
 
 		// Assuming sufficient amount, proceed and log withdrawal.
-		LOGGER.info("Processing withdrawal for account " + retrievedAccount.getAccountNumber());
+		LOGGER.info("Processing withdrawal for account {}", retrievedAccount.getAccountNumber());
 		BigDecimal newAccountBalance = retrievedAccountBalance.subtract(adjustedAmount);
 		retrievedAccount.setBalance(newAccountBalance.doubleValue());
 		Transaction transaction;
@@ -199,6 +210,8 @@ public class AccountController {
 		transactionService.persist(transaction);
 		retrievedAccount.setTransactions(transaction);
 		accountService.update(retrievedAccount);
+		auditJournal.append(AuditAction.WITHDRAWAL, "account/" + retrievedAccount.getAccountId(),
+				retrievedAccountBalance.doubleValue(), retrievedAccount.getBalance());
 		currentUser.setAccountList(accountService.findAllAccountsByUserId(currentUser.getUserId()));
 		userService.update(currentUser);
 		return "redirect:/bankaccount/dashboard";
@@ -242,6 +255,7 @@ public class AccountController {
 	 * @param currencyCode  The currency code of the deposit amount.
 	 * @return The name of the view to render.
 	 */
+	@Timed(value = "account.money.movements", extraTags = { "type", "deposit" })
 	@PostMapping("/bankaccount/deposit")
 	public String deposit(@RequestParam("accountId") long accountId,
 			@RequestParam("depositAmount") double depositAmount, @RequestParam("currency") String currencyCode) {
@@ -259,8 +273,11 @@ public class AccountController {
 		Double updatedBalance = accountDeposited.getBalance() + convertedAmount.doubleValue();
 
 		// Update the account balance
+		double previousBalance = accountDeposited.getBalance();
 		accountDeposited.setBalance(updatedBalance);
 		accountService.update(accountDeposited);
+		auditJournal.append(AuditAction.DEPOSIT, "account/" + accountDeposited.getAccountId(), previousBalance,
+				updatedBalance);
 
 		Transaction transaction;
 		if (currencyCode.equals(accountCurrency.getCode())) {
@@ -348,7 +365,7 @@ public class AccountController {
 			transactionService.persist(transaction);
 			currentUser.setAccountList(accountService.findAllAccountsByUserId(currentUser.getUserId()));
 			userService.update(currentUser);
-			LOGGER.info("Bank account number " + accountCreated.getAccountNumber() + "created");
+			LOGGER.info("Bank account number {} created", accountCreated.getAccountNumber());
 			return "redirect:/bankaccount/dashboard";
 		}
 	}
@@ -396,6 +413,7 @@ public class AccountController {
 	 *                                error messages to the next request.
 	 * @return The name of the view to render.
 	 */
+	@Timed(value = "account.money.movements", extraTags = { "type", "transfer" })
 	@PostMapping("/bankaccount/transfer")
 	public String transferMoney(@RequestParam("account") long accountId,
 			@RequestParam("transferAmount") Double transferAmount,
@@ -443,12 +461,18 @@ public class AccountController {
 			} else if (!recipientAccount.isEmpty()
 					&& recipientAccount.get().getAccountStatus() != statusService.findByStatusName("Pending")) {
 				// update the accounts' balance
-				accountFromBalance.setBalance(accountFromBalance.getBalance() - convertedAmount);
+				double previousBalance = accountFromBalance.getBalance();
+				accountFromBalance.setBalance(previousBalance - convertedAmount);
 				accountService.update(accountFromBalance);
+				auditJournal.append(AuditAction.TRANSFER_OUT, "account/" + accountFromBalance.getAccountId(),
+						previousBalance, accountFromBalance.getBalance());
 
 				// Update internal account for both recipient and originalAccount
-				recipientAccount.get().setBalance(recipientAccount.get().getBalance() + convertedAmount);
+				double previousRecipientBalance = recipientAccount.get().getBalance();
+				recipientAccount.get().setBalance(previousRecipientBalance + convertedAmount);
 				accountService.update(recipientAccount.get());
+				auditJournal.append(AuditAction.TRANSFER_IN, "account/" + recipientAccount.get().getAccountId(),
+						previousRecipientBalance, recipientAccount.get().getBalance());
 
 				// Retrieve relevant userAccounts
 				User transfereeUser = accountFromBalance.getAccountUser();
@@ -480,15 +504,19 @@ public class AccountController {
 				// Creating both transactions onto database and logging.
 				transactionService.persist(internalTransactionOutflow);
 				transactionService.persist(internalTransactionInflow);
-				transfereeUser.setAccountList(accountService.findAllAccountsByUserId(transfereeUser.getUserId()));
-				userService.update(transfereeUser);
+				domainEventBus.publish(new TransferCompleted(internalTransactionOutflow.getTransactionId(),
+						accountFromBalance.getAccountId(), transfereeUser.getUserId(),
+						recipientAccount.get().getAccountNumber(), convertedAmount, true));
 				LOGGER.info("Internal Transfer Success!");
 				return "redirect:/bankaccount/dashboard";
 			} else {
 				// Transferred to external account.
 				// update the transferee accounts' balance on database
-				accountFromBalance.setBalance(accountFromBalance.getBalance() - convertedAmount);
+				double previousBalance = accountFromBalance.getBalance();
+				accountFromBalance.setBalance(previousBalance - convertedAmount);
 				accountService.update(accountFromBalance);
+				auditJournal.append(AuditAction.TRANSFER_OUT, "account/" + accountFromBalance.getAccountId(),
+						previousBalance, accountFromBalance.getBalance());
 				User transfereeUser = accountFromBalance.getAccountUser();
 
 				// Create transaction for transferee account and persisting it to database. Logs
@@ -506,8 +534,9 @@ public class AccountController {
 							description);
 				}
 				transactionService.persist(externalTransactionOutflow);
-				transfereeUser.setAccountList(accountService.findAllAccountsByUserId(transfereeUser.getUserId()));
-				userService.update(transfereeUser);
+				domainEventBus.publish(new TransferCompleted(externalTransactionOutflow.getTransactionId(),
+						accountFromBalance.getAccountId(), transfereeUser.getUserId(), accountNumber, convertedAmount,
+						false));
 				LOGGER.info("External Transfer Success!");
 				return "redirect:/bankaccount/dashboard";
 			}
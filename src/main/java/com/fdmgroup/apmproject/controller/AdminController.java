@@ -16,11 +16,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.AuditAction;
+import com.fdmgroup.apmproject.model.CardStatusChanged;
 import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.Status;
 import com.fdmgroup.apmproject.model.Transaction;
 import com.fdmgroup.apmproject.model.User;
 import com.fdmgroup.apmproject.service.AccountService;
+import com.fdmgroup.apmproject.service.AuditJournal;
 import com.fdmgroup.apmproject.service.CreditCardService;
+import com.fdmgroup.apmproject.service.DomainEventBus;
+import com.fdmgroup.apmproject.service.SingleFlight;
 import com.fdmgroup.apmproject.service.StatusService;
 import com.fdmgroup.apmproject.service.UserService;
 
@@ -49,6 +55,15 @@ public class AdminController {
 	@Autowired
 	private CreditCardService creditCardService;
 
+	@Autowired
+	private AuditJournal auditJournal;
+
+	@Autowired
+	private DomainEventBus domainEventBus;
+
+	@Autowired
+	private SingleFlight<String, List<Transaction>> adminTransactionLoads;
+
 	private static final Logger LOGGER = LogManager.getLogger(AccountController.class);
 
 	/**
@@ -143,11 +158,14 @@ public class AdminController {
 		
 		//Retrieves selected bank account and updates selected bank account status. Updates bank account details onto database
 		Account account = accountService.findAccountByAccountNumber(accountNumber);
+		int previousStatusId = statusId(account.getAccountStatus());
 		account.setAccountStatus(statusService.findByStatusName(status));
 		accountService.update(account);
+		auditJournal.append(AuditAction.ACCOUNT_STATUS, "account/" + account.getAccountId(), previousStatusId,
+				statusId(account.getAccountStatus()));
 
-		LOGGER.info("Account Id: " + account.getAccountId() + "'s status has been setted to " + status + " by "
-				+ ((User) session.getAttribute("loggedUser")).getUsername());
+		LOGGER.info("Account Id: {}'s status has been setted to {} by {}", account.getAccountId(), status,
+				((User) session.getAttribute("loggedUser")).getUsername());
 		
 		//Redirects admin user to webpage that shows all bank account under user.
 		long userId = account.getAccountUser().getUserId();
@@ -165,12 +183,18 @@ public class AdminController {
 	public String approveCredicard(@RequestParam("creditCardNumber") String creditCardNumber, HttpSession session) {
 		// Retrieves pending credit card based on credit card number, updates the status and updates entry onto the database.
 		CreditCard creditCard = creditCardService.findByCreditCardNumber(creditCardNumber);
+		int previousStatusId = statusId(creditCard.getCreditCardStatus());
+		String previousStatus = statusName(creditCard.getCreditCardStatus());
 		creditCard.setCreditCardStatus(statusService.findByStatusName("Approved"));
 		creditCardService.update(creditCard);
+		auditJournal.append(AuditAction.CARD_STATUS, "creditcard/" + creditCard.getCreditCardId(), previousStatusId,
+				statusId(creditCard.getCreditCardStatus()));
+		domainEventBus.publish(new CardStatusChanged(creditCard.getCreditCardId(),
+				creditCard.getCreditCardUser().getUserId(), previousStatus, statusName(creditCard.getCreditCardStatus())));
 		
 		// Logs change and brings admin user back to credit card page.
-		LOGGER.info("creditcard Id: " + creditCard.getCreditCardId() + " has been approved by "
-				+ ((User) session.getAttribute("loggedUser")).getUsername());
+		LOGGER.info("creditcard Id: {} has been approved by {}", creditCard.getCreditCardId(),
+				((User) session.getAttribute("loggedUser")).getUsername());
 		long userId = creditCard.getCreditCardUser().getUserId();
 		return "redirect:/admin/creditcards?userId=" + userId;
 	}
@@ -189,13 +213,18 @@ public class AdminController {
 		
 		// Retrieves credit card based on credit card number, updates the status and updates entry onto the database.
 		CreditCard creditCard = creditCardService.findByCreditCardNumber(creditCardNumber);
-
+		int previousStatusId = statusId(creditCard.getCreditCardStatus());
+		String previousStatus = statusName(creditCard.getCreditCardStatus());
 		creditCard.setCreditCardStatus(statusService.findByStatusName(status));
 		creditCardService.update(creditCard);
+		auditJournal.append(AuditAction.CARD_STATUS, "creditcard/" + creditCard.getCreditCardId(), previousStatusId,
+				statusId(creditCard.getCreditCardStatus()));
+		domainEventBus.publish(new CardStatusChanged(creditCard.getCreditCardId(),
+				creditCard.getCreditCardUser().getUserId(), previousStatus, statusName(creditCard.getCreditCardStatus())));
 		
 		// Logs change and brings admin user back to credit card page.
-		LOGGER.info("creditcard Id: " + creditCard.getCreditCardId() + "'s status has been setted to " + status + " by "
-				+ ((User) session.getAttribute("loggedUser")).getUsername());
+		LOGGER.info("creditcard Id: {}'s status has been setted to {} by {}", creditCard.getCreditCardId(), status,
+				((User) session.getAttribute("loggedUser")).getUsername());
 		long userId = creditCard.getCreditCardUser().getUserId();
 		return "redirect:/admin/creditcards?userId=" + userId;
 	}
@@ -212,27 +241,35 @@ public class AdminController {
 		//Retrieves current admin user and list of all active users, credit card, bank account and transactions.
 		User returnedUser = (User) session.getAttribute("loggedUser");
 		List<User> userList = userService.findAllUsers();
-		List<CreditCard> ccList = creditCardService.findAllCreditCards();
-		List<Account> accountList = accountService.getAllAccounts();
+		// Admins opening the page together share one build of the list
+		List<Transaction> transactionList = adminTransactionLoads.execute("all", this::collectAllTransactions);
+		
+		//Adds list of transactions depending if credit card or bank account is called by front-end and adds the model attributes to be shown on the front-end.
+		model.addAttribute("transactions", transactionList);
+		model.addAttribute("user", returnedUser);
+		model.addAttribute("users", userList);
+		return "admin/admin-transactions";
+	}
+
+	/**
+	 * Collects the transactions of all credit cards, followed by those of all bank
+	 * accounts.
+	 *
+	 * @return An unmodifiable list of the transactions.
+	 */
+	private List<Transaction> collectAllTransactions() {
 		List<Transaction> transactionList = new ArrayList<Transaction>();
 		
 		// Prepares list of transactions for all credit cards in the list
-		for (CreditCard cc : ccList) {
-			List<Transaction> transaction = cc.getTransactions();
-			transactionList.addAll(transaction);
+		for (CreditCard cc : creditCardService.findAllCreditCards()) {
+			transactionList.addAll(cc.getTransactions());
 		}
 		
 		//Prepares list of transactions for all bank accounts in the list
-		for (Account a : accountList) {
-			List<Transaction> transaction = a.getTransactions();
-			transactionList.addAll(transaction);
+		for (Account a : accountService.getAllAccounts()) {
+			transactionList.addAll(a.getTransactions());
 		}
-		
-		//Adds list of transactions depending if credit card or bank account is called by front-end and adds the model attributes to be shown on the front-end.
-		model.addAttribute("transactions", transactionList);
-		model.addAttribute("user", returnedUser);
-		model.addAttribute("users", userList);
-		return "admin/admin-transactions";
+		return Collections.unmodifiableList(transactionList);
 	}
 	
 	
@@ -426,4 +463,11 @@ public class AdminController {
 		return "/admin/admin-transactions";
 	}
 
+	private static int statusId(Status status) {
+		return status == null ? 0 : status.getStatusId();
+	}
+
+	private static String statusName(Status status) {
+		return status == null ? null : status.getStatusName();
+	}
 }
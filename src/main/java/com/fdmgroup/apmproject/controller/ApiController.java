@@ -0,0 +1,206 @@
+package com.fdmgroup.apmproject.controller;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fdmgroup.apmproject.config.JacksonConfig;
+import com.fdmgroup.apmproject.model.BalanceSummary;
+import com.fdmgroup.apmproject.model.PagedResponse;
+import com.fdmgroup.apmproject.model.User;
+import com.fdmgroup.apmproject.service.AccountService;
+import com.fdmgroup.apmproject.service.CreditCardService;
+import com.fdmgroup.apmproject.service.TransactionService;
+import com.fdmgroup.apmproject.service.UserService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * This class is a REST controller that serves the logged-in user's accounts,
+ * credit cards, transactions and balances as JSON.
+ * <p>
+ * Every response is built from query projections, so no entity graph is
+ * loaded. Each endpoint accepts a {@code fields} parameter, e.g.
+ * {@code ?fields=accountId,balance}, that limits the properties written for
+ * each item; unknown names are ignored. Transactions are paginated, newest
+ * first.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class ApiController {
+	@Autowired
+	private AccountService accountService;
+
+	@Autowired
+	private CreditCardService creditCardService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private UserService userService;
+
+	static final int MAX_PAGE_SIZE = 100;
+
+	private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "transactionDate", "transactionId");
+
+	private static final Logger LOGGER = LogManager.getLogger(ApiController.class);
+
+	/**
+	 * Lists the logged-in user's bank accounts.
+	 *
+	 * @param fields  The comma-separated properties to return, or null for all.
+	 * @param session The HTTP session containing the logged-in user.
+	 * @return The account summaries.
+	 */
+	@GetMapping("/accounts")
+	public ResponseEntity<MappingJacksonValue> accounts(@RequestParam(name = "fields", required = false) String fields,
+			HttpSession session) {
+		User loggedUser = (User) session.getAttribute("loggedUser");
+		if (loggedUser == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		return ResponseEntity
+				.ok(select(accountService.findAccountSummariesByUserId(loggedUser.getUserId()), fields));
+	}
+
+	/**
+	 * Lists the logged-in user's credit cards.
+	 *
+	 * @param fields  The comma-separated properties to return, or null for all.
+	 * @param session The HTTP session containing the logged-in user.
+	 * @return The credit card summaries.
+	 */
+	@GetMapping("/cards")
+	public ResponseEntity<MappingJacksonValue> cards(@RequestParam(name = "fields", required = false) String fields,
+			HttpSession session) {
+		User loggedUser = (User) session.getAttribute("loggedUser");
+		if (loggedUser == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		return ResponseEntity
+				.ok(select(creditCardService.findCreditCardSummariesByUserId(loggedUser.getUserId()), fields));
+	}
+
+	/**
+	 * Returns one page of the transactions made from or to one of the logged-in
+	 * user's bank accounts.
+	 *
+	 * @param accountId The id of the account.
+	 * @param page      The zero-based page number.
+	 * @param size      The page size, at most {@value #MAX_PAGE_SIZE}.
+	 * @param fields    The comma-separated properties to return, or null for all.
+	 * @param session   The HTTP session containing the logged-in user.
+	 * @return The page of transaction summaries, or 404 if the account is not the
+	 *         user's.
+	 */
+	@GetMapping("/accounts/{id}/transactions")
+	public ResponseEntity<MappingJacksonValue> accountTransactions(@PathVariable("id") long accountId,
+			@RequestParam(name = "page", defaultValue = "0") int page,
+			@RequestParam(name = "size", defaultValue = "20") int size,
+			@RequestParam(name = "fields", required = false) String fields, HttpSession session) {
+		User loggedUser = (User) session.getAttribute("loggedUser");
+		if (loggedUser == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		if (!accountService.isAccountOwnedBy(accountId, loggedUser.getUserId())) {
+			LOGGER.warn("Account {} does not belong to the logged-in user", accountId);
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(select(PagedResponse.of(
+				transactionService.findTransactionSummariesByAccountId(accountId, pageRequest(page, size))), fields));
+	}
+
+	/**
+	 * Returns one page of the transactions made with one of the logged-in user's
+	 * credit cards.
+	 *
+	 * @param creditCardId The id of the credit card.
+	 * @param page         The zero-based page number.
+	 * @param size         The page size, at most {@value #MAX_PAGE_SIZE}.
+	 * @param fields       The comma-separated properties to return, or null for
+	 *                     all.
+	 * @param session      The HTTP session containing the logged-in user.
+	 * @return The page of transaction summaries, or 404 if the card is not the
+	 *         user's.
+	 */
+	@GetMapping("/cards/{id}/transactions")
+	public ResponseEntity<MappingJacksonValue> cardTransactions(@PathVariable("id") long creditCardId,
+			@RequestParam(name = "page", defaultValue = "0") int page,
+			@RequestParam(name = "size", defaultValue = "20") int size,
+			@RequestParam(name = "fields", required = false) String fields, HttpSession session) {
+		User loggedUser = (User) session.getAttribute("loggedUser");
+		if (loggedUser == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		if (!creditCardService.isCreditCardOwnedBy(creditCardId, loggedUser.getUserId())) {
+			LOGGER.warn("Credit card {} does not belong to the logged-in user", creditCardId);
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(select(PagedResponse.of(
+				transactionService.findTransactionSummariesByCreditCardId(creditCardId, pageRequest(page, size))),
+				fields));
+	}
+
+	/**
+	 * Returns the logged-in user's total account balance and credit card usage.
+	 *
+	 * @param fields  The comma-separated properties to return, or null for all.
+	 * @param session The HTTP session containing the logged-in user.
+	 * @return The balances.
+	 */
+	@GetMapping("/balances")
+	public ResponseEntity<MappingJacksonValue> balances(@RequestParam(name = "fields", required = false) String fields,
+			HttpSession session) {
+		User loggedUser = (User) session.getAttribute("loggedUser");
+		if (loggedUser == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		BalanceSummary balances = userService.findBalanceSummary(loggedUser.getUserId());
+		if (balances == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(select(balances, fields));
+	}
+
+	private static Pageable pageRequest(int page, int size) {
+		return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), NEWEST_FIRST);
+	}
+
+	/**
+	 * Wraps a response body so that only the requested fields of each summary are
+	 * written. Without a selection the shared mapper's default filter writes every
+	 * field.
+	 */
+	static MappingJacksonValue select(Object body, String fields) {
+		MappingJacksonValue value = new MappingJacksonValue(body);
+		if (fields != null && !fields.isBlank()) {
+			Set<String> selected = Arrays.stream(fields.split(",")).map(String::trim).filter(field -> !field.isEmpty())
+					.collect(Collectors.toSet());
+			value.setFilters(new SimpleFilterProvider().addFilter(JacksonConfig.FIELDS_FILTER,
+					SimpleBeanPropertyFilter.filterOutAllExcept(selected)));
+		}
+		return value;
+	}
+}
@@ -0,0 +1,117 @@
+package com.fdmgroup.apmproject.controller;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fdmgroup.apmproject.config.BulkheadProperties;
+import com.fdmgroup.apmproject.config.BulkheadProperties.Partition;
+import com.fdmgroup.apmproject.service.Bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * This class isolates admin and reporting requests from customer requests, so
+ * that a heavy admin page cannot take the request threads and database
+ * connections that purchases depend on.
+ * <p>
+ * Each request is classified into a partition of {@link BulkheadProperties} by
+ * its path or its user's roles, after authentication, and runs inside that
+ * partition's {@link Bulkhead}. A request that a full partition turns away
+ * gets 503 Service Unavailable with a Retry-After header. As a request holds
+ * at most one connection at a time, a partition's concurrency limit also caps
+ * its share of the connection pool.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ * @see Bulkhead
+ * @see com.fdmgroup.apmproject.config.BulkheadConfig
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+	private static Logger logger = LogManager.getLogger(BulkheadFilter.class);
+
+	private final BulkheadProperties properties;
+	private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+	public BulkheadFilter(BulkheadProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		properties.getPartitions()
+				.forEach((name, partition) -> bulkheads.put(name, new Bulkhead(name, partition, meterRegistry)));
+		if (!bulkheads.containsKey(properties.getDefaultPartition())) {
+			throw new IllegalStateException(
+					"The default bulkhead partition " + properties.getDefaultPartition() + " is not configured.");
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		Bulkhead bulkhead = classify(request);
+		if (!bulkhead.tryEnter()) {
+			logger.warn("Request to {} turned away by the full {} partition", request.getRequestURI(),
+					bulkhead.getName());
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+			return;
+		}
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			bulkhead.exit();
+		}
+	}
+
+	/**
+	 * Finds the partition of a request.
+	 *
+	 * @param request The request.
+	 * @return The bulkhead of the first partition matching the request's path or
+	 *         its user's roles, or of the default partition.
+	 */
+	Bulkhead classify(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		for (Map.Entry<String, Partition> entry : properties.getPartitions().entrySet()) {
+			Partition partition = entry.getValue();
+			if (partition.getPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path))
+					|| hasAnyRole(authentication, partition)) {
+				return bulkheads.get(entry.getKey());
+			}
+		}
+		return bulkheads.get(properties.getDefaultPartition());
+	}
+
+	private static boolean hasAnyRole(Authentication authentication, Partition partition) {
+		if (authentication == null || partition.getRoles().isEmpty()) {
+			return false;
+		}
+		for (GrantedAuthority authority : authentication.getAuthorities()) {
+			if (partition.getRoles().contains(authority.getAuthority().replaceFirst("^ROLE_", ""))) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
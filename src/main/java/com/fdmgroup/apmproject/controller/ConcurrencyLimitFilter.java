@@ -0,0 +1,91 @@
+package com.fdmgroup.apmproject.controller;
+
+import java.io.IOException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fdmgroup.apmproject.config.ConcurrencyLimitProperties;
+import com.fdmgroup.apmproject.service.AdaptiveConcurrencyLimiter;
+import com.fdmgroup.apmproject.service.AdaptiveConcurrencyLimiter.Permit;
+import com.fdmgroup.apmproject.service.AdaptiveConcurrencyLimiter.Priority;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * This class sheds requests when the database slows down, instead of letting
+ * them pile up in Tomcat until they all time out.
+ * <p>
+ * Each request needs a permit from the {@link AdaptiveConcurrencyLimiter},
+ * whose limit follows the latency of the requests it lets through. Purchases
+ * and logins are critical and shed last, admin pages are low priority and shed
+ * first. A shed request gets 503 Service Unavailable with a Retry-After
+ * header without touching the database.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ * @see com.fdmgroup.apmproject.config.ConcurrencyLimitConfig
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	private static Logger logger = LogManager.getLogger(ConcurrencyLimitFilter.class);
+
+	private final ConcurrencyLimitProperties properties;
+	private final AdaptiveConcurrencyLimiter limiter;
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+	public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, AdaptiveConcurrencyLimiter limiter) {
+		this.properties = properties;
+		this.limiter = limiter;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		Priority priority = classify(request);
+		Permit permit = limiter.tryAcquire(priority);
+		if (permit == null) {
+			logger.warn("Request to {} shed at a concurrency limit of {}", request.getRequestURI(),
+					(int) limiter.getLimit());
+			response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+			return;
+		}
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			permit.release();
+		}
+	}
+
+	/**
+	 * Finds the priority of a request by its path.
+	 *
+	 * @param request The request.
+	 * @return CRITICAL for the critical paths, LOW for the low priority paths and
+	 *         NORMAL for all others.
+	 */
+	Priority classify(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		if (properties.getCriticalPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+			return Priority.CRITICAL;
+		}
+		if (properties.getLowPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+			return Priority.LOW;
+		}
+		return Priority.NORMAL;
+	}
+}
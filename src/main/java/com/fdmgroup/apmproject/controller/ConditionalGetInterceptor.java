@@ -0,0 +1,65 @@
+package com.fdmgroup.apmproject.controller;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import com.fdmgroup.apmproject.config.ReadWriteRoutingDataSource;
+import com.fdmgroup.apmproject.model.User;
+import com.fdmgroup.apmproject.service.UserDataVersionService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * This class answers refreshes of the logged-in user's dashboards with 304 Not
+ * Modified when none of the user's data has changed since the page was last
+ * sent.
+ * <p>
+ * The weak ETag is taken from the user's data version before the controller
+ * runs, so the check happens before any repository is touched. A page sent
+ * with an ETag is then read only from the primary, as the ETag describes the
+ * primary's data and a lagging replica would tie it to an older page. Pages
+ * carrying flash attributes from a redirect are always rendered.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ * @see UserDataVersionService
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+	private final UserDataVersionService userDataVersionService;
+
+	public ConditionalGetInterceptor(UserDataVersionService userDataVersionService) {
+		this.userDataVersionService = userDataVersionService;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		HttpSession session = request.getSession(false);
+		User loggedUser = session == null ? null : (User) session.getAttribute("loggedUser");
+		if (!"GET".equals(request.getMethod()) || loggedUser == null) {
+			return true;
+		}
+		// The browser must revalidate on every visit and never share the page
+		response.setHeader("Cache-Control", "private, no-cache");
+		Map<String, ?> flashAttributes = RequestContextUtils.getInputFlashMap(request);
+		if (flashAttributes != null && !flashAttributes.isEmpty()) {
+			return true;
+		}
+
+		String etag = userDataVersionService.getETag(loggedUser.getUserId());
+		boolean notModified = new ServletWebRequest(request, response).checkNotModified(etag);
+		userDataVersionService.recordCheck(request.getRequestURI(), notModified);
+		if (!notModified) {
+			request.setAttribute(ReadWriteRoutingDataSource.PRIMARY_ONLY_ATTRIBUTE, Boolean.TRUE);
+		}
+		return !notModified;
+	}
+}
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.AuditAction;
 import com.fdmgroup.apmproject.model.CreditCard;
 import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
 import com.fdmgroup.apmproject.model.MerchantCategoryCode;
@@ -24,6 +25,7 @@ import com.fdmgroup.apmproject.model.Status;
 import com.fdmgroup.apmproject.model.Transaction;
 import com.fdmgroup.apmproject.model.User;
 import com.fdmgroup.apmproject.service.AccountService;
+import com.fdmgroup.apmproject.service.AuditJournal;
 import com.fdmgroup.apmproject.service.CreditCardService;
 import com.fdmgroup.apmproject.service.ForeignExchangeCurrencyService;
 import com.fdmgroup.apmproject.service.MerchantCategoryCodeService;
@@ -65,6 +67,9 @@ public class CreditCardController {
 	@Autowired
 	private AccountService accountService;
 
+	@Autowired
+	private AuditJournal auditJournal;
+
 	private static Logger logger = LogManager.getLogger(CreditCardController.class);
 
 	public CreditCardController() {
@@ -165,7 +170,7 @@ public class CreditCardController {
 				CreditCard createCreditCard = new CreditCard(creditCardNumber, pin, cardLimit, cardType, statusName, 0,
 						loggedUser, localCurrency.getCode());
 				creditCardService.persist(createCreditCard);
-				logger.info("Credit card of number " + creditCardNumber + " created");
+				logger.info("Credit card of number {} created", creditCardNumber);
 
 				// Updates list of credit cards owned by current User and updates to database.
 				loggedUser.setCreditCards(createCreditCard);
@@ -266,15 +271,18 @@ public class CreditCardController {
 		}
 		// Processes new bank account balance, updates it onto database. Creates and
 		// uploads new transaction onto database.
-		account.setBalance(account.getBalance() - transaction.getTransactionAmount());
+		double previousBalance = account.getBalance();
+		account.setBalance(previousBalance - transaction.getTransactionAmount());
 		accountService.update(account);
+		auditJournal.append(AuditAction.BILL_PAYMENT, "account/" + account.getAccountId(), previousBalance,
+				account.getBalance());
 		currentUser.setAccountList(accountService.findAllAccountsByUserId(currentUser.getUserId()));
 		userService.update(currentUser);
 		transactionService.persist(transaction);
 		transactionService.updateCreditCardBalance(transaction);
 
-		logger.info("Payment of" + balanceType + " balance to credit card " + creditCard.getCreditCardNumber()
-				+ " completed");
+		logger.info("Payment of {} balance to credit card {} completed", balanceType,
+				creditCard.getCreditCardNumber());
 
 		// Returns list of credit card current user has and creates list of new credit
 		// cards.
@@ -6,6 +6,8 @@ import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,24 +15,26 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fdmgroup.apmproject.model.CardAuthorization;
 import com.fdmgroup.apmproject.model.CreditCard;
 import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
 import com.fdmgroup.apmproject.model.MerchantCategoryCode;
 import com.fdmgroup.apmproject.model.PaymentException;
 import com.fdmgroup.apmproject.model.PaymentResponse;
+import com.fdmgroup.apmproject.model.PurchasePosted;
 import com.fdmgroup.apmproject.model.PurchaseRequest;
 import com.fdmgroup.apmproject.model.Transaction;
-import com.fdmgroup.apmproject.model.User;
 import com.fdmgroup.apmproject.repository.MerchantCategoryCodeRepository;
-import com.fdmgroup.apmproject.repository.StatusRepository;
 import com.fdmgroup.apmproject.service.AccountService;
 import com.fdmgroup.apmproject.service.CreditCardService;
+import com.fdmgroup.apmproject.service.DomainEventBus;
 import com.fdmgroup.apmproject.service.ForeignExchangeCurrencyService;
-import com.fdmgroup.apmproject.service.PurchaseService;
+import com.fdmgroup.apmproject.service.PurchaseRateLimiter;
 import com.fdmgroup.apmproject.service.TransactionService;
-import com.fdmgroup.apmproject.service.UserService;
+import com.fdmgroup.apmproject.service.VelocityMonitor;
 
-import jakarta.servlet.http.HttpSession;
+import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * This class is a REST controller that handles purchase requests for credit
@@ -51,24 +55,24 @@ public class PurchaseController {
 	private CreditCardService creditCardService;
 
 	@Autowired
-	private StatusRepository statusRepository;
+	private MerchantCategoryCodeRepository merchantCategoryCodeRepository;
 
 	@Autowired
-	private MerchantCategoryCodeRepository merchantCategoryCodeRepository;
+	private DomainEventBus domainEventBus;
 
 	@Autowired
-	private PurchaseService purchaseService;
+	private ForeignExchangeCurrencyService foreignExchangeCurrencyService;
 
 	@Autowired
-	private UserService userService;
+	private TransactionService transactionService;
 
 	@Autowired
-	private ForeignExchangeCurrencyService foreignExchangeCurrencyService;
+	private PurchaseRateLimiter purchaseRateLimiter;
 
 	@Autowired
-	private TransactionService transactionService;
+	private VelocityMonitor velocityMonitor;
 
-	private static final Logger LOGGER = LogManager.getLogger(AccountController.class);
+	private static final Logger LOGGER = LogManager.getLogger(PurchaseController.class);
 
 	@GetMapping("/purchase")
 	public String purchase() {
@@ -89,19 +93,28 @@ public class PurchaseController {
 
 	/**
 	 * Handles a purchase request for a credit card.
+	 * <p>
+	 * Requests over the client or card budget are rejected with HTTP 429 before
+	 * any repository is touched. Authorized purchases are then screened against
+	 * the in-memory velocity rules before they are posted. Once posted, a
+	 * {@link PurchasePosted} event is published for the follow-up work.
 	 *
-	 * @param request The purchase request containing the necessary details.
+	 * @param request     The purchase request containing the necessary details.
+	 * @param httpRequest The servlet request, used to identify the POS client.
 	 * @return A response entity containing the result of the purchase transaction.
 	 */
+	@Timed(value = "purchase.requests", description = "Time taken to authorize and post a card purchase")
 	@PostMapping("/purchase")
-	public ResponseEntity<PaymentResponse> purchase(@RequestBody PurchaseRequest request, HttpSession session) {
-		try {
-			// Get the exchange rate and the converted amount after exchange
-			BigDecimal exchangeRate = foreignExchangeCurrencyService.getExchangeRate(request.getCurrency(),
-					accountService.findAccountByAccountNumber(request.getAccountNumber()).getCurrencyCode());
-			BigDecimal convertedAmount = BigDecimal.valueOf(request.getAmount()).multiply(exchangeRate);
-			request.setAmount(convertedAmount.doubleValue());
+	public ResponseEntity<PaymentResponse> purchase(@RequestBody PurchaseRequest request,
+			HttpServletRequest httpRequest) {
+		// Throttle per client and per card before doing any work
+		if (!purchaseRateLimiter.tryAcquire(httpRequest.getHeader(purchaseRateLimiter.getClientHeader()),
+				httpRequest.getRemoteAddr(), request.getCreditCardNumber())) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1")
+					.body(new PaymentResponse(false, "Too many requests, please try again later."));
+		}
 
+		try {
 			// validation
 			if (request.getAccountName() == null || request.getAccountNumber() == null
 					|| request.getCreditCardNumber() == null || request.getAmount() == 0 || request.getPin() == null
@@ -110,35 +123,55 @@ public class PurchaseController {
 				return ResponseEntity.badRequest().body(new PaymentResponse(false, "All fields are required."));
 			}
 
-			// Validate credit card status, credit limit, and monthly balance
-			CreditCard creditCard = creditCardService.findByCreditCardNumber(request.getCreditCardNumber());
-			if (creditCard == null) {
+			// Validate credit card status, credit limit, and monthly balance against the
+			// cached authorization record
+			CardAuthorization authorization = creditCardService.findAuthorization(request.getCreditCardNumber());
+			if (authorization == null) {
 				LOGGER.info("Invalid credit card number.");
 				return ResponseEntity.badRequest().body(new PaymentResponse(false, "Invalid credit card number."));
 			}
 
-			else if (!creditCard.getCreditCardStatus().equals(statusRepository.findByStatusName("Approved").get())) {
+			// Get the exchange rate and the converted amount after exchange
+			String billingCurrency = authorization.currencyCode() != null ? authorization.currencyCode()
+					: accountService.findAccountByAccountNumber(request.getAccountNumber()).getCurrencyCode();
+			BigDecimal exchangeRate = foreignExchangeCurrencyService.getExchangeRate(request.getCurrency(),
+					billingCurrency);
+			BigDecimal convertedAmount = BigDecimal.valueOf(request.getAmount()).multiply(exchangeRate);
+			request.setAmount(convertedAmount.doubleValue());
+
+			if (!authorization.isApproved()) {
 				LOGGER.info("Credit card is not active.");
 				return ResponseEntity.badRequest().body(new PaymentResponse(false, "Credit card is not active."));
 			}
 
-			else if (creditCard.getCardLimit() < request.getAmount()) {
+			else if (authorization.cardLimit() < request.getAmount()) {
 				LOGGER.info("Insufficient credit limit.");
 				return ResponseEntity.badRequest().body(new PaymentResponse(false, "Insufficient credit limit."));
 			}
 
-			else if ((creditCard.getCardLimit() - creditCard.getAmountUsed()) < request.getAmount()) {
+			else if (authorization.availableCredit() < request.getAmount()) {
 				LOGGER.info("Insufficient credit available.");
 				return ResponseEntity.badRequest().body(new PaymentResponse(false, "Insufficient credit available."));
-			} else if (!(creditCard.getPin().equals(request.getPin()))) {
+			} else if (!authorization.pinMatches(request.getPin())) {
 
 				LOGGER.info("Invalid PIN.");
 				return ResponseEntity.badRequest().body(new PaymentResponse(false, "Invalid PIN."));
 			} else {
 
-				// process transaction
+				// screen against the velocity rules before posting
 				Optional<MerchantCategoryCode> transactionMerchantCategoryCode = merchantCategoryCodeRepository
 						.findByMerchantCategory(request.getMcc());
+				String velocityDecline = velocityMonitor.screen(authorization.creditCardId(),
+						transactionMerchantCategoryCode.map(MerchantCategoryCode::getMerchantCategoryCodeNumber)
+								.orElse(0),
+						request.getCurrency(), request.getAmount());
+				if (velocityDecline != null) {
+					LOGGER.info(velocityDecline);
+					return ResponseEntity.badRequest().body(new PaymentResponse(false, velocityDecline));
+				}
+
+				// process transaction
+				CreditCard creditCard = creditCardService.findById(authorization.creditCardId());
 				ForeignExchangeCurrency foreignExchangeCurrency = foreignExchangeCurrencyService
 						.getCurrencyByCode(request.getCurrency());
 
@@ -149,16 +182,16 @@ public class PurchaseController {
 				transactionService.persist(transaction);
 				transactionService.updateCreditCardBalance(transaction);
 
-				// update creditcard and account
-				purchaseService.purchase(request);
-				User user = creditCard.getCreditCardUser();
-				session.setAttribute("loggedUser", user);
+				// refresh the card holder's data off the request thread
+				domainEventBus.publish(new PurchasePosted(transaction.getTransactionId(), creditCard.getCreditCardId(),
+						creditCard.getCreditCardUser().getUserId(), transaction.getTransactionAmount(),
+						transaction.getCashback()));
 
 				return ResponseEntity.ok(new PaymentResponse(true, "Transaction completed successfully."));
 			}
 
 		} catch (PaymentException e) {
-			System.out.print("error");
+			LOGGER.warn("Purchase rejected: {}", e.getMessage());
 			return ResponseEntity.badRequest().body(new PaymentResponse(false, e.getMessage()));
 		}
 	}
@@ -21,8 +21,8 @@ import com.fdmgroup.apmproject.model.Transaction;
 import com.fdmgroup.apmproject.model.User;
 import com.fdmgroup.apmproject.service.AccountService;
 import com.fdmgroup.apmproject.service.CreditCardService;
+import com.fdmgroup.apmproject.service.InstallmentPlanService;
 import com.fdmgroup.apmproject.service.TransactionService;
-import com.fdmgroup.apmproject.service.UserService;
 
 import jakarta.servlet.http.HttpSession;
 
@@ -37,15 +37,14 @@ import jakarta.servlet.http.HttpSession;
  */
 @Controller
 public class TransactionController {
-	@Autowired
-	private UserService userService;
-	
 	@Autowired
 	private CreditCardService creditCardService;
 	@Autowired
 	private AccountService accountService;
 	@Autowired
 	private TransactionService transactionService;
+	@Autowired
+	private InstallmentPlanService installmentPlanService;
 
 	private static Logger logger = LogManager.getLogger(TransactionController.class);
 
@@ -114,6 +113,10 @@ public class TransactionController {
 			}
 			model.addAttribute("creditCard", userCreditCard);
 			model.addAttribute("transactions", transactions);
+			// Installments not yet posted are computed from the card's plans
+			model.addAttribute("upcomingInstallments",
+					installmentPlanService.findUpcomingInstallments(userCreditCard.getCreditCardId()));
+			model.addAttribute("installmentTenors", installmentPlanService.getTenors());
 		}
 		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM");
 		String currentMonth = LocalDateTime.now().format(formatter);
@@ -122,53 +125,24 @@ public class TransactionController {
 
 	}
 
+	/**
+	 * Converts a credit card purchase into monthly installments.
+	 * <p>
+	 * A single installment plan is stored whatever the tenor; its installments
+	 * are posted by the monthly billing run.
+	 *
+	 * @param transactionId The ID of the purchase to convert.
+	 * @param creditCardId  The ID of the credit card of the purchase.
+	 * @param tenor         The number of monthly installments.
+	 * @return The redirect to the credit card dashboard.
+	 */
 	@PostMapping("/convertToInstallments")
 	public String convertToInstallments(@RequestParam("transactionId") String transactionId,
-	                                    @RequestParam(name = "creditCardId", required = false) String creditCardId,
-	                                    Model model, HttpSession session) {
-		User loggedUser = (User) session.getAttribute("loggedUser");
-		// Retrieves credit card and selected transaction to convert to installments.
-		CreditCard creditCard = creditCardService.findById(Long.parseLong(creditCardId));
+			@RequestParam(name = "creditCardId", required = false) String creditCardId,
+			@RequestParam(name = "tenor", defaultValue = "3") int tenor) {
 		Transaction selectedTransaction = transactionService.findById(Long.parseLong(transactionId));
-		// Determines new installment dates
-        LocalDateTime currentDateTime = LocalDateTime.now();
-        LocalDateTime oneMonthLater = currentDateTime.plusMonths(1);
-        LocalDateTime twoMonthsLater = currentDateTime.plusMonths(2);
-        Transaction transaction1 = new Transaction(currentDateTime, "CC Purchase", selectedTransaction.getTransactionAmount()/3, null,
-				selectedTransaction.getCashback()/3, creditCard, null, selectedTransaction.getTransactionMerchantCategoryCode(), selectedTransaction.getTransactionCurrency());
-        Transaction transaction2 = new Transaction(oneMonthLater, "CC Purchase", selectedTransaction.getTransactionAmount()/3, null,
-        		selectedTransaction.getCashback()/3, creditCard, null, selectedTransaction.getTransactionMerchantCategoryCode(), selectedTransaction.getTransactionCurrency());
-        Transaction transaction3 = new Transaction(twoMonthsLater, "CC Purchase", selectedTransaction.getTransactionAmount()/3, null,
-        		selectedTransaction.getCashback()/3, creditCard, null, selectedTransaction.getTransactionMerchantCategoryCode(), selectedTransaction.getTransactionCurrency());
-	    transaction1.setDescription("1st month Installment, " +  selectedTransaction.getDescription());
-	    transaction2.setDescription("2nd month Installment, " +  selectedTransaction.getDescription());
-	    transaction3.setDescription("3rd month Installment, " +  selectedTransaction.getDescription());
-	    
-	    // Redirect the user back to the page displaying the transactions and updates transaction to database.
-	    transactionService.persist(transaction1);
-	    transactionService.persist(transaction2);
-	    transactionService.persist(transaction3);
-	    transactionService.deleteById(selectedTransaction.getTransactionId());
-	    logger.info("Payment connverted into 3 months installments");
-	    creditCard.setTransactions(transactionService.findTransactionsByCreditCard(creditCard));
-	    creditCardService.update(creditCard);
-	    List<CreditCard> userCreditCards = loggedUser.getCreditCards();
-		List<CreditCard> newUserCreditCards = new ArrayList<>();
-		for (CreditCard c : userCreditCards) {
-			if (c.getCreditCardId() != creditCard.getCreditCardId()) {
-				newUserCreditCards.add(c);
-			}
-			
-		}
-		
-		// Replaces current creditcard entity with updated credit card entity, updates user and their avaliable credit card list. Sorts before redirecting user back to credit card dashboard page.
-		newUserCreditCards.add(creditCard);
-		Collections.sort(newUserCreditCards, Comparator.comparing(CreditCard::getCreditCardId));
-		loggedUser.setCreditCardList(newUserCreditCards);
-		userService.update(loggedUser);
-		session.setAttribute("loggedUser", loggedUser);
-	   
-	    return "redirect:/userCards";
+		installmentPlanService.convertToInstallments(selectedTransaction, tenor);
+		return "redirect:/userCards";
 	}
-	
+
 }
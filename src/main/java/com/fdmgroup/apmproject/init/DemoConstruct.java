@@ -15,6 +15,7 @@ import com.fdmgroup.apmproject.model.Status;
 import com.fdmgroup.apmproject.model.Transaction;
 import com.fdmgroup.apmproject.model.User;
 import com.fdmgroup.apmproject.service.AccountService;
+import com.fdmgroup.apmproject.service.BillingCoordinator;
 import com.fdmgroup.apmproject.service.CreditCardService;
 import com.fdmgroup.apmproject.service.ForeignExchangeCurrencyService;
 import com.fdmgroup.apmproject.service.MerchantCategoryCodeService;
@@ -64,6 +65,9 @@ public class DemoConstruct {
 	 */
 
 	private TransactionService transactionService;
+
+	@Autowired
+	private BillingCoordinator billingCoordinator;
 	
 	
 	@PostConstruct
@@ -198,6 +202,6 @@ public class DemoConstruct {
 		creditCardService.calculateMonthlyBalance(approvedCreditCards);
 		creditCardService.chargeInterest(approvedCreditCards);
 		transactionService.updateInterest(approvedCreditCards);
-		transactionService.scheduleInterestCharging();
+		billingCoordinator.scheduleInterestCharging();
     }
 }
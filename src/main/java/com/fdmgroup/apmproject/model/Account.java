@@ -9,6 +9,7 @@ import org.hibernate.annotations.OnDeleteAction;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -18,6 +19,8 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
+import com.fdmgroup.apmproject.service.UserDataChangeListener;
+
 
 /**
  * This class represents an account in the banking system.
@@ -27,6 +30,7 @@ import jakarta.persistence.Table;
  * @since 2024-04-22
  */
 @Entity
+@EntityListeners(UserDataChangeListener.class)
 @Table(name = "listOfAccounts")
 public class Account {
 
@@ -173,9 +177,9 @@ public class Account {
 
 	@Override
 	public String toString() {
+		// Bounded: the transactions are left out
 		return "Account [accountId=" + accountId + ", accountName=" + accountName + ", balance=" + balance
-				+ ", accountNumber=" + accountNumber + ", accountStatus=" + accountStatus + ", transactions="
-				+ transactions + "]";
+				+ ", accountNumber=" + accountNumber + ", accountStatus=" + accountStatus + "]";
 	}
 
 	@Override
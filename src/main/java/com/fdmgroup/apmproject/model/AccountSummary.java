@@ -0,0 +1,23 @@
+package com.fdmgroup.apmproject.model;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fdmgroup.apmproject.config.JacksonConfig;
+
+/**
+ * This class is a read-only summary of a bank account returned by the REST
+ * API.
+ *
+ * @param accountId     The id of the account.
+ * @param accountName   The name of the account.
+ * @param accountNumber The account number.
+ * @param balance       The balance of the account.
+ * @param status        The name of the account's status.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@JsonFilter(JacksonConfig.FIELDS_FILTER)
+public record AccountSummary(long accountId, String accountName, String accountNumber, double balance,
+		String status) {
+}
@@ -0,0 +1,17 @@
+package com.fdmgroup.apmproject.model;
+
+/**
+ * The kinds of change recorded in the audit journal.
+ * <p>
+ * Journal records store the ordinal, so new actions must be added at the end.
+ * Balance actions record the balance before and after the change; status
+ * actions record the status ids.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public enum AuditAction {
+	DEPOSIT, WITHDRAWAL, TRANSFER_OUT, TRANSFER_IN, BILL_PAYMENT, CARD_PURCHASE, CARD_PAYMENT, CARD_INTEREST,
+	ACCOUNT_STATUS, CARD_STATUS
+}
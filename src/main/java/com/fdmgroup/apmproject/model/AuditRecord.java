@@ -0,0 +1,20 @@
+package com.fdmgroup.apmproject.model;
+
+/**
+ * A record read back from the audit journal.
+ *
+ * @param sequence  The journal-wide sequence number, starting at 1.
+ * @param timestamp When the change was recorded, in epoch milliseconds.
+ * @param actor     The username of who made the change, or "system".
+ * @param action    The kind of change.
+ * @param entity    The changed entity, e.g. {@code account/12}.
+ * @param before    The amount or status id before the change.
+ * @param after     The amount or status id after the change.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public record AuditRecord(long sequence, long timestamp, String actor, AuditAction action, String entity,
+		double before, double after) {
+}
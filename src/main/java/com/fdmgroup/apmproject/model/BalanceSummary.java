@@ -0,0 +1,21 @@
+package com.fdmgroup.apmproject.model;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fdmgroup.apmproject.config.JacksonConfig;
+
+/**
+ * This class holds a user's balances across all of their bank accounts and
+ * credit cards, as returned by the REST API.
+ *
+ * @param accountBalance      The total balance of the user's bank accounts.
+ * @param cardAmountUsed      The total amount used on the user's credit cards.
+ * @param cardAvailableCredit The total credit still available on the user's
+ *                            credit cards.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@JsonFilter(JacksonConfig.FIELDS_FILTER)
+public record BalanceSummary(double accountBalance, double cardAmountUsed, double cardAvailableCredit) {
+}
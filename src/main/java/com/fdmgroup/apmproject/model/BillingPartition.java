@@ -0,0 +1,146 @@
+package com.fdmgroup.apmproject.model;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * This class represents one range of credit card ids to be billed in a monthly
+ * billing cycle, and the lease of the node billing it.
+ * <p>
+ * A node holds a partition while its lease has not expired, renewing it with
+ * heartbeats as it works. A partition whose lease has expired belonged to a
+ * node that died and may be claimed by another. New partitions are always
+ * inserted, never merged, so two nodes creating the same cycle cannot
+ * overwrite each other's leases.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Entity
+@Table(name = "listOfBillingPartitions")
+public class BillingPartition implements Persistable<String> {
+	@Id
+	@Column(name = "Partition Key", nullable = false, updatable = false)
+	private String partitionKey;
+
+	@Column(name = "Billing Cycle", nullable = false, updatable = false)
+	private String cycle;
+
+	@Column(name = "Partition Index", nullable = false, updatable = false)
+	private int partitionIndex;
+
+	@Column(name = "First Card ID", nullable = false, updatable = false)
+	private long firstCardId;
+
+	@Column(name = "Last Card ID", nullable = false, updatable = false)
+	private long lastCardId;
+
+	@Column(name = "Lease Owner")
+	private String owner;
+
+	@Column(name = "Lease Expires At", nullable = false)
+	private long leaseExpiresAt;
+
+	@Column(name = "Completed", nullable = false)
+	private boolean completed;
+
+	@Transient
+	private boolean isNew = true;
+
+	/**
+	 * Constructs a new BillingPartition object.
+	 */
+	public BillingPartition() {
+	}
+
+	/**
+	 * Constructs a new unclaimed BillingPartition object.
+	 *
+	 * @param cycle          The billing cycle, such as "2024-05".
+	 * @param partitionIndex The index of the partition within its cycle.
+	 * @param firstCardId    The first credit card id in the partition.
+	 * @param lastCardId     The last credit card id in the partition.
+	 */
+	public BillingPartition(String cycle, int partitionIndex, long firstCardId, long lastCardId) {
+		this.partitionKey = cycle + "#" + partitionIndex;
+		this.cycle = cycle;
+		this.partitionIndex = partitionIndex;
+		this.firstCardId = firstCardId;
+		this.lastCardId = lastCardId;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		this.isNew = false;
+	}
+
+	@Override
+	public String getId() {
+		return partitionKey;
+	}
+
+	@Override
+	public boolean isNew() {
+		return isNew;
+	}
+
+	public String getPartitionKey() {
+		return partitionKey;
+	}
+
+	public String getCycle() {
+		return cycle;
+	}
+
+	public int getPartitionIndex() {
+		return partitionIndex;
+	}
+
+	public long getFirstCardId() {
+		return firstCardId;
+	}
+
+	public long getLastCardId() {
+		return lastCardId;
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+
+	public long getLeaseExpiresAt() {
+		return leaseExpiresAt;
+	}
+
+	public void setLeaseExpiresAt(long leaseExpiresAt) {
+		this.leaseExpiresAt = leaseExpiresAt;
+	}
+
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	public void setCompleted(boolean completed) {
+		this.completed = completed;
+	}
+
+	@Override
+	public String toString() {
+		return "BillingPartition [partitionKey=" + partitionKey + ", firstCardId=" + firstCardId + ", lastCardId="
+				+ lastCardId + ", owner=" + owner + ", leaseExpiresAt=" + leaseExpiresAt + ", completed=" + completed
+				+ "]";
+	}
+}
@@ -0,0 +1,112 @@
+package com.fdmgroup.apmproject.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * This class represents a change that makes an entry of a node-local cache
+ * stale on every instance.
+ * <p>
+ * An invalidation is inserted in the same database transaction as the change,
+ * so it becomes visible to the other instances exactly when the change does.
+ * Its version orders the invalidations, and each instance remembers the
+ * version it has read up to.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Entity
+@Table(name = "listOfCacheInvalidations")
+public class CacheInvalidation {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "Version")
+	private long version;
+
+	@Column(name = "Cache Name", nullable = false, updatable = false)
+	private String cacheName;
+
+	@Column(name = "Cache Key", updatable = false)
+	private String cacheKey;
+
+	@Column(name = "Origin Node", nullable = false, updatable = false)
+	private String originNode;
+
+	@Column(name = "Created At", nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+	/**
+	 * Constructs a new CacheInvalidation object.
+	 */
+	public CacheInvalidation() {
+	}
+
+	/**
+	 * Constructs a new CacheInvalidation object with the specified details.
+	 *
+	 * @param cacheName  The name of the cache holding the stale entry.
+	 * @param cacheKey   The key of the stale entry, or null if every entry is
+	 *                   stale.
+	 * @param originNode The instance that made the change.
+	 * @param createdAt  The time the change was made.
+	 */
+	public CacheInvalidation(String cacheName, String cacheKey, String originNode, LocalDateTime createdAt) {
+		setCacheName(cacheName);
+		setCacheKey(cacheKey);
+		setOriginNode(originNode);
+		setCreatedAt(createdAt);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	public String getCacheName() {
+		return cacheName;
+	}
+
+	public void setCacheName(String cacheName) {
+		this.cacheName = cacheName;
+	}
+
+	public String getCacheKey() {
+		return cacheKey;
+	}
+
+	public void setCacheKey(String cacheKey) {
+		this.cacheKey = cacheKey;
+	}
+
+	public String getOriginNode() {
+		return originNode;
+	}
+
+	public void setOriginNode(String originNode) {
+		this.originNode = originNode;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheInvalidation [version=" + version + ", cacheName=" + cacheName + ", cacheKey=" + cacheKey
+				+ ", originNode=" + originNode + ", createdAt=" + createdAt + "]";
+	}
+}
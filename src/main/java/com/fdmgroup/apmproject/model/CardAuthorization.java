@@ -0,0 +1,94 @@
+package com.fdmgroup.apmproject.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * This class is a compact, immutable snapshot of the credit card fields needed
+ * to authorize a purchase.
+ * <p>
+ * It deliberately holds no entity references, so caching it does not pin the
+ * card's user and transaction graph in memory. It keeps the PIN only as an
+ * HMAC-SHA256 under a random key generated when the application starts and
+ * never written anywhere. A plain hash of a 3 to 4 digit PIN could be reversed
+ * by trying every PIN, so it would be as sensitive as the PIN itself; the MAC
+ * cannot be checked without the key, which lives only in this process's
+ * memory, as does the cache.
+ *
+ * @param creditCardId    The id of the credit card.
+ * @param statusName      The name of the card status, e.g. "Approved".
+ * @param cardLimit       The credit limit of the card.
+ * @param availableCredit The credit limit minus the amount used.
+ * @param pinMac          The HMAC-SHA256 of the card PIN under the process key.
+ * @param cardType        The card product, e.g. "Ultimate Cashback Card".
+ * @param currencyCode    The currency the card is billed in.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public record CardAuthorization(long creditCardId, String statusName, double cardLimit, double availableCredit,
+		byte[] pinMac, String cardType, String currencyCode) {
+
+	private static final String PIN_MAC_ALGORITHM = "HmacSHA256";
+
+	/** The key PINs are MACed with; a new one is drawn on every start. */
+	private static final SecretKeySpec PIN_KEY = new SecretKeySpec(randomKey(), PIN_MAC_ALGORITHM);
+
+	/**
+	 * Builds an authorization record from a credit card entity.
+	 *
+	 * @param creditCard The credit card to snapshot.
+	 * @return The authorization record of the card.
+	 */
+	public static CardAuthorization of(CreditCard creditCard) {
+		String statusName = creditCard.getCreditCardStatus() == null ? null
+				: creditCard.getCreditCardStatus().getStatusName();
+		return new CardAuthorization(creditCard.getCreditCardId(), statusName, creditCard.getCardLimit(),
+				creditCard.getCardLimit() - creditCard.getAmountUsed(), macPin(creditCard.getPin()),
+				creditCard.getCardType(), creditCard.getCurrencyCode());
+	}
+
+	/**
+	 * Checks a PIN against the stored MAC in constant time.
+	 *
+	 * @param pin The PIN presented with the purchase.
+	 * @return True if the PIN matches, false otherwise.
+	 */
+	public boolean pinMatches(String pin) {
+		return pin != null && MessageDigest.isEqual(pinMac, macPin(pin));
+	}
+
+	/**
+	 * Returns whether the card is approved for use.
+	 *
+	 * @return True if the card status is "Approved".
+	 */
+	public boolean isApproved() {
+		return "Approved".equals(statusName);
+	}
+
+	private static byte[] macPin(String pin) {
+		if (pin == null) {
+			return new byte[0];
+		}
+		try {
+			Mac mac = Mac.getInstance(PIN_MAC_ALGORITHM);
+			mac.init(PIN_KEY);
+			return mac.doFinal(pin.getBytes(StandardCharsets.UTF_8));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(PIN_MAC_ALGORITHM + " is not available", e);
+		}
+	}
+
+	private static byte[] randomKey() {
+		byte[] key = new byte[32];
+		new SecureRandom().nextBytes(key);
+		return key;
+	}
+}
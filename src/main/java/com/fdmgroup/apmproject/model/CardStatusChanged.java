@@ -0,0 +1,17 @@
+package com.fdmgroup.apmproject.model;
+
+/**
+ * Published when an admin has changed the status of a credit card.
+ *
+ * @param creditCardId   The id of the card.
+ * @param userId         The id of the card holder.
+ * @param previousStatus The status name before the change.
+ * @param status         The status name after the change.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public record CardStatusChanged(long creditCardId, long userId, String previousStatus, String status)
+		implements DomainEvent {
+}
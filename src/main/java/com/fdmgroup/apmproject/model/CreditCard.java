@@ -9,6 +9,7 @@ import org.hibernate.annotations.OnDeleteAction;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -18,6 +19,8 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
+import com.fdmgroup.apmproject.service.UserDataChangeListener;
+
 
 
 /**
@@ -28,6 +31,7 @@ import jakarta.persistence.Table;
  * @since 2024-04-22
  */
 @Entity
+@EntityListeners(UserDataChangeListener.class)
 @Table(name = "listOfCreditCards")
 public class CreditCard {
 	@Id
@@ -249,11 +253,11 @@ public class CreditCard {
 
 	@Override
 	public String toString() {
-		return "CreditCard [creditCardId=" + creditCardId + ", creditCardNumber=" + creditCardNumber + ", pin=" + pin
+		// Bounded and free of credentials: the pin and the transactions are left out
+		return "CreditCard [creditCardId=" + creditCardId + ", creditCardNumber=" + creditCardNumber
 				+ ", cardLimit=" + cardLimit + ", cardType=" + cardType + ", amountUsed=" + amountUsed
 				+ ", monthlyBalance=" + monthlyBalance + ", interest=" + interest + ", currencyCode=" + currencyCode
-				+ ", minBalancePaid=" + minBalancePaid + ", creditCardStatus=" + creditCardStatus + ", transactions="
-				+ transactions + "]";
+				+ ", minBalancePaid=" + minBalancePaid + ", creditCardStatus=" + creditCardStatus + "]";
 	}
 
 	@Override
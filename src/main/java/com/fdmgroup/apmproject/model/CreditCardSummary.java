@@ -0,0 +1,28 @@
+package com.fdmgroup.apmproject.model;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fdmgroup.apmproject.config.JacksonConfig;
+
+/**
+ * This class is a read-only summary of a credit card returned by the REST API.
+ * The card number is masked to its last four digits, e.g.
+ * "****-****-****-5678".
+ *
+ * @param creditCardId     The id of the credit card.
+ * @param maskedCardNumber The masked card number.
+ * @param cardType         The card product.
+ * @param cardLimit        The credit limit.
+ * @param amountUsed       The amount used.
+ * @param availableCredit  The credit still available.
+ * @param monthlyBalance   The balance of the last statement.
+ * @param currencyCode     The card's currency code.
+ * @param status           The name of the card's status.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@JsonFilter(JacksonConfig.FIELDS_FILTER)
+public record CreditCardSummary(long creditCardId, String maskedCardNumber, String cardType, double cardLimit,
+		double amountUsed, double availableCredit, double monthlyBalance, String currencyCode, String status) {
+}
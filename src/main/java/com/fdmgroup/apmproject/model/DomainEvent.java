@@ -0,0 +1,13 @@
+package com.fdmgroup.apmproject.model;
+
+/**
+ * A fact about a change that has been committed, published on the
+ * {@code DomainEventBus} for follow-up work that does not need to finish
+ * before the response.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public interface DomainEvent {
+}
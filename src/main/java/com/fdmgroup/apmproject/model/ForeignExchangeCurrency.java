@@ -7,6 +7,10 @@ import java.util.Objects;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -24,6 +28,8 @@ import jakarta.persistence.Table;
  * @since 2024-04-22
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "foreignExchangeCurrency")
 @Table(name = "listOfForeignCurrencies")
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class ForeignExchangeCurrency {
@@ -47,7 +53,7 @@ public class ForeignExchangeCurrency {
 	private String currencyCode;
 	
 	@JsonIgnore
-	@OneToMany(mappedBy = "transactionCurrency", fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "transactionCurrency", fetch = FetchType.LAZY)
 	private List<Transaction> transactions = new ArrayList<>();
 	
 	/**
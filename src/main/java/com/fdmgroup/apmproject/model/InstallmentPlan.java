@@ -0,0 +1,303 @@
+package com.fdmgroup.apmproject.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * This class represents an installment plan that spreads a credit card purchase
+ * over a number of months.
+ * <p>
+ * The plan is stored once when the purchase is converted. Each month's
+ * installment is posted as a "CC Purchase" transaction by the billing run, and
+ * installments that are not yet posted are computed from the plan on the fly.
+ * Every installment is the principal divided by the tenor, rounded to cents,
+ * with the last one absorbing the rounding difference; cashback is split the
+ * same way.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Entity
+@Table(name = "listOfInstallmentPlans")
+public class InstallmentPlan {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "Installment Plan ID")
+	private long installmentPlanId;
+
+	@Column(name = "Principal")
+	private double principal;
+
+	@Column(name = "Cashback")
+	private double cashback;
+
+	@Column(name = "Tenor")
+	private int tenor;
+
+	@Column(name = "Installments Posted")
+	private int installmentsPosted;
+
+	@Column(name = "Remaining")
+	private double remaining;
+
+	@Column(name = "First Due Date")
+	private LocalDateTime firstDueDate;
+
+	@Column(name = "Next Due Date")
+	private LocalDateTime nextDueDate;
+
+	@Column(name = "Description")
+	private String description;
+
+	// Lazy so that posting installments never loads the card's user and
+	// transaction graph; only the card's id is needed for the foreign key
+	@ManyToOne(fetch = FetchType.LAZY)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	@JoinColumn(name = "FK Credit Card ID")
+	private CreditCard creditCard;
+
+	@ManyToOne(fetch = FetchType.EAGER)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	@JoinColumn(name = "FK Merchant Category Code ID")
+	private MerchantCategoryCode merchantCategoryCode;
+
+	@ManyToOne(fetch = FetchType.EAGER)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	@JoinColumn(name = "FK Foreign Exchange Currency ID")
+	private ForeignExchangeCurrency currency;
+
+	/**
+	 * Constructs a new InstallmentPlan object.
+	 */
+	public InstallmentPlan() {
+	}
+
+	/**
+	 * Constructs a new InstallmentPlan object that converts a credit card purchase
+	 * into {@code tenor} monthly installments, the first due on
+	 * {@code firstDueDate}.
+	 *
+	 * @param purchase     The purchase to convert.
+	 * @param tenor        The number of monthly installments.
+	 * @param firstDueDate The due date of the first installment.
+	 */
+	public InstallmentPlan(Transaction purchase, int tenor, LocalDateTime firstDueDate) {
+		setPrincipal(purchase.getTransactionAmount());
+		setCashback(purchase.getCashback());
+		setTenor(tenor);
+		setInstallmentsPosted(0);
+		setRemaining(purchase.getTransactionAmount());
+		setFirstDueDate(firstDueDate);
+		setNextDueDate(firstDueDate);
+		setDescription(purchase.getDescription());
+		setCreditCard(purchase.getTransactionCreditCard());
+		setMerchantCategoryCode(purchase.getTransactionMerchantCategoryCode());
+		setCurrency(purchase.getTransactionCurrency());
+	}
+
+	/**
+	 * Returns the amount of an installment.
+	 *
+	 * @param number The installment number, starting at 1.
+	 * @return The installment amount.
+	 */
+	public double getInstallmentAmount(int number) {
+		return split(principal, number);
+	}
+
+	/**
+	 * Returns the cashback of an installment.
+	 *
+	 * @param number The installment number, starting at 1.
+	 * @return The installment cashback.
+	 */
+	public double getInstallmentCashback(int number) {
+		return split(cashback, number);
+	}
+
+	/**
+	 * Returns the due date of an installment.
+	 *
+	 * @param number The installment number, starting at 1.
+	 * @return The installment due date.
+	 */
+	public LocalDateTime getDueDate(int number) {
+		return firstDueDate.plusMonths(number - 1);
+	}
+
+	/**
+	 * Returns the description of an installment, e.g. "Installment 2 of 6, Rolex".
+	 *
+	 * @param number The installment number, starting at 1.
+	 * @return The installment description.
+	 */
+	public String getInstallmentDescription(int number) {
+		return "Installment " + number + " of " + tenor + ", " + description;
+	}
+
+	/**
+	 * Builds the transaction of the next installment and advances the plan past
+	 * it.
+	 *
+	 * @return The "CC Purchase" transaction of the installment that was due.
+	 */
+	public Transaction postNextInstallment() {
+		int number = installmentsPosted + 1;
+		double amount = getInstallmentAmount(number);
+		Transaction transaction = new Transaction(getDueDate(number), "CC Purchase", amount, null,
+				getInstallmentCashback(number), creditCard, null, merchantCategoryCode, currency);
+		transaction.setDescription(getInstallmentDescription(number));
+
+		installmentsPosted = number;
+		remaining = BigDecimal.valueOf(remaining).subtract(BigDecimal.valueOf(amount)).doubleValue();
+		nextDueDate = isCompleted() ? null : getDueDate(number + 1);
+		return transaction;
+	}
+
+	/**
+	 * Returns the installments that have not been posted yet, computed from the
+	 * plan.
+	 *
+	 * @return The upcoming installments in due date order.
+	 */
+	public List<UpcomingInstallment> getUpcomingInstallments() {
+		List<UpcomingInstallment> upcoming = new ArrayList<>();
+		for (int number = installmentsPosted + 1; number <= tenor; number++) {
+			upcoming.add(new UpcomingInstallment(getDueDate(number), getInstallmentDescription(number),
+					getInstallmentAmount(number), getInstallmentCashback(number)));
+		}
+		return upcoming;
+	}
+
+	public boolean isCompleted() {
+		return installmentsPosted >= tenor;
+	}
+
+	private double split(double total, int number) {
+		BigDecimal each = BigDecimal.valueOf(total).divide(BigDecimal.valueOf(tenor), 2, RoundingMode.HALF_UP);
+		if (number < tenor) {
+			return each.doubleValue();
+		}
+		return BigDecimal.valueOf(total).subtract(each.multiply(BigDecimal.valueOf(tenor - 1L))).doubleValue();
+	}
+
+	public long getInstallmentPlanId() {
+		return installmentPlanId;
+	}
+
+	public void setInstallmentPlanId(long installmentPlanId) {
+		this.installmentPlanId = installmentPlanId;
+	}
+
+	public double getPrincipal() {
+		return principal;
+	}
+
+	public void setPrincipal(double principal) {
+		this.principal = principal;
+	}
+
+	public double getCashback() {
+		return cashback;
+	}
+
+	public void setCashback(double cashback) {
+		this.cashback = cashback;
+	}
+
+	public int getTenor() {
+		return tenor;
+	}
+
+	public void setTenor(int tenor) {
+		this.tenor = tenor;
+	}
+
+	public int getInstallmentsPosted() {
+		return installmentsPosted;
+	}
+
+	public void setInstallmentsPosted(int installmentsPosted) {
+		this.installmentsPosted = installmentsPosted;
+	}
+
+	public double getRemaining() {
+		return remaining;
+	}
+
+	public void setRemaining(double remaining) {
+		this.remaining = remaining;
+	}
+
+	public LocalDateTime getFirstDueDate() {
+		return firstDueDate;
+	}
+
+	public void setFirstDueDate(LocalDateTime firstDueDate) {
+		this.firstDueDate = firstDueDate;
+	}
+
+	public LocalDateTime getNextDueDate() {
+		return nextDueDate;
+	}
+
+	public void setNextDueDate(LocalDateTime nextDueDate) {
+		this.nextDueDate = nextDueDate;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public CreditCard getCreditCard() {
+		return creditCard;
+	}
+
+	public void setCreditCard(CreditCard creditCard) {
+		this.creditCard = creditCard;
+	}
+
+	public MerchantCategoryCode getMerchantCategoryCode() {
+		return merchantCategoryCode;
+	}
+
+	public void setMerchantCategoryCode(MerchantCategoryCode merchantCategoryCode) {
+		this.merchantCategoryCode = merchantCategoryCode;
+	}
+
+	public ForeignExchangeCurrency getCurrency() {
+		return currency;
+	}
+
+	public void setCurrency(ForeignExchangeCurrency currency) {
+		this.currency = currency;
+	}
+
+	@Override
+	public String toString() {
+		return "InstallmentPlan [installmentPlanId=" + installmentPlanId + ", principal=" + principal + ", tenor="
+				+ tenor + ", installmentsPosted=" + installmentsPosted + ", remaining=" + remaining + ", nextDueDate="
+				+ nextDueDate + ", description=" + description + "]";
+	}
+}
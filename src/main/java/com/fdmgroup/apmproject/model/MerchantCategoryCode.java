@@ -4,6 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -20,6 +24,8 @@ import jakarta.persistence.Table;
 * @since 2024-04-22
 */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "merchantCategoryCode")
 @Table(name = "listOfMerchantCategoryCode")
 public class MerchantCategoryCode {
 	@Id
@@ -31,7 +37,7 @@ public class MerchantCategoryCode {
 	@Column(name = "Merchant Category", unique = true)
 	private String merchantCategory;
 
-	@OneToMany(mappedBy = "transactionMerchantCategoryCode", fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "transactionMerchantCategoryCode", fetch = FetchType.LAZY)
 	private List<Transaction> transactions = new ArrayList<>();
 	
 	/**
@@ -128,7 +134,7 @@ public class MerchantCategoryCode {
 	public String toString() {
 		return "MerchantCategoryCode [merchantCategoryCodeId=" + merchantCategoryCodeId
 				+ ", merchantCategoryCodeNumber=" + merchantCategoryCodeNumber + ", merchantCategory="
-				+ merchantCategory + ", transactions=" + transactions + "]";
+				+ merchantCategory + "]";
 	}
 
 	@Override
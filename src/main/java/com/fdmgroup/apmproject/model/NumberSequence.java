@@ -0,0 +1,63 @@
+package com.fdmgroup.apmproject.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * This class represents a named sequence from which blocks of account and
+ * credit card numbers are reserved.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Entity
+@Table(name = "listOfNumberSequences")
+public class NumberSequence {
+	@Id
+	@Column(name = "Sequence Name", nullable = false, updatable = false)
+	private String sequenceName;
+
+	@Column(name = "Next Value", nullable = false)
+	private long nextValue;
+
+	/**
+	 * Constructs a new NumberSequence object.
+	 */
+	public NumberSequence() {
+	}
+
+	/**
+	 * Constructs a new NumberSequence object starting at the specified value.
+	 *
+	 * @param sequenceName The name of the sequence.
+	 * @param nextValue    The next value to be reserved.
+	 */
+	public NumberSequence(String sequenceName, long nextValue) {
+		setSequenceName(sequenceName);
+		setNextValue(nextValue);
+	}
+
+	public String getSequenceName() {
+		return sequenceName;
+	}
+
+	public void setSequenceName(String sequenceName) {
+		this.sequenceName = sequenceName;
+	}
+
+	public long getNextValue() {
+		return nextValue;
+	}
+
+	public void setNextValue(long nextValue) {
+		this.nextValue = nextValue;
+	}
+
+	@Override
+	public String toString() {
+		return "NumberSequence [sequenceName=" + sequenceName + ", nextValue=" + nextValue + "]";
+	}
+}
@@ -0,0 +1,63 @@
+package com.fdmgroup.apmproject.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * This class represents how far an outbox consumer has got: the id of the last
+ * outbox event it handled.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Entity
+@Table(name = "listOfOutboxCheckpoints")
+public class OutboxCheckpoint {
+	@Id
+	@Column(name = "Consumer Name", nullable = false, updatable = false)
+	private String consumerName;
+
+	@Column(name = "Last Event Id", nullable = false)
+	private long lastEventId;
+
+	/**
+	 * Constructs a new OutboxCheckpoint object.
+	 */
+	public OutboxCheckpoint() {
+	}
+
+	/**
+	 * Constructs a new OutboxCheckpoint object at the specified event.
+	 *
+	 * @param consumerName The name of the consumer.
+	 * @param lastEventId  The id of the last event the consumer handled.
+	 */
+	public OutboxCheckpoint(String consumerName, long lastEventId) {
+		setConsumerName(consumerName);
+		setLastEventId(lastEventId);
+	}
+
+	public String getConsumerName() {
+		return consumerName;
+	}
+
+	public void setConsumerName(String consumerName) {
+		this.consumerName = consumerName;
+	}
+
+	public long getLastEventId() {
+		return lastEventId;
+	}
+
+	public void setLastEventId(long lastEventId) {
+		this.lastEventId = lastEventId;
+	}
+
+	@Override
+	public String toString() {
+		return "OutboxCheckpoint [consumerName=" + consumerName + ", lastEventId=" + lastEventId + "]";
+	}
+}
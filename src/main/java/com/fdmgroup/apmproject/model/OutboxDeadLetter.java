@@ -0,0 +1,173 @@
+package com.fdmgroup.apmproject.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * This class represents an outbox event that a consumer failed to handle too
+ * many times in a row and was moved past.
+ * <p>
+ * It keeps a copy of the event, as the outbox deletes an event once every
+ * consumer has moved past it, so that the event can be looked into and
+ * replayed by hand.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Entity
+@Table(name = "listOfOutboxDeadLetters")
+public class OutboxDeadLetter {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "Dead Letter Id")
+	private long deadLetterId;
+
+	@Column(name = "Consumer Name", nullable = false, updatable = false)
+	private String consumerName;
+
+	@Column(name = "Outbox Event Id", nullable = false, updatable = false)
+	private long outboxEventId;
+
+	@Column(name = "Aggregate Type", nullable = false, updatable = false)
+	private String aggregateType;
+
+	@Column(name = "Aggregate Id", nullable = false, updatable = false)
+	private long aggregateId;
+
+	@Column(name = "Event Type", nullable = false, updatable = false)
+	private String eventType;
+
+	@Column(name = "Payload", length = 2000, nullable = false, updatable = false)
+	private String payload;
+
+	@Column(name = "Attempts", nullable = false, updatable = false)
+	private int attempts;
+
+	@Column(name = "Error", length = 1000, updatable = false)
+	private String error;
+
+	@Column(name = "Parked At", nullable = false, updatable = false)
+	private LocalDateTime parkedAt;
+
+	/**
+	 * Constructs a new OutboxDeadLetter object.
+	 */
+	public OutboxDeadLetter() {
+	}
+
+	/**
+	 * Constructs a new OutboxDeadLetter object holding a copy of an event.
+	 *
+	 * @param consumerName The name of the consumer that failed on the event.
+	 * @param event        The event.
+	 * @param attempts     The number of times the consumer failed on it.
+	 * @param error        The message of the last failure.
+	 * @param parkedAt     The time the event was moved past.
+	 */
+	public OutboxDeadLetter(String consumerName, OutboxEvent event, int attempts, String error,
+			LocalDateTime parkedAt) {
+		setConsumerName(consumerName);
+		setOutboxEventId(event.getOutboxEventId());
+		setAggregateType(event.getAggregateType());
+		setAggregateId(event.getAggregateId());
+		setEventType(event.getEventType());
+		setPayload(event.getPayload());
+		setAttempts(attempts);
+		setError(error);
+		setParkedAt(parkedAt);
+	}
+
+	public long getDeadLetterId() {
+		return deadLetterId;
+	}
+
+	public void setDeadLetterId(long deadLetterId) {
+		this.deadLetterId = deadLetterId;
+	}
+
+	public String getConsumerName() {
+		return consumerName;
+	}
+
+	public void setConsumerName(String consumerName) {
+		this.consumerName = consumerName;
+	}
+
+	public long getOutboxEventId() {
+		return outboxEventId;
+	}
+
+	public void setOutboxEventId(long outboxEventId) {
+		this.outboxEventId = outboxEventId;
+	}
+
+	public String getAggregateType() {
+		return aggregateType;
+	}
+
+	public void setAggregateType(String aggregateType) {
+		this.aggregateType = aggregateType;
+	}
+
+	public long getAggregateId() {
+		return aggregateId;
+	}
+
+	public void setAggregateId(long aggregateId) {
+		this.aggregateId = aggregateId;
+	}
+
+	public String getEventType() {
+		return eventType;
+	}
+
+	public void setEventType(String eventType) {
+		this.eventType = eventType;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public void setPayload(String payload) {
+		this.payload = payload;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+	}
+
+	public LocalDateTime getParkedAt() {
+		return parkedAt;
+	}
+
+	public void setParkedAt(LocalDateTime parkedAt) {
+		this.parkedAt = parkedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "OutboxDeadLetter [deadLetterId=" + deadLetterId + ", consumerName=" + consumerName
+				+ ", outboxEventId=" + outboxEventId + ", eventType=" + eventType + ", attempts=" + attempts
+				+ ", parkedAt=" + parkedAt + "]";
+	}
+}
@@ -0,0 +1,125 @@
+package com.fdmgroup.apmproject.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * This class represents an event waiting in the transactional outbox.
+ * <p>
+ * An event is inserted in the same database transaction as the change it
+ * describes, so it exists if and only if the change was committed. Its id
+ * gives the order in which events are delivered, and consumers record the id
+ * of the last event they handled as their checkpoint.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Entity
+@Table(name = "listOfOutboxEvents")
+public class OutboxEvent {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "Outbox Event Id")
+	private long outboxEventId;
+
+	@Column(name = "Aggregate Type", nullable = false, updatable = false)
+	private String aggregateType;
+
+	@Column(name = "Aggregate Id", nullable = false, updatable = false)
+	private long aggregateId;
+
+	@Column(name = "Event Type", nullable = false, updatable = false)
+	private String eventType;
+
+	@Column(name = "Payload", length = 2000, nullable = false, updatable = false)
+	private String payload;
+
+	@Column(name = "Created At", nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+	/**
+	 * Constructs a new OutboxEvent object.
+	 */
+	public OutboxEvent() {
+	}
+
+	/**
+	 * Constructs a new OutboxEvent object with the specified details.
+	 *
+	 * @param aggregateType The kind of entity the event belongs to, e.g.
+	 *                      "account".
+	 * @param aggregateId   The id of the entity the event belongs to.
+	 * @param eventType     The kind of event, e.g. "TransactionPosted".
+	 * @param payload       The event details as JSON.
+	 * @param createdAt     The time the event was recorded.
+	 */
+	public OutboxEvent(String aggregateType, long aggregateId, String eventType, String payload,
+			LocalDateTime createdAt) {
+		setAggregateType(aggregateType);
+		setAggregateId(aggregateId);
+		setEventType(eventType);
+		setPayload(payload);
+		setCreatedAt(createdAt);
+	}
+
+	public long getOutboxEventId() {
+		return outboxEventId;
+	}
+
+	public void setOutboxEventId(long outboxEventId) {
+		this.outboxEventId = outboxEventId;
+	}
+
+	public String getAggregateType() {
+		return aggregateType;
+	}
+
+	public void setAggregateType(String aggregateType) {
+		this.aggregateType = aggregateType;
+	}
+
+	public long getAggregateId() {
+		return aggregateId;
+	}
+
+	public void setAggregateId(long aggregateId) {
+		this.aggregateId = aggregateId;
+	}
+
+	public String getEventType() {
+		return eventType;
+	}
+
+	public void setEventType(String eventType) {
+		this.eventType = eventType;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public void setPayload(String payload) {
+		this.payload = payload;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	@Override
+	public String toString() {
+		return "OutboxEvent [outboxEventId=" + outboxEventId + ", aggregateType=" + aggregateType + ", aggregateId="
+				+ aggregateId + ", eventType=" + eventType + ", createdAt=" + createdAt + "]";
+	}
+}
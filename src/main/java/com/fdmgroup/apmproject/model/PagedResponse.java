@@ -0,0 +1,27 @@
+package com.fdmgroup.apmproject.model;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+/**
+ * This class is one page of results returned by the REST API.
+ *
+ * @param <T>           The type of the results.
+ * @param content       The results on this page.
+ * @param page          The zero-based page number.
+ * @param size          The requested page size.
+ * @param totalElements The number of results across all pages.
+ * @param totalPages    The number of pages.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public record PagedResponse<T>(List<T> content, int page, int size, long totalElements, int totalPages) {
+
+	public static <T> PagedResponse<T> of(Page<T> page) {
+		return new PagedResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+				page.getTotalPages());
+	}
+}
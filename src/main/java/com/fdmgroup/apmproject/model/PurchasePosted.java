@@ -0,0 +1,18 @@
+package com.fdmgroup.apmproject.model;
+
+/**
+ * Published when a card purchase has been posted and charged to the card.
+ *
+ * @param transactionId The id of the purchase transaction.
+ * @param creditCardId  The id of the card charged.
+ * @param userId        The id of the card holder.
+ * @param amount        The amount charged, in the card's currency.
+ * @param cashback      The cashback earned on the purchase.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public record PurchasePosted(long transactionId, long creditCardId, long userId, double amount, double cashback)
+		implements DomainEvent {
+}
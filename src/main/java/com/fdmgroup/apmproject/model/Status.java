@@ -4,6 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -21,6 +25,8 @@ import jakarta.persistence.Table;
  * @since 2024-04-22
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "status")
 @Table(name = "listOfStatuses")
 public class Status {
 	@Id
@@ -30,10 +36,10 @@ public class Status {
 	@Column(name = "Status Name",nullable = false,unique = true)
 	private String statusName;
 
-	@OneToMany(mappedBy = "accountStatus", fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "accountStatus", fetch = FetchType.LAZY)
 	private List<Account> accounts = new ArrayList<>();
 
-	@OneToMany(mappedBy = "creditCardStatus", fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "creditCardStatus", fetch = FetchType.LAZY)
 	private List<CreditCard> creditCards = new ArrayList<>();
 	
 	/**
@@ -10,6 +10,7 @@ import org.hibernate.annotations.OnDeleteAction;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -18,6 +19,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
+import com.fdmgroup.apmproject.service.UserDataChangeListener;
+
 /**
  * This class represents a transaction in the banking system.
  *
@@ -26,6 +29,7 @@ import jakarta.persistence.Table;
  * @since 2024-04-22
  */
 @Entity
+@EntityListeners(UserDataChangeListener.class)
 @Table(name = "listOfTransactions")
 public class Transaction {
 	@Id
@@ -286,8 +290,7 @@ public class Transaction {
 	public String toString() {
 		return "Transaction [transactionId=" + transactionId + ", transactionDate=" + transactionDate
 				+ ", transactionType=" + transactionType + ", transactionAmount=" + transactionAmount
-				+ ", recipientAccountNumber=" + recipientAccountNumber + ", cashback=" + cashback
-				;
+				+ ", recipientAccountNumber=" + recipientAccountNumber + ", cashback=" + cashback + "]";
 	}
 
 	@Override
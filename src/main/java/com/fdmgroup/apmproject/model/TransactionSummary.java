@@ -0,0 +1,28 @@
+package com.fdmgroup.apmproject.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fdmgroup.apmproject.config.JacksonConfig;
+
+/**
+ * This class is a read-only summary of a transaction returned by the REST API.
+ *
+ * @param transactionId     The id of the transaction.
+ * @param transactionDate   The date and time of the transaction.
+ * @param transactionType   The type of the transaction.
+ * @param transactionAmount The amount of the transaction.
+ * @param cashback          The cashback earned on the transaction.
+ * @param description       The description of the transaction.
+ * @param merchantCategory  The merchant category, or null.
+ * @param currencyCode      The currency code, or null.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@JsonFilter(JacksonConfig.FIELDS_FILTER)
+public record TransactionSummary(long transactionId, LocalDateTime transactionDate, String transactionType,
+		double transactionAmount, double cashback, String description, String merchantCategory,
+		String currencyCode) {
+}
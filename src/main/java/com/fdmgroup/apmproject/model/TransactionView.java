@@ -0,0 +1,30 @@
+package com.fdmgroup.apmproject.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * This class is a read-only view of a bank account transaction whose
+ * counterpart account numbers are already masked, e.g. "***-***-124".
+ * <p>
+ * Views are produced directly by a query projection, so they are never managed
+ * by the persistence context: reading them causes no dirty checking, and the
+ * masked numbers can never be flushed back to the accounts.
+ *
+ * @param transactionId                The id of the transaction.
+ * @param transactionDate              The date and time of the transaction.
+ * @param transactionType              The type of the transaction.
+ * @param transactionAmount            The amount of the transaction.
+ * @param description                  The description of the transaction.
+ * @param maskedAccountNumber          The masked number of the account the
+ *                                     transaction was made from, or null.
+ * @param maskedRecipientAccountNumber The masked number of the recipient
+ *                                     account, or null.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public record TransactionView(long transactionId, LocalDateTime transactionDate, String transactionType,
+		double transactionAmount, String description, String maskedAccountNumber,
+		String maskedRecipientAccountNumber) {
+}
@@ -0,0 +1,20 @@
+package com.fdmgroup.apmproject.model;
+
+/**
+ * Published when a transfer out of a bank account has been completed.
+ *
+ * @param transactionId          The id of the outflow transaction.
+ * @param accountId              The id of the account debited.
+ * @param userId                 The id of the account holder.
+ * @param recipientAccountNumber The account number credited.
+ * @param amount                 The amount debited, in the account's currency.
+ * @param internal               Whether the recipient account is held with
+ *                               the bank.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public record TransferCompleted(long transactionId, long accountId, long userId, String recipientAccountNumber,
+		double amount, boolean internal) implements DomainEvent {
+}
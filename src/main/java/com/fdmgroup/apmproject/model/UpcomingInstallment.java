@@ -0,0 +1,20 @@
+package com.fdmgroup.apmproject.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * This class represents an installment of an {@link InstallmentPlan} that has
+ * not been posted yet. It is computed from the plan for display and is never
+ * stored.
+ *
+ * @param dueDate     The date the installment will be posted.
+ * @param description The installment description.
+ * @param amount      The installment amount.
+ * @param cashback    The installment cashback.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public record UpcomingInstallment(LocalDateTime dueDate, String description, double amount, double cashback) {
+}
@@ -6,6 +6,7 @@ import java.util.Objects;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -13,6 +14,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
+import com.fdmgroup.apmproject.service.UserDataChangeListener;
+
 /**
  * This class represents a user in the banking system.
  *
@@ -21,6 +24,7 @@ import jakarta.persistence.Table;
  * @since 2024-04-22
  */
 @Entity
+@EntityListeners(UserDataChangeListener.class)
 @Table(name = "listOfUsers")
 public class User {
 	@Id
@@ -261,9 +265,9 @@ public class User {
 
 	@Override
 	public String toString() {
-		return "User [userId=" + userId + ", username=" + username + ", password=" + password + ", address=" + address
-				+ ", firstName=" + firstName + ", lastName=" + lastName + ", role=" + role + ", creditCards="
-				+ creditCards + ", accounts=" + accounts + "]";
+		// Bounded and free of credentials: the password and the product collections are left out
+		return "User [userId=" + userId + ", username=" + username + ", address=" + address + ", firstName="
+				+ firstName + ", lastName=" + lastName + ", role=" + role + "]";
 	}
 
 	@Override
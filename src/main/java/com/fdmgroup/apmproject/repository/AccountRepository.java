@@ -4,9 +4,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.AccountSummary;
 
 /**
  * This interface extends the JpaRepository interface to provide additional
@@ -43,4 +46,11 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 	 */
 	Optional<Account> findByAccountId(Long accountId);
 
+	boolean existsByAccountIdAndAccountUserUserId(long accountId, long userId);
+
+	@Query("select new com.fdmgroup.apmproject.model.AccountSummary(a.accountId, a.accountName, a.accountNumber, "
+			+ "a.balance, s.statusName) from Account a left join a.accountStatus s "
+			+ "where a.accountUser.userId = :userId order by a.accountId")
+	List<AccountSummary> findSummariesByUserId(@Param("userId") long userId);
+
 }
@@ -0,0 +1,76 @@
+package com.fdmgroup.apmproject.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.fdmgroup.apmproject.model.BillingPartition;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * This interface extends the JpaRepository interface to provide additional methods for accessing and manipulating BillingPartition entities.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Repository
+public interface BillingPartitionRepository extends JpaRepository<BillingPartition, String> {
+
+    /**
+     * Finds the partitions of a billing cycle and locks their rows until the surrounding transaction ends,
+     * so that concurrent nodes never claim the same partition.
+     *
+     * @param cycle The billing cycle.
+     * @return The partitions of the cycle in index order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<BillingPartition> findByCycleOrderByPartitionIndex(String cycle);
+
+    /**
+     * Finds a partition by its key and locks its row until the surrounding transaction ends.
+     *
+     * @param partitionKey The key of the partition.
+     * @return An Optional containing the locked partition if found, or empty if not found.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<BillingPartition> findByPartitionKey(String partitionKey);
+
+    /**
+     * Checks whether the partitions of a billing cycle have been created.
+     *
+     * @param cycle The billing cycle.
+     * @return True if the cycle has partitions.
+     */
+    boolean existsByCycle(String cycle);
+
+    /**
+     * Counts the partitions of a billing cycle that have not been billed yet.
+     *
+     * @param cycle The billing cycle.
+     * @return The number of partitions still to bill.
+     */
+    long countByCycleAndCompletedFalse(String cycle);
+
+    /**
+     * Finds the latest billing cycle that has partitions. Cycles are named by
+     * their year and month, so they sort in time order.
+     *
+     * @return The latest cycle, or null if no cycle has run yet.
+     */
+    @Query("select max(p.cycle) from BillingPartition p")
+    String findLatestCycle();
+
+    /**
+     * Finds the billing cycles that still have partitions to bill.
+     *
+     * @return The unfinished cycles in time order.
+     */
+    @Query("select distinct p.cycle from BillingPartition p where p.completed = false order by p.cycle")
+    List<String> findIncompleteCycles();
+}
@@ -0,0 +1,54 @@
+package com.fdmgroup.apmproject.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fdmgroup.apmproject.model.CacheInvalidation;
+
+/**
+ * This interface extends the JpaRepository interface to provide additional methods for accessing and manipulating CacheInvalidation entities.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+
+    /**
+     * Finds the invalidations after a version, in version order.
+     *
+     * @param afterVersion The version already read up to.
+     * @param pageable     The maximum number of invalidations to return.
+     * @return The invalidations in version order.
+     */
+    @Query("SELECT i FROM CacheInvalidation i WHERE i.version > :afterVersion ORDER BY i.version")
+    List<CacheInvalidation> findBatchAfter(@Param("afterVersion") long afterVersion, Pageable pageable);
+
+    /**
+     * Finds the latest version.
+     *
+     * @return The latest version, or null if there are no invalidations.
+     */
+    @Query("SELECT max(i.version) FROM CacheInvalidation i")
+    Long findLatestVersion();
+
+    /**
+     * Deletes the invalidations recorded before a cut-off with a single statement.
+     *
+     * @param createdBefore The cut-off.
+     * @return The number of invalidations deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CacheInvalidation i WHERE i.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
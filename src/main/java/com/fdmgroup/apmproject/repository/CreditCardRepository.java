@@ -4,9 +4,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.CreditCardSummary;
 import com.fdmgroup.apmproject.model.Status;
 
 /**
@@ -50,4 +53,32 @@ public interface CreditCardRepository extends JpaRepository<CreditCard, Long> {
 	 * @return A list of credit cards with the specified status.
 	 */
 	List<CreditCard> findByCreditCardStatus(Status status);
+
+	/**
+	 * Finds all credit cards with the specified status whose ids fall within the
+	 * specified range.
+	 *
+	 * @param status      The status of the credit cards.
+	 * @param firstCardId The first credit card id, inclusive.
+	 * @param lastCardId  The last credit card id, inclusive.
+	 * @return A list of credit cards with the specified status in the range.
+	 */
+	List<CreditCard> findByCreditCardStatusAndCreditCardIdBetween(Status status, long firstCardId, long lastCardId);
+
+	/**
+	 * Finds the highest credit card id.
+	 *
+	 * @return The highest credit card id, or null if there are no credit cards.
+	 */
+	@Query("select max(c.creditCardId) from CreditCard c")
+	Long findMaxCreditCardId();
+
+	boolean existsByCreditCardIdAndCreditCardUserUserId(long creditCardId, long userId);
+
+	@Query("select new com.fdmgroup.apmproject.model.CreditCardSummary(c.creditCardId, "
+			+ "concat('****-****-****-', substring(c.creditCardNumber, length(c.creditCardNumber) - 3)), "
+			+ "c.cardType, c.cardLimit, c.amountUsed, c.cardLimit - c.amountUsed, c.monthlyBalance, c.currencyCode, "
+			+ "s.statusName) from CreditCard c left join c.creditCardStatus s "
+			+ "where c.creditCardUser.userId = :userId order by c.creditCardId")
+	List<CreditCardSummary> findSummariesByUserId(@Param("userId") long userId);
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.fdmgroup.apmproject.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.fdmgroup.apmproject.model.InstallmentPlan;
+
+/**
+ * This interface extends the JpaRepository interface to provide additional methods for accessing and manipulating InstallmentPlan entities.
+ * 
+ * @author 
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Repository
+public interface InstallmentPlanRepository extends JpaRepository<InstallmentPlan, Long> {
+
+    /**
+     * Finds all installment plans with an installment due on or before the specified date.
+     * Completed plans have no next due date and are never returned.
+     *
+     * @param date The date on or before which the next installment is due.
+     * @return A list of installment plans with an installment due.
+     */
+    List<InstallmentPlan> findByNextDueDateLessThanEqual(LocalDateTime date);
+
+    /**
+     * Finds the installment plans with an installment due on or before the specified date whose credit card ids
+     * fall within the specified range.
+     *
+     * @param date        The date on or before which the next installment is due.
+     * @param firstCardId The first credit card id, inclusive.
+     * @param lastCardId  The last credit card id, inclusive.
+     * @return A list of installment plans with an installment due.
+     */
+    List<InstallmentPlan> findByNextDueDateLessThanEqualAndCreditCardCreditCardIdBetween(LocalDateTime date,
+            long firstCardId, long lastCardId);
+
+    /**
+     * Finds all installment plans of the specified credit card that still have installments to post.
+     *
+     * @param creditCardId The id of the credit card.
+     * @return A list of the credit card's active installment plans.
+     */
+    List<InstallmentPlan> findByCreditCardCreditCardIdAndNextDueDateIsNotNull(long creditCardId);
+}
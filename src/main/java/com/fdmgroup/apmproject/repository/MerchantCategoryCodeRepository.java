@@ -4,8 +4,11 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import com.fdmgroup.apmproject.model.MerchantCategoryCode;
 
 /**
@@ -24,6 +27,7 @@ public interface MerchantCategoryCodeRepository extends JpaRepository<MerchantCa
      * @param merchantCategory The merchant category.
      * @return An optional MerchantCategoryCode object.
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     public Optional<MerchantCategoryCode> findByMerchantCategory(String merchantCategory);
     
     /**
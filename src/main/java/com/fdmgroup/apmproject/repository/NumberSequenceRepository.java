@@ -0,0 +1,32 @@
+package com.fdmgroup.apmproject.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import com.fdmgroup.apmproject.model.NumberSequence;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * This interface extends the JpaRepository interface to provide additional methods for accessing and manipulating NumberSequence entities.
+ * 
+ * @author 
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Repository
+public interface NumberSequenceRepository extends JpaRepository<NumberSequence, String> {
+
+    /**
+     * Finds a sequence by its name and locks its row until the surrounding transaction ends,
+     * so that concurrent instances never reserve the same block.
+     *
+     * @param sequenceName The name of the sequence.
+     * @return An Optional containing the locked sequence if found, or empty if not found.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<NumberSequence> findBySequenceName(String sequenceName);
+}
@@ -0,0 +1,17 @@
+package com.fdmgroup.apmproject.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.fdmgroup.apmproject.model.OutboxCheckpoint;
+
+/**
+ * This interface extends the JpaRepository interface to provide additional methods for accessing and manipulating OutboxCheckpoint entities.
+ * 
+ * @author 
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Repository
+public interface OutboxCheckpointRepository extends JpaRepository<OutboxCheckpoint, String> {
+}
@@ -0,0 +1,17 @@
+package com.fdmgroup.apmproject.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.fdmgroup.apmproject.model.OutboxDeadLetter;
+
+/**
+ * This interface extends the JpaRepository interface to provide additional methods for accessing and manipulating OutboxDeadLetter entities.
+ * 
+ * @author 
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Repository
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {
+}
@@ -0,0 +1,45 @@
+package com.fdmgroup.apmproject.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fdmgroup.apmproject.model.OutboxEvent;
+
+/**
+ * This interface extends the JpaRepository interface to provide additional methods for accessing and manipulating OutboxEvent entities.
+ * 
+ * @author 
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Finds the events after a checkpoint, in id order.
+     *
+     * @param afterId  The id of the last event already handled.
+     * @param pageable The maximum number of events to return.
+     * @return The events in id order.
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.outboxEventId > :afterId ORDER BY e.outboxEventId")
+    List<OutboxEvent> findBatchAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Deletes the events up to and including an id with a single statement.
+     *
+     * @param upToId The id of the last event to delete.
+     * @return The number of events deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.outboxEventId <= :upToId")
+    int deleteUpTo(@Param("upToId") long upToId);
+}
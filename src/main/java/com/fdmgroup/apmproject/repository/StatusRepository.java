@@ -3,8 +3,11 @@ package com.fdmgroup.apmproject.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import com.fdmgroup.apmproject.model.Status;
 
 /**
@@ -23,5 +26,6 @@ public interface StatusRepository extends JpaRepository<Status, Integer> {
      * @param statusName The status name.
      * @return An optional Status object.
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Status> findByStatusName(String statusName);
 }
\ No newline at end of file
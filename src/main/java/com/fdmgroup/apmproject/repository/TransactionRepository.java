@@ -3,12 +3,18 @@ package com.fdmgroup.apmproject.repository;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.fdmgroup.apmproject.model.Account;
 import com.fdmgroup.apmproject.model.CreditCard;
 import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.model.TransactionSummary;
+import com.fdmgroup.apmproject.model.TransactionView;
 
 /**
  * This interface extends the JpaRepository interface to provide additional methods for accessing and manipulating Transaction entities.
@@ -48,6 +54,25 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * @return A list of transactions for the specified account or recipient account.
      */
     List<Transaction> findByTransactionAccountOrRecipientAccount(Account transactionAccount, Account recipientAccount);
+
+    /**
+     * Finds read-only views of all transactions for the specified account or recipient account.
+     * <p>
+     * Counterpart account numbers are masked to their last three digits by the query itself, and the
+     * views are not managed entities, so no account is loaded or dirty-checked.
+     *
+     * @param transactionAccount The account to search for transactions.
+     * @param recipientAccount The recipient account to search for transactions.
+     * @return A list of masked transaction views for the specified account or recipient account.
+     */
+    @Query("select new com.fdmgroup.apmproject.model.TransactionView(t.transactionId, t.transactionDate, "
+            + "t.transactionType, t.transactionAmount, t.description, "
+            + "concat('***-***-', substring(a.accountNumber, length(a.accountNumber) - 2)), "
+            + "concat('***-***-', substring(r.accountNumber, length(r.accountNumber) - 2))) "
+            + "from Transaction t left join t.transactionAccount a left join t.recipientAccount r "
+            + "where a = :transactionAccount or r = :recipientAccount")
+    List<TransactionView> findViewsByTransactionAccountOrRecipientAccount(
+            @Param("transactionAccount") Account transactionAccount, @Param("recipientAccount") Account recipientAccount);
     
     /**
      * Retrieves transactions before a specified date associated with a given credit card.
@@ -73,7 +98,33 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * @see org.example.Transaction
      */
     List<Transaction> findByTransactionCreditCard(CreditCard creditCard);
-    
-    
-    
+
+    /**
+     * Finds one page of summaries of the transactions made from or to a bank account.
+     *
+     * @param accountId The id of the account.
+     * @param pageable  The page to return and its sort order.
+     * @return A page of transaction summaries.
+     */
+    @Query(value = "select new com.fdmgroup.apmproject.model.TransactionSummary(t.transactionId, t.transactionDate, "
+            + "t.transactionType, t.transactionAmount, t.cashback, t.description, m.merchantCategory, c.currencyCode) "
+            + "from Transaction t left join t.transactionMerchantCategoryCode m left join t.transactionCurrency c "
+            + "where t.transactionAccount.accountId = :accountId or t.recipientAccount.accountId = :accountId",
+            countQuery = "select count(t) from Transaction t "
+            + "where t.transactionAccount.accountId = :accountId or t.recipientAccount.accountId = :accountId")
+    Page<TransactionSummary> findSummariesByAccountId(@Param("accountId") long accountId, Pageable pageable);
+
+    /**
+     * Finds one page of summaries of the transactions made with a credit card.
+     *
+     * @param creditCardId The id of the credit card.
+     * @param pageable     The page to return and its sort order.
+     * @return A page of transaction summaries.
+     */
+    @Query(value = "select new com.fdmgroup.apmproject.model.TransactionSummary(t.transactionId, t.transactionDate, "
+            + "t.transactionType, t.transactionAmount, t.cashback, t.description, m.merchantCategory, c.currencyCode) "
+            + "from Transaction t left join t.transactionMerchantCategoryCode m left join t.transactionCurrency c "
+            + "where t.transactionCreditCard.creditCardId = :creditCardId",
+            countQuery = "select count(t) from Transaction t where t.transactionCreditCard.creditCardId = :creditCardId")
+    Page<TransactionSummary> findSummariesByCreditCardId(@Param("creditCardId") long creditCardId, Pageable pageable);
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.fdmgroup.apmproject.model.BalanceSummary;
 import com.fdmgroup.apmproject.model.User;
 
 /**
@@ -35,4 +36,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return A list of all users.
      */
     List<User> findAll();
+
+    /**
+     * Totals a user's bank account balances and credit card usage in a single query.
+     *
+     * @param userId The id of the user.
+     * @return The user's balances, or null if the user does not exist.
+     */
+    @Query("SELECT new com.fdmgroup.apmproject.model.BalanceSummary("
+            + "(SELECT COALESCE(SUM(a.balance), 0.0) FROM Account a WHERE a.accountUser = u), "
+            + "(SELECT COALESCE(SUM(c.amountUsed), 0.0) FROM CreditCard c WHERE c.creditCardUser = u), "
+            + "(SELECT COALESCE(SUM(c.cardLimit - c.amountUsed), 0.0) FROM CreditCard c WHERE c.creditCardUser = u)) "
+            + "FROM User u WHERE u.userId = :userId")
+    BalanceSummary findBalanceSummaryByUserId(@Param("userId") long userId);
 }
\ No newline at end of file
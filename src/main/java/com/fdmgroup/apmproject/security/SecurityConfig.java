@@ -3,6 +3,7 @@ package com.fdmgroup.apmproject.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,6 +11,8 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 
 /**
@@ -71,6 +74,7 @@ public class SecurityConfig {
 	public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 		http.csrf(csrf -> csrf.disable()).authorizeHttpRequests(auth -> auth
 				.requestMatchers("/", "/register", "/login", "/login_error", "/*.css", "/*.png", "/*.js", "/*.jpeg")
+				.permitAll().requestMatchers("/actuator/health", "/actuator/prometheus")
 				.permitAll().requestMatchers("/api/credit-card/**")
 				.permitAll().requestMatchers("/admin/**").hasRole("ADMIN")
 				.requestMatchers("/**").hasRole("USER")
@@ -78,7 +82,10 @@ public class SecurityConfig {
 				.formLogin(form -> form.loginPage("/login").loginProcessingUrl("/login").failureUrl("/login_error")
 						.successHandler(authenticationSuccessHandlerSecurity))
 				.logout(logout -> logout.logoutSuccessUrl("/login").invalidateHttpSession(true)
-						.clearAuthentication(true).permitAll());
+						.clearAuthentication(true).permitAll())
+				// REST clients get 401 instead of a redirect to the login page
+				.exceptionHandling(exceptions -> exceptions.defaultAuthenticationEntryPointFor(
+						new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED), new AntPathRequestMatcher("/api/v1/**")));
 
 		return http.build();
 	}
@@ -3,14 +3,15 @@ package com.fdmgroup.apmproject.service;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.AccountSummary;
 import com.fdmgroup.apmproject.repository.AccountRepository;
 
 
@@ -27,6 +28,8 @@ public class AccountService {
 
 	@Autowired
 	private AccountRepository accountRepo;
+	@Autowired
+	private NumberAllocator numberAllocator;
 
 	private static final Logger logger = LogManager.getLogger(AccountService.class);
 
@@ -129,6 +132,7 @@ public class AccountService {
 	 * @param userId The ID of the user whose accounts should be retrieved.
 	 * @return A list of all bank accounts associated with the specified user.
 	 */
+	@Transactional(readOnly = true)
 	public List<Account> findAllAccountsByUserId(long userId) {
 		return accountRepo.findByAccountUserUserId(userId);
 	}
@@ -138,30 +142,43 @@ public class AccountService {
 	 *
 	 * @return A list of all bank accounts.
 	 */
+	@Transactional(readOnly = true)
 	public List<Account> getAllAccounts() {
 		return accountRepo.findAll();
 	}
 
 	/**
 	 * Generates a unique bank account number.
+	 * <p>
+	 * Numbers are allocated by the {@link NumberAllocator} from a reserved block
+	 * held in memory, so no account lookup is needed to guarantee uniqueness.
 	 *
-	 * @return A unique bank account number.
+	 * @return A unique bank account number in the format XXX-XXX-XXX.
 	 */
 	public String generateUniqueAccountNumber() {
-		StringBuilder sb = new StringBuilder();
-		Random random = new Random();
-
-		do {
-			sb.setLength(0); // Clear the StringBuilder before generating a new account number
-			for (int i = 0; i < 9; i++) {
-				sb.append(random.nextInt(10));
-				if ((i + 1) % 3 == 0 && i != 8) {
-					sb.append("-"); // Adds a dash after every 3 digits, except the last set of 3 digits
-				}
-			}
-		} while (findAccountByAccountNumber(sb.toString()) != null);
-
-		return sb.toString();
+		return numberAllocator.nextAccountNumber();
+	}
+
+	/**
+	 * Retrieves summaries of all bank accounts of a user, without loading the
+	 * accounts or their transactions.
+	 *
+	 * @param userId The id of the user.
+	 * @return The account summaries in account id order.
+	 */
+	@Transactional(readOnly = true)
+	public List<AccountSummary> findAccountSummariesByUserId(long userId) {
+		return accountRepo.findSummariesByUserId(userId);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Checks whether a bank account belongs to a user.
+	 *
+	 * @param accountId The id of the account.
+	 * @param userId    The id of the user.
+	 * @return true if the account exists and belongs to the user.
+	 */
+	public boolean isAccountOwnedBy(long accountId, long userId) {
+		return accountRepo.existsByAccountIdAndAccountUserUserId(accountId, userId);
+	}
+}
@@ -0,0 +1,187 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fdmgroup.apmproject.config.ConcurrencyLimitProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class limits how many requests run at once, adapting the limit to the
+ * latency it observes (additive increase, multiplicative decrease).
+ * <p>
+ * Every request that finishes within the latency threshold while the limiter
+ * is at least half used raises the limit by {@code 1 / limit}, so the limit
+ * grows by about one per round of requests. A slower request multiplies it by
+ * the backoff ratio, at most once per round: only requests that started after
+ * the last decrease can decrease it again, so a burst of slow requests that
+ * were all in flight together counts once. Low priority requests, such as
+ * admin reports, are slow by nature and do not move the limit.
+ * <p>
+ * A request may run while fewer requests are in flight than its priority's
+ * share of the limit; otherwise it is shed at once rather than queued.
+ * <p>
+ * Its state is published as the {@code concurrency.limit} and
+ * {@code concurrency.inflight} gauges and the {@code concurrency.shed}
+ * counter, tagged with the priority.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	/**
+	 * The priority of a request; requests of lower priority are shed first.
+	 */
+	public enum Priority {
+		CRITICAL, NORMAL, LOW
+	}
+
+	private static Logger logger = LogManager.getLogger(AdaptiveConcurrencyLimiter.class);
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final long latencyThresholdNanos;
+	private final double backoffRatio;
+	private final Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+	private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+	private final LongSupplier nanoClock;
+	private final AtomicInteger inflight = new AtomicInteger();
+
+	private volatile double limit;
+	private long lastDecreaseNanos;
+
+	/**
+	 * Constructs a new limiter using the system nano clock.
+	 *
+	 * @param properties    The limits, latency threshold and priority shares.
+	 * @param meterRegistry The registry the limiter state is published to.
+	 */
+	public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+		this(properties, meterRegistry, System::nanoTime);
+	}
+
+	/**
+	 * Constructs a new limiter with the specified clock.
+	 *
+	 * @param properties    The limits, latency threshold and priority shares.
+	 * @param meterRegistry The registry the limiter state is published to.
+	 * @param nanoClock     The monotonic clock, in nanoseconds.
+	 */
+	public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry,
+			LongSupplier nanoClock) {
+		this.minLimit = Math.max(1, properties.getMinLimit());
+		this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+		this.limit = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+		this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getLatencyThresholdMs());
+		this.backoffRatio = properties.getBackoffRatio();
+		this.nanoClock = nanoClock;
+		this.lastDecreaseNanos = nanoClock.getAsLong();
+		shares.put(Priority.CRITICAL, 1.0);
+		shares.put(Priority.NORMAL, properties.getNormalShare());
+		shares.put(Priority.LOW, properties.getLowShare());
+		Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+				.description("Requests the application currently runs at once").register(meterRegistry);
+		Gauge.builder("concurrency.inflight", inflight, AtomicInteger::get)
+				.description("Requests running in the application").register(meterRegistry);
+		for (Priority priority : Priority.values()) {
+			shed.put(priority, Counter.builder("concurrency.shed").tag("priority", priority.name().toLowerCase())
+					.description("Requests shed by the concurrency limit").register(meterRegistry));
+		}
+	}
+
+	/**
+	 * Lets a request in if its priority's share of the limit is not used up. A
+	 * request that gets in must release its permit when done.
+	 *
+	 * @param priority The priority of the request.
+	 * @return The permit of the request, or null if it was shed.
+	 */
+	public Permit tryAcquire(Priority priority) {
+		int allowed = Math.max(1, (int) (limit * shares.get(priority)));
+		int current;
+		do {
+			current = inflight.get();
+			if (current >= allowed) {
+				shed.get(priority).increment();
+				return null;
+			}
+		} while (!inflight.compareAndSet(current, current + 1));
+		return new Permit(priority, nanoClock.getAsLong());
+	}
+
+	private void release(Permit permit) {
+		int current = inflight.getAndDecrement();
+		if (permit.priority == Priority.LOW) {
+			return;
+		}
+		long now = nanoClock.getAsLong();
+		if (now - permit.startNanos > latencyThresholdNanos) {
+			decrease(permit.startNanos, now);
+		} else if (current * 2 >= limit) {
+			increase();
+		}
+	}
+
+	private synchronized void increase() {
+		limit = Math.min(maxLimit, limit + 1 / limit);
+	}
+
+	private synchronized void decrease(long startNanos, long now) {
+		if (startNanos - lastDecreaseNanos < 0) {
+			return;
+		}
+		double previous = limit;
+		limit = Math.max(minLimit, limit * backoffRatio);
+		lastDecreaseNanos = now;
+		logger.debug("Concurrency limit lowered from {} to {} after a slow request", (int) previous, (int) limit);
+	}
+
+	/**
+	 * @return The current limit.
+	 */
+	public double getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @return The number of requests in flight.
+	 */
+	public int getInflight() {
+		return inflight.get();
+	}
+
+	/**
+	 * The right of one request to run; released exactly once when it is done.
+	 */
+	public class Permit {
+		private final Priority priority;
+		private final long startNanos;
+		private boolean released;
+
+		private Permit(Priority priority, long startNanos) {
+			this.priority = priority;
+			this.startNanos = startNanos;
+		}
+
+		/**
+		 * Releases the permit, feeding the request's latency back into the limit.
+		 */
+		public void release() {
+			if (!released) {
+				released = true;
+				AdaptiveConcurrencyLimiter.this.release(this);
+			}
+		}
+	}
+}
@@ -0,0 +1,282 @@
+package com.fdmgroup.apmproject.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32C;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.fdmgroup.apmproject.config.AuditJournalProperties;
+import com.fdmgroup.apmproject.model.AuditAction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class is responsible for recording balance changes and admin actions in
+ * an append-only, binary audit journal.
+ * <p>
+ * Records are written straight into a memory-mapped segment file, so an append
+ * is a short copy under a lock and never waits for the disk. A background
+ * thread forces the written range to disk every
+ * {@code audit.journal.sync-interval-ms}, so one fsync covers every record
+ * appended in that interval. A process crash loses nothing, as the pages are
+ * already in the OS page cache; a machine crash loses at most one interval.
+ * When a segment is full the next one is created. On startup the journal
+ * continues after the last valid record of the newest segment. The format is
+ * described in {@link AuditJournalReader}, which also reads it back.
+ * <p>
+ * The actor of each record is the authenticated user of the current thread, or
+ * "system" for scheduled work.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class AuditJournal {
+
+	static final String SYSTEM_ACTOR = "system";
+	static final int MIN_SEGMENT_SIZE = 4096;
+
+	private static Logger logger = LogManager.getLogger(AuditJournal.class);
+
+	private final boolean enabled;
+	private final Path directory;
+	private final int segmentSize;
+	private final LongSupplier clock;
+	private final ScheduledExecutorService syncExecutor;
+	private final Counter appended;
+	private final Counter failures;
+	private final Timer syncs;
+	private final CRC32C crc = new CRC32C();
+
+	// Guarded by this
+	private MappedByteBuffer segment;
+	private int position;
+	private int syncedPosition;
+	private long nextSequence = 1;
+	private long lastTimestamp;
+
+	@Autowired
+	public AuditJournal(AuditJournalProperties properties, MeterRegistry meterRegistry) {
+		this(properties, meterRegistry, System::currentTimeMillis);
+	}
+
+	/**
+	 * Constructs a new audit journal with the specified clock and opens it.
+	 *
+	 * @param properties    The directory, segment size and sync interval.
+	 * @param meterRegistry The registry the journal metrics are published to.
+	 * @param clock         The wall clock, in milliseconds.
+	 */
+	public AuditJournal(AuditJournalProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+		this.enabled = properties.isEnabled();
+		this.directory = Paths.get(properties.getDirectory());
+		// Room for at least a few of the largest records
+		this.segmentSize = Math.max(properties.getSegmentSize(), MIN_SEGMENT_SIZE);
+		this.clock = clock;
+		this.appended = Counter.builder("audit.journal.records").description("Records appended to the audit journal")
+				.register(meterRegistry);
+		this.failures = Counter.builder("audit.journal.failures")
+				.description("Records that could not be written to the audit journal").register(meterRegistry);
+		this.syncs = Timer.builder("audit.journal.sync").description("Time taken to force the audit journal to disk")
+				.register(meterRegistry);
+		if (!enabled) {
+			syncExecutor = null;
+			return;
+		}
+		try {
+			open();
+		} catch (IOException e) {
+			logger.warn("Failed to open the audit journal in {}", directory);
+			throw new RuntimeException("Failed to open the audit journal in " + directory + ".", e);
+		}
+		syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "audit-journal-sync");
+			thread.setDaemon(true);
+			return thread;
+		});
+		syncExecutor.scheduleWithFixedDelay(this::sync, properties.getSyncIntervalMs(),
+				properties.getSyncIntervalMs(), TimeUnit.MILLISECONDS);
+		logger.info("Audit journal opened in {} at sequence {}", directory, nextSequence);
+	}
+
+	/**
+	 * Records a change made by the authenticated user of the current thread.
+	 *
+	 * @param action The kind of change.
+	 * @param entity The changed entity, e.g. {@code account/12}.
+	 * @param before The amount or status id before the change.
+	 * @param after  The amount or status id after the change.
+	 */
+	public void append(AuditAction action, String entity, double before, double after) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		String actor = authentication != null && authentication.isAuthenticated() ? authentication.getName()
+				: SYSTEM_ACTOR;
+		append(actor, action, entity, before, after);
+	}
+
+	/**
+	 * Records a change made by the specified actor.
+	 * <p>
+	 * Failures are logged and counted rather than thrown, so that auditing never
+	 * fails the change itself.
+	 *
+	 * @param actor  The username of who made the change.
+	 * @param action The kind of change.
+	 * @param entity The changed entity, e.g. {@code account/12}.
+	 * @param before The amount or status id before the change.
+	 * @param after  The amount or status id after the change.
+	 */
+	public void append(String actor, AuditAction action, String entity, double before, double after) {
+		if (!enabled) {
+			return;
+		}
+		byte[] actorBytes = bounded(actor);
+		byte[] entityBytes = bounded(entity);
+		int length = AuditJournalReader.FIXED_BYTES + actorBytes.length + entityBytes.length;
+		synchronized (this) {
+			try {
+				if (position + length > segment.capacity()) {
+					roll();
+				}
+			} catch (IOException e) {
+				logger.error("Failed to start a new audit journal segment: {}", e.getMessage());
+				failures.increment();
+				return;
+			}
+			long timestamp = Math.max(clock.getAsLong(), lastTimestamp);
+			int start = position;
+			segment.putLong(start + 4, nextSequence);
+			segment.putLong(start + 12, timestamp);
+			segment.put(start + 20, (byte) action.ordinal());
+			segment.putDouble(start + 21, before);
+			segment.putDouble(start + 29, after);
+			segment.putShort(start + 37, (short) actorBytes.length);
+			segment.put(start + 39, actorBytes);
+			int entityOffset = start + 39 + actorBytes.length;
+			segment.putShort(entityOffset, (short) entityBytes.length);
+			segment.put(entityOffset + 2, entityBytes);
+			crc.reset();
+			crc.update(segment.slice(start + 4, length - 8));
+			segment.putInt(start + length - 4, (int) crc.getValue());
+			// The length goes in last, so a reader never sees a partly written record
+			segment.putInt(start, length);
+			position += length;
+			nextSequence++;
+			lastTimestamp = timestamp;
+		}
+		appended.increment();
+	}
+
+	/**
+	 * Forces every record appended so far to disk.
+	 */
+	public void sync() {
+		MappedByteBuffer buffer;
+		int from;
+		int to;
+		synchronized (this) {
+			if (segment == null || position == syncedPosition) {
+				return;
+			}
+			buffer = segment;
+			from = syncedPosition;
+			to = position;
+			syncedPosition = position;
+		}
+		// Outside the lock, so appends carry on while the disk catches up
+		syncs.record(() -> buffer.force(from, to - from));
+	}
+
+	/**
+	 * @return The sequence number the next record will get.
+	 */
+	public synchronized long getNextSequence() {
+		return nextSequence;
+	}
+
+	/**
+	 * @return The journal directory.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Stops the sync thread and forces the remaining records to disk.
+	 */
+	@PreDestroy
+	public void close() {
+		if (syncExecutor != null) {
+			syncExecutor.shutdown();
+			sync();
+		}
+	}
+
+	private void open() throws IOException {
+		Files.createDirectories(directory);
+		List<Path> segments = AuditJournalReader.segments(directory);
+		if (segments.isEmpty()) {
+			roll();
+			return;
+		}
+		Path last = segments.get(segments.size() - 1);
+		segment = map(last, Math.max(Files.size(last), segmentSize));
+		AuditJournalReader.Tail tail = AuditJournalReader.tail(segment);
+		position = tail.position();
+		syncedPosition = position;
+		nextSequence = tail.lastSequence() > 0 ? tail.lastSequence() + 1 : AuditJournalReader.firstSequence(last);
+		lastTimestamp = tail.lastTimestamp();
+		if (position + 4 <= segment.capacity() && segment.getInt(position) != 0) {
+			// A write was interrupted; clear it so it is not mistaken for a record later
+			logger.warn("Audit journal segment {} ends in an incomplete record, which is discarded", last);
+			byte[] zeros = new byte[segment.capacity() - position];
+			segment.put(position, zeros);
+			segment.force();
+		}
+	}
+
+	private void roll() throws IOException {
+		if (segment != null) {
+			segment.force();
+		}
+		segment = map(directory.resolve(AuditJournalReader.segmentName(nextSequence)), segmentSize);
+		position = 0;
+		syncedPosition = 0;
+	}
+
+	private static MappedByteBuffer map(Path file, long size) throws IOException {
+		// The mapping stays valid after the channel is closed
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+	}
+
+	private static byte[] bounded(String value) {
+		byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+		return bytes.length <= AuditJournalReader.MAX_STRING_BYTES ? bytes
+				: Arrays.copyOf(bytes, AuditJournalReader.MAX_STRING_BYTES);
+	}
+}
@@ -0,0 +1,285 @@
+package com.fdmgroup.apmproject.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import com.fdmgroup.apmproject.model.AuditAction;
+import com.fdmgroup.apmproject.model.AuditRecord;
+
+/**
+ * This class reads the audit journal written by {@link AuditJournal} and
+ * defines its binary format.
+ * <p>
+ * The journal is a directory of segment files named after the sequence number
+ * of their first record, e.g. {@code 00000000000000000001.journal}. A segment
+ * holds records back to back, ended by a zero length or the end of the file.
+ * Each record is laid out as:
+ *
+ * <pre>
+ * int    length     of the whole record, in bytes
+ * long   sequence
+ * long   timestamp  in epoch milliseconds
+ * byte   action     AuditAction ordinal
+ * double before
+ * double after
+ * short  actor length, then the actor in UTF-8
+ * short  entity length, then the entity in UTF-8
+ * int    CRC32C     of everything between length and CRC
+ * </pre>
+ *
+ * Reading stops at the first record whose CRC does not match, which is where a
+ * crash interrupted a write. Timestamps never decrease, so a time range scan
+ * skips whole segments and stops at the first record after the range. It uses
+ * only the JDK, so it can be run from the application jar:
+ *
+ * <pre>
+ * java -cp apmproject.jar com.fdmgroup.apmproject.service.AuditJournalReader audit [from] [to] [--count]
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public final class AuditJournalReader {
+
+	static final String SEGMENT_SUFFIX = ".journal";
+	/** Bytes of a record other than its actor and entity. */
+	static final int FIXED_BYTES = 4 + 8 + 8 + 1 + 8 + 8 + 2 + 2 + 4;
+	/** Longest actor or entity stored; longer values are truncated. */
+	static final int MAX_STRING_BYTES = 255;
+
+	private static final AuditAction[] ACTIONS = AuditAction.values();
+
+	private AuditJournalReader() {
+	}
+
+	/**
+	 * The end of the valid records of a segment.
+	 *
+	 * @param position      The offset after the last valid record.
+	 * @param lastSequence  The sequence of the last valid record, or 0 if none.
+	 * @param lastTimestamp The timestamp of the last valid record, or 0 if none.
+	 */
+	record Tail(int position, long lastSequence, long lastTimestamp) {
+	}
+
+	/**
+	 * Reads every record of the journal in order.
+	 *
+	 * @param directory The journal directory.
+	 * @param consumer  Receives each record.
+	 * @return The number of records read.
+	 * @throws IOException If a segment cannot be read.
+	 */
+	public static long replay(Path directory, Consumer<AuditRecord> consumer) throws IOException {
+		return scan(directory, Long.MIN_VALUE, Long.MAX_VALUE, consumer);
+	}
+
+	/**
+	 * Reads the records of the journal recorded within a time range, in order.
+	 *
+	 * @param directory  The journal directory.
+	 * @param fromMillis The start of the range, inclusive, in epoch milliseconds.
+	 * @param toMillis   The end of the range, exclusive, in epoch milliseconds.
+	 * @param consumer   Receives each record in the range.
+	 * @return The number of records read.
+	 * @throws IOException If a segment cannot be read.
+	 */
+	public static long scan(Path directory, long fromMillis, long toMillis, Consumer<AuditRecord> consumer)
+			throws IOException {
+		List<Path> segments = segments(directory);
+		CRC32C crc = new CRC32C();
+		long count = 0;
+		for (int i = 0; i < segments.size(); i++) {
+			// Every record of this segment is before the range if the next one starts
+			// before it
+			if (i + 1 < segments.size() && firstTimestamp(segments.get(i + 1)) < fromMillis) {
+				continue;
+			}
+			ByteBuffer segment = map(segments.get(i));
+			int position = 0;
+			int length;
+			while ((length = recordLength(segment, position)) > 0) {
+				long timestamp = segment.getLong(position + 12);
+				if (timestamp >= toMillis) {
+					return count;
+				}
+				if (timestamp >= fromMillis) {
+					if (!crcMatches(segment, position, length, crc)) {
+						break;
+					}
+					consumer.accept(decode(segment, position));
+					count++;
+				}
+				position += length;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Lists the segment files of a journal in order.
+	 *
+	 * @param directory The journal directory.
+	 * @return The segments, oldest first; empty if the directory does not exist.
+	 * @throws IOException If the directory cannot be listed.
+	 */
+	static List<Path> segments(Path directory) throws IOException {
+		if (!Files.isDirectory(directory)) {
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			// Names are zero-padded sequence numbers, so they sort in order
+			return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * @return The file name of a segment starting at the given sequence.
+	 */
+	static String segmentName(long firstSequence) {
+		return String.format("%020d%s", firstSequence, SEGMENT_SUFFIX);
+	}
+
+	/**
+	 * @return The sequence of the first record of a segment, from its name.
+	 */
+	static long firstSequence(Path segment) {
+		String name = segment.getFileName().toString();
+		return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	/**
+	 * Finds the end of the valid records of a segment.
+	 *
+	 * @param segment The segment contents.
+	 * @return The tail of the segment.
+	 */
+	static Tail tail(ByteBuffer segment) {
+		CRC32C crc = new CRC32C();
+		int position = 0;
+		long lastSequence = 0;
+		long lastTimestamp = 0;
+		int length;
+		while ((length = recordLength(segment, position)) > 0 && crcMatches(segment, position, length, crc)) {
+			lastSequence = segment.getLong(position + 4);
+			lastTimestamp = segment.getLong(position + 12);
+			position += length;
+		}
+		return new Tail(position, lastSequence, lastTimestamp);
+	}
+
+	/**
+	 * @return The length of the record at a position, or 0 at the end of the
+	 *         records.
+	 */
+	private static int recordLength(ByteBuffer segment, int position) {
+		if (position + 4 > segment.limit()) {
+			return 0;
+		}
+		int length = segment.getInt(position);
+		if (length < FIXED_BYTES || length > FIXED_BYTES + 2 * MAX_STRING_BYTES
+				|| position + length > segment.limit()) {
+			return 0;
+		}
+		return length;
+	}
+
+	static boolean crcMatches(ByteBuffer segment, int position, int length, CRC32C crc) {
+		crc.reset();
+		crc.update(segment.slice(position + 4, length - 8));
+		return (int) crc.getValue() == segment.getInt(position + length - 4);
+	}
+
+	private static AuditRecord decode(ByteBuffer segment, int position) {
+		long sequence = segment.getLong(position + 4);
+		long timestamp = segment.getLong(position + 12);
+		int action = segment.get(position + 20) & 0xFF;
+		double before = segment.getDouble(position + 21);
+		double after = segment.getDouble(position + 29);
+		int actorLength = segment.getShort(position + 37);
+		String actor = string(segment, position + 39, actorLength);
+		int entityOffset = position + 39 + actorLength;
+		int entityLength = segment.getShort(entityOffset);
+		String entity = string(segment, entityOffset + 2, entityLength);
+		return new AuditRecord(sequence, timestamp, actor, action < ACTIONS.length ? ACTIONS[action] : null, entity,
+				before, after);
+	}
+
+	private static String string(ByteBuffer segment, int offset, int length) {
+		byte[] bytes = new byte[length];
+		segment.get(offset, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static long firstTimestamp(Path segment) throws IOException {
+		ByteBuffer buffer = map(segment);
+		return recordLength(buffer, 0) > 0 ? buffer.getLong(12) : Long.MAX_VALUE;
+	}
+
+	private static ByteBuffer map(Path segment) throws IOException {
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * Prints the records of a journal, or counts them with {@code --count}.
+	 * <p>
+	 * The range is given as ISO-8601 instants, local date-times or dates in the
+	 * system time zone.
+	 *
+	 * @param args The journal directory, then optionally the start and end of the
+	 *             range and {@code --count}.
+	 * @throws IOException If the journal cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		List<String> arguments = Stream.of(args).filter(arg -> !"--count".equals(arg)).collect(Collectors.toList());
+		boolean countOnly = arguments.size() < args.length;
+		if (arguments.isEmpty()) {
+			System.err.println("Usage: AuditJournalReader <directory> [from] [to] [--count]");
+			System.exit(2);
+		}
+		Path directory = Paths.get(arguments.get(0));
+		long from = arguments.size() > 1 ? parseTime(arguments.get(1)) : Long.MIN_VALUE;
+		long to = arguments.size() > 2 ? parseTime(arguments.get(2)) : Long.MAX_VALUE;
+
+		long start = System.nanoTime();
+		long count = scan(directory, from, to, countOnly ? record -> {
+		} : record -> System.out.printf("%d %s %s %s %s %s -> %s%n", record.sequence(),
+				Instant.ofEpochMilli(record.timestamp()), record.actor(), record.action(), record.entity(),
+				record.before(), record.after()));
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.err.printf("%d records in %.3f s (%.0f records/s)%n", count, seconds, count / Math.max(seconds, 1e-9));
+	}
+
+	private static long parseTime(String value) {
+		try {
+			return Instant.parse(value).toEpochMilli();
+		} catch (DateTimeParseException e) {
+			// not an instant, try a local date-time or date
+		}
+		try {
+			return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		} catch (DateTimeParseException e) {
+			return LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		}
+	}
+}
@@ -0,0 +1,351 @@
+package com.fdmgroup.apmproject.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fdmgroup.apmproject.config.BillingProperties;
+import com.fdmgroup.apmproject.model.BillingPartition;
+import com.fdmgroup.apmproject.repository.BillingPartitionRepository;
+import com.fdmgroup.apmproject.repository.CreditCardRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class runs the monthly billing cycle once across all running
+ * instances.
+ * <p>
+ * Every instance's timer joins the cycle of the current month. The first to
+ * arrive splits the credit card ids into {@code billing.partitions} ranges,
+ * stored as {@link BillingPartition} rows. Each instance then repeatedly
+ * claims a free partition under a row lock, bills it and marks it completed,
+ * so the work is shared out and a larger cluster finishes sooner. While
+ * billing, an instance renews its lease with heartbeats; a partition whose
+ * lease has run out is reclaimed by another instance. Billing a partition and
+ * marking it completed happen in one database transaction that only commits
+ * while the instance still owns the partition, so an instance that stalls and
+ * resumes after losing its lease rolls back instead of charging the cards a
+ * second time. An instance returns once every partition is completed.
+ * <p>
+ * The timer fires once at the start of each month and bills the month it was
+ * due for, then sets itself for the next month, so cycles follow the calendar
+ * rather than a fixed period. When it starts and each time it fires, the
+ * instance also resumes any cycle left unfinished and bills every month since
+ * the latest cycle that was run, so a cycle missed while all instances were
+ * down is billed late rather than skipped.
+ * <p>
+ * Leases are compared against each instance's clock, so clocks must agree to
+ * well within {@code billing.lease-ms}.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class BillingCoordinator {
+
+	private static Logger logger = LogManager.getLogger(BillingCoordinator.class);
+
+	private final BillingPartitionRepository partitionRepo;
+	private final CreditCardRepository creditCardRepo;
+	private final TransactionService transactionService;
+	private final TransactionTemplate transactionTemplate;
+	private final BillingProperties properties;
+	private final MeterRegistry meterRegistry;
+	private final Supplier<LocalDateTime> clock;
+	private final String nodeId;
+	private final ScheduledExecutorService heartbeats;
+	private final ScheduledExecutorService cycles;
+
+	@Autowired
+	public BillingCoordinator(BillingPartitionRepository partitionRepo, CreditCardRepository creditCardRepo,
+			TransactionService transactionService, PlatformTransactionManager transactionManager,
+			BillingProperties properties, MeterRegistry meterRegistry) {
+		this(partitionRepo, creditCardRepo, transactionService, transactionManager, properties, meterRegistry,
+				LocalDateTime::now);
+	}
+
+	/**
+	 * Constructs a new billing coordinator with the specified clock.
+	 *
+	 * @param partitionRepo      The partitions shared by all instances.
+	 * @param creditCardRepo     The credit cards being billed.
+	 * @param transactionService The service that bills a range of cards.
+	 * @param transactionManager The manager of the billing transactions.
+	 * @param properties         The partition count, lease and intervals.
+	 * @param meterRegistry      The registry the billing metrics are published to.
+	 * @param clock              The clock that decides which month is due.
+	 */
+	public BillingCoordinator(BillingPartitionRepository partitionRepo, CreditCardRepository creditCardRepo,
+			TransactionService transactionService, PlatformTransactionManager transactionManager,
+			BillingProperties properties, MeterRegistry meterRegistry, Supplier<LocalDateTime> clock) {
+		this.partitionRepo = partitionRepo;
+		this.creditCardRepo = creditCardRepo;
+		this.transactionService = transactionService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+		this.clock = clock;
+		this.nodeId = properties.getNodeId().isBlank() ? defaultNodeId() : properties.getNodeId();
+		this.heartbeats = daemonExecutor("billing-heartbeat");
+		// Daemon threads, so pending cycles never keep the JVM alive after shutdown
+		this.cycles = daemonExecutor("billing-cycle");
+	}
+
+	private static ScheduledExecutorService daemonExecutor(String name) {
+		return Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	static String defaultNodeId() {
+		String host;
+		try {
+			host = InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			host = "localhost";
+		}
+		return host + "-" + ProcessHandle.current().pid();
+	}
+
+	@PreDestroy
+	public void stop() {
+		cycles.shutdownNow();
+		heartbeats.shutdownNow();
+	}
+
+	/**
+	 * Returns the name this instance holds leases under.
+	 *
+	 * @return The node id.
+	 */
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	/**
+	 * Schedules this instance to join the billing cycle at the start of every
+	 * month, after catching up on the cycles that are due already.
+	 */
+	public void scheduleInterestCharging() {
+		YearMonth current = YearMonth.from(clock.get());
+		List<YearMonth> due = dueCycles(current);
+		if (!due.isEmpty()) {
+			logger.warn("Catching up on billing cycles {} on {}", due, nodeId);
+		}
+		cycles.execute(() -> due.forEach(this::runDueCycle));
+		scheduleCycle(current.plusMonths(1));
+	}
+
+	/**
+	 * Sets the timer to fire once at the start of the specified month.
+	 *
+	 * @param yearMonth The month to bill next.
+	 */
+	private void scheduleCycle(YearMonth yearMonth) {
+		long delay = Duration.between(clock.get(), yearMonth.atDay(1).atStartOfDay()).toMillis();
+		cycles.schedule(() -> {
+			try {
+				List<YearMonth> due = dueCycles(yearMonth);
+				if (!due.contains(yearMonth)) {
+					due.add(yearMonth);
+				}
+				due.forEach(this::runDueCycle);
+			} finally {
+				scheduleCycle(yearMonth.plusMonths(1));
+			}
+		}, Math.max(0, delay), TimeUnit.MILLISECONDS);
+	}
+
+	private void runDueCycle(YearMonth yearMonth) {
+		try {
+			runCycle(yearMonth);
+		} catch (RuntimeException e) {
+			// Left unfinished, so the next start or month boundary resumes it
+			logger.error("Billing cycle {} failed on {}", yearMonth, nodeId, e);
+		}
+	}
+
+	/**
+	 * Lists the cycles to bill up to and including the specified month: those
+	 * left unfinished and every month since the latest cycle that was run. Before
+	 * the first cycle has run there is nothing to catch up on.
+	 *
+	 * @param upTo The latest month that is due.
+	 * @return The cycles to bill in time order.
+	 */
+	List<YearMonth> dueCycles(YearMonth upTo) {
+		TreeSet<YearMonth> due = new TreeSet<>();
+		partitionRepo.findIncompleteCycles().forEach(cycle -> due.add(YearMonth.parse(cycle)));
+		String latest = partitionRepo.findLatestCycle();
+		if (latest != null) {
+			for (YearMonth month = YearMonth.parse(latest).plusMonths(1); !month.isAfter(upTo); month = month
+					.plusMonths(1)) {
+				due.add(month);
+			}
+		}
+		return new ArrayList<>(due);
+	}
+
+	/**
+	 * Bills partitions of the specified cycle until all of them are completed,
+	 * by this or any other instance.
+	 *
+	 * @param yearMonth The month being billed.
+	 */
+	public void runCycle(YearMonth yearMonth) {
+		String cycle = yearMonth.toString();
+		createPartitions(cycle);
+		int billed = 0;
+		while (true) {
+			Optional<BillingPartition> partition = claimPartition(cycle);
+			if (partition.isPresent()) {
+				if (billPartition(partition.get())) {
+					billed++;
+				}
+			} else if (partitionRepo.countByCycleAndCompletedFalse(cycle) == 0) {
+				break;
+			} else {
+				// The rest are held by other instances; wait for them to finish or die
+				try {
+					Thread.sleep(properties.getPollMs());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					logger.warn("Billing cycle {} interrupted on {}", cycle, nodeId);
+					return;
+				}
+			}
+		}
+		logger.info("Billing cycle {} completed; {} billed {} partitions", cycle, nodeId, billed);
+	}
+
+	/**
+	 * Splits the credit card ids into the partitions of the specified cycle,
+	 * unless another instance has done so already. The last partition is open
+	 * ended, so cards issued meanwhile are billed too.
+	 *
+	 * @param cycle The billing cycle.
+	 */
+	void createPartitions(String cycle) {
+		if (partitionRepo.existsByCycle(cycle)) {
+			return;
+		}
+		Long maxCardId = creditCardRepo.findMaxCreditCardId();
+		int count = properties.getPartitions();
+		long size = Math.max(1, ((maxCardId == null ? 0 : maxCardId) + count) / count);
+		List<BillingPartition> partitions = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			long last = i == count - 1 ? Long.MAX_VALUE : (i + 1) * size - 1;
+			partitions.add(new BillingPartition(cycle, i, i * size, last));
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> partitionRepo.saveAllAndFlush(partitions));
+			logger.info("Created {} billing partitions of {} cards each for {}", count, size, cycle);
+		} catch (DataIntegrityViolationException e) {
+			// Another instance created the partitions first
+		}
+	}
+
+	/**
+	 * Claims the first partition of the specified cycle that is neither completed
+	 * nor leased.
+	 *
+	 * @param cycle The billing cycle.
+	 * @return The claimed partition, or empty if there is none to claim.
+	 */
+	Optional<BillingPartition> claimPartition(String cycle) {
+		return transactionTemplate.execute(status -> {
+			long now = System.currentTimeMillis();
+			for (BillingPartition partition : partitionRepo.findByCycleOrderByPartitionIndex(cycle)) {
+				if (partition.isCompleted() || partition.getOwner() != null && partition.getLeaseExpiresAt() > now) {
+					continue;
+				}
+				if (partition.getOwner() != null) {
+					logger.warn("Reclaiming billing partition {} from {}", partition.getPartitionKey(),
+							partition.getOwner());
+					meterRegistry.counter("billing.partitions", "outcome", "reclaimed").increment();
+				}
+				partition.setOwner(nodeId);
+				partition.setLeaseExpiresAt(now + properties.getLeaseMs());
+				return Optional.of(partitionRepo.save(partition));
+			}
+			return Optional.empty();
+		});
+	}
+
+	/**
+	 * Bills a claimed partition and marks it completed, renewing the lease while
+	 * it runs.
+	 *
+	 * @param partition The partition claimed by this instance.
+	 * @return True if the partition was billed, false if the lease was lost and
+	 *         the billing rolled back.
+	 */
+	boolean billPartition(BillingPartition partition) {
+		String key = partition.getPartitionKey();
+		long heartbeatMs = properties.getHeartbeatMs();
+		ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> renewLease(key), heartbeatMs,
+				heartbeatMs, TimeUnit.MILLISECONDS);
+		try {
+			meterRegistry.timer("billing.partition").record(() -> transactionTemplate.executeWithoutResult(status -> {
+				transactionService.runBillingPartition(partition.getFirstCardId(), partition.getLastCardId());
+				BillingPartition current = partitionRepo.findByPartitionKey(key).orElseThrow();
+				if (current.isCompleted() || !nodeId.equals(current.getOwner())) {
+					throw new LeaseLostException(current);
+				}
+				current.setCompleted(true);
+			}));
+			meterRegistry.counter("billing.partitions", "outcome", "completed").increment();
+			return true;
+		} catch (LeaseLostException e) {
+			logger.warn("Lost the lease on billing partition {}; rolled back", key);
+			meterRegistry.counter("billing.partitions", "outcome", "lost").increment();
+			return false;
+		} finally {
+			heartbeat.cancel(false);
+		}
+	}
+
+	private void renewLease(String key) {
+		try {
+			transactionTemplate.executeWithoutResult(status -> partitionRepo.findByPartitionKey(key)
+					.filter(partition -> !partition.isCompleted() && nodeId.equals(partition.getOwner()))
+					.ifPresent(partition -> partition
+							.setLeaseExpiresAt(System.currentTimeMillis() + properties.getLeaseMs())));
+		} catch (RuntimeException e) {
+			logger.warn("Could not renew the lease on billing partition {}", key, e);
+		}
+	}
+
+	/**
+	 * Thrown when a partition was reclaimed or completed by another instance
+	 * while this one was billing it.
+	 */
+	static class LeaseLostException extends RuntimeException {
+		LeaseLostException(BillingPartition partition) {
+			super("Billing partition " + partition.getPartitionKey() + " is held by " + partition.getOwner());
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fdmgroup.apmproject.config.BulkheadProperties.Partition;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * This class limits how much work of one partition runs at once.
+ * <p>
+ * At most {@code maxConcurrent} callers are inside at a time. When it is full,
+ * up to {@code maxQueued} further callers wait at most {@code maxWaitMs} for a
+ * caller to leave; any others are turned away at once, so a
+ * partition never holds more than {@code maxConcurrent + maxQueued} threads.
+ * <p>
+ * Its saturation is published with the tag {@code partition}: the
+ * {@code bulkhead.active}, {@code bulkhead.queued} and {@code bulkhead.limit}
+ * gauges, the {@code bulkhead.rejected} counter and the {@code bulkhead.wait}
+ * timer.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public class Bulkhead {
+
+	private final String name;
+	private final int maxConcurrent;
+	private final int maxQueued;
+	private final long maxWaitMs;
+	private final Semaphore permits;
+	private final AtomicInteger queued = new AtomicInteger();
+	private final Counter rejected;
+	private final Timer waits;
+
+	/**
+	 * Constructs a new bulkhead for a partition.
+	 *
+	 * @param name          The partition name.
+	 * @param partition     The concurrency and queue limits.
+	 * @param meterRegistry The registry the saturation metrics are published to.
+	 */
+	public Bulkhead(String name, Partition partition, MeterRegistry meterRegistry) {
+		this.name = name;
+		this.maxConcurrent = Math.max(1, partition.getMaxConcurrent());
+		this.maxQueued = Math.max(0, partition.getMaxQueued());
+		this.maxWaitMs = Math.max(0, partition.getMaxWaitMs());
+		this.permits = new Semaphore(maxConcurrent, true);
+		Gauge.builder("bulkhead.active", this, Bulkhead::getActive).tag("partition", name)
+				.description("Requests running in the partition").register(meterRegistry);
+		Gauge.builder("bulkhead.queued", queued, AtomicInteger::get).tag("partition", name)
+				.description("Requests waiting to enter the partition").register(meterRegistry);
+		Gauge.builder("bulkhead.limit", this, bulkhead -> bulkhead.maxConcurrent).tag("partition", name)
+				.description("Requests the partition runs at once").register(meterRegistry);
+		this.rejected = Counter.builder("bulkhead.rejected").tag("partition", name)
+				.description("Requests turned away by a full partition").register(meterRegistry);
+		this.waits = Timer.builder("bulkhead.wait").tag("partition", name)
+				.description("Time requests waited to enter the partition").register(meterRegistry);
+	}
+
+	/**
+	 * Enters the bulkhead, waiting for a slot if the queue has room. A caller that
+	 * enters must call {@link #exit()} when done.
+	 *
+	 * @return True if the caller entered, false if it was turned away.
+	 */
+	public boolean tryEnter() {
+		if (permits.tryAcquire()) {
+			return true;
+		}
+		if (queued.incrementAndGet() > maxQueued) {
+			queued.decrementAndGet();
+			rejected.increment();
+			return false;
+		}
+		long start = System.nanoTime();
+		try {
+			if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+				return true;
+			}
+			rejected.increment();
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			rejected.increment();
+			return false;
+		} finally {
+			queued.decrementAndGet();
+			waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Leaves the bulkhead, letting the longest waiting caller in.
+	 */
+	public void exit() {
+		permits.release();
+	}
+
+	/**
+	 * @return The partition name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The number of callers inside.
+	 */
+	public int getActive() {
+		return maxConcurrent - permits.availablePermits();
+	}
+
+	/**
+	 * @return The number of callers waiting to enter.
+	 */
+	public int getQueued() {
+		return queued.get();
+	}
+}
@@ -0,0 +1,273 @@
+package com.fdmgroup.apmproject.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fdmgroup.apmproject.config.CacheCoherenceProperties;
+import com.fdmgroup.apmproject.model.CacheInvalidation;
+import com.fdmgroup.apmproject.repository.CacheInvalidationRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class keeps the {@link CoherentCache} beans of all instances coherent
+ * through a table of versioned invalidations.
+ * <p>
+ * A writer invalidates its own cache as before and publishes the key here.
+ * Inside a transaction the keys are recorded once each just before commit, so
+ * the other instances see an invalidation exactly when they can see the
+ * change. Every instance reads the invalidations after the version it has
+ * read up to every {@code cache.coherence.poll-ms} and drops the entries they
+ * name; that interval plus the time of one poll bounds how long a cache serves
+ * a stale entry. The writer applies its own invalidations too, which drops an
+ * entry reloaded between its write and the commit. The version read up to only moves
+ * past invalidations older than {@code cache.coherence.settle-ms}, so one
+ * that took an earlier version but committed later is still read; the
+ * versions applied meanwhile are remembered so that each is applied once.
+ * An instance that could not poll for longer than the retention period may
+ * have missed deleted invalidations and drops every entry instead.
+ * <p>
+ * Invalidations are timestamped by the writer's clock, so the
+ * {@code cache.coherence.lag} timer and the settle period assume that
+ * instance clocks agree to well within {@code settle-ms}.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class CacheCoherence {
+
+	private static Logger logger = LogManager.getLogger(CacheCoherence.class);
+
+	private final Map<String, CoherentCache> caches = new HashMap<>();
+	private final CacheInvalidationRepository invalidationRepo;
+	private final CacheCoherenceProperties properties;
+	private final MeterRegistry meterRegistry;
+	private final Supplier<LocalDateTime> clock;
+	private final String nodeId;
+	// Read and written by the poll thread only
+	private final Set<Long> applied = new HashSet<>();
+	private LocalDateTime lastPoll;
+	private volatile long readVersion;
+	private ScheduledExecutorService executor;
+
+	@Autowired
+	public CacheCoherence(List<CoherentCache> caches, CacheInvalidationRepository invalidationRepo,
+			CacheCoherenceProperties properties, MeterRegistry meterRegistry) {
+		this(caches, invalidationRepo, properties, meterRegistry, LocalDateTime::now);
+	}
+
+	/**
+	 * Constructs a new cache coherence channel with the specified clock.
+	 *
+	 * @param caches           The caches of this instance.
+	 * @param invalidationRepo The invalidations shared by all instances.
+	 * @param properties       The poll interval, batch size and periods.
+	 * @param meterRegistry    The registry the coherence metrics are published to.
+	 * @param clock            The clock invalidations are timestamped with.
+	 */
+	public CacheCoherence(List<CoherentCache> caches, CacheInvalidationRepository invalidationRepo,
+			CacheCoherenceProperties properties, MeterRegistry meterRegistry, Supplier<LocalDateTime> clock) {
+		for (CoherentCache cache : caches) {
+			this.caches.put(cache.getCacheName(), cache);
+		}
+		this.invalidationRepo = invalidationRepo;
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+		this.clock = clock;
+		this.nodeId = properties.getNodeId().isBlank() ? BillingCoordinator.defaultNodeId() : properties.getNodeId();
+		Gauge.builder("cache.coherence.version", this, coherence -> coherence.readVersion).register(meterRegistry);
+	}
+
+	/**
+	 * Starts polling for invalidations once the application is up. Caches start
+	 * empty, so invalidations recorded before startup are skipped.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void start() {
+		if (!properties.isEnabled() || executor != null) {
+			return;
+		}
+		Long latest = invalidationRepo.findLatestVersion();
+		readVersion = latest == null ? 0 : latest;
+		lastPoll = clock.get();
+		executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "cache-coherence");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::poll, properties.getPollMs(), properties.getPollMs(),
+				TimeUnit.MILLISECONDS);
+		executor.scheduleWithFixedDelay(this::deleteExpired, properties.getCleanupIntervalMs(),
+				properties.getCleanupIntervalMs(), TimeUnit.MILLISECONDS);
+		logger.info("Cache coherence started on {} for {} caches from version {}", nodeId, caches.size(),
+				readVersion);
+	}
+
+	/**
+	 * Stops polling.
+	 */
+	@PreDestroy
+	public synchronized void stop() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Returns the name this instance records its invalidations under.
+	 *
+	 * @return The node id.
+	 */
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	/**
+	 * Tells every instance that an entry of a cache is stale. The caller
+	 * invalidates its own cache at once.
+	 *
+	 * @param cacheName The name of the cache.
+	 * @param key       The key of the stale entry.
+	 */
+	public void publish(String cacheName, String key) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			record(Set.of(new Key(cacheName, key)));
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		Set<Key> pending = (Set<Key>) TransactionSynchronizationManager.getResource(this);
+		if (pending == null) {
+			Set<Key> keys = new LinkedHashSet<>();
+			TransactionSynchronizationManager.bindResource(this, keys);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					// Publishes after this point, e.g. from a new transaction after commit, record their own keys
+					TransactionSynchronizationManager.unbindResource(CacheCoherence.this);
+					// A card written in every billing phase is recorded once
+					record(keys);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(CacheCoherence.this);
+				}
+			});
+			pending = keys;
+		}
+		pending.add(new Key(cacheName, key));
+	}
+
+	/**
+	 * Tells every instance that every entry of a cache is stale. The caller
+	 * invalidates its own cache at once.
+	 *
+	 * @param cacheName The name of the cache.
+	 */
+	public void publishAll(String cacheName) {
+		publish(cacheName, null);
+	}
+
+	private void record(Set<Key> keys) {
+		LocalDateTime now = clock.get();
+		invalidationRepo.saveAll(keys.stream()
+				.map(key -> new CacheInvalidation(key.cacheName(), key.key(), nodeId, now)).toList());
+		for (Key key : keys) {
+			meterRegistry.counter("cache.coherence.published", "cache", key.cacheName()).increment();
+		}
+	}
+
+	/**
+	 * Applies the invalidations recorded since the last poll.
+	 */
+	void poll() {
+		try {
+			LocalDateTime now = clock.get();
+			if (Duration.between(lastPoll, now).toMillis() > properties.getRetentionMs()) {
+				logger.warn("Cache coherence on {} was behind for longer than the retention; dropping all entries",
+						nodeId);
+				caches.values().forEach(CoherentCache::invalidateAll);
+			}
+			LocalDateTime settledBefore = now.minusNanos(TimeUnit.MILLISECONDS.toNanos(properties.getSettleMs()));
+			boolean settled = true;
+			long after = readVersion;
+			List<CacheInvalidation> batch;
+			do {
+				batch = invalidationRepo.findBatchAfter(after, PageRequest.of(0, properties.getBatchSize()));
+				for (CacheInvalidation invalidation : batch) {
+					if (applied.add(invalidation.getVersion())) {
+						apply(invalidation, now);
+					}
+					settled = settled && invalidation.getCreatedAt().isBefore(settledBefore);
+					if (settled) {
+						readVersion = invalidation.getVersion();
+					}
+					after = invalidation.getVersion();
+				}
+			} while (batch.size() == properties.getBatchSize());
+			applied.removeIf(version -> version <= readVersion);
+			lastPoll = now;
+		} catch (RuntimeException e) {
+			logger.warn("Cache coherence poll failed on {}", nodeId, e);
+		}
+	}
+
+	private void apply(CacheInvalidation invalidation, LocalDateTime now) {
+		CoherentCache cache = caches.get(invalidation.getCacheName());
+		if (cache == null) {
+			return;
+		}
+		if (invalidation.getCacheKey() == null) {
+			cache.invalidateAll();
+		} else {
+			cache.invalidate(invalidation.getCacheKey());
+		}
+		meterRegistry.counter("cache.coherence.applied", "cache", cache.getCacheName()).increment();
+		Duration lag = Duration.between(invalidation.getCreatedAt(), now);
+		meterRegistry.timer("cache.coherence.lag").record(lag.isNegative() ? Duration.ZERO : lag);
+	}
+
+	private void deleteExpired() {
+		try {
+			LocalDateTime expiredBefore = clock.get()
+					.minusNanos(TimeUnit.MILLISECONDS.toNanos(properties.getRetentionMs()));
+			int deleted = invalidationRepo.deleteCreatedBefore(expiredBefore);
+			if (deleted > 0) {
+				logger.info("Deleted {} expired cache invalidations", deleted);
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Failed to delete expired cache invalidations", e);
+		}
+	}
+
+	private record Key(String cacheName, String key) {
+	}
+}
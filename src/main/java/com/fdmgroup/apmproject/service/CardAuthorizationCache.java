@@ -0,0 +1,130 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fdmgroup.apmproject.model.CardAuthorization;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class is a size-bounded LRU cache of card authorization records keyed
+ * by credit card number.
+ * <p>
+ * Records are loaded on demand and invalidated on every credit card write.
+ * Unknown card numbers are never cached, so card-testing traffic cannot evict
+ * the records of real cards. A load that races with an invalidation is not
+ * stored, so a stale record cannot outlive the write that invalidated it.
+ * Writes on other instances are applied through {@link CacheCoherence}.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Component
+public class CardAuthorizationCache implements CoherentCache {
+
+	public static final String NAME = "card-authorization";
+
+	private final Map<String, CardAuthorization> records;
+	private final AtomicLong invalidations = new AtomicLong();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public CardAuthorizationCache(@Value("${card.authorization.cache.max-size:10000}") int maxSize,
+			MeterRegistry meterRegistry) {
+		this.records = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CardAuthorization> eldest) {
+				if (size() > maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+		FunctionCounter.builder("card.authorization.cache", hits, LongAdder::sum).tag("result", "hit")
+				.register(meterRegistry);
+		FunctionCounter.builder("card.authorization.cache", misses, LongAdder::sum).tag("result", "miss")
+				.register(meterRegistry);
+		FunctionCounter.builder("card.authorization.cache.evictions", evictions, LongAdder::sum)
+				.register(meterRegistry);
+		Gauge.builder("card.authorization.cache.size", this, CardAuthorizationCache::size).register(meterRegistry);
+	}
+
+	@Override
+	public String getCacheName() {
+		return NAME;
+	}
+
+	/**
+	 * Returns the authorization record of a card, loading it on a miss.
+	 *
+	 * @param creditCardNumber The credit card number.
+	 * @param loader           Loads the record from the database, returning null
+	 *                         for an unknown card.
+	 * @return The authorization record, or null if the card does not exist.
+	 */
+	public CardAuthorization get(String creditCardNumber, Function<String, CardAuthorization> loader) {
+		synchronized (records) {
+			CardAuthorization record = records.get(creditCardNumber);
+			if (record != null) {
+				hits.increment();
+				return record;
+			}
+		}
+		misses.increment();
+		long generation = invalidations.get();
+		CardAuthorization loaded = loader.apply(creditCardNumber);
+		if (loaded != null) {
+			synchronized (records) {
+				if (generation == invalidations.get()) {
+					records.put(creditCardNumber, loaded);
+				}
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * Drops the record of a card.
+	 *
+	 * @param creditCardNumber The credit card number.
+	 */
+	@Override
+	public void invalidate(String creditCardNumber) {
+		synchronized (records) {
+			invalidations.incrementAndGet();
+			records.remove(creditCardNumber);
+		}
+	}
+
+	/**
+	 * Drops every record.
+	 */
+	@Override
+	public void invalidateAll() {
+		synchronized (records) {
+			invalidations.incrementAndGet();
+			records.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (records) {
+			return records.size();
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.fdmgroup.apmproject.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This class is responsible for deciding the cashback rate of a purchase from
+ * the card product and the merchant category code.
+ * <p>
+ * Rules are read once from a JSON file at startup and compiled into a
+ * two-dimensional array indexed by card product ordinal and MCC ordinal. A rule
+ * without an MCC applies to every merchant category of its card product, and a
+ * rule with an MCC overrides it for that category. Card products and MCCs that
+ * no rule mentions earn no cashback. New card products are added by editing
+ * the rule file; no code changes are needed.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class CashbackRuleService {
+
+	private static Logger logger = LogManager.getLogger(CashbackRuleService.class);
+
+	private final ResourceLoader resourceLoader;
+	private final String location;
+
+	private volatile RuleTable table;
+
+	public CashbackRuleService(ResourceLoader resourceLoader,
+			@Value("${cashback.rules.location:classpath:cashback_rules.json}") String location) {
+		this.resourceLoader = resourceLoader;
+		this.location = location;
+		reload();
+	}
+
+	/**
+	 * Returns the cashback rate of a purchase.
+	 *
+	 * @param cardType                   The card product, e.g. "Ultimate Cashback
+	 *                                   Card".
+	 * @param merchantCategoryCodeNumber The MCC number of the merchant.
+	 * @return The cashback rate, e.g. 0.02 for 2%, or 0 if no rule applies.
+	 */
+	public double getRate(String cardType, int merchantCategoryCodeNumber) {
+		return table.rate(cardType, merchantCategoryCodeNumber);
+	}
+
+	/**
+	 * Reads the rule file again and replaces the compiled rule table.
+	 *
+	 * @throws RuntimeException If the rule file cannot be read or parsed.
+	 */
+	public void reload() {
+		try (InputStream inputStream = resourceLoader.getResource(location).getInputStream()) {
+			RuleFile ruleFile = new ObjectMapper().readValue(inputStream, RuleFile.class);
+			table = RuleTable.compile(ruleFile.rules() == null ? List.of() : ruleFile.rules());
+			logger.info("Cashback rules loaded for {} card products", table.cardOrdinals.size());
+		} catch (IOException e) {
+			logger.warn("Failed to read cashback rules from {}", location);
+			throw new RuntimeException("Failed to read cashback rules from " + location + ".", e);
+		}
+	}
+
+	/**
+	 * A cashback rule: purchases on {@code cardType} at merchants with MCC
+	 * {@code mcc}, or at any merchant if {@code mcc} is absent, earn
+	 * {@code rate} of the amount.
+	 */
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	record Rule(String cardType, Integer mcc, double rate) {
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	record RuleFile(List<Rule> rules) {
+	}
+
+	/**
+	 * The compiled rules. Column 0 of each row holds the card product's default
+	 * rate; the other columns hold the rates of the MCCs named by any rule.
+	 */
+	private static final class RuleTable {
+		private final Map<String, Integer> cardOrdinals;
+		private final Map<Integer, Integer> mccOrdinals;
+		private final double[][] rates;
+
+		private RuleTable(Map<String, Integer> cardOrdinals, Map<Integer, Integer> mccOrdinals, double[][] rates) {
+			this.cardOrdinals = cardOrdinals;
+			this.mccOrdinals = mccOrdinals;
+			this.rates = rates;
+		}
+
+		static RuleTable compile(List<Rule> rules) {
+			Map<String, Integer> cardOrdinals = new LinkedHashMap<>();
+			Map<Integer, Integer> mccOrdinals = new HashMap<>();
+			for (Rule rule : rules) {
+				cardOrdinals.putIfAbsent(rule.cardType(), cardOrdinals.size());
+				if (rule.mcc() != null) {
+					mccOrdinals.putIfAbsent(rule.mcc(), mccOrdinals.size() + 1);
+				}
+			}
+
+			double[][] rates = new double[cardOrdinals.size()][mccOrdinals.size() + 1];
+			// Apply the card-wide defaults first so that MCC-specific rules override them
+			for (Rule rule : rules) {
+				if (rule.mcc() == null) {
+					Arrays.fill(rates[cardOrdinals.get(rule.cardType())], rule.rate());
+				}
+			}
+			for (Rule rule : rules) {
+				if (rule.mcc() != null) {
+					rates[cardOrdinals.get(rule.cardType())][mccOrdinals.get(rule.mcc())] = rule.rate();
+				}
+			}
+			return new RuleTable(Map.copyOf(cardOrdinals), Map.copyOf(mccOrdinals), rates);
+		}
+
+		double rate(String cardType, int merchantCategoryCodeNumber) {
+			Integer card = cardType == null ? null : cardOrdinals.get(cardType);
+			if (card == null) {
+				return 0;
+			}
+			return rates[card][mccOrdinals.getOrDefault(merchantCategoryCodeNumber, 0)];
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class stops calling a failing dependency for a while, so that callers
+ * fall back at once instead of waiting on it.
+ * <p>
+ * The breaker starts CLOSED and lets every call through. After
+ * {@code failureThreshold} failures in a row it turns OPEN and lets no call
+ * through for {@code openMs} milliseconds. It then turns HALF_OPEN and lets a
+ * single probe through: if the probe succeeds the breaker closes, otherwise it
+ * opens again.
+ * <p>
+ * Every state change is logged and counted in the
+ * {@code circuit.breaker.transitions} counter, tagged with the breaker name and
+ * the new state; the {@code circuit.breaker.state} gauge is 0 when closed, 1
+ * when open and 2 when half open.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public class CircuitBreaker {
+
+	/**
+	 * The state of a breaker.
+	 */
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private static Logger logger = LogManager.getLogger(CircuitBreaker.class);
+
+	private final String name;
+	private final int failureThreshold;
+	private final long openNanos;
+	private final LongSupplier nanoClock;
+	private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+	private State state = State.CLOSED;
+	private int failures;
+	private long openedAt;
+	private boolean probing;
+
+	/**
+	 * Constructs a new breaker using the system nano clock.
+	 *
+	 * @param name             The name of the protected dependency.
+	 * @param failureThreshold The failures in a row that open the breaker.
+	 * @param openMs           How long the breaker stays open, in milliseconds.
+	 * @param meterRegistry    The registry the breaker state is published to.
+	 */
+	public CircuitBreaker(String name, int failureThreshold, long openMs, MeterRegistry meterRegistry) {
+		this(name, failureThreshold, openMs, meterRegistry, System::nanoTime);
+	}
+
+	/**
+	 * Constructs a new breaker with the specified clock.
+	 *
+	 * @param name             The name of the protected dependency.
+	 * @param failureThreshold The failures in a row that open the breaker.
+	 * @param openMs           How long the breaker stays open, in milliseconds.
+	 * @param meterRegistry    The registry the breaker state is published to.
+	 * @param nanoClock        The monotonic clock, in nanoseconds.
+	 */
+	public CircuitBreaker(String name, int failureThreshold, long openMs, MeterRegistry meterRegistry,
+			LongSupplier nanoClock) {
+		this.name = name;
+		this.failureThreshold = Math.max(1, failureThreshold);
+		this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+		this.nanoClock = nanoClock;
+		Gauge.builder("circuit.breaker.state", this, breaker -> breaker.getState().ordinal()).tag("name", name)
+				.description("State of the circuit breaker: 0 closed, 1 open, 2 half open").register(meterRegistry);
+		for (State to : State.values()) {
+			transitions.put(to, Counter.builder("circuit.breaker.transitions").tag("name", name)
+					.tag("state", to.name().toLowerCase()).description("Circuit breaker state changes")
+					.register(meterRegistry));
+		}
+	}
+
+	/**
+	 * Checks whether a call may go through. A call that is let through must be
+	 * followed by {@link #recordSuccess()} or {@link #recordFailure()}.
+	 *
+	 * @return True if the call may go through, false if the caller should fall
+	 *         back.
+	 */
+	public synchronized boolean tryAcquire() {
+		if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+			transition(State.HALF_OPEN, "open period elapsed, letting one probe through");
+		}
+		switch (state) {
+		case CLOSED:
+			return true;
+		case HALF_OPEN:
+			if (probing) {
+				return false;
+			}
+			probing = true;
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Records a call that succeeded, closing the breaker if it was probing.
+	 */
+	public synchronized void recordSuccess() {
+		failures = 0;
+		probing = false;
+		if (state != State.CLOSED) {
+			transition(State.CLOSED, "probe succeeded");
+		}
+	}
+
+	/**
+	 * Records a call that failed, opening the breaker if it was probing or too
+	 * many calls failed in a row.
+	 */
+	public synchronized void recordFailure() {
+		failures++;
+		probing = false;
+		if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+			openedAt = nanoClock.getAsLong();
+			transition(State.OPEN, state == State.HALF_OPEN ? "probe failed"
+					: "threshold of " + failureThreshold + " failures in a row reached");
+		}
+	}
+
+	private void transition(State to, String reason) {
+		logger.warn("Circuit breaker {} changed from {} to {}: {}", name, state, to, reason);
+		state = to;
+		transitions.get(to).increment();
+	}
+
+	/**
+	 * @return The current state.
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+}
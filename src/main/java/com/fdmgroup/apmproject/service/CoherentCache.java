@@ -0,0 +1,35 @@
+package com.fdmgroup.apmproject.service;
+
+/**
+ * A node-local cache kept coherent across instances, registered by declaring
+ * it as a bean.
+ * <p>
+ * When one instance changes what a cache holds, it publishes the key through
+ * {@link CacheCoherence}, and every instance drops the entry from its
+ * own copy within {@code cache.coherence.poll-ms}. An invalidation may arrive
+ * more than once, so dropping an entry twice must be harmless.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public interface CoherentCache {
+
+	/**
+	 * @return The name invalidations of this cache are published under; it must
+	 *         be the same on every instance.
+	 */
+	String getCacheName();
+
+	/**
+	 * Drops one entry.
+	 *
+	 * @param key The key of the entry.
+	 */
+	void invalidate(String key);
+
+	/**
+	 * Drops every entry.
+	 */
+	void invalidateAll();
+}
@@ -10,8 +10,12 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fdmgroup.apmproject.model.AuditAction;
+import com.fdmgroup.apmproject.model.CardAuthorization;
 import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.CreditCardSummary;
 import com.fdmgroup.apmproject.model.Status;
 import com.fdmgroup.apmproject.model.Transaction;
 import com.fdmgroup.apmproject.repository.CreditCardRepository;
@@ -29,6 +33,14 @@ import com.fdmgroup.apmproject.repository.CreditCardRepository;
 public class CreditCardService {
 	@Autowired
 	private CreditCardRepository creditCardRepo;
+	@Autowired
+	private CardAuthorizationCache authorizationCache;
+	@Autowired
+	private CacheCoherence cacheCoherence;
+	@Autowired
+	private NumberAllocator numberAllocator;
+	@Autowired
+	private AuditJournal auditJournal;
 	private static final double interestRate = 0.1;
 
 	private static Logger logger = LogManager.getLogger(CreditCardService.class);
@@ -65,6 +77,8 @@ public class CreditCardService {
 			logger.warn("Credit Card does not exist in database");
 		} else {
 			creditCardRepo.save(creditCard);
+			authorizationCache.invalidate(creditCard.getCreditCardNumber());
+			cacheCoherence.publish(CardAuthorizationCache.NAME, creditCard.getCreditCardNumber());
 			logger.info("Credit Card successfully updated");
 		}
 	}
@@ -113,6 +127,8 @@ public class CreditCardService {
 			logger.warn("Credit Card does not exist in database");
 		} else {
 			creditCardRepo.deleteById(creditCardId);
+			authorizationCache.invalidate(returnedCreditCard.get().getCreditCardNumber());
+			cacheCoherence.publish(CardAuthorizationCache.NAME, returnedCreditCard.get().getCreditCardNumber());
 			logger.info("Credit Card deleted from Database");
 		}
 	}
@@ -146,6 +162,22 @@ public class CreditCardService {
 		}
 	}
 
+	/**
+	 * Retrieves the authorization record of a credit card by its number.
+	 * <p>
+	 * The record is served from the {@link CardAuthorizationCache} and only loaded
+	 * from the database on a miss. Records are invalidated whenever the card is
+	 * updated or deleted through this service.
+	 *
+	 * @param number The credit card number used to locate the credit card.
+	 * @return The authorization record, or null if no such credit card exists.
+	 * @see CardAuthorization#of(CreditCard)
+	 */
+	public CardAuthorization findAuthorization(String number) {
+		return authorizationCache.get(number,
+				n -> creditCardRepo.findByCreditCardNumber(n).map(CardAuthorization::of).orElse(null));
+	}
+
 	/**
 	 * Retrieves a list of credit card records matching a specific status.
 	 * <p>
@@ -165,35 +197,38 @@ public class CreditCardService {
 	 *      credit cards by their status.
 	 */
 	public List<CreditCard> findCreditCardsByStatus(Status status) {
-		logger.info("Finding all credit card with " + status.getStatusName() + " Status");
+		logger.info("Finding all credit card with {} Status", status.getStatusName());
 		return creditCardRepo.findByCreditCardStatus(status);
 	}
 
 	/**
-	 * Generates a random credit card number in a standardized format.
+	 * Retrieves the credit cards with the specified status whose ids fall within
+	 * the specified range, such as one partition of a billing run.
+	 *
+	 * @param status      The status used to filter credit cards.
+	 * @param firstCardId The first credit card id, inclusive.
+	 * @param lastCardId  The last credit card id, inclusive.
+	 * @return List of CreditCard objects that match the given status and range.
+	 */
+	public List<CreditCard> findCreditCardsByStatus(Status status, long firstCardId, long lastCardId) {
+		logger.info("Finding credit cards {} to {} with {} Status", firstCardId, lastCardId, status.getStatusName());
+		return creditCardRepo.findByCreditCardStatusAndCreditCardIdBetween(status, firstCardId, lastCardId);
+	}
+
+	/**
+	 * Generates a unique credit card number.
 	 * <p>
-	 * This method constructs a credit card number consisting of 16 digits, divided
+	 * This method returns a credit card number consisting of 16 digits, divided
 	 * into four groups separated by dashes for readability (e.g.,
-	 * XXXX-XXXX-XXXX-XXXX). It uses a pseudorandom number generator to ensure each
-	 * digit is randomly selected. The format is suitable for mock-up purposes and
-	 * not for generating valid real-world credit card numbers.
+	 * XXXX-XXXX-XXXX-XXXX). Numbers are allocated by the {@link NumberAllocator},
+	 * which guarantees uniqueness without querying existing cards, and the last
+	 * digit is a Luhn check digit.
 	 *
-	 * @return A string representing a pseudo-randomly generated credit card number
-	 *         in a readable format.
-	 * @throws IllegalArgumentException If the number generation process encounters
-	 *                                  an issue with the formatting.
-	 * @see java.util.Random#nextInt(int) Method used for generating random digits.
+	 * @return A unique credit card number in a readable format.
+	 * @see NumberAllocator#nextCreditCardNumber()
 	 */
 	public String generateCreditCardNumber() {
-		StringBuilder sb = new StringBuilder();
-		Random random = new Random();
-		for (int i = 0; i < 16; i++) {
-			sb.append(random.nextInt(10));
-			if ((i + 1) % 4 == 0 && i != 15) {
-				sb.append("-"); // Adds a dash after every 4 digits, except the last set of 4 digits
-			}
-		}
-		return sb.toString();
+		return numberAllocator.nextCreditCardNumber();
 	}
 
 	@SuppressWarnings("unused")
@@ -221,6 +256,7 @@ public class CreditCardService {
 	 * @see CreditCardRepo#findAll() Method to fetch all records from the credit
 	 *      card repository.
 	 */
+	@Transactional(readOnly = true)
 	public List<CreditCard> findAllCreditCards() {
 		List<CreditCard> creditCards = creditCardRepo.findAll();
 		return creditCards;
@@ -266,9 +302,12 @@ public class CreditCardService {
 				}
 			}
 			if (interestPayable > 0) {
+				double previousInterest = creditCard.getInterest();
 				creditCard.setInterest(interestPayable * interestRate);
-				logger.info(creditCard.getCreditCardNumber() + " charged for " + interestPayable * interestRate
-						+ " as interest. Balance charged for interest: " + interestPayable);
+				auditJournal.append(AuditAction.CARD_INTEREST, "creditcard/" + creditCard.getCreditCardId(),
+						previousInterest, creditCard.getInterest());
+				logger.info("{} charged for {} as interest. Balance charged for interest: {}",
+						creditCard.getCreditCardNumber(), interestPayable * interestRate, interestPayable);
 				update(creditCard);
 			}
 		}
@@ -310,9 +349,10 @@ public class CreditCardService {
 						&& transaction.getTransactionType().equals("CC Payment")) {
 					monthlyBalance -= transaction.getTransactionAmount();
 				}
-				creditCard.setMonthlyBalance(monthlyBalance);
-				update(creditCard);
 			}
+			// Saved once the transactions have been read; saving a managed card merges its transactions
+			creditCard.setMonthlyBalance(monthlyBalance);
+			update(creditCard);
 		}
 	}
 
@@ -349,8 +389,31 @@ public class CreditCardService {
 		}
 	}
 	
+	@Transactional(readOnly = true)
 	public List<CreditCard> findAllCreditCardByUserId(long userId) {
 		return creditCardRepo.findByCreditCardUserUserId(userId);
 	}
 
+	/**
+	 * Retrieves summaries of all credit cards of a user, with masked card numbers
+	 * and without loading the cards or their transactions.
+	 *
+	 * @param userId The id of the user.
+	 * @return The credit card summaries in credit card id order.
+	 */
+	@Transactional(readOnly = true)
+	public List<CreditCardSummary> findCreditCardSummariesByUserId(long userId) {
+		return creditCardRepo.findSummariesByUserId(userId);
+	}
+
+	/**
+	 * Checks whether a credit card belongs to a user.
+	 *
+	 * @param creditCardId The id of the credit card.
+	 * @param userId       The id of the user.
+	 * @return true if the credit card exists and belongs to the user.
+	 */
+	public boolean isCreditCardOwnedBy(long creditCardId, long userId) {
+		return creditCardRepo.existsByCreditCardIdAndCreditCardUserUserId(creditCardId, userId);
+	}
 }
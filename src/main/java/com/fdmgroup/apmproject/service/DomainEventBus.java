@@ -0,0 +1,159 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fdmgroup.apmproject.config.DomainEventProperties;
+import com.fdmgroup.apmproject.model.DomainEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class is responsible for handing domain events to the registered
+ * {@link DomainEventListener} beans off the request thread.
+ * <p>
+ * An event published inside a database transaction is dispatched only after
+ * the transaction commits, and dropped if it rolls back; outside a transaction
+ * it is dispatched at once. Every listener has its own worker thread and a
+ * bounded queue, so a slow listener delays neither the request nor the other
+ * listeners. When a listener's queue is full, the publishing thread handles
+ * the event itself; this slows the publisher down instead of losing the event
+ * or growing the queue without bound.
+ * <p>
+ * Per listener, the {@code domain.events.queued} gauge shows the queue length,
+ * {@code domain.events.handled} times each event from publication to the end
+ * of handling, tagged with the outcome, and {@code domain.events.caller.runs}
+ * counts events handled by the publisher.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class DomainEventBus {
+
+	private static Logger logger = LogManager.getLogger(DomainEventBus.class);
+
+	private final List<Subscription> subscriptions = new ArrayList<>();
+	private final Map<Class<?>, List<Subscription>> routes = new HashMap<>();
+	private final long shutdownTimeoutMs;
+
+	public DomainEventBus(List<DomainEventListener> listeners, DomainEventProperties properties,
+			MeterRegistry meterRegistry) {
+		this.shutdownTimeoutMs = properties.getShutdownTimeoutMs();
+		for (DomainEventListener listener : listeners) {
+			Subscription subscription = new Subscription(listener, properties.getQueueCapacity(), meterRegistry);
+			subscriptions.add(subscription);
+			for (Class<? extends DomainEvent> eventType : listener.getEventTypes()) {
+				routes.computeIfAbsent(eventType, type -> new ArrayList<>()).add(subscription);
+			}
+		}
+	}
+
+	/**
+	 * Publishes an event to the listeners of its class, after the current
+	 * transaction commits if there is one.
+	 *
+	 * @param event The event.
+	 */
+	public void publish(DomainEvent event) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					dispatch(event);
+				}
+			});
+		} else {
+			dispatch(event);
+		}
+	}
+
+	private void dispatch(DomainEvent event) {
+		long publishedAt = System.nanoTime();
+		for (Subscription subscription : routes.getOrDefault(event.getClass(), List.of())) {
+			subscription.executor.execute(() -> subscription.handle(event, publishedAt));
+		}
+	}
+
+	/**
+	 * Stops accepting events and waits for the listeners to finish their queues.
+	 */
+	@PreDestroy
+	public void close() {
+		subscriptions.forEach(subscription -> subscription.executor.shutdown());
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+		for (Subscription subscription : subscriptions) {
+			try {
+				if (!subscription.executor.awaitTermination(Math.max(deadline - System.nanoTime(), 0),
+						TimeUnit.NANOSECONDS)) {
+					logger.warn("Domain event listener {} did not finish {} queued events",
+							subscription.listener.getName(), subscription.executor.getQueue().size());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A listener with its worker thread, queue and metrics.
+	 */
+	private static final class Subscription {
+		private final DomainEventListener listener;
+		private final ThreadPoolExecutor executor;
+		private final Timer succeeded;
+		private final Timer failed;
+
+		Subscription(DomainEventListener listener, int queueCapacity, MeterRegistry meterRegistry) {
+			this.listener = listener;
+			String name = listener.getName();
+			Counter callerRuns = Counter.builder("domain.events.caller.runs").tag("listener", name)
+					.description("Events handled on the publishing thread because the listener's queue was full")
+					.register(meterRegistry);
+			this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+						Thread thread = new Thread(runnable, "domain-events-" + name);
+						thread.setDaemon(true);
+						return thread;
+					}, (task, executor) -> {
+						if (!executor.isShutdown()) {
+							callerRuns.increment();
+							task.run();
+						}
+					});
+			Gauge.builder("domain.events.queued", executor, pool -> pool.getQueue().size()).tag("listener", name)
+					.description("Events waiting for the listener").register(meterRegistry);
+			this.succeeded = Timer.builder("domain.events.handled").tag("listener", name).tag("result", "success")
+					.register(meterRegistry);
+			this.failed = Timer.builder("domain.events.handled").tag("listener", name).tag("result", "failure")
+					.register(meterRegistry);
+		}
+
+		void handle(DomainEvent event, long publishedAt) {
+			try {
+				listener.onEvent(event);
+				succeeded.record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+			} catch (Exception e) {
+				failed.record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+				logger.warn("Domain event listener {} failed on {}: {}", listener.getName(), event, e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.Set;
+
+import com.fdmgroup.apmproject.model.DomainEvent;
+
+/**
+ * A listener for domain events, registered with the {@link DomainEventBus} by
+ * declaring it as a bean.
+ * <p>
+ * Each listener handles its events one at a time, in the order they were
+ * published, on its own thread. Under overload the publishing thread may
+ * handle an event itself, so a listener must not rely on a request context.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public interface DomainEventListener {
+
+	/**
+	 * @return The name the listener's metrics are tagged with.
+	 */
+	String getName();
+
+	/**
+	 * @return The event classes the listener handles.
+	 */
+	Set<Class<? extends DomainEvent>> getEventTypes();
+
+	/**
+	 * Handles one event.
+	 *
+	 * @param event The event, of one of the listener's event types.
+	 * @throws Exception If the event could not be handled; it is counted and
+	 *                   logged, and not retried.
+	 */
+	void onEvent(DomainEvent event) throws Exception;
+}
@@ -0,0 +1,97 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fdmgroup.apmproject.config.ExchangeRateFeedProperties;
+import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class fetches the latest exchange rates from the external feed.
+ * <p>
+ * Calls give up after the configured connect and read timeouts, and go
+ * through a {@link CircuitBreaker} named {@code fx-feed}, so a slow or failing
+ * feed cannot stall startup or its callers. While the feed is failing or the
+ * breaker is open, the last rates fetched successfully are returned instead.
+ * Concurrent callers share one fetch through a {@link SingleFlight}.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class ExchangeRateFeed {
+
+	private static Logger logger = LogManager.getLogger(ExchangeRateFeed.class);
+
+	private final String url;
+	private final RestTemplate restTemplate;
+	private final CircuitBreaker circuitBreaker;
+	private final SingleFlight<String, Map<String, ForeignExchangeCurrency>> exchangeRateLoads;
+	private final AtomicReference<Map<String, ForeignExchangeCurrency>> lastGoodRates = new AtomicReference<>();
+
+	public ExchangeRateFeed(ExchangeRateFeedProperties properties,
+			SingleFlight<String, Map<String, ForeignExchangeCurrency>> exchangeRateLoads, MeterRegistry meterRegistry) {
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+		requestFactory.setConnectTimeout(properties.getConnectTimeoutMs());
+		requestFactory.setReadTimeout(properties.getReadTimeoutMs());
+		this.url = properties.getUrl();
+		this.restTemplate = new RestTemplate(requestFactory);
+		this.circuitBreaker = new CircuitBreaker("fx-feed", properties.getFailureThreshold(), properties.getOpenMs(),
+				meterRegistry);
+		this.exchangeRateLoads = exchangeRateLoads;
+	}
+
+	/**
+	 * Fetches the latest exchange rates, keyed by lower case currency code.
+	 * Callers that ask while a fetch is in flight share its result.
+	 *
+	 * @return The latest rates, or the last rates fetched successfully if the
+	 *         feed fails or the breaker is open; null if the feed has never
+	 *         answered.
+	 */
+	public Map<String, ForeignExchangeCurrency> fetchRates() {
+		return exchangeRateLoads.execute(url, this::fetchOrFallBack);
+	}
+
+	private Map<String, ForeignExchangeCurrency> fetchOrFallBack() {
+		if (!circuitBreaker.tryAcquire()) {
+			logger.warn("Exchange rate feed skipped while its circuit breaker is open, serving the last good rates");
+			return lastGoodRates.get();
+		}
+		try {
+			Map<String, ForeignExchangeCurrency> rates = restTemplate.exchange(url, HttpMethod.GET, null,
+					new ParameterizedTypeReference<Map<String, ForeignExchangeCurrency>>() {
+					}).getBody();
+			if (rates == null || rates.isEmpty()) {
+				throw new RestClientException("No data received");
+			}
+			circuitBreaker.recordSuccess();
+			lastGoodRates.set(rates);
+			return rates;
+		} catch (RuntimeException e) {
+			// Any failure, not only a REST one, must be recorded or a probe leaves the breaker open for good
+			circuitBreaker.recordFailure();
+			logger.warn("Error fetching currency data, serving the last good rates: {}", e.getMessage());
+			return lastGoodRates.get();
+		}
+	}
+
+	/**
+	 * @return The circuit breaker in front of the feed.
+	 */
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+}
@@ -0,0 +1,93 @@
+package com.fdmgroup.apmproject.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * This class is a keyed, format-preserving permutation of the integers
+ * {@code [0, domain)}.
+ * <p>
+ * It is a balanced Feistel network over {@code [0, radix * radix)}, where
+ * {@code radix} is the smallest integer whose square covers the domain, with
+ * cycle walking to map results outside the domain back into it. Because every
+ * step is a bijection, distinct inputs always give distinct outputs, so
+ * sequential values become unpredictable numbers of the same width without any
+ * uniqueness check.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public class FeistelPermutation {
+
+	private static final int ROUNDS = 8;
+
+	private final long domain;
+	private final long radix;
+	private final long[] roundKeys = new long[ROUNDS];
+
+	/**
+	 * Constructs a new permutation of {@code [0, domain)}.
+	 *
+	 * @param domain The size of the domain, at most 10^18.
+	 * @param secret The secret the round keys are derived from.
+	 */
+	public FeistelPermutation(long domain, String secret) {
+		this.domain = domain;
+		long root = (long) Math.sqrt((double) domain);
+		while (root * root < domain) {
+			root++;
+		}
+		this.radix = root;
+		try {
+			for (int round = 0; round < ROUNDS; round++) {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				byte[] hash = digest.digest((secret + ":" + domain + ":" + round).getBytes(StandardCharsets.UTF_8));
+				roundKeys[round] = ByteBuffer.wrap(hash).getLong();
+			}
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Maps a value to its image under the permutation.
+	 *
+	 * @param value A value in {@code [0, domain)}.
+	 * @return The permuted value, also in {@code [0, domain)}.
+	 * @throws IllegalArgumentException If the value is outside the domain.
+	 */
+	public long permute(long value) {
+		if (value < 0 || value >= domain) {
+			throw new IllegalArgumentException("Value " + value + " is outside the domain of " + domain);
+		}
+		long result = value;
+		do {
+			result = encrypt(result);
+		} while (result >= domain);
+		return result;
+	}
+
+	private long encrypt(long value) {
+		long left = value / radix;
+		long right = value % radix;
+		for (int round = 0; round < ROUNDS; round++) {
+			long next = Math.floorMod(left + roundFunction(right, round), radix);
+			left = right;
+			right = next;
+		}
+		return left * radix + right;
+	}
+
+	private long roundFunction(long half, int round) {
+		long x = half ^ roundKeys[round];
+		x ^= x >>> 33;
+		x *= 0xff51afd7ed558ccdL;
+		x ^= x >>> 33;
+		x *= 0xc4ceb9fe1a85ec53L;
+		x ^= x >>> 33;
+		return (x & Long.MAX_VALUE) % radix;
+	}
+}
@@ -0,0 +1,47 @@
+package com.fdmgroup.apmproject.service;
+
+import org.springframework.stereotype.Component;
+
+import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * This class exposes the node-local second-level cache region of
+ * {@link ForeignExchangeCurrency} to {@link CacheCoherence}.
+ * <p>
+ * Hibernate keeps the region current for writes made on this instance only,
+ * so rates refreshed by another instance would otherwise be served stale until
+ * the region's TTL. Keys are currency ids.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Component
+public class ForeignExchangeCurrencyCache implements CoherentCache {
+
+	public static final String NAME = "foreign-exchange-currency";
+
+	private final Cache cache;
+
+	public ForeignExchangeCurrencyCache(EntityManagerFactory entityManagerFactory) {
+		this.cache = entityManagerFactory.getCache();
+	}
+
+	@Override
+	public String getCacheName() {
+		return NAME;
+	}
+
+	@Override
+	public void invalidate(String key) {
+		cache.evict(ForeignExchangeCurrency.class, Integer.valueOf(key));
+	}
+
+	@Override
+	public void invalidateAll() {
+		cache.evict(ForeignExchangeCurrency.class);
+	}
+}
@@ -8,19 +8,14 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.json.JsonParseException;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -30,6 +25,7 @@ import com.fdmgroup.apmproject.config.CurrencyDeserializer;
 import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
 import com.fdmgroup.apmproject.repository.ForeignExchangeCurrencyRepository;
 
+import io.micrometer.core.annotation.Timed;
 
 /**
  * This class is responsible for handling all business logic related to ForeignExchangeCurrency.
@@ -46,9 +42,16 @@ public class ForeignExchangeCurrencyService {
 	@Autowired
 	private ResourceLoader resourceLoader;
 
-	private static Logger logger = LogManager.getLogger(ForeignExchangeCurrencyService.class);
+	@Autowired
+	private ExchangeRateFeed exchangeRateFeed;
+
+	@Autowired
+	private SingleFlight<String, List<ForeignExchangeCurrency>> currencyCatalogLoads;
 
-	private static final String URL = "http://www.floatrates.com/daily/usd.json";
+	@Autowired
+	private CacheCoherence cacheCoherence;
+
+	private static Logger logger = LogManager.getLogger(ForeignExchangeCurrencyService.class);
 
 	public ForeignExchangeCurrencyService(ForeignExchangeCurrencyRepository currencyRepo) {
 		this.currencyRepo = currencyRepo;
@@ -94,6 +97,8 @@ public class ForeignExchangeCurrencyService {
 			logger.warn("Foreign Currency does not exist in database");
 		} else {
 			currencyRepo.save(foreignExchangeCurrency);
+			cacheCoherence.publish(ForeignExchangeCurrencyCache.NAME,
+					Integer.toString(foreignExchangeCurrency.getCurrencyId()));
 			logger.info("Foreign Currency successfully updated");
 		}
 	}
@@ -202,7 +207,9 @@ public class ForeignExchangeCurrencyService {
 					new TypeReference<List<ForeignExchangeCurrency>>() {
 					});
 			currencyRepo.saveAll(currencies);
-			logger.info("Currencies list is successfully updated to " + currencies.get(1).getDate());
+			// Other instances still hold the previous rates in their second-level cache
+			cacheCoherence.publishAll(ForeignExchangeCurrencyCache.NAME);
+			logger.info("Currencies list is successfully updated to {}", currencies.get(1).getDate());
 		} catch (JsonParseException e) {
 			logger.warn("Failed to parse JSON file: Invalid JSON format");
 			throw new RuntimeException("Failed to parse JSON file: Invalid JSON format.", e);
@@ -246,17 +253,19 @@ public class ForeignExchangeCurrencyService {
 	/**
 	 * Retrieves a list of supported foreign exchange currencies from the database.
 	 * <p>
-	 * This method filters the complete list of currencies to include only those with codes specified as supported (SGD, USD, HKD). It is used to provide a subset of currencies that are actively traded or recognized by this service. The method leverages streaming and filtering operations to efficiently gather the supported currencies based on pre-defined codes.
+	 * This method filters the complete list of currencies to include only those with codes specified as supported (SGD, USD, HKD). It is used to provide a subset of currencies that are actively traded or recognized by this service. Callers that ask while another caller's load is in flight share its result through a {@link SingleFlight}, so the returned list is unmodifiable.
 	 *
 	 * @return List of ForeignExchangeCurrency objects that are supported, filtered by specific currency codes. This list may be empty if none of the specified currencies are stored.
 	 * @throws DataAccessException If there are issues accessing the database or processing the currency data.
 	 * @see CurrencyRepo#findAll() Indirectly used through getAllCurrencies to fetch all currency records.
 	 */
 	public List<ForeignExchangeCurrency> getSupportedCurrencies() {
-		List<String> supportedCurrencyCodes = List.of("SGD", "USD", "HKD");
-		List<ForeignExchangeCurrency> supportedCurrencies = getAllCurrencies().stream()
-				.filter(currency -> supportedCurrencyCodes.contains(currency.getCode())).collect(Collectors.toList());
-		return supportedCurrencies;
+		// Concurrent callers share one load; the shared list must not be modified
+		return currencyCatalogLoads.execute("supported", () -> {
+			List<String> supportedCurrencyCodes = List.of("SGD", "USD", "HKD");
+			return getAllCurrencies().stream().filter(currency -> supportedCurrencyCodes.contains(currency.getCode()))
+					.toList();
+		});
 	}
 
 	/**
@@ -270,6 +279,7 @@ public class ForeignExchangeCurrencyService {
 	 * @throws CurrencyNotFoundException If either the base or target currency does not exist in the database.
 	 * @see CurrencyRepo#findByCurrencyCode(String) Method used to fetch currency details by code.
 	 */
+	@Timed(value = "fx.exchange.rate", description = "Time taken to look up an exchange rate")
 	public BigDecimal getExchangeRate(String baseCurrencyCode, String targetCurrencyCode) {
 		ForeignExchangeCurrency localCurrency = currencyRepo.findByCurrencyCode(baseCurrencyCode);
 		ForeignExchangeCurrency foreignCurrency = currencyRepo.findByCurrencyCode(targetCurrencyCode);
@@ -278,27 +288,22 @@ public class ForeignExchangeCurrencyService {
 		// If both currencies same, no conversion is required
 		if (localCurrency.getCode().equals(foreignCurrency.getCode())) {
 			BigDecimal exchangeRate = BigDecimal.valueOf(1);
-			logger.info("No conversion required! BaseCurrencyCode" + baseCurrencyCode + " & targetCurrencyCode: "
-					+ targetCurrencyCode);
-			logger.info("The exchange rate used for this transaction is : " + exchangeRate);
+			logger.debug("No conversion required from {} to {}, exchange rate {}", baseCurrencyCode,
+					targetCurrencyCode, exchangeRate);
 			return exchangeRate;
 		}
 
 		// Direct conversion to USD
 		if (targetCurrencyCode.equals(USCurrency.getCode())) {
 			BigDecimal exchangeRate = BigDecimal.valueOf(localCurrency.getRate());
-			logger.info("Conversion to USD: BaseCurrencyCode" + baseCurrencyCode + " & targetCurrencyCode: "
-					+ targetCurrencyCode);
-			logger.info("The exchange rate used for this transaction is : " + exchangeRate);
+			logger.debug("Conversion from {} to USD, exchange rate {}", baseCurrencyCode, exchangeRate);
 			return exchangeRate;
 		}
 
 		// Conversion from USD to another currency
 		if (baseCurrencyCode.equals(USCurrency.getCode())) {
 			BigDecimal exchangeRate = BigDecimal.valueOf(foreignCurrency.getRate());
-			logger.info("Conversion from USD to another currency: BaseCurrencyCode" + baseCurrencyCode
-					+ " & targetCurrencyCode: " + targetCurrencyCode);
-			logger.info("The exchange rate used for this transaction is : " + exchangeRate);
+			logger.debug("Conversion from USD to {}, exchange rate {}", targetCurrencyCode, exchangeRate);
 			return exchangeRate;
 		}
 
@@ -309,23 +314,18 @@ public class ForeignExchangeCurrencyService {
 		// Calculate the exchange rate from local currency to foreign currency
 		BigDecimal exchangeRate = usdToForeignCurrency.multiply(localCurrencyToUSD);
 
-		logger.info("Conversion between 2 non-USD currencies: BaseCurrencyCode" + baseCurrencyCode
-				+ " & targetCurrencyCode: " + targetCurrencyCode);
-		logger.info("The conversion of local currency to USD is: " + localCurrencyToUSD
-				+ " and the conversion of usd to Target Currency is " + usdToForeignCurrency);
-		logger.info("The exchange rate used for this transaction is : " + exchangeRate);
+		logger.debug("Conversion from {} to {} through USD ({} x {}), exchange rate {}", baseCurrencyCode,
+				targetCurrencyCode, localCurrencyToUSD, usdToForeignCurrency, exchangeRate);
 		return exchangeRate;
 	}
 
 	/**
 	 * Fetches and stores the latest foreign exchange rates from an external API.
 	 * <p>
-	 * This method checks for the existence of a local JSON file containing exchange rates. If the file exists, the update is skipped, and a log entry is made. If the file does not exist, the method fetches exchange rates from a predefined URL using an HTTP GET request. The fetched data is parsed into a map of currency codes to `ForeignExchangeCurrency` objects. If successful, this data is serialized to JSON and written to the local file system. If any part of the fetch or save process fails, appropriate warnings are logged.
+	 * This method checks for the existence of a local JSON file containing exchange rates. If the file exists, the update is skipped, and a log entry is made. If the file does not exist, the method fetches exchange rates through the {@link ExchangeRateFeed}, which gives up after its timeouts and serves the last good rates while the feed is failing. If rates are received, they are serialized to JSON and written to the local file system. If any part of the fetch or save process fails, appropriate warnings are logged.
 	 *
 	 * @return void This method does not return a value but logs the outcome of fetching and saving operations.
-	 * @throws DataAccessException If there are issues accessing the API or local file system.
-	 * @throws Exception If there are issues during the HTTP request, data parsing, or file writing processes.
-	 * @see RestTemplate#exchange(String, HttpMethod, HttpEntity, ParameterizedTypeReference) For fetching data from the external API.
+	 * @see ExchangeRateFeed#fetchRates() For fetching data from the external API.
 	 * @see ObjectMapper#writeValueAsString(Object) For serializing the currency data to JSON.
 	 */
 	public void fetchAndSaveExchangeRates() {
@@ -336,21 +336,11 @@ public class ForeignExchangeCurrencyService {
 		}
 
 		// Proceed to fetch data from the API
-		RestTemplate restTemplate = new RestTemplate();
-		ResponseEntity<Map<String, ForeignExchangeCurrency>> response;
-		try {
-			response = restTemplate.exchange(URL, HttpMethod.GET, null,
-					new ParameterizedTypeReference<Map<String, ForeignExchangeCurrency>>() {
-					});
-			if (response.getBody() == null) {
-				throw new Exception("Failed to fetch data: No data received");
-			}
-		} catch (Exception e) {
-			logger.warn("Error fetching currency data: " + e.getMessage());
+		Map<String, ForeignExchangeCurrency> foreignCurrencies = exchangeRateFeed.fetchRates();
+		if (foreignCurrencies == null) {
+			logger.warn("Error fetching currency data: No data received");
 			return;
 		}
-
-		Map<String, ForeignExchangeCurrency> foreignCurrencies = response.getBody();
 		logger.info("Foreign Currencies Object ready for fetching");
 
 		try {
@@ -358,7 +348,7 @@ public class ForeignExchangeCurrencyService {
 			Files.write(Paths.get("src/main/resources/fx_rates.json"), json.getBytes());
 			logger.info("fx_rates.json file successfully updated");
 		} catch (Exception e) {
-			logger.warn("Error saving currency data: ", e.getMessage());
+			logger.warn("Error saving currency data: {}", e.getMessage());
 			return;
 		}
 	}
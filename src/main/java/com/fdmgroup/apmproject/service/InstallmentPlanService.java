@@ -0,0 +1,151 @@
+package com.fdmgroup.apmproject.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fdmgroup.apmproject.model.InstallmentPlan;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.model.UpcomingInstallment;
+import com.fdmgroup.apmproject.repository.InstallmentPlanRepository;
+import com.fdmgroup.apmproject.repository.TransactionRepository;
+
+/**
+ * This class is responsible for handling all business logic related to
+ * installment plans.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class InstallmentPlanService {
+	@Autowired
+	private InstallmentPlanRepository installmentPlanRepo;
+
+	@Autowired
+	private TransactionRepository transactionRepo;
+
+	@Autowired
+	private TransactionOutbox transactionOutbox;
+
+	@Value("${installment.tenors:3,6,12}")
+	private List<Integer> tenors = List.of(3, 6, 12);
+
+	private static Logger logger = LogManager.getLogger(InstallmentPlanService.class);
+
+	/**
+	 * Converts a credit card purchase into an installment plan.
+	 * <p>
+	 * The plan is saved with a single insert whatever the tenor, and the original
+	 * purchase is deleted. Its first installment is due immediately and, like the
+	 * rest, is posted by the billing run. The purchase amount was already added to
+	 * the card's amount used, so the card itself is not touched.
+	 *
+	 * @param purchase The "CC Purchase" transaction to convert.
+	 * @param tenor    The number of monthly installments; must be one of the
+	 *                 offered tenors.
+	 * @return The saved installment plan, or null if the purchase or tenor is
+	 *         invalid.
+	 */
+	public InstallmentPlan convertToInstallments(Transaction purchase, int tenor) {
+		if (purchase == null || purchase.getTransactionCreditCard() == null
+				|| !"CC Purchase".equals(purchase.getTransactionType())) {
+			logger.warn("Only credit card purchases can be converted into installments");
+			return null;
+		}
+		if (!tenors.contains(tenor)) {
+			logger.warn("Installment tenor of {} months is not offered", tenor);
+			return null;
+		}
+		InstallmentPlan plan = installmentPlanRepo.save(new InstallmentPlan(purchase, tenor, LocalDateTime.now()));
+		transactionRepo.deleteById(purchase.getTransactionId());
+		logger.info("Payment converted into {} months installments", tenor);
+		return plan;
+	}
+
+	/**
+	 * Posts every installment that is due on or before the specified date.
+	 * <p>
+	 * Installments are posted as "CC Purchase" transactions dated on their due
+	 * dates, so a billing run that missed a month catches up. All transactions
+	 * and plans are written in two batched saves, the transactions together with
+	 * their "TransactionPosted" outbox events, in one database transaction, so a
+	 * run that fails part way posts nothing and a retry never posts an
+	 * installment twice. The card's amount used is not changed because the full
+	 * purchase amount was charged when it was made.
+	 *
+	 * @param date The billing run date.
+	 * @return The number of installments posted.
+	 */
+	@Transactional
+	public int postDueInstallments(LocalDateTime date) {
+		return postInstallments(date, installmentPlanRepo.findByNextDueDateLessThanEqual(date));
+	}
+
+	/**
+	 * Posts every installment that is due on or before the specified date on the
+	 * credit cards whose ids fall within the specified range, such as one
+	 * partition of a billing run.
+	 *
+	 * @param date        The billing run date.
+	 * @param firstCardId The first credit card id, inclusive.
+	 * @param lastCardId  The last credit card id, inclusive.
+	 * @return The number of installments posted.
+	 */
+	@Transactional
+	public int postDueInstallments(LocalDateTime date, long firstCardId, long lastCardId) {
+		return postInstallments(date, installmentPlanRepo
+				.findByNextDueDateLessThanEqualAndCreditCardCreditCardIdBetween(date, firstCardId, lastCardId));
+	}
+
+	private int postInstallments(LocalDateTime date, List<InstallmentPlan> duePlans) {
+		List<Transaction> installments = new ArrayList<>();
+		for (InstallmentPlan plan : duePlans) {
+			while (plan.getNextDueDate() != null && !plan.getNextDueDate().isAfter(date)) {
+				installments.add(plan.postNextInstallment());
+			}
+		}
+		if (!installments.isEmpty()) {
+			transactionOutbox.postAll(installments);
+			installmentPlanRepo.saveAll(duePlans);
+		}
+		logger.info("Posted {} installments from {} plans", installments.size(), duePlans.size());
+		return installments.size();
+	}
+
+	/**
+	 * Retrieves the installments of a credit card that have not been posted yet.
+	 * <p>
+	 * The installments are computed from the card's active plans and are not
+	 * stored.
+	 *
+	 * @param creditCardId The id of the credit card.
+	 * @return The upcoming installments in due date order.
+	 */
+	public List<UpcomingInstallment> findUpcomingInstallments(long creditCardId) {
+		List<UpcomingInstallment> upcoming = new ArrayList<>();
+		for (InstallmentPlan plan : installmentPlanRepo.findByCreditCardCreditCardIdAndNextDueDateIsNotNull(creditCardId)) {
+			upcoming.addAll(plan.getUpcomingInstallments());
+		}
+		upcoming.sort(Comparator.comparing(UpcomingInstallment::dueDate));
+		return upcoming;
+	}
+
+	/**
+	 * Returns the tenors, in months, that purchases can be converted into.
+	 *
+	 * @return The offered tenors.
+	 */
+	public List<Integer> getTenors() {
+		return tenors;
+	}
+}
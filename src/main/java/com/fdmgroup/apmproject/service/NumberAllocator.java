@@ -0,0 +1,169 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fdmgroup.apmproject.model.NumberSequence;
+import com.fdmgroup.apmproject.repository.NumberSequenceRepository;
+
+/**
+ * This class is responsible for allocating unique account and credit card
+ * numbers.
+ * <p>
+ * Blocks of sequence values are reserved from the {@link NumberSequence} table
+ * under a row lock, one round trip per block, and handed out from memory. Each
+ * value is scrambled with a keyed {@link FeistelPermutation} so that issued
+ * numbers are neither sequential nor guessable, and credit card numbers get a
+ * Luhn check digit. Since the permutation is a bijection and the sequence
+ * never repeats, numbers are unique without probing the database, across any
+ * number of application instances.
+ * <p>
+ * The key is read from {@code number.allocator.secret}, which has no default
+ * and is expected from the environment, e.g. {@code NUMBER_ALLOCATOR_SECRET};
+ * the application does not start without it, as anyone holding the key can
+ * tell which numbers were issued.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class NumberAllocator {
+
+	public static final String ACCOUNT_SEQUENCE = "account";
+	public static final String CREDIT_CARD_SEQUENCE = "credit-card";
+
+	private static final long ACCOUNT_DOMAIN = 1_000_000_000L;
+	private static final long CREDIT_CARD_DOMAIN = 1_000_000_000_000_000L;
+
+	private static Logger logger = LogManager.getLogger(NumberAllocator.class);
+
+	private final NumberSequenceRepository numberSequenceRepo;
+	private final TransactionTemplate transactionTemplate;
+	private final int blockSize;
+	private final FeistelPermutation accountPermutation;
+	private final FeistelPermutation creditCardPermutation;
+	private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+	public NumberAllocator(NumberSequenceRepository numberSequenceRepo, PlatformTransactionManager transactionManager,
+			@Value("${number.allocator.block-size:1000}") int blockSize,
+			@Value("${number.allocator.secret:}") String secret) {
+		if (secret == null || secret.isBlank()) {
+			throw new IllegalStateException(
+					"number.allocator.secret is not set; provide it through NUMBER_ALLOCATOR_SECRET or external config");
+		}
+		this.numberSequenceRepo = numberSequenceRepo;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.blockSize = blockSize;
+		this.accountPermutation = new FeistelPermutation(ACCOUNT_DOMAIN, secret);
+		this.creditCardPermutation = new FeistelPermutation(CREDIT_CARD_DOMAIN, secret);
+	}
+
+	/**
+	 * Allocates a new bank account number in the format XXX-XXX-XXX.
+	 *
+	 * @return A unique bank account number.
+	 */
+	public String nextAccountNumber() {
+		long number = accountPermutation.permute(next(ACCOUNT_SEQUENCE, ACCOUNT_DOMAIN));
+		return group(String.format("%09d", number), 3);
+	}
+
+	/**
+	 * Allocates a new credit card number in the format XXXX-XXXX-XXXX-XXXX whose
+	 * last digit is a Luhn check digit.
+	 *
+	 * @return A unique credit card number.
+	 */
+	public String nextCreditCardNumber() {
+		long number = creditCardPermutation.permute(next(CREDIT_CARD_SEQUENCE, CREDIT_CARD_DOMAIN));
+		String payload = String.format("%015d", number);
+		return group(payload + luhnCheckDigit(payload), 4);
+	}
+
+	/**
+	 * Computes the Luhn check digit of a string of digits.
+	 *
+	 * @param payload The digits to protect.
+	 * @return The check digit to append.
+	 */
+	public static int luhnCheckDigit(String payload) {
+		int sum = 0;
+		boolean doubled = true;
+		for (int i = payload.length() - 1; i >= 0; i--) {
+			int digit = payload.charAt(i) - '0';
+			if (doubled) {
+				digit *= 2;
+				if (digit > 9) {
+					digit -= 9;
+				}
+			}
+			sum += digit;
+			doubled = !doubled;
+		}
+		return (10 - sum % 10) % 10;
+	}
+
+	private long next(String sequenceName, long domain) {
+		Block block = blocks.computeIfAbsent(sequenceName, name -> new Block());
+		synchronized (block) {
+			if (block.next == block.end) {
+				block.next = reserve(sequenceName);
+				block.end = block.next + blockSize;
+			}
+			if (block.next >= domain) {
+				throw new IllegalStateException("Number sequence " + sequenceName + " is exhausted");
+			}
+			return block.next++;
+		}
+	}
+
+	private long reserve(String sequenceName) {
+		try {
+			return reserveBlock(sequenceName);
+		} catch (DataIntegrityViolationException e) {
+			// Another instance created the sequence row first; it exists now
+			return reserveBlock(sequenceName);
+		}
+	}
+
+	private long reserveBlock(String sequenceName) {
+		long start = transactionTemplate.execute(status -> {
+			NumberSequence sequence = numberSequenceRepo.findBySequenceName(sequenceName)
+					.orElseGet(() -> new NumberSequence(sequenceName, 0));
+			long first = sequence.getNextValue();
+			sequence.setNextValue(first + blockSize);
+			numberSequenceRepo.save(sequence);
+			return first;
+		});
+		logger.info("Reserved {} numbers {} to {}", sequenceName, start, start + blockSize - 1);
+		return start;
+	}
+
+	private static String group(String digits, int size) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < digits.length(); i++) {
+			if (i > 0 && i % size == 0) {
+				sb.append("-");
+			}
+			sb.append(digits.charAt(i));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * The values of a reserved block that have not been handed out yet.
+	 */
+	private static final class Block {
+		private long next;
+		private long end;
+	}
+}
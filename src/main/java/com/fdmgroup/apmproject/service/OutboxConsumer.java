@@ -0,0 +1,34 @@
+package com.fdmgroup.apmproject.service;
+
+import com.fdmgroup.apmproject.model.OutboxEvent;
+
+/**
+ * An in-process consumer of outbox events, registered by declaring it as a
+ * bean.
+ * <p>
+ * The {@link OutboxRelay} hands each consumer every event in id order, so the
+ * events of one account or card arrive in the order they were posted. Delivery
+ * is at least once: an event may be handed over again after a failure or a
+ * restart, so handling it twice must have no further effect.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public interface OutboxConsumer {
+
+	/**
+	 * @return The name the consumer's checkpoint is stored under; it must not
+	 *         change between releases.
+	 */
+	String getName();
+
+	/**
+	 * Handles one event.
+	 *
+	 * @param event The event.
+	 * @throws Exception If the event could not be handled; it is handed over
+	 *                   again on the next poll, followed by the events after it.
+	 */
+	void accept(OutboxEvent event) throws Exception;
+}
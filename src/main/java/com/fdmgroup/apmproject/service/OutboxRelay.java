@@ -0,0 +1,287 @@
+package com.fdmgroup.apmproject.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.fdmgroup.apmproject.config.OutboxProperties;
+import com.fdmgroup.apmproject.model.OutboxCheckpoint;
+import com.fdmgroup.apmproject.model.OutboxDeadLetter;
+import com.fdmgroup.apmproject.model.OutboxEvent;
+import com.fdmgroup.apmproject.repository.OutboxCheckpointRepository;
+import com.fdmgroup.apmproject.repository.OutboxDeadLetterRepository;
+import com.fdmgroup.apmproject.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class is responsible for delivering outbox events to the registered
+ * {@link OutboxConsumer} beans.
+ * <p>
+ * Each consumer is polled on its own thread, so a slow or failing consumer
+ * holds up neither the others nor any request. A poll reads the next batch of
+ * events after the consumer's checkpoint and hands them over in id order. The
+ * checkpoint is then moved to the last event handled, with one write per
+ * batch. As events take their ids on insert, a lower id may still be
+ * committing when a higher one is read; the batch therefore stops at a gap in
+ * the ids until the event after it is {@code outbox.relay.settle-ms} old, and
+ * only then is the gap taken for a rolled back transaction and passed.
+ * <p>
+ * When a consumer throws, the rest of the batch is left, and the failed event
+ * is handed over again on the next poll; delivery is therefore at least once
+ * and the events of an aggregate are never reordered. After
+ * {@code outbox.relay.max-attempts} failures in a row the event is copied to
+ * {@code listOfOutboxDeadLetters}, logged as an error and passed, so one bad
+ * event cannot stop the consumer for good. The failures in a row on the
+ * consumer's next event are published in the {@code outbox.failing.attempts}
+ * gauge, which stays above zero while the checkpoint is stuck; parked events
+ * are counted in {@code outbox.parked}. The count is kept in memory, so it
+ * starts again after a restart. Events every consumer has handled are deleted
+ * in the background.
+ * <p>
+ * Checkpoints are shared through the database, but the relay expects to run on
+ * one instance; set {@code outbox.relay.enabled=false} on the others.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class OutboxRelay {
+
+	private static Logger logger = LogManager.getLogger(OutboxRelay.class);
+
+	private final List<OutboxConsumer> consumers;
+	private final OutboxEventRepository outboxEventRepo;
+	private final OutboxCheckpointRepository checkpointRepo;
+	private final OutboxDeadLetterRepository deadLetterRepo;
+	private final OutboxProperties properties;
+	private final MeterRegistry meterRegistry;
+	private final Supplier<LocalDateTime> clock;
+	private final Map<String, Long> checkpoints = new ConcurrentHashMap<>();
+	private final Map<String, FailedAttempts> failedAttempts = new ConcurrentHashMap<>();
+	private ScheduledExecutorService executor;
+
+	@Autowired
+	public OutboxRelay(List<OutboxConsumer> consumers, OutboxEventRepository outboxEventRepo,
+			OutboxCheckpointRepository checkpointRepo, OutboxDeadLetterRepository deadLetterRepo,
+			OutboxProperties properties, MeterRegistry meterRegistry) {
+		this(consumers, outboxEventRepo, checkpointRepo, deadLetterRepo, properties, meterRegistry,
+				LocalDateTime::now);
+	}
+
+	/**
+	 * Constructs a new outbox relay with the specified clock.
+	 *
+	 * @param consumers       The consumers to deliver to.
+	 * @param outboxEventRepo The outbox events.
+	 * @param checkpointRepo  The consumers' checkpoints.
+	 * @param deadLetterRepo  The events consumers gave up on.
+	 * @param properties      The poll interval, batch size, settle time and
+	 *                        attempts.
+	 * @param meterRegistry   The registry the relay metrics are published to.
+	 * @param clock           The clock events are compared against for settling.
+	 */
+	public OutboxRelay(List<OutboxConsumer> consumers, OutboxEventRepository outboxEventRepo,
+			OutboxCheckpointRepository checkpointRepo, OutboxDeadLetterRepository deadLetterRepo,
+			OutboxProperties properties, MeterRegistry meterRegistry, Supplier<LocalDateTime> clock) {
+		this.consumers = List.copyOf(consumers);
+		this.outboxEventRepo = outboxEventRepo;
+		this.checkpointRepo = checkpointRepo;
+		this.deadLetterRepo = deadLetterRepo;
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+		this.clock = clock;
+		for (OutboxConsumer consumer : this.consumers) {
+			failedAttempts(consumer.getName());
+		}
+	}
+
+	/**
+	 * Starts polling for every consumer once the application is up.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void start() {
+		if (!properties.isEnabled() || consumers.isEmpty() || executor != null) {
+			return;
+		}
+		AtomicInteger threads = new AtomicInteger();
+		executor = Executors.newScheduledThreadPool(consumers.size() + 1, runnable -> {
+			Thread thread = new Thread(runnable, "outbox-relay-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (OutboxConsumer consumer : consumers) {
+			executor.scheduleWithFixedDelay(() -> drain(consumer), 0, properties.getPollIntervalMs(),
+					TimeUnit.MILLISECONDS);
+		}
+		executor.scheduleWithFixedDelay(this::deleteDelivered, properties.getCleanupIntervalMs(),
+				properties.getCleanupIntervalMs(), TimeUnit.MILLISECONDS);
+		logger.info("Outbox relay started for {} consumers", consumers.size());
+	}
+
+	/**
+	 * Stops polling; a batch being delivered is finished first.
+	 */
+	@PreDestroy
+	public synchronized void stop() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Delivers batches to a consumer until it has caught up or fails.
+	 */
+	private void drain(OutboxConsumer consumer) {
+		try {
+			while (relay(consumer) == properties.getBatchSize()) {
+				// A full batch, so there may be more waiting
+			}
+		} catch (RuntimeException e) {
+			// Keep the schedule alive; the batch is retried on the next poll
+			logger.warn("Outbox relay to {} failed: {}", consumer.getName(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Delivers the next batch of events to a consumer and moves its checkpoint
+	 * past the events it handled.
+	 *
+	 * @param consumer The consumer.
+	 * @return The number of events handled, which is less than the batch size when
+	 *         the consumer has caught up or failed.
+	 */
+	public int relay(OutboxConsumer consumer) {
+		String name = consumer.getName();
+		long checkpoint = checkpoint(name);
+		LocalDateTime settledBefore = clock.get().minusNanos(TimeUnit.MILLISECONDS.toNanos(properties.getSettleMs()));
+		List<OutboxEvent> events = outboxEventRepo.findBatchAfter(checkpoint,
+				PageRequest.of(0, properties.getBatchSize()));
+		FailedAttempts attempts = failedAttempts(name);
+		long lastHandled = checkpoint;
+		int handled = 0;
+		for (OutboxEvent event : events) {
+			long eventId = event.getOutboxEventId();
+			if (eventId != lastHandled + 1) {
+				if (!event.getCreatedAt().isBefore(settledBefore)) {
+					// A lower id may still be committing
+					break;
+				}
+				logger.debug("Outbox consumer {} passed the gap before event {}", name, eventId);
+			}
+			try {
+				consumer.accept(event);
+				attempts.clear();
+			} catch (Exception e) {
+				meterRegistry.counter("outbox.failures", "consumer", name).increment();
+				int failures = attempts.record(eventId);
+				if (failures < properties.getMaxAttempts()) {
+					logger.warn("Outbox consumer {} failed on event {}, attempt {} of {}: {}", name, eventId,
+							failures, properties.getMaxAttempts(), e.getMessage());
+					break;
+				}
+				park(name, event, failures, e);
+				attempts.clear();
+			}
+			lastHandled = eventId;
+			handled++;
+		}
+		if (handled > 0) {
+			checkpointRepo.save(new OutboxCheckpoint(name, lastHandled));
+			checkpoints.put(name, lastHandled);
+			meterRegistry.counter("outbox.delivered", "consumer", name).increment(handled);
+		}
+		return handled;
+	}
+
+	/**
+	 * Keeps a copy of an event the consumer keeps failing on, so the consumer
+	 * can move past it.
+	 */
+	private void park(String name, OutboxEvent event, int failures, Exception e) {
+		deadLetterRepo.save(new OutboxDeadLetter(name, event, failures, e.getMessage(), clock.get()));
+		meterRegistry.counter("outbox.parked", "consumer", name).increment();
+		logger.error("Outbox consumer {} gave up on event {} after {} attempts and parked it: {}", name,
+				event.getOutboxEventId(), failures, e.getMessage());
+	}
+
+	/**
+	 * Deletes the events every consumer has handled.
+	 *
+	 * @return The number of events deleted.
+	 */
+	public int deleteDelivered() {
+		try {
+			long upTo = Long.MAX_VALUE;
+			for (OutboxConsumer consumer : consumers) {
+				upTo = Math.min(upTo, checkpoint(consumer.getName()));
+			}
+			if (consumers.isEmpty() || upTo == 0) {
+				return 0;
+			}
+			int deleted = outboxEventRepo.deleteUpTo(upTo);
+			logger.debug("Deleted {} delivered outbox events", deleted);
+			return deleted;
+		} catch (RuntimeException e) {
+			logger.warn("Failed to delete delivered outbox events: {}", e.getMessage());
+			return 0;
+		}
+	}
+
+	private FailedAttempts failedAttempts(String name) {
+		return failedAttempts.computeIfAbsent(name, key -> {
+			FailedAttempts attempts = new FailedAttempts();
+			Gauge.builder("outbox.failing.attempts", attempts, FailedAttempts::count).tag("consumer", key)
+					.description("Failures in a row on the consumer's next outbox event").register(meterRegistry);
+			return attempts;
+		});
+	}
+
+	private long checkpoint(String name) {
+		return checkpoints.computeIfAbsent(name,
+				key -> checkpointRepo.findById(key).map(OutboxCheckpoint::getLastEventId).orElse(0L));
+	}
+
+	/**
+	 * The failures in a row of a consumer on one event.
+	 */
+	private static final class FailedAttempts {
+		private long eventId;
+		private int count;
+
+		synchronized int record(long failedEventId) {
+			if (failedEventId != eventId) {
+				eventId = failedEventId;
+				count = 0;
+			}
+			return ++count;
+		}
+
+		synchronized void clear() {
+			eventId = 0;
+			count = 0;
+		}
+
+		synchronized double count() {
+			return count;
+		}
+	}
+}
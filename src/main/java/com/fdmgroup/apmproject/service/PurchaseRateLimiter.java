@@ -0,0 +1,97 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import com.fdmgroup.apmproject.config.RateLimitProperties;
+import com.fdmgroup.apmproject.config.RateLimitProperties.Budget;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class is responsible for throttling purchase requests per credit card
+ * and per POS client.
+ * <p>
+ * A request must obtain a token from its client bucket and then from its card
+ * bucket. Clients that present a configured client id are throttled with their
+ * own budget; any other caller is keyed by its remote address and receives the
+ * default client budget, so an unknown client id cannot buy a fresh budget.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class PurchaseRateLimiter {
+
+	private static final int MAX_BUCKETS = 100_000;
+
+	private static Logger logger = LogManager.getLogger(PurchaseRateLimiter.class);
+
+	private final RateLimitProperties properties;
+	private final TokenBucketRateLimiter clientLimiter = new TokenBucketRateLimiter(MAX_BUCKETS);
+	private final TokenBucketRateLimiter cardLimiter = new TokenBucketRateLimiter(MAX_BUCKETS);
+
+	private final LongAdder permitted = new LongAdder();
+	private final LongAdder rejectedByClient = new LongAdder();
+	private final LongAdder rejectedByCard = new LongAdder();
+
+	public PurchaseRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		FunctionCounter.builder("purchase.rate.limit", permitted, LongAdder::sum).tag("outcome", "permitted")
+				.tag("limiter", "all").description("Purchase requests checked by the rate limiter")
+				.register(meterRegistry);
+		FunctionCounter.builder("purchase.rate.limit", rejectedByClient, LongAdder::sum).tag("outcome", "rejected")
+				.tag("limiter", "client").register(meterRegistry);
+		FunctionCounter.builder("purchase.rate.limit", rejectedByCard, LongAdder::sum).tag("outcome", "rejected")
+				.tag("limiter", "card").register(meterRegistry);
+		Gauge.builder("purchase.rate.limit.buckets", clientLimiter, TokenBucketRateLimiter::size)
+				.tag("limiter", "client").register(meterRegistry);
+		Gauge.builder("purchase.rate.limit.buckets", cardLimiter, TokenBucketRateLimiter::size)
+				.tag("limiter", "card").register(meterRegistry);
+	}
+
+	/**
+	 * Checks whether a purchase request may proceed.
+	 *
+	 * @param clientId         The client id presented by the caller, may be null.
+	 * @param remoteAddress    The remote address of the caller.
+	 * @param creditCardNumber The credit card number of the purchase, may be null.
+	 * @return True if the request is within both budgets, false otherwise.
+	 */
+	public boolean tryAcquire(String clientId, String remoteAddress, String creditCardNumber) {
+		if (!properties.isEnabled()) {
+			return true;
+		}
+
+		Budget clientBudget = clientId == null ? null : properties.getClients().get(clientId);
+		String clientKey = clientId;
+		if (clientBudget == null) {
+			clientBudget = properties.getClient();
+			clientKey = remoteAddress;
+		}
+		if (!clientLimiter.tryAcquire(clientKey, clientBudget)) {
+			rejectedByClient.increment();
+			logger.warn("Purchase throttled for client {}", clientKey);
+			return false;
+		}
+
+		if (creditCardNumber != null && !cardLimiter.tryAcquire(creditCardNumber, properties.getCard())) {
+			rejectedByCard.increment();
+			logger.warn("Purchase throttled for credit card ending {}",
+					creditCardNumber.substring(Math.max(0, creditCardNumber.length() - 4)));
+			return false;
+		}
+		permitted.increment();
+		return true;
+	}
+
+	public String getClientHeader() {
+		return properties.getClientHeader();
+	}
+}
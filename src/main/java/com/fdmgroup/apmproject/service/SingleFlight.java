@@ -0,0 +1,95 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class coalesces concurrent loads of the same key, so that callers who
+ * ask for a key while it is being loaded share the one load in flight instead
+ * of starting their own.
+ * <p>
+ * The first caller for a key runs the load on its own thread; callers that
+ * arrive before it finishes wait for it and get the same result, or the same
+ * exception. Nothing is cached: a caller that arrives after the load finished
+ * starts a new one. Shared results are seen by several callers at once, so
+ * they must not be modified.
+ * <p>
+ * Loads are counted in the {@code single.flight.calls} counter, tagged with
+ * the name and with {@code outcome} {@code executed} or {@code shared}; the
+ * {@code single.flight.inflight} gauge counts the keys being loaded.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the loaded values.
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public class SingleFlight<K, V> {
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final Counter executed;
+	private final Counter shared;
+
+	/**
+	 * Constructs a new single-flight group.
+	 *
+	 * @param name          The name the metrics are tagged with.
+	 * @param meterRegistry The registry the coalescing counts are published to.
+	 */
+	public SingleFlight(String name, MeterRegistry meterRegistry) {
+		this.executed = Counter.builder("single.flight.calls").tag("name", name).tag("outcome", "executed")
+				.description("Loads run or shared with a load in flight").register(meterRegistry);
+		this.shared = Counter.builder("single.flight.calls").tag("name", name).tag("outcome", "shared")
+				.register(meterRegistry);
+		Gauge.builder("single.flight.inflight", inFlight, ConcurrentHashMap::size).tag("name", name)
+				.description("Keys being loaded").register(meterRegistry);
+	}
+
+	/**
+	 * Loads a key, or waits for the load of the key already in flight.
+	 *
+	 * @param key    The key to load.
+	 * @param loader Loads the value of the key; only run if no load of the key is
+	 *               in flight.
+	 * @return The loaded value.
+	 */
+	public V execute(K key, Supplier<V> loader) {
+		CompletableFuture<V> mine = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+		if (existing != null) {
+			shared.increment();
+			return await(existing);
+		}
+		executed.increment();
+		try {
+			V value = loader.get();
+			mine.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, mine);
+		}
+	}
+
+	private static <V> V await(CompletableFuture<V> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.fdmgroup.apmproject.config.RateLimitProperties.Budget;
+
+/**
+ * This class is a lock-free token-bucket rate limiter keyed by an arbitrary
+ * string.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival
+ * time of the next token, so acquiring a token is one compare-and-set and the
+ * refill is computed lazily from the elapsed time. Buckets are spread over a
+ * fixed number of {@link ConcurrentHashMap} stripes; when a stripe grows past
+ * its bound, buckets that have fully refilled are dropped, which is lossless
+ * because a missing bucket is treated as a full one.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public class TokenBucketRateLimiter {
+
+	private static final int STRIPES = 16;
+	private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+	private final AtomicLong[] lastSweep;
+	private final int maxBucketsPerStripe;
+	private final LongSupplier nanoClock;
+
+	/**
+	 * Constructs a new rate limiter using the system nano clock.
+	 *
+	 * @param maxBuckets The number of buckets above which idle buckets are swept.
+	 */
+	public TokenBucketRateLimiter(int maxBuckets) {
+		this(maxBuckets, System::nanoTime);
+	}
+
+	/**
+	 * Constructs a new rate limiter with the specified clock.
+	 *
+	 * @param maxBuckets The number of buckets above which idle buckets are swept.
+	 * @param nanoClock  The monotonic clock, in nanoseconds.
+	 */
+	@SuppressWarnings("unchecked")
+	public TokenBucketRateLimiter(int maxBuckets, LongSupplier nanoClock) {
+		this.stripes = new ConcurrentHashMap[STRIPES];
+		this.lastSweep = new AtomicLong[STRIPES];
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new ConcurrentHashMap<>();
+			lastSweep[i] = new AtomicLong(nanoClock.getAsLong());
+		}
+		this.maxBucketsPerStripe = Math.max(1, maxBuckets / STRIPES);
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * Attempts to take one token from the bucket of the given key.
+	 *
+	 * @param key    The bucket key, such as a card number or client id.
+	 * @param budget The capacity and refill rate of the bucket.
+	 * @return True if a token was taken, false if the bucket is empty.
+	 */
+	public boolean tryAcquire(String key, Budget budget) {
+		long interval = (long) (TimeUnit.SECONDS.toNanos(1) / budget.getRefillPerSecond());
+		long burst = interval * budget.getCapacity();
+		int index = (key.hashCode() & 0x7fffffff) % STRIPES;
+		ConcurrentHashMap<String, AtomicLong> stripe = stripes[index];
+		long now = nanoClock.getAsLong();
+
+		AtomicLong bucket = stripe.get(key);
+		if (bucket == null) {
+			sweepIfFull(index, now);
+			bucket = stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+		}
+
+		while (true) {
+			long arrival = bucket.get();
+			long next = Math.max(arrival, now) + interval;
+			if (next - now > burst) {
+				return false;
+			}
+			if (bucket.compareAndSet(arrival, next)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of buckets currently held.
+	 *
+	 * @return The bucket count across all stripes.
+	 */
+	public int size() {
+		int size = 0;
+		for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+			size += stripe.size();
+		}
+		return size;
+	}
+
+	private void sweepIfFull(int index, long now) {
+		ConcurrentHashMap<String, AtomicLong> stripe = stripes[index];
+		if (stripe.size() < maxBucketsPerStripe) {
+			return;
+		}
+		AtomicLong sweptAt = lastSweep[index];
+		long last = sweptAt.get();
+		if (now - last < SWEEP_INTERVAL_NANOS || !sweptAt.compareAndSet(last, now)) {
+			return;
+		}
+		// A bucket whose next arrival time has passed is full again and can be dropped
+		stripe.values().removeIf(bucket -> bucket.get() <= now);
+	}
+}
@@ -0,0 +1,182 @@
+package com.fdmgroup.apmproject.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdmgroup.apmproject.model.OutboxEvent;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.repository.OutboxEventRepository;
+import com.fdmgroup.apmproject.repository.TransactionRepository;
+
+/**
+ * This class is responsible for saving transactions together with their
+ * "TransactionPosted" outbox events.
+ * <p>
+ * The transaction and its event are inserted in one database transaction, so
+ * an event is recorded for every committed posting and for nothing else.
+ * Events are inserted and timestamped just before that transaction commits,
+ * however long it has been running, so each takes its id when it is about to
+ * become visible. The relay waits on a gap in the ids only until the event
+ * after it is {@code outbox.relay.settle-ms} old, which is only safe because
+ * an event never waits for a long transaction to commit, such as a billing
+ * partition, after taking its id. The event belongs to the credit card of the transaction, or to its account for
+ * account transactions, and carries the transaction details as JSON. The
+ * {@link OutboxRelay} delivers the events to consumers after the request has
+ * returned.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class TransactionOutbox {
+
+	public static final String TRANSACTION_POSTED = "TransactionPosted";
+	public static final String ACCOUNT_AGGREGATE = "account";
+	public static final String CREDIT_CARD_AGGREGATE = "creditcard";
+
+	private final TransactionRepository transactionRepo;
+	private final OutboxEventRepository outboxEventRepo;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectMapper objectMapper;
+
+	public TransactionOutbox(TransactionRepository transactionRepo, OutboxEventRepository outboxEventRepo,
+			PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+		this.transactionRepo = transactionRepo;
+		this.outboxEventRepo = outboxEventRepo;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Saves a transaction and records its event.
+	 *
+	 * @param transaction The transaction to save.
+	 * @return The saved transaction.
+	 */
+	public Transaction post(Transaction transaction) {
+		return transactionTemplate.execute(status -> {
+			Transaction saved = transactionRepo.save(transaction);
+			OutboxEvent event = transactionPosted(saved);
+			if (!recordOnCommit(List.of(event))) {
+				outboxEventRepo.save(event);
+			}
+			return saved;
+		});
+	}
+
+	/**
+	 * Saves transactions and records their events, all in one database
+	 * transaction.
+	 *
+	 * @param transactions The transactions to save.
+	 * @return The saved transactions.
+	 */
+	public List<Transaction> postAll(List<Transaction> transactions) {
+		return transactionTemplate.execute(status -> {
+			List<Transaction> saved = transactionRepo.saveAll(transactions);
+			List<OutboxEvent> events = new ArrayList<>(saved.size());
+			for (Transaction transaction : saved) {
+				events.add(transactionPosted(transaction));
+			}
+			if (!recordOnCommit(events)) {
+				outboxEventRepo.saveAll(events);
+			}
+			return saved;
+		});
+	}
+
+	/**
+	 * Holds events back until the surrounding transaction is about to commit,
+	 * then inserts those of the whole transaction at once.
+	 *
+	 * @param events The unsaved events.
+	 * @return False if there is no transaction to wait for, in which case the
+	 *         caller saves the events at once.
+	 */
+	private boolean recordOnCommit(List<OutboxEvent> events) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		List<OutboxEvent> pending = (List<OutboxEvent>) TransactionSynchronizationManager.getResource(this);
+		if (pending == null) {
+			List<OutboxEvent> held = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, held);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					// Write the other changes first, so only the commit is left after the ids are taken
+					outboxEventRepo.flush();
+					LocalDateTime now = LocalDateTime.now();
+					held.forEach(event -> event.setCreatedAt(now));
+					outboxEventRepo.saveAll(held);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(TransactionOutbox.this);
+				}
+			});
+			pending = held;
+		}
+		pending.addAll(events);
+		return true;
+	}
+
+	/**
+	 * Builds the event of a saved transaction.
+	 *
+	 * @param transaction The saved transaction, with its id.
+	 * @return The unsaved event.
+	 */
+	OutboxEvent transactionPosted(Transaction transaction) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("transactionId", transaction.getTransactionId());
+		payload.put("transactionType", transaction.getTransactionType());
+		payload.put("amount", transaction.getTransactionAmount());
+		payload.put("cashback", transaction.getCashback());
+		payload.put("currencyCode",
+				transaction.getTransactionCurrency() == null ? null : transaction.getTransactionCurrency().getCode());
+		payload.put("transactionDate",
+				transaction.getTransactionDate() == null ? null : transaction.getTransactionDate().toString());
+		payload.put("accountId",
+				transaction.getTransactionAccount() == null ? null : transaction.getTransactionAccount().getAccountId());
+		payload.put("creditCardId", transaction.getTransactionCreditCard() == null ? null
+				: transaction.getTransactionCreditCard().getCreditCardId());
+		payload.put("recipientAccountNumber", transaction.getRecipientAccountNumber());
+		payload.put("description", transaction.getDescription());
+
+		String aggregateType;
+		long aggregateId;
+		if (transaction.getTransactionCreditCard() != null) {
+			aggregateType = CREDIT_CARD_AGGREGATE;
+			aggregateId = transaction.getTransactionCreditCard().getCreditCardId();
+		} else if (transaction.getTransactionAccount() != null) {
+			aggregateType = ACCOUNT_AGGREGATE;
+			aggregateId = transaction.getTransactionAccount().getAccountId();
+		} else {
+			aggregateType = "transaction";
+			aggregateId = transaction.getTransactionId();
+		}
+		try {
+			return new OutboxEvent(aggregateType, aggregateId, TRANSACTION_POSTED,
+					objectMapper.writeValueAsString(payload), LocalDateTime.now());
+		} catch (JsonProcessingException e) {
+			// A map of strings and numbers always serializes
+			throw new IllegalStateException("Failed to serialize the event of transaction "
+					+ transaction.getTransactionId() + ".", e);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.fdmgroup.apmproject.service;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdmgroup.apmproject.model.OutboxEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class counts posted transactions from the outbox, tagged by
+ * transaction type and aggregate, in the {@code transactions.posted} counter
+ * and their amounts in the {@code transactions.posted.amount} summary.
+ * <p>
+ * As delivery is at least once, the counts may be slightly high after a
+ * failure.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class TransactionPostedMetrics implements OutboxConsumer {
+
+	private final MeterRegistry meterRegistry;
+	private final ObjectMapper objectMapper;
+
+	public TransactionPostedMetrics(MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+		this.meterRegistry = meterRegistry;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public String getName() {
+		return "transaction-metrics";
+	}
+
+	@Override
+	public void accept(OutboxEvent event) throws Exception {
+		if (!TransactionOutbox.TRANSACTION_POSTED.equals(event.getEventType())) {
+			return;
+		}
+		JsonNode payload = objectMapper.readTree(event.getPayload());
+		String type = payload.path("transactionType").asText("unknown");
+		meterRegistry.counter("transactions.posted", "type", type, "aggregate", event.getAggregateType())
+				.increment();
+		meterRegistry.summary("transactions.posted.amount", "type", type, "aggregate", event.getAggregateType())
+				.record(payload.path("amount").asDouble());
+	}
+}
@@ -1,29 +1,31 @@
 package com.fdmgroup.apmproject.service;
 
-import java.time.Duration;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.AuditAction;
 import com.fdmgroup.apmproject.model.CreditCard;
 import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
 import com.fdmgroup.apmproject.model.MerchantCategoryCode;
 import com.fdmgroup.apmproject.model.Status;
 import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.model.TransactionSummary;
+import com.fdmgroup.apmproject.model.TransactionView;
 import com.fdmgroup.apmproject.repository.TransactionRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * This class is responsible for handling all business logic related to Transactions.
  * 
@@ -49,14 +51,27 @@ public class TransactionService {
 	@Autowired
 	private StatusService statusService;
 
-	private static final long ONE_MONTH_IN_MILLISECONDS = TimeUnit.DAYS.toMillis(30);
+	@Autowired
+	private CashbackRuleService cashbackRuleService;
+
+	@Autowired
+	private InstallmentPlanService installmentPlanService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private AuditJournal auditJournal;
+
+	@Autowired
+	private TransactionOutbox transactionOutbox;
 
 	private static Logger logger = LogManager.getLogger(TransactionService.class);
 
 	/**
 	 * Persists a Transaction entity into the database.
 	 * <p>
-	 * This method checks if the provided Transaction entity already exists in the database based on its ID. If the Transaction does not exist, it is saved into the database; otherwise, a warning is logged. 
+	 * This method checks if the provided Transaction entity already exists in the database based on its ID. If the Transaction does not exist, it is saved into the database; otherwise, a warning is logged. The cashback of a credit card purchase is set before the insert, so the row is written once. The transaction is saved through the {@link TransactionOutbox}, which records its "TransactionPosted" event in the same database transaction.
 	 *
 	 * @param transaction The Transaction entity to persist.
 	 * @throws IllegalArgumentException if the transaction is null
@@ -66,7 +81,8 @@ public class TransactionService {
 	public void persist(Transaction transaction) {
 		Optional<Transaction> returnedTransaction = transactionRepo.findById(transaction.getTransactionId());
 		if (returnedTransaction.isEmpty()) {
-			transactionRepo.save(transaction);
+			applyCashback(transaction);
+			transactionOutbox.post(transaction);
 			logger.info("Transaction successfully created");
 		} else {
 			logger.warn("Transaction already exists");
@@ -135,9 +151,9 @@ public class TransactionService {
 	}
 
 	/**
-	 * Updates the balance and cashback of a credit card based on a transaction.
+	 * Updates the balance of a credit card based on a transaction.
 	 * <p>
-	 * This method calculates and updates the balance and cashback of a credit card based on the type and amount of a transaction. It considers various factors such as the credit card type, transaction type, and merchant category code to determine the cashback and balance adjustments.
+	 * This method updates the amount used of a credit card based on the type and amount of a transaction. Purchases are charged net of the cashback that was set when the transaction was persisted.
 	 *
 	 * @param transaction The transaction used to update the credit card balance and cashback.
 	 * @throws IllegalArgumentException if the transaction is null
@@ -148,26 +164,38 @@ public class TransactionService {
 		// ensure amount used in credit card is updated
 		if (transaction.getTransactionCreditCard() != null && transaction.getTransactionType().equals("CC Purchase")) {
 			CreditCard creditCard = transaction.getTransactionCreditCard();
-			if (creditCard.getCardType().equals("Ultimate Cashback Card")) {
-				if (transaction.getTransactionMerchantCategoryCode().getMerchantCategory().equals("Dining")) {
-					transaction.setCashback(transaction.getTransactionAmount() * 0.02);
-					update(transaction);
-				}
-			} else if (creditCard.getCardType().equals("SwipeSmart Platinum Card")) {
-				if (transaction.getTransactionMerchantCategoryCode().getMerchantCategoryCodeNumber() != 1005) {
-					transaction.setCashback(transaction.getTransactionAmount() * 0.015);
-					update(transaction);
-				}
-			}
+			double amountUsed = creditCard.getAmountUsed();
 			creditCard.addTransaction(transaction.getTransactionAmount() - transaction.getCashback());
 			creditCardService.update(creditCard);
+			auditJournal.append(AuditAction.CARD_PURCHASE, "creditcard/" + creditCard.getCreditCardId(), amountUsed,
+					creditCard.getAmountUsed());
 
 		} else if (transaction.getTransactionCreditCard() != null
 				&& transaction.getTransactionType().equals("CC Payment")) {
 			CreditCard creditCard = transaction.getTransactionCreditCard();
+			double amountUsed = creditCard.getAmountUsed();
 			creditCard.addTransaction(-transaction.getTransactionAmount());
 			creditCard.setMinBalancePaid(creditCard.getMinBalancePaid() - transaction.getTransactionAmount());
 			creditCardService.update(creditCard);
+			auditJournal.append(AuditAction.CARD_PAYMENT, "creditcard/" + creditCard.getCreditCardId(), amountUsed,
+					creditCard.getAmountUsed());
+		}
+	}
+
+	/**
+	 * Sets the cashback of a credit card purchase from the cashback rule table.
+	 * <p>
+	 * The rate is looked up by the card product and the merchant category code of the transaction. Transactions that are not credit card purchases are left unchanged.
+	 *
+	 * @param transaction The transaction to set the cashback of.
+	 * @see CashbackRuleService#getRate(String, int)
+	 */
+	private void applyCashback(Transaction transaction) {
+		if (transaction.getTransactionCreditCard() != null && "CC Purchase".equals(transaction.getTransactionType())
+				&& transaction.getTransactionMerchantCategoryCode() != null) {
+			double rate = cashbackRuleService.getRate(transaction.getTransactionCreditCard().getCardType(),
+					transaction.getTransactionMerchantCategoryCode().getMerchantCategoryCodeNumber());
+			transaction.setCashback(transaction.getTransactionAmount() * rate);
 		}
 	}
 
@@ -184,6 +212,7 @@ public class TransactionService {
 	 * @see org.example.StatusService
 	 * @see org.example.Transaction
 	 */
+	@Transactional(readOnly = true)
 	public List<Transaction> getTransactionsByMonthAndYearAndTransactionAccount(int year, int monthValue,
 			Account account) {
 		YearMonth yearMonth = YearMonth.of(year, monthValue);
@@ -238,6 +267,7 @@ public class TransactionService {
 	 * @see org.example.StatusService
 	 * @see org.example.Transaction
 	 */
+	@Transactional(readOnly = true)
 	public List<Transaction> getTransactionsByMonthAndYearAndTransactionCreditCard(int year, int monthValue,
 			CreditCard creditcard) {
 		YearMonth yearMonth = YearMonth.of(year, monthValue);
@@ -250,54 +280,17 @@ public class TransactionService {
 	/**
 	 * Retrieves transactions associated with either a transaction account or a recipient account.
 	 * <p>
-	 * This method queries the database for transactions associated with either the provided transaction account or the recipient account. It returns a list of transactions that match the criteria. The method also masks sensitive credential information before returning the transactions.
+	 * This method queries the database for transactions associated with either the provided transaction account or the recipient account. It returns read-only views whose account numbers are masked by the query, so no managed Account entity is modified and nothing is dirty-checked or flushed.
 	 *
 	 * @param transactionAccount The transaction account to search for.
 	 * @param recipientAccount   The recipient account to search for.
-	 * @return A list of Transaction objects associated with either the transaction account or recipient account.
-	 * @throws IllegalArgumentException if both transactionAccount and recipientAccount are null
-	 * @see org.example.StatusService
-	 * @see org.example.Transaction
+	 * @return A list of TransactionView records associated with either the transaction account or recipient account.
+	 * @see TransactionView
 	 */
-	public List<Transaction> findByTransactionAccountOrRecipientAccount(Account transactionAccount,
+	@Transactional(readOnly = true)
+	public List<TransactionView> findByTransactionAccountOrRecipientAccount(Account transactionAccount,
 			Account recipientAccount) {
-		List<Transaction> Transactions = new ArrayList<>();
-
-		Transactions = transactionRepo.findByTransactionAccountOrRecipientAccount(transactionAccount, recipientAccount);
-
-		Transactions = maskCredentialInfo(Transactions);
-
-		return Transactions;
-	}
-
-	/**
-	 * Masks sensitive credential information in a list of transactions.
-	 * <p>
-	 * This method iterates through the list of transactions and masks sensitive credential information, such as account numbers, for both the transaction account and the recipient account. It then returns the updated list of transactions with the masked information.
-	 *
-	 * @param Transactions The list of transactions to mask credential information for.
-	 * @return A list of Transaction objects with sensitive credential information masked.
-	 * @throws IllegalArgumentException if Transactions is null
-	 * @see org.example.Transaction
-	 */
-	private List<Transaction> maskCredentialInfo(List<Transaction> Transactions) {
-		for (Transaction transaction : Transactions) {
-
-			if (transaction.getTransactionAccount() != null) {
-				String accountFromNumber = transaction.getTransactionAccount().getAccountNumber();
-				String maskedAccountFromNumber = "***-***-"
-						+ accountFromNumber.substring(accountFromNumber.length() - 3);
-				transaction.getTransactionAccount().setAccountNumber(maskedAccountFromNumber);
-			}
-			if (transaction.getRecipientAccount() != null) {
-
-				String accountToNumber = transaction.getRecipientAccount().getAccountNumber();
-				String maskedAccountToNumber = "***-***-" + accountToNumber.substring(accountToNumber.length() - 3);
-				transaction.getRecipientAccount().setAccountNumber(maskedAccountToNumber);
-			}
-		}
-
-		return Transactions;
+		return transactionRepo.findViewsByTransactionAccountOrRecipientAccount(transactionAccount, recipientAccount);
 	}
 
 	/**
@@ -348,46 +341,68 @@ public class TransactionService {
 	}
 
 	/**
-	 * Calculates the delay until the start of the next month.
+	 * Runs the monthly billing cycle for the approved credit cards whose ids fall
+	 * within the specified range, which is one partition of a billing run shared
+	 * by several nodes.
 	 * <p>
-	 * This method calculates the delay in milliseconds until the start of the next month from the current date and time. It's typically used to schedule tasks or operations that need to occur at the beginning of each month.
+	 * The partition is billed in one database transaction, joining the caller's
+	 * if there is one, so it is either billed in full or not at all. Each phase
+	 * is timed in the {@code billing.phase} timer, tagged with the phase name,
+	 * and the whole run in {@code billing.run}.
 	 *
-	 * @return The delay in milliseconds until the start of the next month.
-	 * @see java.time.LocalDate
-	 * @see java.time.LocalDateTime
-	 * @see java.time.Duration
+	 * @param firstCardId The first credit card id, inclusive.
+	 * @param lastCardId  The last credit card id, inclusive.
+	 * @see BillingCoordinator
 	 */
-	private long calculateDelayToNextMonth() {
-		LocalDate currentDate = LocalDate.now();
-		LocalDate nextMonth = currentDate.plusMonths(1).withDayOfMonth(1);
-		LocalDateTime nextMonthStartOfDay = nextMonth.atStartOfDay();
-		Duration duration = Duration.between(LocalDateTime.now(), nextMonthStartOfDay);
-		return duration.toMillis();
+	@Transactional
+	public void runBillingPartition(long firstCardId, long lastCardId) {
+		meterRegistry.timer("billing.run").record(() -> {
+			// Post due installments first so they count towards last month's balance
+			timePhase("installments",
+					() -> installmentPlanService.postDueInstallments(LocalDateTime.now(), firstCardId, lastCardId));
+			Status statusName = statusService.findByStatusName("Approved");
+			List<CreditCard> approvedCreditCards = meterRegistry.timer("billing.phase", "phase", "load")
+					.record(() -> creditCardService.findCreditCardsByStatus(statusName, firstCardId, lastCardId));
+			timePhase("monthly-balance", () -> creditCardService.calculateMonthlyBalance(approvedCreditCards));
+			timePhase("interest", () -> creditCardService.chargeInterest(approvedCreditCards));
+			timePhase("minimum-balance-fee", () -> chargeMinimumBalanceFee(approvedCreditCards));
+			timePhase("minimum-balance", () -> creditCardService.calculateMinimumBalance(approvedCreditCards));
+			logger.info("Billing cycle completed for {} credit cards", approvedCreditCards.size());
+		});
 	}
 
-	public void scheduleInterestCharging() {
-		Timer timer = new Timer();
-
-		// Calculate the delay until the next 1st day of the month
-		long delay = calculateDelayToNextMonth();
-
-		// Schedule the task to run every month, starting from the next 1st day of the
-		// month
-		timer.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				Status statusName = statusService.findByStatusName("Approved");
-				List<CreditCard> approvedCreditCards = creditCardService.findCreditCardsByStatus(statusName);
-				creditCardService.calculateMonthlyBalance(approvedCreditCards);
-				creditCardService.chargeInterest(approvedCreditCards);
-				chargeMinimumBalanceFee(approvedCreditCards);
-				creditCardService.calculateMinimumBalance(approvedCreditCards);
-			}
-		}, delay, ONE_MONTH_IN_MILLISECONDS);
+	private void timePhase(String phase, Runnable task) {
+		meterRegistry.timer("billing.phase", "phase", phase).record(task);
 	}
 	
+	@Transactional(readOnly = true)
 	public List<Transaction> getAllTransactions() {
 		return transactionRepo.findAll();
 	}
 
+	/**
+	 * Retrieves one page of summaries of the transactions made from or to a bank
+	 * account.
+	 *
+	 * @param accountId The id of the account.
+	 * @param pageable  The page to return and its sort order.
+	 * @return A page of transaction summaries.
+	 */
+	@Transactional(readOnly = true)
+	public Page<TransactionSummary> findTransactionSummariesByAccountId(long accountId, Pageable pageable) {
+		return transactionRepo.findSummariesByAccountId(accountId, pageable);
+	}
+
+	/**
+	 * Retrieves one page of summaries of the transactions made with a credit
+	 * card.
+	 *
+	 * @param creditCardId The id of the credit card.
+	 * @param pageable     The page to return and its sort order.
+	 * @return A page of transaction summaries.
+	 */
+	@Transactional(readOnly = true)
+	public Page<TransactionSummary> findTransactionSummariesByCreditCardId(long creditCardId, Pageable pageable) {
+		return transactionRepo.findSummariesByCreditCardId(creditCardId, pageable);
+	}
 }
@@ -0,0 +1,71 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.fdmgroup.apmproject.model.CardStatusChanged;
+import com.fdmgroup.apmproject.model.DomainEvent;
+import com.fdmgroup.apmproject.model.PurchasePosted;
+import com.fdmgroup.apmproject.model.TransferCompleted;
+import com.fdmgroup.apmproject.model.User;
+
+/**
+ * This class refreshes a user's card and account lists after a purchase,
+ * transfer or card status change, and saves the user.
+ * <p>
+ * The work used to run on the request thread after each of these actions. It
+ * is not needed for the response, as pages load the lists from the
+ * repositories, so it now runs on the {@link DomainEventBus}.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class UserAggregateRefresher implements DomainEventListener {
+
+	private final UserService userService;
+	private final CreditCardService creditCardService;
+	private final AccountService accountService;
+
+	public UserAggregateRefresher(UserService userService, CreditCardService creditCardService,
+			AccountService accountService) {
+		this.userService = userService;
+		this.creditCardService = creditCardService;
+		this.accountService = accountService;
+	}
+
+	@Override
+	public String getName() {
+		return "user-aggregate";
+	}
+
+	@Override
+	public Set<Class<? extends DomainEvent>> getEventTypes() {
+		return Set.of(PurchasePosted.class, TransferCompleted.class, CardStatusChanged.class);
+	}
+
+	@Override
+	public void onEvent(DomainEvent event) {
+		if (event instanceof PurchasePosted purchase) {
+			refreshCreditCards(purchase.userId());
+		} else if (event instanceof CardStatusChanged statusChange) {
+			refreshCreditCards(statusChange.userId());
+		} else if (event instanceof TransferCompleted transfer) {
+			User user = userService.findUserById(transfer.userId());
+			if (user != null) {
+				user.setAccountList(accountService.findAllAccountsByUserId(user.getUserId()));
+				userService.update(user);
+			}
+		}
+	}
+
+	private void refreshCreditCards(long userId) {
+		User user = userService.findUserById(userId);
+		if (user != null) {
+			user.setCreditCardList(creditCardService.findAllCreditCardByUserId(userId));
+			userService.update(user);
+		}
+	}
+}
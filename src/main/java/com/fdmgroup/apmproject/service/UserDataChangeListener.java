@@ -0,0 +1,58 @@
+package com.fdmgroup.apmproject.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.model.User;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * This class is a JPA entity listener that bumps the data version of the user
+ * who owns an account, credit card or transaction whenever one is written.
+ * <p>
+ * Hibernate obtains the listener from Spring, so the version service is
+ * injected.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ * @see UserDataVersionService
+ */
+@Component
+public class UserDataChangeListener {
+
+	@Autowired
+	private UserDataVersionService userDataVersionService;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void dataChanged(Object entity) {
+		if (entity instanceof User user) {
+			bump(user);
+		} else if (entity instanceof Account account) {
+			bump(account.getAccountUser());
+		} else if (entity instanceof CreditCard creditCard) {
+			bump(creditCard.getCreditCardUser());
+		} else if (entity instanceof Transaction transaction) {
+			if (transaction.getTransactionAccount() != null) {
+				bump(transaction.getTransactionAccount().getAccountUser());
+			}
+			if (transaction.getTransactionCreditCard() != null) {
+				bump(transaction.getTransactionCreditCard().getCreditCardUser());
+			}
+		}
+	}
+
+	private void bump(User user) {
+		if (user != null) {
+			userDataVersionService.bump(user.getUserId());
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class keeps a version number per user that changes whenever any of the
+ * user's accounts, credit cards or transactions change.
+ * <p>
+ * Pages that only show the user's own data derive their weak ETag from the
+ * version, so a refresh can be answered with 304 Not Modified without loading
+ * anything. Versions are bumped after the surrounding database transaction
+ * completes, so a page rendered from uncommitted data is never tagged with the
+ * new version. Versions are held in memory and start again at 0 on restart;
+ * the tag includes the start time so tags from an earlier run never match.
+ * <p>
+ * Each instance holds its own versions, so a change committed on one instance
+ * is published through {@link CacheCoherence} and bumps the version on every
+ * other instance within one poll interval. An instance that has missed
+ * invalidations starts a new epoch, which changes every tag it hands out.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class UserDataVersionService implements CoherentCache {
+
+	public static final String NAME = "user-data-version";
+
+	private static Logger logger = LogManager.getLogger(UserDataVersionService.class);
+
+	private final ConcurrentMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+	private volatile String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+	private final MeterRegistry meterRegistry;
+
+	// Lazy, as the coherence channel is built from every CoherentCache, this one
+	// included, and the entity listener needs this service while the transaction
+	// manager's entity manager factory is still being built
+	@Autowired
+	@Lazy
+	private CacheCoherence cacheCoherence;
+
+	@Autowired
+	@Lazy
+	private PlatformTransactionManager transactionManager;
+
+	public UserDataVersionService(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Returns the current data version of a user.
+	 *
+	 * @param userId The id of the user.
+	 * @return The version, 0 if the user's data has not changed since startup.
+	 */
+	public long getVersion(long userId) {
+		AtomicLong version = versions.get(userId);
+		return version == null ? 0 : version.get();
+	}
+
+	/**
+	 * Returns the weak ETag of a user's current data version.
+	 *
+	 * @param userId The id of the user.
+	 * @return The ETag, e.g. {@code W/"lv3k2a-7-12"}.
+	 */
+	public String getETag(long userId) {
+		return "W/\"" + epoch + "-" + userId + "-" + getVersion(userId) + "\"";
+	}
+
+	/**
+	 * Marks a user's data as changed.
+	 * <p>
+	 * Inside a transaction the version is bumped once per user when the
+	 * transaction completes, and the other instances are told once it has
+	 * committed; outside a transaction both happen immediately.
+	 *
+	 * @param userId The id of the user whose data changed.
+	 */
+	public void bump(long userId) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			increment(userId);
+			publish(Set.of(userId));
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+		if (pending == null) {
+			Set<Long> userIds = new LinkedHashSet<>();
+			TransactionSynchronizationManager.bindResource(this, userIds);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					// Entities written by the commit's own flush bump after beforeCommit has run
+					publish(userIds);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(UserDataVersionService.this);
+					// Bumped on rollback too; an extra full render is harmless
+					userIds.forEach(UserDataVersionService.this::increment);
+				}
+			});
+			pending = userIds;
+		}
+		pending.add(userId);
+	}
+
+	/**
+	 * Counts a conditional GET in the {@code http.conditional.get} meter, so that
+	 * the hit rate of each page can be reported.
+	 *
+	 * @param uri         The path of the page.
+	 * @param notModified Whether the request was answered with 304 Not Modified.
+	 */
+	public void recordCheck(String uri, boolean notModified) {
+		meterRegistry.counter("http.conditional.get", "uri", uri, "result", notModified ? "hit" : "miss").increment();
+	}
+
+	@Override
+	public String getCacheName() {
+		return NAME;
+	}
+
+	@Override
+	public void invalidate(String key) {
+		increment(Long.parseLong(key));
+	}
+
+	@Override
+	public void invalidateAll() {
+		epoch = Long.toString(System.currentTimeMillis(), 36);
+	}
+
+	private void publish(Set<Long> userIds) {
+		if (cacheCoherence == null) {
+			return;
+		}
+		TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+		requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		try {
+			requiresNew.executeWithoutResult(
+					status -> userIds.forEach(userId -> cacheCoherence.publish(NAME, Long.toString(userId))));
+		} catch (RuntimeException e) {
+			// The change is committed; other instances may answer 304 until their next full render
+			logger.warn("Could not publish the data versions of users {}", userIds, e);
+		}
+	}
+
+	private void increment(long userId) {
+		versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+	}
+}
@@ -7,7 +7,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fdmgroup.apmproject.model.BalanceSummary;
 import com.fdmgroup.apmproject.model.User;
 import com.fdmgroup.apmproject.repository.UserRepository;
 
@@ -143,9 +145,23 @@ public class UserService {
 	 * @throws DataAccessException If there are issues accessing the database or retrieving the user data.
 	 * @see UserRepo#findAll() Method to fetch all records from the user repository.
 	 */
+	@Transactional(readOnly = true)
 	public List<User> findAllUsers() {
 		List<User> users = userRepo.findAll();
 		return users;
 	}
-	
+
+	/**
+	 * Totals a user's bank account balances and credit card usage.
+	 *
+	 * @param userId The id of the user.
+	 * @return The user's balances, or null if the user does not exist.
+	 */
+	public BalanceSummary findBalanceSummary(long userId) {
+		BalanceSummary balances = userRepo.findBalanceSummaryByUserId(userId);
+		if (balances == null) {
+			logger.warn("Could not find User in Database");
+		}
+		return balances;
+	}
 }
@@ -0,0 +1,169 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.fdmgroup.apmproject.config.VelocityProperties.Window;
+
+/**
+ * This class counts the purchases and the amount spent over the last minute,
+ * hour and day, together with an exponentially weighted moving average of the
+ * amount per purchase.
+ * <p>
+ * Each window is a ring buffer of time buckets: 60 one-second buckets, 60
+ * one-minute buckets and 24 one-hour buckets. Every bucket is a single long
+ * that packs the bucket's epoch in the high 24 bits and its value in the low 40
+ * bits, so a stale bucket is reset and incremented by the same compare-and-set
+ * and no update is ever lost at a bucket boundary. Amounts are kept in cents.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+public class VelocityCounter {
+
+	private static final long[] BUCKET_MILLIS = { 1_000L, 60_000L, 3_600_000L };
+	private static final int[] BUCKETS = { 60, 60, 24 };
+	private static final int[] OFFSETS = { 0, 60, 120 };
+	private static final int SLOTS = 144;
+
+	private static final int VALUE_BITS = 40;
+	private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+	private static final long EPOCH_MASK = (1L << (Long.SIZE - VALUE_BITS)) - 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+	private final AtomicLongArray amounts = new AtomicLongArray(SLOTS);
+
+	private final AtomicLong samples = new AtomicLong();
+	private final AtomicLong mean = new AtomicLong(Double.doubleToRawLongBits(0));
+	private final AtomicLong deviation = new AtomicLong(Double.doubleToRawLongBits(0));
+	private volatile long lastUsed;
+
+	/**
+	 * Records that the counter is in use.
+	 *
+	 * @param nowMillis The current time, in milliseconds.
+	 */
+	public void touch(long nowMillis) {
+		lastUsed = nowMillis;
+	}
+
+	/**
+	 * Returns the time the counter was last in use.
+	 *
+	 * @return The time, in milliseconds.
+	 */
+	public long lastUsed() {
+		return lastUsed;
+	}
+
+	/**
+	 * Reports whether the counter has not been in use for a whole day window.
+	 * Purchases are only recorded after a lookup, so every window is then
+	 * empty and dropping the counter loses nothing a rule could check.
+	 *
+	 * @param nowMillis The current time, in milliseconds.
+	 * @return True if the counter is idle.
+	 */
+	public boolean isIdle(long nowMillis) {
+		return nowMillis - lastUsed >= BUCKET_MILLIS[2] * BUCKETS[2];
+	}
+
+	/**
+	 * Records one purchase in every window.
+	 *
+	 * @param nowMillis The current time, in milliseconds.
+	 * @param cents     The purchase amount, in cents.
+	 */
+	public void add(long nowMillis, long cents) {
+		for (int window = 0; window < BUCKETS.length; window++) {
+			long epoch = nowMillis / BUCKET_MILLIS[window];
+			int slot = OFFSETS[window] + (int) (epoch % BUCKETS[window]);
+			addPacked(counts, slot, epoch, 1);
+			addPacked(amounts, slot, epoch, cents);
+		}
+	}
+
+	/**
+	 * Returns the number of purchases within a window.
+	 *
+	 * @param window    The window to sum over.
+	 * @param nowMillis The current time, in milliseconds.
+	 * @return The purchase count.
+	 */
+	public long count(Window window, long nowMillis) {
+		return sum(counts, window.ordinal(), nowMillis);
+	}
+
+	/**
+	 * Returns the amount spent within a window.
+	 *
+	 * @param window    The window to sum over.
+	 * @param nowMillis The current time, in milliseconds.
+	 * @return The amount, in cents.
+	 */
+	public long amount(Window window, long nowMillis) {
+		return sum(amounts, window.ordinal(), nowMillis);
+	}
+
+	/**
+	 * Folds a purchase amount into the moving average and reports whether it is
+	 * an outlier against the average as it stood before.
+	 * <p>
+	 * A purchase is an outlier once at least {@code warmup} purchases have been
+	 * seen and it exceeds both twice the average and the average plus
+	 * {@code factor} mean absolute deviations.
+	 *
+	 * @param amount The purchase amount.
+	 * @param alpha  The smoothing factor of the moving average.
+	 * @param factor The number of deviations above the average that is an outlier.
+	 * @param warmup The number of purchases needed before outliers are flagged.
+	 * @return True if the purchase is an outlier, false otherwise.
+	 */
+	public boolean observe(double amount, double alpha, double factor, int warmup) {
+		long seen = samples.getAndIncrement();
+		if (seen == 0) {
+			mean.set(Double.doubleToRawLongBits(amount));
+			return false;
+		}
+		double previousMean = update(mean, amount, alpha);
+		double previousDeviation = update(deviation, Math.abs(amount - previousMean), alpha);
+		return seen >= warmup && amount > 2 * previousMean && amount > previousMean + factor * previousDeviation;
+	}
+
+	private static double update(AtomicLong average, double value, double alpha) {
+		while (true) {
+			long bits = average.get();
+			double previous = Double.longBitsToDouble(bits);
+			double next = previous + alpha * (value - previous);
+			if (average.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+				return previous;
+			}
+		}
+	}
+
+	private static void addPacked(AtomicLongArray buckets, int slot, long epoch, long delta) {
+		long tag = epoch & EPOCH_MASK;
+		while (true) {
+			long current = buckets.get(slot);
+			long value = (current >>> VALUE_BITS) == tag ? (current & VALUE_MASK) : 0;
+			long next = (tag << VALUE_BITS) | Math.min(VALUE_MASK, value + delta);
+			if (buckets.compareAndSet(slot, current, next)) {
+				return;
+			}
+		}
+	}
+
+	private static long sum(AtomicLongArray buckets, int window, long nowMillis) {
+		long epoch = (nowMillis / BUCKET_MILLIS[window]) & EPOCH_MASK;
+		long total = 0;
+		for (int i = 0; i < BUCKETS[window]; i++) {
+			long packed = buckets.get(OFFSETS[window] + i);
+			// Only buckets written within the last BUCKETS[window] epochs are in the window
+			if (((epoch - (packed >>> VALUE_BITS)) & EPOCH_MASK) < BUCKETS[window]) {
+				total += packed & VALUE_MASK;
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,295 @@
+package com.fdmgroup.apmproject.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fdmgroup.apmproject.config.VelocityProperties;
+import com.fdmgroup.apmproject.config.VelocityProperties.Rule;
+import com.fdmgroup.apmproject.config.VelocityProperties.Scope;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class is responsible for screening purchases against in-memory velocity
+ * rules and for flagging purchases that are far above a card's normal spend.
+ * <p>
+ * Counters are kept per card, per card and merchant category, and per card and
+ * currency. They live in an open-addressing table keyed by a packed
+ * {@code long}, whose slots are claimed with compare-and-set, so screening a
+ * purchase takes no locks, allocates nothing once the card is known and issues
+ * no database queries. When the table is full, it is rebuilt once without the
+ * counters whose windows have emptied; if that frees too little, the least
+ * recently used counters are evicted as well, down to three quarters of
+ * {@code purchase.velocity.max-counters}. Every purchase is therefore
+ * screened, and an evicted card only loses the history it had before.
+ *
+ * @author
+ * @version 1.0
+ * @since 2024-04-22
+ */
+@Service
+public class VelocityMonitor {
+
+	private static final long EMPTY = 0L;
+
+	private static Logger logger = LogManager.getLogger(VelocityMonitor.class);
+
+	private final VelocityProperties properties;
+	private final List<Rule> rules;
+	private final LongSupplier clock;
+
+	private final int capacity;
+	private volatile Table table;
+
+	private final LongAdder passed = new LongAdder();
+	private final LongAdder declined = new LongAdder();
+	private final LongAdder outliers = new LongAdder();
+	private final LongAdder untracked = new LongAdder();
+	private final LongAdder reclaimed = new LongAdder();
+	private final LongAdder evicted = new LongAdder();
+
+	/**
+	 * The slots of the table. A full table is replaced as a whole, so readers
+	 * never see a slot being emptied.
+	 */
+	private static final class Table {
+		final AtomicLongArray keys;
+		final AtomicReferenceArray<VelocityCounter> counters;
+		final int mask;
+		final AtomicInteger size = new AtomicInteger();
+
+		Table(int capacity) {
+			this.keys = new AtomicLongArray(capacity);
+			this.counters = new AtomicReferenceArray<>(capacity);
+			this.mask = capacity - 1;
+		}
+	}
+
+	@Autowired
+	public VelocityMonitor(VelocityProperties properties, MeterRegistry meterRegistry) {
+		this(properties, meterRegistry, System::currentTimeMillis);
+	}
+
+	/**
+	 * Constructs a new velocity monitor with the specified clock.
+	 *
+	 * @param properties    The velocity rules and table size.
+	 * @param meterRegistry The registry the screening metrics are published to.
+	 * @param clock         The wall clock, in milliseconds.
+	 */
+	public VelocityMonitor(VelocityProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+		this.properties = properties;
+		this.rules = List.copyOf(properties.getRules());
+		this.clock = clock;
+		// Keep the table at most half full so that probe sequences stay short
+		this.capacity = Integer.highestOneBit(Math.max(2, properties.getMaxCounters()) * 2 - 1) << 1;
+		this.table = new Table(capacity);
+
+		FunctionCounter.builder("purchase.velocity", passed, LongAdder::sum).tag("outcome", "passed")
+				.description("Purchases screened by the velocity rules").register(meterRegistry);
+		FunctionCounter.builder("purchase.velocity", declined, LongAdder::sum).tag("outcome", "declined")
+				.register(meterRegistry);
+		FunctionCounter.builder("purchase.velocity.outliers", outliers, LongAdder::sum).register(meterRegistry);
+		FunctionCounter.builder("purchase.velocity.untracked", untracked, LongAdder::sum).register(meterRegistry);
+		FunctionCounter.builder("purchase.velocity.reclaimed", reclaimed, LongAdder::sum).register(meterRegistry);
+		FunctionCounter.builder("purchase.velocity.evicted", evicted, LongAdder::sum).register(meterRegistry);
+		Gauge.builder("purchase.velocity.counters", this, VelocityMonitor::size).register(meterRegistry);
+	}
+
+	/**
+	 * Screens a purchase against the velocity rules and, if it passes, records
+	 * it in the card's counters.
+	 *
+	 * @param creditCardId         The id of the credit card.
+	 * @param merchantCategoryCode The merchant category code number.
+	 * @param currencyCode         The currency of the purchase.
+	 * @param amount               The purchase amount in the card's currency.
+	 * @return The reason the purchase is declined, or null if it may proceed.
+	 */
+	public String screen(long creditCardId, int merchantCategoryCode, String currencyCode, double amount) {
+		if (!properties.isEnabled()) {
+			return null;
+		}
+		long now = clock.getAsLong();
+		long cents = Math.round(amount * 100);
+		VelocityCounter card = counter(key(creditCardId, Scope.CARD, 0), now);
+		VelocityCounter mcc = counter(key(creditCardId, Scope.MCC, merchantCategoryCode), now);
+		VelocityCounter currency = counter(key(creditCardId, Scope.CURRENCY, packCurrency(currencyCode)), now);
+
+		for (Rule rule : rules) {
+			VelocityCounter counter = switch (rule.getScope()) {
+			case CARD -> card;
+			case MCC -> mcc;
+			case CURRENCY -> currency;
+			};
+			if (counter == null) {
+				continue;
+			}
+			if ((rule.getMaxCount() > 0 && counter.count(rule.getWindow(), now) + 1 > rule.getMaxCount())
+					|| (rule.getMaxAmount() > 0
+							&& counter.amount(rule.getWindow(), now) + cents > Math.round(rule.getMaxAmount() * 100))) {
+				declined.increment();
+				logger.warn("Purchase on credit card {} declined by velocity rule {}", creditCardId, rule);
+				return "Transaction declined by velocity rule.";
+			}
+		}
+
+		if (card != null) {
+			card.add(now, cents);
+			if (card.observe(amount, properties.getEwmaAlpha(), properties.getOutlierFactor(),
+					properties.getOutlierWarmup())) {
+				outliers.increment();
+				logger.warn("Purchase of {} on credit card {} is far above its usual spend", amount, creditCardId);
+			}
+		}
+		if (mcc != null) {
+			mcc.add(now, cents);
+		}
+		if (currency != null) {
+			currency.add(now, cents);
+		}
+		passed.increment();
+		return null;
+	}
+
+	/**
+	 * Returns the number of counters currently held.
+	 *
+	 * @return The counter count.
+	 */
+	public int size() {
+		return table.size.get();
+	}
+
+	private VelocityCounter counter(long key, long now) {
+		Table current = table;
+		VelocityCounter counter = find(current, key, now);
+		if (counter == null) {
+			reclaim(current, now);
+			counter = find(table, key, now);
+		}
+		if (counter == null) {
+			untracked.increment();
+		}
+		return counter;
+	}
+
+	/**
+	 * Looks up the counter of a key, claiming a slot for it if it is new.
+	 *
+	 * @return The counter, or null if the table is full.
+	 */
+	private VelocityCounter find(Table table, long key, long now) {
+		int index = (int) mix(key) & table.mask;
+		for (int probe = 0; probe <= table.mask;) {
+			long current = table.keys.get(index);
+			if (current == EMPTY) {
+				if (table.size.get() >= properties.getMaxCounters()) {
+					return null;
+				}
+				if (!table.keys.compareAndSet(index, EMPTY, key)) {
+					// Another thread claimed this slot; look at it again
+					continue;
+				}
+				table.size.incrementAndGet();
+				current = key;
+			}
+			if (current == key) {
+				VelocityCounter counter = table.counters.get(index);
+				if (counter == null) {
+					table.counters.compareAndSet(index, null, new VelocityCounter());
+					counter = table.counters.get(index);
+				}
+				counter.touch(now);
+				return counter;
+			}
+			probe++;
+			index = (index + 1) & table.mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Replaces a full table with one holding only the counters still in use,
+	 * unless another thread has replaced it already.
+	 */
+	private synchronized void reclaim(Table full, long now) {
+		if (table != full) {
+			return;
+		}
+		List<Entry> live = new ArrayList<>();
+		int idle = 0;
+		for (int index = 0; index <= full.mask; index++) {
+			VelocityCounter counter = full.counters.get(index);
+			if (counter == null) {
+				continue;
+			}
+			if (counter.isIdle(now)) {
+				idle++;
+			} else {
+				live.add(new Entry(full.keys.get(index), counter));
+			}
+		}
+		int keep = Math.min(live.size(), properties.getMaxCounters() * 3 / 4);
+		if (keep < live.size()) {
+			live.sort(Comparator.comparingLong((Entry entry) -> entry.counter().lastUsed()).reversed());
+		}
+		Table replacement = new Table(capacity);
+		for (Entry entry : live.subList(0, keep)) {
+			int index = (int) mix(entry.key()) & replacement.mask;
+			while (replacement.keys.get(index) != EMPTY) {
+				index = (index + 1) & replacement.mask;
+			}
+			replacement.keys.set(index, entry.key());
+			replacement.counters.set(index, entry.counter());
+		}
+		replacement.size.set(keep);
+		table = replacement;
+		reclaimed.add(idle);
+		evicted.add(live.size() - keep);
+		if (keep < live.size()) {
+			logger.warn("Velocity counters full; evicted {} least recently used counters", live.size() - keep);
+		} else {
+			logger.info("Velocity counters full; reclaimed {} idle counters", idle);
+		}
+	}
+
+	private record Entry(long key, VelocityCounter counter) {
+	}
+
+	private static long key(long creditCardId, Scope scope, int code) {
+		// The top bit keeps every key distinct from the EMPTY marker
+		return Long.MIN_VALUE | (creditCardId << 18) | ((long) scope.ordinal() << 16) | (code & 0xffff);
+	}
+
+	private static int packCurrency(String currencyCode) {
+		int packed = 0;
+		if (currencyCode != null) {
+			for (int i = 0; i < Math.min(3, currencyCode.length()); i++) {
+				packed = (packed << 5) | ((currencyCode.charAt(i) - 'A') & 0x1f);
+			}
+		}
+		return packed;
+	}
+
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		return key ^ (key >>> 33);
+	}
+}
@@ -0,0 +1,217 @@
+package com.fdmgroup.apmproject.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Unit tests for the ReadWriteRoutingDataSource class, run against two
+ * embedded databases standing in for the primary and the replica, with a
+ * manual clock.
+ *
+ * @see ReadWriteRoutingDataSource
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+	private static final String SERVICE_METHOD = ReadWriteRoutingDataSource.SERVICE_PACKAGE
+			+ "AccountService.findAccountSummariesByUserId";
+
+	private AtomicLong clock;
+	private SimpleMeterRegistry meterRegistry;
+	private JdbcTemplate jdbcTemplate;
+	private DataSourceTransactionManager transactionManager;
+
+	@BeforeEach
+	public void setUp() {
+		clock = new AtomicLong(1_700_000_000_000L);
+		meterRegistry = new SimpleMeterRegistry();
+		DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+				database(ReadWriteRoutingDataSource.PRIMARY), database(ReadWriteRoutingDataSource.REPLICA), 5000,
+				meterRegistry, clock::get));
+		jdbcTemplate = new JdbcTemplate(routing);
+		transactionManager = new DataSourceTransactionManager(routing);
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("jackytan", null, List.of()));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	/**
+	 * @return An embedded database whose only row is its own name.
+	 */
+	private static DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+		template.execute("DELETE FROM node");
+		template.update("INSERT INTO node VALUES (?)", name);
+		return dataSource;
+	}
+
+	/**
+	 * @return The name of the database a transaction with the given name and
+	 *         read-only flag is routed to.
+	 */
+	private String routedTo(String transactionName, boolean readOnly) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setName(transactionName);
+		template.setReadOnly(readOnly);
+		return template.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+	}
+
+	private double connections(String target) {
+		return meterRegistry.get("datasource.routing").tag("target", target).counter().count();
+	}
+
+	/**
+	 * Tests that a read-only service method reads from the replica.
+	 */
+	@Test
+	@DisplayName("1. Read-only service methods use the replica")
+	void testReadOnlyServiceMethod() {
+		// Act
+		String database = routedTo(SERVICE_METHOD, true);
+
+		// Assert
+		assertEquals(ReadWriteRoutingDataSource.REPLICA, database);
+		assertEquals(1, connections(ReadWriteRoutingDataSource.REPLICA));
+	}
+
+	/**
+	 * Tests that read-write transactions, read-only repository transactions and
+	 * work without an authenticated user all use the primary.
+	 */
+	@Test
+	@DisplayName("2. Other transactions use the primary")
+	void testPrimary() {
+		// Act
+		String readOnlyRepository = routedTo(
+				"org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById", true);
+		SecurityContextHolder.clearContext();
+		String withoutUser = routedTo(SERVICE_METHOD, true);
+		String readWrite = routedTo(ReadWriteRoutingDataSource.SERVICE_PACKAGE + "AccountService.persist", false);
+
+		// Assert
+		assertEquals(ReadWriteRoutingDataSource.PRIMARY, readOnlyRepository);
+		assertEquals(ReadWriteRoutingDataSource.PRIMARY, withoutUser);
+		assertEquals(ReadWriteRoutingDataSource.PRIMARY, readWrite);
+		assertEquals(0, connections(ReadWriteRoutingDataSource.REPLICA));
+	}
+
+	/**
+	 * Tests that a user reads from the primary for the read-your-writes window
+	 * after their own write, while other users keep reading from the replica.
+	 */
+	@Test
+	@DisplayName("3. Users read their own writes from the primary")
+	void testReadYourWrites() {
+		// Arrange
+		routedTo(ReadWriteRoutingDataSource.SERVICE_PACKAGE + "AccountService.persist", false);
+
+		// Act
+		clock.addAndGet(4999);
+		String withinWindow = routedTo(SERVICE_METHOD, true);
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+		String otherUser = routedTo(SERVICE_METHOD, true);
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("jackytan", null, List.of()));
+		clock.addAndGet(1);
+		String afterWindow = routedTo(SERVICE_METHOD, true);
+
+		// Assert
+		assertEquals(ReadWriteRoutingDataSource.PRIMARY, withinWindow);
+		assertEquals(ReadWriteRoutingDataSource.REPLICA, otherUser);
+		assertEquals(ReadWriteRoutingDataSource.REPLICA, afterWindow);
+	}
+
+	/**
+	 * Tests that a write on one instance keeps the user's next request on the
+	 * primary when another instance serves it, through the cookie sent back
+	 * with the write.
+	 */
+	@Test
+	@DisplayName("4. Read-your-writes window follows the user to another instance")
+	void testReadYourWritesAcrossInstances() {
+		// Arrange
+		MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+		RequestContextHolder
+				.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), writeResponse));
+		routedTo(ReadWriteRoutingDataSource.SERVICE_PACKAGE + "AccountService.persist", false);
+		Cookie lastWrite = writeResponse.getCookie(ReadWriteRoutingDataSource.LAST_WRITE_COOKIE);
+		DataSource otherInstance = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+				database(ReadWriteRoutingDataSource.PRIMARY), database(ReadWriteRoutingDataSource.REPLICA), 5000,
+				new SimpleMeterRegistry(), clock::get));
+		jdbcTemplate = new JdbcTemplate(otherInstance);
+		transactionManager = new DataSourceTransactionManager(otherInstance);
+		clock.addAndGet(4999);
+
+		// Act
+		MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+		nextRequest.setCookies(lastWrite);
+		RequestContextHolder
+				.setRequestAttributes(new ServletRequestAttributes(nextRequest, new MockHttpServletResponse()));
+		String withCookie = routedTo(SERVICE_METHOD, true);
+		RequestContextHolder.setRequestAttributes(
+				new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+		String withoutCookie = routedTo(SERVICE_METHOD, true);
+		clock.addAndGet(1);
+		RequestContextHolder
+				.setRequestAttributes(new ServletRequestAttributes(nextRequest, new MockHttpServletResponse()));
+		String afterWindow = routedTo(SERVICE_METHOD, true);
+
+		// Assert
+		assertNotNull(lastWrite);
+		assertEquals(ReadWriteRoutingDataSource.PRIMARY, withCookie);
+		assertEquals(ReadWriteRoutingDataSource.REPLICA, withoutCookie);
+		assertEquals(ReadWriteRoutingDataSource.REPLICA, afterWindow);
+	}
+
+	/**
+	 * Tests that a request marked primary-only, such as a page sent with an
+	 * ETag, reads from the primary even in a read-only service method.
+	 */
+	@Test
+	@DisplayName("5. Primary-only requests never use the replica")
+	void testPrimaryOnlyRequest() {
+		// Arrange
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(ReadWriteRoutingDataSource.PRIMARY_ONLY_ATTRIBUTE, Boolean.TRUE);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+
+		// Act
+		String database = routedTo(SERVICE_METHOD, true);
+
+		// Assert
+		assertEquals(ReadWriteRoutingDataSource.PRIMARY, database);
+		assertEquals(0, connections(ReadWriteRoutingDataSource.REPLICA));
+	}
+}
@@ -31,9 +31,12 @@ import com.fdmgroup.apmproject.model.Status;
 import com.fdmgroup.apmproject.model.Transaction;
 import com.fdmgroup.apmproject.model.User;
 import com.fdmgroup.apmproject.service.AccountService;
+import com.fdmgroup.apmproject.service.AuditJournal;
+import com.fdmgroup.apmproject.service.DomainEventBus;
 import com.fdmgroup.apmproject.service.ForeignExchangeCurrencyService;
 import com.fdmgroup.apmproject.service.StatusService;
 import com.fdmgroup.apmproject.service.TransactionService;
+import com.fdmgroup.apmproject.service.UserDataVersionService;
 import com.fdmgroup.apmproject.service.UserService;
 
 /**
@@ -69,6 +72,15 @@ public class AccountControllerTest {
 	
 	@MockBean
 	private TransactionService transactionService;
+
+	@MockBean
+	private UserDataVersionService userDataVersionService;
+
+	@MockBean
+	private AuditJournal auditJournal;
+
+	@MockBean
+	private DomainEventBus domainEventBus;
 	
 	@Autowired
 	private AccountController accountController;
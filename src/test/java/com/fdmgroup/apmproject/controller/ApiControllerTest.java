@@ -0,0 +1,164 @@
+package com.fdmgroup.apmproject.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.mock.web.MockHttpSession;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdmgroup.apmproject.config.JacksonConfig;
+import com.fdmgroup.apmproject.model.AccountSummary;
+import com.fdmgroup.apmproject.model.TransactionSummary;
+import com.fdmgroup.apmproject.model.User;
+import com.fdmgroup.apmproject.service.AccountService;
+import com.fdmgroup.apmproject.service.CreditCardService;
+import com.fdmgroup.apmproject.service.TransactionService;
+import com.fdmgroup.apmproject.service.UserService;
+
+/**
+ * Unit tests for the ApiController class. Responses are serialized with a
+ * mapper built from {@link JacksonConfig}, as Spring MVC would.
+ *
+ * @see ApiController
+ */
+@ExtendWith(MockitoExtension.class)
+public class ApiControllerTest {
+
+	@Mock
+	private AccountService accountService;
+
+	@Mock
+	private CreditCardService creditCardService;
+
+	@Mock
+	private TransactionService transactionService;
+
+	@Mock
+	private UserService userService;
+
+	@InjectMocks
+	private ApiController apiController;
+
+	private ObjectMapper mapper;
+	private MockHttpSession session;
+
+	@BeforeEach
+	public void setUp() {
+		Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+		new JacksonConfig().objectMapperCustomizer().customize(builder);
+		mapper = builder.build();
+		User user = new User();
+		user.setUserId(1L);
+		session = new MockHttpSession();
+		session.setAttribute("loggedUser", user);
+	}
+
+	private String write(ResponseEntity<MappingJacksonValue> response) throws Exception {
+		MappingJacksonValue value = response.getBody();
+		// Like Spring MVC, fall back to the mapper's default filters
+		return (value.getFilters() == null ? mapper.writer() : mapper.writer(value.getFilters()))
+				.writeValueAsString(value.getValue());
+	}
+
+	/**
+	 * Tests that every field is written when no fields are selected.
+	 *
+	 * @see ApiController#accounts(String, jakarta.servlet.http.HttpSession)
+	 */
+	@Test
+	@DisplayName("1. Accounts are written in full by default")
+	void testAccounts() throws Exception {
+		// Arrange
+		when(accountService.findAccountSummariesByUserId(1L))
+				.thenReturn(List.of(new AccountSummary(2L, "Savings", "123-123-123", 5000, "Approved")));
+
+		// Act
+		String json = write(apiController.accounts(null, session));
+
+		// Assert
+		assertEquals("[{\"accountId\":2,\"accountName\":\"Savings\",\"accountNumber\":\"123-123-123\","
+				+ "\"balance\":5000.0,\"status\":\"Approved\"}]", json);
+	}
+
+	/**
+	 * Tests that only the selected fields are written, and that the page
+	 * metadata is kept.
+	 *
+	 * @see ApiController#accountTransactions(long, int, int, String,
+	 *      jakarta.servlet.http.HttpSession)
+	 */
+	@Test
+	@DisplayName("2. Sparse fieldsets select summary fields")
+	void testSparseFieldset() throws Exception {
+		// Arrange
+		when(accountService.isAccountOwnedBy(2L, 1L)).thenReturn(true);
+		Page<TransactionSummary> page = new PageImpl<>(
+				List.of(new TransactionSummary(9L, null, "Deposit", 100, 0, "Salary", null, "SGD")));
+		when(transactionService.findTransactionSummariesByAccountId(eq(2L), any(Pageable.class))).thenReturn(page);
+
+		// Act
+		String json = write(apiController.accountTransactions(2L, 0, 500, "transactionId, transactionAmount", session));
+
+		// Assert
+		ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+		verify(transactionService).findTransactionSummariesByAccountId(eq(2L), captor.capture());
+		assertEquals(ApiController.MAX_PAGE_SIZE, captor.getValue().getPageSize());
+		assertEquals("{\"content\":[{\"transactionId\":9,\"transactionAmount\":100.0}],\"page\":0,\"size\":1,"
+				+ "\"totalElements\":1,\"totalPages\":1}", json);
+	}
+
+	/**
+	 * Tests that the transactions of another user's card are not returned.
+	 *
+	 * @see ApiController#cardTransactions(long, int, int, String,
+	 *      jakarta.servlet.http.HttpSession)
+	 */
+	@Test
+	@DisplayName("3. Another user's card is not found")
+	void testCardNotOwned() {
+		// Arrange
+		when(creditCardService.isCreditCardOwnedBy(5L, 1L)).thenReturn(false);
+
+		// Act
+		ResponseEntity<MappingJacksonValue> response = apiController.cardTransactions(5L, 0, 20, null, session);
+
+		// Assert
+		assertEquals(404, response.getStatusCode().value());
+		verify(transactionService, never()).findTransactionSummariesByCreditCardId(any(Long.class), any());
+	}
+
+	/**
+	 * Tests that requests without a logged-in user are rejected.
+	 *
+	 * @see ApiController#balances(String, jakarta.servlet.http.HttpSession)
+	 */
+	@Test
+	@DisplayName("4. Requests without a logged-in user are unauthorized")
+	void testUnauthorized() {
+		// Act
+		ResponseEntity<MappingJacksonValue> response = apiController.balances(null, new MockHttpSession());
+
+		// Assert
+		assertEquals(401, response.getStatusCode().value());
+	}
+}
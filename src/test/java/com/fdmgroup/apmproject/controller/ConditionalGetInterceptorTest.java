@@ -0,0 +1,132 @@
+package com.fdmgroup.apmproject.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fdmgroup.apmproject.config.ReadWriteRoutingDataSource;
+import com.fdmgroup.apmproject.model.User;
+import com.fdmgroup.apmproject.service.UserDataVersionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the ConditionalGetInterceptor class, run against a real
+ * UserDataVersionService outside of any transaction.
+ *
+ * @see ConditionalGetInterceptor
+ * @see UserDataVersionService
+ */
+public class ConditionalGetInterceptorTest {
+
+	private UserDataVersionService userDataVersionService;
+	private SimpleMeterRegistry meterRegistry;
+	private ConditionalGetInterceptor interceptor;
+	private User user;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		userDataVersionService = new UserDataVersionService(meterRegistry);
+		interceptor = new ConditionalGetInterceptor(userDataVersionService);
+		user = new User();
+		user.setUserId(7L);
+	}
+
+	private MockHttpServletRequest request(String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard");
+		request.getSession().setAttribute("loggedUser", user);
+		if (ifNoneMatch != null) {
+			request.addHeader("If-None-Match", ifNoneMatch);
+		}
+		return request;
+	}
+
+	/**
+	 * Tests that a first visit is rendered from the primary and tagged with the
+	 * user's version.
+	 */
+	@Test
+	@DisplayName("1. First visit is rendered from the primary with a weak ETag")
+	void testFirstVisit() {
+		// Arrange
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		MockHttpServletRequest request = request(null);
+
+		// Act
+		boolean proceed = interceptor.preHandle(request, response, null);
+
+		// Assert
+		assertTrue(proceed);
+		assertEquals(Boolean.TRUE, request.getAttribute(ReadWriteRoutingDataSource.PRIMARY_ONLY_ATTRIBUTE));
+		assertEquals(userDataVersionService.getETag(7L), response.getHeader("ETag"));
+		assertTrue(response.getHeader("ETag").startsWith("W/"));
+		assertEquals("private, no-cache", response.getHeader("Cache-Control"));
+	}
+
+	/**
+	 * Tests that a refresh with the current ETag is answered with 304 and the
+	 * controller is skipped.
+	 */
+	@Test
+	@DisplayName("2. Refresh with the current ETag returns 304")
+	void testNotModified() {
+		// Arrange
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		boolean proceed = interceptor.preHandle(request(userDataVersionService.getETag(7L)), response, null);
+
+		// Assert
+		assertFalse(proceed);
+		assertEquals(304, response.getStatus());
+		assertEquals(1, meterRegistry.get("http.conditional.get").tag("result", "hit").counter().count());
+	}
+
+	/**
+	 * Tests that a change to the user's data makes the old ETag stale.
+	 */
+	@Test
+	@DisplayName("3. Data change renders the page again")
+	void testModified() {
+		// Arrange
+		String etag = userDataVersionService.getETag(7L);
+		userDataVersionService.bump(7L);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		boolean proceed = interceptor.preHandle(request(etag), response, null);
+
+		// Assert
+		assertTrue(proceed);
+		assertEquals(200, response.getStatus());
+		assertNotEquals(etag, response.getHeader("ETag"));
+		assertEquals(1, meterRegistry.get("http.conditional.get").tag("result", "miss").counter().count());
+	}
+
+	/**
+	 * Tests that requests without a logged-in user are left alone.
+	 */
+	@Test
+	@DisplayName("4. Anonymous requests are not tagged")
+	void testNoLoggedUser() {
+		// Arrange
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		boolean proceed = interceptor.preHandle(new MockHttpServletRequest("GET", "/dashboard"), response, null);
+
+		// Assert
+		assertTrue(proceed);
+		assertNull(response.getHeader("ETag"));
+	}
+}
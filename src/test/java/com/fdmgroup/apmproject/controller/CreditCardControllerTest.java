@@ -21,12 +21,14 @@ import org.springframework.ui.Model;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.AuditAction;
 import com.fdmgroup.apmproject.model.CreditCard;
 import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
 import com.fdmgroup.apmproject.model.Status;
 import com.fdmgroup.apmproject.model.Transaction;
 import com.fdmgroup.apmproject.model.User;
 import com.fdmgroup.apmproject.service.AccountService;
+import com.fdmgroup.apmproject.service.AuditJournal;
 import com.fdmgroup.apmproject.service.CreditCardService;
 import com.fdmgroup.apmproject.service.ForeignExchangeCurrencyService;
 import com.fdmgroup.apmproject.service.MerchantCategoryCodeService;
@@ -75,6 +77,9 @@ class CreditCardControllerTest {
 	@Mock
 	private TransactionService transactionService;
 
+	@Mock
+	private AuditJournal auditJournal;
+
 	@Mock
 	private RedirectAttributes redirectAttributes;
 
@@ -395,6 +400,7 @@ class CreditCardControllerTest {
 		verify(transactionService).persist(any(Transaction.class));
 		verify(transactionService).updateCreditCardBalance(any(Transaction.class));
 		verify(accountService).update(account);
+		verify(auditJournal).append(AuditAction.BILL_PAYMENT, "account/2", 0.0, -500.0);
 		verify(userService, times(2)).update(currentUser);
 		verify(session).setAttribute("loggedUser", currentUser);
 	}
@@ -0,0 +1,232 @@
+package com.fdmgroup.apmproject.controller;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
+import com.fdmgroup.apmproject.model.MerchantCategoryCode;
+import com.fdmgroup.apmproject.model.Status;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.model.User;
+import com.fdmgroup.apmproject.repository.AccountRepository;
+import com.fdmgroup.apmproject.repository.CreditCardRepository;
+import com.fdmgroup.apmproject.repository.ForeignExchangeCurrencyRepository;
+import com.fdmgroup.apmproject.repository.MerchantCategoryCodeRepository;
+import com.fdmgroup.apmproject.repository.StatusRepository;
+import com.fdmgroup.apmproject.repository.TransactionRepository;
+import com.fdmgroup.apmproject.repository.UserRepository;
+import com.fdmgroup.apmproject.security.UserSecurityDetails;
+
+/**
+ * Holds every read endpoint to a budget of SQL statements and rows fetched,
+ * so that N+1 loads are caught by the build rather than in production.
+ * <p>
+ * The application runs against an in-memory database holding the demo data
+ * plus {@value #CUSTOMERS} generated customers. The logged-in customer owns
+ * {@value #ACCOUNTS_PER_CUSTOMER} accounts and {@value #CARDS_PER_CUSTOMER}
+ * cards, each with {@value #TRANSACTIONS_PER_PRODUCT} transactions. Each
+ * request, including the rendering of its view, is counted by
+ * {@link QueryCounter}. When a budget is exceeded the failure lists the SQL
+ * that was executed.
+ * <p>
+ * Budgets are declared in {@link #budgets()}. Raise one only together with
+ * the change that needs it.
+ *
+ * @see QueryCounter
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("querybudget")
+@Import(QueryCounter.Config.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryBudgetTest {
+
+	static final int CUSTOMERS = 20;
+	static final int ACCOUNTS_PER_CUSTOMER = 2;
+	static final int CARDS_PER_CUSTOMER = 2;
+	static final int TRANSACTIONS_PER_PRODUCT = 50;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private CreditCardRepository creditCardRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private StatusRepository statusRepository;
+
+	@Autowired
+	private MerchantCategoryCodeRepository merchantCategoryCodeRepository;
+
+	@Autowired
+	private ForeignExchangeCurrencyRepository currencyRepository;
+
+	private long customerId;
+	private long adminId;
+	private long accountId;
+	private long creditCardId;
+
+	/**
+	 * A request and the most statements and rows it may use.
+	 *
+	 * @param method        GET or POST.
+	 * @param uri           The path and query; {@code {user}}, {@code {account}}
+	 *                      and {@code {card}} are replaced with the ids of the
+	 *                      logged-in customer and one of their products.
+	 * @param admin         Whether the admin is logged in instead of the
+	 *                      customer.
+	 * @param maxStatements The statement budget.
+	 * @param maxRows       The row budget.
+	 */
+	record Budget(String method, String uri, boolean admin, int maxStatements, long maxRows) {
+		@Override
+		public String toString() {
+			return method + " " + uri;
+		}
+	}
+
+	static Stream<Budget> budgets() {
+		return Stream.of(
+				// Customer pages
+				new Budget("GET", "/dashboard", false, 9, 230),
+				new Budget("GET", "/bankaccount/dashboard", false, 8, 230),
+				new Budget("GET", "/bankaccount/withdrawal", false, 9, 380),
+				new Budget("GET", "/bankaccount/deposit", false, 9, 380),
+				new Budget("GET", "/bankaccount/create", false, 0, 0),
+				new Budget("GET", "/bankaccount/transfer", false, 9, 380),
+				new Budget("GET", "/userCards", false, 8, 230),
+				new Budget("GET", "/applyCreditCard", false, 0, 0),
+				new Budget("GET", "/creditCard/paybills", false, 8, 230),
+				new Budget("GET", "/users/{user}", false, 6, 230),
+				new Budget("GET", "/users/{user}/details", false, 6, 230),
+				new Budget("POST", "/viewTransactions?accountId={account}", false, 6, 230),
+				new Budget("POST", "/viewTransactions?accountId={account}&month=2024-03", false, 7, 240),
+				new Budget("POST", "/viewTransactions?creditCardId={card}", false, 8, 280),
+				new Budget("POST", "/viewTransactions?creditCardId={card}&month=2024-03", false, 8, 240),
+				// JSON API
+				new Budget("GET", "/api/v1/accounts", false, 1, 2),
+				new Budget("GET", "/api/v1/cards", false, 1, 2),
+				new Budget("GET", "/api/v1/balances", false, 1, 1),
+				new Budget("GET", "/api/v1/accounts/{account}/transactions", false, 3, 25),
+				new Budget("GET", "/api/v1/cards/{card}/transactions", false, 3, 25),
+				// Admin pages; the user and transaction lists still load every user's
+				// products and transactions
+				new Budget("GET", "/admin/dashboard", true, 0, 0),
+				new Budget("GET", "/admin/users", true, 130, 4500),
+				new Budget("GET", "/admin/accounts?userId={user}", true, 6, 230),
+				new Budget("GET", "/admin/creditcards?userId={user}", true, 6, 230),
+				new Budget("GET", "/admin/transactions", true, 132, 4600),
+				new Budget("POST", "/admin/transactions?month=2024-03&pickedType=card", true, 132, 4600));
+	}
+
+	@BeforeAll
+	public void seed() {
+		Status approved = statusRepository.findByStatusName("Approved").get();
+		MerchantCategoryCode dining = merchantCategoryCodeRepository.findByMerchantCategory("Dining").get();
+		ForeignExchangeCurrency sgd = currencyRepository.findByCurrencyCode("SGD");
+		// Pages print the time of day from the ISO form, so seconds must not be zero
+		LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 30, 15);
+
+		for (int c = 0; c < CUSTOMERS; c++) {
+			User customer = userRepository.save(new User("customer" + c, "password", "Address " + c, "First" + c,
+					"Last" + c));
+			List<Transaction> transactions = new ArrayList<>();
+			for (int a = 0; a < ACCOUNTS_PER_CUSTOMER; a++) {
+				Account account = accountRepository.save(new Account("Savings", 1000,
+						String.format("900-%03d-%03d", c, a), customer, approved, "SGD"));
+				for (int t = 0; t < TRANSACTIONS_PER_PRODUCT; t++) {
+					Transaction transaction = new Transaction("Deposit", account, 10 + t, null, sgd, "SGD " + (10 + t));
+					transaction.setTransactionDate(start.plusDays(t * 3));
+					transactions.add(transaction);
+				}
+				accountId = account.getAccountId();
+			}
+			for (int k = 0; k < CARDS_PER_CUSTOMER; k++) {
+				CreditCard creditCard = creditCardRepository.save(new CreditCard(
+						String.format("9000-0000-%04d-%04d", c, k), "123", 3000, "Ultimate Cashback Card", approved, 0,
+						customer, "SGD"));
+				for (int t = 0; t < TRANSACTIONS_PER_PRODUCT; t++) {
+					transactions.add(new Transaction(start.plusDays(t * 3), "CC Purchase", 5 + t, null, 0.00,
+							creditCard, null, dining, sgd));
+				}
+				creditCardId = creditCard.getCreditCardId();
+			}
+			transactionRepository.saveAll(transactions);
+			customerId = customer.getUserId();
+		}
+		adminId = userRepository.findByUsername("admin").get().getUserId();
+	}
+
+	@AfterEach
+	public void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	/**
+	 * Tests that a request stays within its statement and row budget.
+	 *
+	 * @param budget The request and its budget.
+	 */
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("budgets")
+	void testQueryBudget(Budget budget) throws Exception {
+		// Arrange
+		User loggedUser = userRepository.findById(budget.admin() ? adminId : customerId).get();
+		MockHttpSession session = new MockHttpSession();
+		session.setAttribute("loggedUser", loggedUser);
+		UserSecurityDetails details = new UserSecurityDetails(loggedUser);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+		String uri = budget.uri().replace("{user}", Long.toString(customerId))
+				.replace("{account}", Long.toString(accountId)).replace("{card}", Long.toString(creditCardId));
+
+		// Act
+		QueryCounter.reset();
+		MockHttpServletResponse response = mockMvc
+				.perform(("POST".equals(budget.method()) ? post(uri) : get(uri)).session(session)).andReturn()
+				.getResponse();
+		QueryCounter.Counts counts = QueryCounter.current();
+
+		// Assert
+		String executed = budget + " executed:\n  " + String.join("\n  ", counts.getSql());
+		assertAll(() -> assertTrue(response.getStatus() < 400, budget + " returned " + response.getStatus()),
+				() -> assertTrue(counts.getStatements() <= budget.maxStatements(), counts.getStatements()
+						+ " statements over the budget of " + budget.maxStatements() + " for " + executed),
+				() -> assertTrue(counts.getRows() <= budget.maxRows(),
+						counts.getRows() + " rows over the budget of " + budget.maxRows() + " for " + executed));
+	}
+}
@@ -0,0 +1,158 @@
+package com.fdmgroup.apmproject.controller;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Counts the SQL statements executed and the rows read through the
+ * application's DataSource, so that tests can hold a request to a query and
+ * row budget.
+ * <p>
+ * The DataSource is wrapped in JDBC proxies: every {@code execute*} call on a
+ * statement counts as one statement and every successful
+ * {@code ResultSet.next()} as one row. Counts are kept per thread, so work done
+ * by background threads is not charged to the request under test.
+ */
+public final class QueryCounter {
+
+	private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+	private QueryCounter() {
+	}
+
+	/**
+	 * Statement and row counts of the current thread since the last reset.
+	 */
+	public static final class Counts {
+		private long statements;
+		private long rows;
+		private final List<String> sql = new ArrayList<>();
+
+		public long getStatements() {
+			return statements;
+		}
+
+		public long getRows() {
+			return rows;
+		}
+
+		/**
+		 * @return The SQL of each statement executed, in order.
+		 */
+		public List<String> getSql() {
+			return sql;
+		}
+	}
+
+	/**
+	 * Starts counting again from zero on the current thread.
+	 */
+	public static void reset() {
+		COUNTS.set(new Counts());
+	}
+
+	/**
+	 * @return The counts of the current thread since the last reset.
+	 */
+	public static Counts current() {
+		return COUNTS.get();
+	}
+
+	/**
+	 * Wraps a DataSource so that its statements and rows are counted.
+	 *
+	 * @param dataSource The DataSource to wrap.
+	 * @return The counting DataSource.
+	 */
+	public static DataSource wrap(DataSource dataSource) {
+		return proxy(DataSource.class, dataSource, (target, method, args) -> {
+			Object result = invoke(target, method, args);
+			return result instanceof Connection connection ? wrapConnection(connection) : result;
+		});
+	}
+
+	private static Connection wrapConnection(Connection connection) {
+		return proxy(Connection.class, connection, (target, method, args) -> {
+			Object result = invoke(target, method, args);
+			if (result instanceof Statement statement) {
+				// Prepared statements carry their SQL from here
+				String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+				return wrapStatement(statement, sql);
+			}
+			return result;
+		});
+	}
+
+	private static Statement wrapStatement(Statement statement, String preparedSql) {
+		Class<? extends Statement> type = statement instanceof CallableStatement ? CallableStatement.class
+				: statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+		return proxy(type, statement, (target, method, args) -> {
+			if (method.getName().startsWith("execute")) {
+				Counts counts = COUNTS.get();
+				counts.statements++;
+				counts.sql.add(args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql);
+			}
+			Object result = invoke(target, method, args);
+			return result instanceof ResultSet resultSet ? wrapResultSet(resultSet) : result;
+		});
+	}
+
+	private static ResultSet wrapResultSet(ResultSet resultSet) {
+		return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+			Object result = invoke(target, method, args);
+			if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+				COUNTS.get().rows++;
+			}
+			return result;
+		});
+	}
+
+	private interface Handler {
+		Object handle(Object target, Method method, Object[] args) throws Throwable;
+	}
+
+	private static <T> T proxy(Class<? extends T> type, T target, Handler handler) {
+		InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+		return type.cast(Proxy.newProxyInstance(QueryCounter.class.getClassLoader(), new Class<?>[] { type },
+				invocationHandler));
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Wraps the application's DataSource bean with a counting one.
+	 */
+	@TestConfiguration
+	public static class Config {
+		@Bean
+		public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource ? wrap(dataSource) : bean;
+				}
+			};
+		}
+	}
+}
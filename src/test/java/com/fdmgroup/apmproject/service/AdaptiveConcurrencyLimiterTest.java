@@ -0,0 +1,163 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fdmgroup.apmproject.config.ConcurrencyLimitProperties;
+import com.fdmgroup.apmproject.service.AdaptiveConcurrencyLimiter.Permit;
+import com.fdmgroup.apmproject.service.AdaptiveConcurrencyLimiter.Priority;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the AdaptiveConcurrencyLimiter class. A manual clock is used
+ * so that slow requests can be tested without sleeping.
+ *
+ * @see AdaptiveConcurrencyLimiter
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+	private AtomicLong clock;
+	private SimpleMeterRegistry meterRegistry;
+	private ConcurrencyLimitProperties properties;
+
+	@BeforeEach
+	public void setUp() {
+		clock = new AtomicLong(0);
+		meterRegistry = new SimpleMeterRegistry();
+		properties = new ConcurrencyLimitProperties();
+		properties.setInitialLimit(10);
+		properties.setMinLimit(2);
+		properties.setMaxLimit(20);
+		properties.setLatencyThresholdMs(100);
+		properties.setBackoffRatio(0.5);
+		properties.setNormalShare(0.8);
+		properties.setLowShare(0.5);
+	}
+
+	private AdaptiveConcurrencyLimiter newLimiter() {
+		return new AdaptiveConcurrencyLimiter(properties, meterRegistry, clock::get);
+	}
+
+	private List<Permit> acquire(AdaptiveConcurrencyLimiter limiter, Priority priority, int count) {
+		List<Permit> permits = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			permits.add(limiter.tryAcquire(priority));
+		}
+		return permits;
+	}
+
+	/**
+	 * Tests that each priority may only use its share of the limit, so low
+	 * priority requests are shed first and critical ones last.
+	 */
+	@Test
+	@DisplayName("1. Priorities are shed in order")
+	void testPriorityShares() {
+		// Arrange
+		AdaptiveConcurrencyLimiter limiter = newLimiter();
+		acquire(limiter, Priority.LOW, 5);
+
+		// Act & Assert
+		assertNull(limiter.tryAcquire(Priority.LOW));
+		acquire(limiter, Priority.NORMAL, 3);
+		assertNull(limiter.tryAcquire(Priority.NORMAL));
+		assertNotNull(limiter.tryAcquire(Priority.CRITICAL));
+		assertNotNull(limiter.tryAcquire(Priority.CRITICAL));
+		assertNull(limiter.tryAcquire(Priority.CRITICAL));
+		assertEquals(1.0, meterRegistry.get("concurrency.shed").tag("priority", "low").counter().count());
+		assertEquals(1.0, meterRegistry.get("concurrency.shed").tag("priority", "critical").counter().count());
+	}
+
+	/**
+	 * Tests that slow requests that were in flight together lower the limit only
+	 * once.
+	 */
+	@Test
+	@DisplayName("2. Slow requests lower the limit once per round")
+	void testDecreaseOncePerRound() {
+		// Arrange
+		AdaptiveConcurrencyLimiter limiter = newLimiter();
+		List<Permit> permits = acquire(limiter, Priority.CRITICAL, 4);
+
+		// Act
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+		permits.forEach(Permit::release);
+
+		// Assert
+		assertEquals(5.0, limiter.getLimit());
+		assertEquals(0, limiter.getInflight());
+	}
+
+	/**
+	 * Tests that the limit does not drop below its minimum.
+	 */
+	@Test
+	@DisplayName("3. Limit stays at or above the minimum")
+	void testMinimumLimit() {
+		// Arrange
+		AdaptiveConcurrencyLimiter limiter = newLimiter();
+
+		// Act
+		for (int i = 0; i < 10; i++) {
+			Permit permit = limiter.tryAcquire(Priority.CRITICAL);
+			clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+			permit.release();
+		}
+
+		// Assert
+		assertEquals(2.0, limiter.getLimit());
+	}
+
+	/**
+	 * Tests that fast requests raise the limit while the limiter is busy, but not
+	 * while it is mostly idle.
+	 */
+	@Test
+	@DisplayName("4. Fast requests raise the limit only under load")
+	void testIncreaseUnderLoad() {
+		// Arrange
+		AdaptiveConcurrencyLimiter limiter = newLimiter();
+
+		// Act
+		limiter.tryAcquire(Priority.NORMAL).release();
+		double idle = limiter.getLimit();
+		List<Permit> permits = acquire(limiter, Priority.NORMAL, 8);
+		permits.forEach(Permit::release);
+
+		// Assert
+		assertEquals(10.0, idle);
+		assertTrue(limiter.getLimit() > 10.0);
+	}
+
+	/**
+	 * Tests that slow low priority requests do not lower the limit.
+	 */
+	@Test
+	@DisplayName("5. Low priority latency is ignored")
+	void testLowPriorityIgnored() {
+		// Arrange
+		AdaptiveConcurrencyLimiter limiter = newLimiter();
+		Permit permit = limiter.tryAcquire(Priority.LOW);
+
+		// Act
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		permit.release();
+		permit.release();
+
+		// Assert
+		assertEquals(10.0, limiter.getLimit());
+		assertEquals(0, limiter.getInflight());
+	}
+}
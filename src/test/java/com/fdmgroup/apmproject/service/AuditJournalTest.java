@@ -0,0 +1,218 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fdmgroup.apmproject.config.AuditJournalProperties;
+import com.fdmgroup.apmproject.model.AuditAction;
+import com.fdmgroup.apmproject.model.AuditRecord;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the AuditJournal and AuditJournalReader classes, run against
+ * a temporary directory with a manual clock.
+ *
+ * @see AuditJournal
+ * @see AuditJournalReader
+ */
+public class AuditJournalTest {
+
+	@TempDir
+	Path directory;
+
+	private AtomicLong clock;
+	private AuditJournalProperties properties;
+	private List<AuditJournal> journals;
+
+	@BeforeEach
+	public void setUp() {
+		clock = new AtomicLong(1_700_000_000_000L);
+		properties = new AuditJournalProperties();
+		properties.setDirectory(directory.toString());
+		properties.setSegmentSize(AuditJournal.MIN_SEGMENT_SIZE);
+		properties.setSyncIntervalMs(10);
+		journals = new ArrayList<>();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		journals.forEach(AuditJournal::close);
+		SecurityContextHolder.clearContext();
+	}
+
+	private AuditJournal open() {
+		AuditJournal journal = new AuditJournal(properties, new SimpleMeterRegistry(), clock::get);
+		journals.add(journal);
+		return journal;
+	}
+
+	private List<AuditRecord> replay() throws IOException {
+		List<AuditRecord> records = new ArrayList<>();
+		AuditJournalReader.replay(directory, records::add);
+		return records;
+	}
+
+	/**
+	 * Tests that a record is read back with every field it was written with.
+	 */
+	@Test
+	@DisplayName("1. Records are read back as written")
+	void testReadBack() throws IOException {
+		// Arrange
+		AuditJournal journal = open();
+
+		// Act
+		journal.append("admin", AuditAction.ACCOUNT_STATUS, "account/12", 1, 2);
+		journal.append("jackytan", AuditAction.DEPOSIT, "account/7", 100.5, 350.25);
+
+		// Assert
+		assertEquals(List.of(
+				new AuditRecord(1, clock.get(), "admin", AuditAction.ACCOUNT_STATUS, "account/12", 1, 2),
+				new AuditRecord(2, clock.get(), "jackytan", AuditAction.DEPOSIT, "account/7", 100.5, 350.25)),
+				replay());
+	}
+
+	/**
+	 * Tests that a full segment is followed by a new one and that the journal is
+	 * read across segments in order.
+	 */
+	@Test
+	@DisplayName("2. Journal rolls over to new segments")
+	void testRollOver() throws IOException {
+		// Arrange
+		AuditJournal journal = open();
+
+		// Act
+		for (int i = 0; i < 500; i++) {
+			journal.append("customer", AuditAction.CARD_PURCHASE, "creditcard/" + i, i, i + 1);
+		}
+
+		// Assert
+		List<AuditRecord> records = replay();
+		assertTrue(AuditJournalReader.segments(directory).size() > 1);
+		assertEquals(500, records.size());
+		for (int i = 0; i < records.size(); i++) {
+			assertEquals(i + 1, records.get(i).sequence());
+			assertEquals("creditcard/" + i, records.get(i).entity());
+		}
+	}
+
+	/**
+	 * Tests that a reopened journal continues the sequence after its last record.
+	 */
+	@Test
+	@DisplayName("3. Reopened journal continues the sequence")
+	void testReopen() throws IOException {
+		// Arrange
+		AuditJournal journal = open();
+		for (int i = 0; i < 80; i++) {
+			journal.append("customer", AuditAction.WITHDRAWAL, "account/1", 100 - i, 99 - i);
+		}
+		journal.close();
+
+		// Act
+		AuditJournal reopened = open();
+		reopened.append("customer", AuditAction.DEPOSIT, "account/1", 20, 30);
+
+		// Assert
+		List<AuditRecord> records = replay();
+		assertEquals(81, records.size());
+		assertEquals(81, records.get(80).sequence());
+		assertEquals(AuditAction.DEPOSIT, records.get(80).action());
+	}
+
+	/**
+	 * Tests that a record torn by a crash is discarded when the journal is
+	 * reopened and is overwritten by the next record.
+	 */
+	@Test
+	@DisplayName("4. Torn record is discarded on reopen")
+	void testTornRecord() throws IOException {
+		// Arrange
+		AuditJournal journal = open();
+		journal.append("customer", AuditAction.DEPOSIT, "account/1", 0, 10);
+		journal.append("customer", AuditAction.DEPOSIT, "account/1", 10, 20);
+		journal.close();
+		Path segment = AuditJournalReader.segments(directory).get(0);
+		int firstLength = AuditJournalReader.FIXED_BYTES + "customer".length() + "account/1".length();
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			// Flip a byte of the second record's amount
+			file.seek(firstLength + 30);
+			file.write(file.read() ^ 0xFF);
+		}
+
+		// Act
+		List<AuditRecord> beforeReopen = replay();
+		AuditJournal reopened = open();
+		reopened.append("customer", AuditAction.DEPOSIT, "account/1", 10, 25);
+
+		// Assert
+		assertEquals(1, beforeReopen.size());
+		List<AuditRecord> records = replay();
+		assertEquals(2, records.size());
+		assertEquals(2, records.get(1).sequence());
+		assertEquals(25, records.get(1).after());
+	}
+
+	/**
+	 * Tests that a scan returns only the records within its time range, across
+	 * segments.
+	 */
+	@Test
+	@DisplayName("5. Scan returns the records within a time range")
+	void testScan() throws IOException {
+		// Arrange
+		AuditJournal journal = open();
+		long start = clock.get();
+		for (int i = 0; i < 300; i++) {
+			journal.append("customer", AuditAction.CARD_PAYMENT, "creditcard/1", i, i + 1);
+			clock.addAndGet(1000);
+		}
+
+		// Act
+		List<AuditRecord> records = new ArrayList<>();
+		long count = AuditJournalReader.scan(directory, start + 100_000, start + 150_000, records::add);
+
+		// Assert
+		assertEquals(50, count);
+		assertEquals(101, records.get(0).sequence());
+		assertEquals(150, records.get(49).sequence());
+	}
+
+	/**
+	 * Tests that the actor is the authenticated user, or "system" without one.
+	 */
+	@Test
+	@DisplayName("6. Actor is the authenticated user")
+	void testActor() throws IOException {
+		// Arrange
+		AuditJournal journal = open();
+		journal.append(AuditAction.CARD_INTEREST, "creditcard/1", 0, 5);
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+
+		// Act
+		journal.append(AuditAction.CARD_STATUS, "creditcard/1", 1, 2);
+
+		// Assert
+		List<AuditRecord> records = replay();
+		assertEquals(AuditJournal.SYSTEM_ACTOR, records.get(0).actor());
+		assertEquals("admin", records.get(1).actor());
+	}
+}
@@ -0,0 +1,339 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdmgroup.apmproject.config.BillingProperties;
+import com.fdmgroup.apmproject.config.OutboxProperties;
+import com.fdmgroup.apmproject.model.BillingPartition;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.OutboxEvent;
+import com.fdmgroup.apmproject.model.Status;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.model.User;
+import com.fdmgroup.apmproject.repository.BillingPartitionRepository;
+import com.fdmgroup.apmproject.repository.CreditCardRepository;
+import com.fdmgroup.apmproject.repository.OutboxCheckpointRepository;
+import com.fdmgroup.apmproject.repository.OutboxDeadLetterRepository;
+import com.fdmgroup.apmproject.repository.OutboxEventRepository;
+import com.fdmgroup.apmproject.repository.StatusRepository;
+import com.fdmgroup.apmproject.repository.TransactionRepository;
+import com.fdmgroup.apmproject.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs several billing instances against one in-memory database, as
+ * instances on one host would share a database, and checks that each cycle
+ * charges every card exactly once.
+ * <p>
+ * Each instance is a {@link BillingCoordinator} with its own node id and
+ * metrics. Seeded cards owe a minimum balance, so every billing of a card
+ * posts an "Unpaid Minimum Balance Fee" transaction that can be counted.
+ *
+ * @see BillingCoordinator
+ */
+@SpringBootTest
+@ActiveProfiles("billing")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BillingCoordinatorTest {
+
+	private static final int CARDS = 30;
+	private static final int PARTITIONS = 6;
+	private static final String FEE = "Unpaid Minimum Balance Fee";
+
+	@Autowired
+	private BillingPartitionRepository partitionRepository;
+
+	@Autowired
+	private CreditCardRepository creditCardRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private StatusRepository statusRepository;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private TransactionOutbox transactionOutbox;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private OutboxCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private OutboxDeadLetterRepository deadLetterRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final List<CreditCard> creditCards = new ArrayList<>();
+	private final Map<BillingCoordinator, SimpleMeterRegistry> meterRegistries = new HashMap<>();
+	private ExecutorService executor;
+
+	@BeforeAll
+	public void seed() {
+		Status approved = statusRepository.findByStatusName("Approved").get();
+		User customer = userRepository.save(new User("billing", "password", "Address", "Billing", "Customer"));
+		for (int i = 0; i < CARDS; i++) {
+			creditCards.add(creditCardRepository.save(new CreditCard(String.format("9100-0000-0000-%04d", i), "123",
+					3000, "Ultimate Cashback Card", approved, 0, customer, "SGD")));
+		}
+	}
+
+	@BeforeEach
+	public void setUp() {
+		oweMinimumBalance();
+		executor = Executors.newCachedThreadPool();
+	}
+
+	private void oweMinimumBalance() {
+		for (CreditCard creditCard : creditCards) {
+			CreditCard current = creditCardRepository.findById(creditCard.getCreditCardId()).get();
+			current.setMinBalancePaid(50);
+			creditCardRepository.save(current);
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+		meterRegistries.keySet().forEach(BillingCoordinator::stop);
+		meterRegistries.clear();
+	}
+
+	private BillingCoordinator instance(String nodeId, long leaseMs) {
+		return instance(nodeId, leaseMs, LocalDateTime.now());
+	}
+
+	private BillingCoordinator instance(String nodeId, long leaseMs, LocalDateTime now) {
+		BillingProperties properties = new BillingProperties();
+		properties.setNodeId(nodeId);
+		properties.setPartitions(PARTITIONS);
+		properties.setLeaseMs(leaseMs);
+		properties.setHeartbeatMs(leaseMs / 4);
+		properties.setPollMs(20);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		BillingCoordinator coordinator = new BillingCoordinator(partitionRepository, creditCardRepository,
+				transactionService, transactionManager, properties, meterRegistry, () -> now);
+		meterRegistries.put(coordinator, meterRegistry);
+		return coordinator;
+	}
+
+	private long fees(CreditCard creditCard) {
+		return transactionRepository.findByTransactionCreditCard(creditCard).stream()
+				.filter(transaction -> FEE.equals(transaction.getDescription())).count();
+	}
+
+	private double partitions(BillingCoordinator coordinator, String outcome) {
+		Counter counter = meterRegistries.get(coordinator).find("billing.partitions").tag("outcome", outcome)
+				.counter();
+		return counter == null ? 0 : counter.count();
+	}
+
+	/**
+	 * Tests that three instances running the same cycle at once share the
+	 * partitions and bill every card exactly once.
+	 */
+	@Test
+	@DisplayName("1. Concurrent instances bill each card once")
+	void testConcurrentInstancesBillOnce() throws Exception {
+		// Arrange
+		YearMonth cycle = YearMonth.of(2099, 1);
+		List<BillingCoordinator> nodes = List.of(instance("node-1", 10000), instance("node-2", 10000),
+				instance("node-3", 10000));
+		List<Long> feesBefore = creditCards.stream().map(this::fees).toList();
+
+		// Act
+		List<Future<?>> runs = new ArrayList<>();
+		for (BillingCoordinator node : nodes) {
+			runs.add(executor.submit(() -> node.runCycle(cycle)));
+		}
+		for (Future<?> run : runs) {
+			run.get(60, TimeUnit.SECONDS);
+		}
+
+		// Assert
+		for (int i = 0; i < CARDS; i++) {
+			assertEquals(feesBefore.get(i) + 1, fees(creditCards.get(i)), "card " + i);
+		}
+		assertEquals(PARTITIONS, nodes.stream().mapToDouble(node -> partitions(node, "completed")).sum());
+		assertEquals(0.0, nodes.stream().mapToDouble(node -> partitions(node, "lost")).sum());
+		assertEquals(0, partitionRepository.countByCycleAndCompletedFalse(cycle.toString()));
+	}
+
+	/**
+	 * Tests that a partition claimed by an instance that stops is reclaimed once
+	 * its lease runs out, and that the stalled instance cannot bill it again when
+	 * it resumes.
+	 */
+	@Test
+	@DisplayName("2. Partition of a stalled instance is reclaimed and billed once")
+	void testStalledInstanceIsReclaimed() {
+		// Arrange
+		YearMonth cycle = YearMonth.of(2099, 2);
+		BillingCoordinator stalled = instance("node-stalled", 300);
+		BillingCoordinator live = instance("node-live", 300);
+		stalled.createPartitions(cycle.toString());
+		Optional<BillingPartition> claimed = stalled.claimPartition(cycle.toString());
+		List<Long> feesBefore = creditCards.stream().map(this::fees).toList();
+
+		// Act
+		live.runCycle(cycle);
+		// The cards owe again, so a late billing that committed would charge them twice
+		oweMinimumBalance();
+		boolean billed = stalled.billPartition(claimed.get());
+
+		// Assert
+		assertTrue(claimed.isPresent());
+		assertFalse(billed);
+		for (int i = 0; i < CARDS; i++) {
+			assertEquals(feesBefore.get(i) + 1, fees(creditCards.get(i)), "card " + i);
+		}
+		assertEquals(PARTITIONS, partitions(live, "completed"));
+		assertEquals(1.0, partitions(live, "reclaimed"));
+		assertEquals(1.0, partitions(stalled, "lost"));
+		assertEquals("node-live", partitionRepository.findById(claimed.get().getPartitionKey()).get().getOwner());
+	}
+
+	private boolean billed(String cycle) {
+		return partitionRepository.existsByCycle(cycle)
+				&& partitionRepository.countByCycleAndCompletedFalse(cycle) == 0;
+	}
+
+	/**
+	 * Tests that an instance starting after month boundaries were missed bills
+	 * every missed month, then bills the next month when its start comes.
+	 */
+	@Test
+	@DisplayName("3. Missed cycles are caught up and the next one fires at the month boundary")
+	void testMissedCyclesAreCaughtUp() throws Exception {
+		// Arrange
+		instance("node-before", 10000).runCycle(YearMonth.of(2099, 10));
+		// A few hundred milliseconds before the start of January
+		BillingCoordinator restarted = instance("node-restarted", 10000,
+				LocalDateTime.of(2099, 12, 31, 23, 59, 59, 700_000_000));
+
+		// Act
+		restarted.scheduleInterestCharging();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while (!billed("2100-01") && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+
+		// Assert
+		assertTrue(billed("2099-11"));
+		assertTrue(billed("2099-12"));
+		assertTrue(billed("2100-01"));
+		assertEquals(3 * PARTITIONS, partitions(restarted, "completed"));
+	}
+
+	/**
+	 * A consumer that records the transaction ids of the events it handles.
+	 */
+	private class PostedTransactions implements OutboxConsumer {
+		private final List<Long> transactionIds = new ArrayList<>();
+
+		@Override
+		public String getName() {
+			return "billing-test";
+		}
+
+		@Override
+		public void accept(OutboxEvent event) throws Exception {
+			transactionIds.add(objectMapper.readTree(event.getPayload()).get("transactionId").asLong());
+		}
+	}
+
+	private Transaction purchase(CreditCard creditCard) {
+		return new Transaction(LocalDateTime.now(), "CC Purchase", 10, null, 0, creditCard, null, null, null);
+	}
+
+	/**
+	 * Tests that the event of a posting in a long transaction, such as a billing
+	 * partition, is relayed after the transaction commits, even though a posting
+	 * that started later committed first and was relayed meanwhile.
+	 */
+	@Test
+	@DisplayName("4. Event of a long billing transaction is relayed after a later one")
+	void testLongTransactionEventIsRelayed() throws Exception {
+		// Arrange
+		OutboxProperties properties = new OutboxProperties();
+		properties.setSettleMs(200);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		PostedTransactions consumer = new PostedTransactions();
+		OutboxRelay relay = new OutboxRelay(List.of(consumer), outboxEventRepository, checkpointRepository,
+				deadLetterRepository, properties, meterRegistry);
+		while (relay.relay(consumer) > 0) {
+			// Skip the events recorded before this test
+		}
+		consumer.transactionIds.clear();
+		CountDownLatch posted = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		Future<Transaction> longRunning = executor.submit(() -> transactionTemplate.execute(status -> {
+			Transaction saved = transactionOutbox.post(purchase(creditCards.get(0)));
+			posted.countDown();
+			try {
+				commit.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return saved;
+		}));
+		posted.await(10, TimeUnit.SECONDS);
+
+		// Act
+		Transaction later = transactionOutbox.post(purchase(creditCards.get(1)));
+		Thread.sleep(2 * properties.getSettleMs());
+		relay.relay(consumer);
+		relay.deleteDelivered();
+		commit.countDown();
+		Transaction longTransaction = longRunning.get(10, TimeUnit.SECONDS);
+		Thread.sleep(2 * properties.getSettleMs());
+		relay.relay(consumer);
+
+		// Assert
+		assertEquals(List.of(later.getTransactionId(), longTransaction.getTransactionId()),
+				consumer.transactionIds);
+	}
+}
@@ -0,0 +1,123 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fdmgroup.apmproject.config.BulkheadProperties.Partition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the Bulkhead class.
+ *
+ * @see Bulkhead
+ */
+public class BulkheadTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Tests that a bulkhead without a queue turns callers away once it is full.
+	 */
+	@Test
+	@DisplayName("1. Full bulkhead without a queue rejects at once")
+	void testRejectsWhenFull() {
+		// Arrange
+		Bulkhead bulkhead = new Bulkhead("admin", new Partition(List.of(), 2, 0, 0), meterRegistry);
+
+		// Act & Assert
+		assertTrue(bulkhead.tryEnter());
+		assertTrue(bulkhead.tryEnter());
+		assertFalse(bulkhead.tryEnter());
+		assertEquals(2, bulkhead.getActive());
+		assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("partition", "admin").counter().count());
+	}
+
+	/**
+	 * Tests that leaving a full bulkhead lets the next caller in.
+	 */
+	@Test
+	@DisplayName("2. Exit frees a slot")
+	void testExitFreesSlot() {
+		// Arrange
+		Bulkhead bulkhead = new Bulkhead("admin", new Partition(List.of(), 1, 0, 0), meterRegistry);
+		bulkhead.tryEnter();
+
+		// Act
+		bulkhead.exit();
+
+		// Assert
+		assertTrue(bulkhead.tryEnter());
+		assertEquals(1, bulkhead.getActive());
+	}
+
+	/**
+	 * Tests that a queued caller enters when a slot is freed within its wait.
+	 */
+	@Test
+	@DisplayName("3. Queued caller enters when a slot frees up")
+	void testQueuedCallerEnters() throws Exception {
+		// Arrange
+		Bulkhead bulkhead = new Bulkhead("admin", new Partition(List.of(), 1, 1, 5000), meterRegistry);
+		bulkhead.tryEnter();
+		CountDownLatch started = new CountDownLatch(1);
+
+		// Act
+		Future<Boolean> waiter = executor.submit(() -> {
+			started.countDown();
+			return bulkhead.tryEnter();
+		});
+		started.await();
+		while (bulkhead.getQueued() == 0) {
+			Thread.sleep(1);
+		}
+		assertFalse(bulkhead.tryEnter());
+		bulkhead.exit();
+
+		// Assert
+		assertTrue(waiter.get(5, TimeUnit.SECONDS));
+		assertEquals(0, bulkhead.getQueued());
+		assertEquals(1, bulkhead.getActive());
+	}
+
+	/**
+	 * Tests that a queued caller is turned away when no slot frees up in time.
+	 */
+	@Test
+	@DisplayName("4. Queued caller gives up after its wait")
+	void testQueuedCallerTimesOut() {
+		// Arrange
+		Bulkhead bulkhead = new Bulkhead("admin", new Partition(List.of(), 1, 1, 10), meterRegistry);
+		bulkhead.tryEnter();
+
+		// Act & Assert
+		assertFalse(bulkhead.tryEnter());
+		assertEquals(0, bulkhead.getQueued());
+		assertEquals(1, meterRegistry.get("bulkhead.wait").tag("partition", "admin").timer().count());
+	}
+}
@@ -0,0 +1,284 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fdmgroup.apmproject.config.CacheCoherenceProperties;
+import com.fdmgroup.apmproject.model.CacheInvalidation;
+import com.fdmgroup.apmproject.model.CardAuthorization;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.Status;
+import com.fdmgroup.apmproject.model.User;
+import com.fdmgroup.apmproject.repository.CacheInvalidationRepository;
+import com.fdmgroup.apmproject.repository.CreditCardRepository;
+import com.fdmgroup.apmproject.repository.StatusRepository;
+import com.fdmgroup.apmproject.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs three instances' card authorization caches against one in-memory
+ * database, as instances on one host would share a database, and measures how
+ * long each keeps serving a card after another instance changed it.
+ * <p>
+ * Each instance is a {@link CardAuthorizationCache} with its own
+ * {@link CacheCoherence} and node id. A write changes the card's limit in the
+ * database, invalidates the writer's cache and publishes the card number, as
+ * {@link CreditCardService#update(CreditCard)} does.
+ *
+ * @see CacheCoherence
+ */
+@SpringBootTest
+@ActiveProfiles("coherence")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CacheCoherenceTest {
+
+	private static final String CARD_NUMBER = "9200-0000-0000-0001";
+	private static final long POLL_MS = 100;
+	private static final long SETTLE_MS = 1000;
+	// One poll interval, one poll and scheduling jitter on a busy build machine
+	private static final long MAX_STALENESS_MS = POLL_MS + 400;
+	private static final int ROUNDS = 10;
+
+	@Autowired
+	private CacheInvalidationRepository invalidationRepository;
+
+	@Autowired
+	private CreditCardRepository creditCardRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private StatusRepository statusRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+	private final List<Node> nodes = new ArrayList<>();
+	private ExecutorService executor;
+
+	/**
+	 * One instance: its cache and its coherence channel.
+	 */
+	private record Node(CardAuthorizationCache cache, CacheCoherence coherence) {
+	}
+
+	@BeforeAll
+	public void seed() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		Status approved = statusRepository.findByStatusName("Approved").get();
+		User customer = userRepository.save(new User("coherence", "password", "Address", "Coherence", "Customer"));
+		creditCardRepository.save(
+				new CreditCard(CARD_NUMBER, "123", 1000, "Ultimate Cashback Card", approved, 0, customer, "SGD"));
+	}
+
+	@BeforeEach
+	public void setUp() {
+		for (int i = 1; i <= 3; i++) {
+			CacheCoherenceProperties properties = new CacheCoherenceProperties();
+			properties.setNodeId("node-" + i);
+			properties.setPollMs(POLL_MS);
+			properties.setSettleMs(SETTLE_MS);
+			SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+			CardAuthorizationCache cache = new CardAuthorizationCache(100, meterRegistry);
+			CacheCoherence coherence = new CacheCoherence(List.of(cache), invalidationRepository, properties,
+					meterRegistry);
+			coherence.start();
+			nodes.add(new Node(cache, coherence));
+		}
+		executor = Executors.newFixedThreadPool(nodes.size());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+		nodes.forEach(node -> node.coherence().stop());
+		nodes.clear();
+	}
+
+	private CardAuthorization load(String creditCardNumber) {
+		return creditCardRepository.findByCreditCardNumber(creditCardNumber).map(CardAuthorization::of)
+				.orElse(null);
+	}
+
+	private double cardLimit(Node node) {
+		return node.cache().get(CARD_NUMBER, this::load).cardLimit();
+	}
+
+	/**
+	 * Changes the card's limit on the specified instance.
+	 */
+	private void write(Node writer, double cardLimit) {
+		transactionTemplate.executeWithoutResult(status -> {
+			CreditCard creditCard = creditCardRepository.findByCreditCardNumber(CARD_NUMBER).get();
+			creditCard.setCardLimit(cardLimit);
+			creditCardRepository.save(creditCard);
+			writer.cache().invalidate(CARD_NUMBER);
+			writer.coherence().publish(CardAuthorizationCache.NAME, CARD_NUMBER);
+		});
+	}
+
+	/**
+	 * Waits until an instance serves the specified limit.
+	 *
+	 * @return The milliseconds it served the previous limit for.
+	 */
+	private long awaitLimit(Node node, double cardLimit, long startNanos) throws InterruptedException {
+		while (cardLimit(node) != cardLimit) {
+			if (System.nanoTime() - startNanos > TimeUnit.SECONDS.toNanos(10)) {
+				break;
+			}
+			Thread.sleep(5);
+		}
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Tests that after each write by any instance, every instance serves the new
+	 * state within the staleness bound.
+	 */
+	@Test
+	@DisplayName("1. Every instance drops a changed card within the staleness bound")
+	void testMaxStaleness() throws Exception {
+		// Arrange
+		long maxStalenessMs = 0;
+
+		for (int round = 1; round <= ROUNDS; round++) {
+			double cardLimit = 1000 + round;
+			for (Node node : nodes) {
+				cardLimit(node);
+			}
+
+			// Act
+			Node writer = nodes.get(round % nodes.size());
+			write(writer, cardLimit);
+			long committed = System.nanoTime();
+			List<Future<Long>> staleness = new ArrayList<>();
+			for (Node node : nodes) {
+				staleness.add(executor.submit(() -> awaitLimit(node, cardLimit, committed)));
+			}
+
+			// Assert
+			for (int i = 0; i < nodes.size(); i++) {
+				long stalenessMs = staleness.get(i).get(15, TimeUnit.SECONDS);
+				assertEquals(cardLimit, cardLimit(nodes.get(i)), "node-" + (i + 1) + " in round " + round);
+				maxStalenessMs = Math.max(maxStalenessMs, stalenessMs);
+			}
+		}
+		assertTrue(maxStalenessMs <= MAX_STALENESS_MS, "max staleness was " + maxStalenessMs + " ms");
+	}
+
+	/**
+	 * Tests that an invalidation whose transaction commits after a later one has
+	 * been read is still applied.
+	 */
+	@Test
+	@DisplayName("2. Invalidation committed out of version order is applied")
+	void testOutOfOrderCommit() throws Exception {
+		// Arrange
+		for (Node node : nodes) {
+			cardLimit(node);
+		}
+		CountDownLatch recorded = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		Future<?> slowWriter = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+			CreditCard creditCard = creditCardRepository.findByCreditCardNumber(CARD_NUMBER).get();
+			creditCard.setCardLimit(5000);
+			creditCardRepository.save(creditCard);
+			invalidationRepository.save(new CacheInvalidation(CardAuthorizationCache.NAME, CARD_NUMBER, "node-slow",
+					LocalDateTime.now()));
+			recorded.countDown();
+			try {
+				commit.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		recorded.await(5, TimeUnit.SECONDS);
+
+		// Act
+		nodes.get(0).coherence().publish(CardAuthorizationCache.NAME, "9200-0000-0000-0002");
+		Thread.sleep(3 * POLL_MS);
+		commit.countDown();
+		slowWriter.get(5, TimeUnit.SECONDS);
+		long committed = System.nanoTime();
+
+		// Assert
+		for (Node node : nodes) {
+			assertTrue(awaitLimit(node, 5000, committed) <= MAX_STALENESS_MS);
+		}
+	}
+
+	/**
+	 * Tests that a user's data version bumped by a commit on one instance is
+	 * bumped on another within the staleness bound, so the other instance stops
+	 * answering 304 Not Modified for the old data.
+	 */
+	@Test
+	@DisplayName("3. User data version changed on one instance changes the others' ETag")
+	void testUserDataVersion() throws Exception {
+		// Arrange
+		long userId = 4242;
+		List<UserDataVersionService> versionServices = new ArrayList<>();
+		List<CacheCoherence> coherences = new ArrayList<>();
+		for (int i = 1; i <= 2; i++) {
+			CacheCoherenceProperties properties = new CacheCoherenceProperties();
+			properties.setNodeId("version-" + i);
+			properties.setPollMs(POLL_MS);
+			properties.setSettleMs(SETTLE_MS);
+			SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+			UserDataVersionService versionService = new UserDataVersionService(meterRegistry);
+			CacheCoherence coherence = new CacheCoherence(List.of(versionService), invalidationRepository,
+					properties, meterRegistry);
+			ReflectionTestUtils.setField(versionService, "cacheCoherence", coherence);
+			ReflectionTestUtils.setField(versionService, "transactionManager", transactionManager);
+			coherence.start();
+			versionServices.add(versionService);
+			coherences.add(coherence);
+		}
+		UserDataVersionService writer = versionServices.get(0);
+		UserDataVersionService reader = versionServices.get(1);
+		String eTag = reader.getETag(userId);
+
+		try {
+			// Act
+			transactionTemplate.executeWithoutResult(status -> writer.bump(userId));
+			long committed = System.nanoTime();
+			while (reader.getVersion(userId) == 0 && System.nanoTime() - committed < TimeUnit.SECONDS.toNanos(10)) {
+				Thread.sleep(5);
+			}
+			long stalenessMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - committed);
+
+			// Assert
+			assertNotEquals(eTag, reader.getETag(userId));
+			assertTrue(stalenessMs <= MAX_STALENESS_MS, "staleness was " + stalenessMs + " ms");
+		} finally {
+			coherences.forEach(CacheCoherence::stop);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fdmgroup.apmproject.model.CardAuthorization;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.Status;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the CardAuthorizationCache class.
+ *
+ * @see CardAuthorizationCache
+ */
+public class CardAuthorizationCacheTest {
+
+	private CardAuthorizationCache cache;
+	private CardAuthorization authorization;
+	private AtomicInteger loads;
+
+	@BeforeEach
+	public void setUp() {
+		cache = new CardAuthorizationCache(2, new SimpleMeterRegistry());
+		CreditCard card = new CreditCard("1234-5678-1234-5678", "123", 3000, "Ultimate Cashback Card",
+				new Status("Approved"), 500, null, "SGD");
+		authorization = CardAuthorization.of(card);
+		loads = new AtomicInteger();
+	}
+
+	private CardAuthorization load(String number) {
+		loads.incrementAndGet();
+		return authorization;
+	}
+
+	/**
+	 * Tests that the record is loaded once and then served from memory.
+	 */
+	@Test
+	@DisplayName("1. Record is loaded on the first miss only")
+	void testLoadOnce() {
+		// Act
+		CardAuthorization first = cache.get("1234-5678-1234-5678", this::load);
+		CardAuthorization second = cache.get("1234-5678-1234-5678", this::load);
+
+		// Assert
+		assertSame(first, second);
+		assertEquals(1, loads.get());
+		assertEquals(2500, first.availableCredit());
+	}
+
+	/**
+	 * Tests that invalidation forces a reload.
+	 */
+	@Test
+	@DisplayName("2. Invalidated record is reloaded")
+	void testInvalidate() {
+		// Arrange
+		cache.get("1234-5678-1234-5678", this::load);
+
+		// Act
+		cache.invalidate("1234-5678-1234-5678");
+		cache.get("1234-5678-1234-5678", this::load);
+
+		// Assert
+		assertEquals(2, loads.get());
+	}
+
+	/**
+	 * Tests that unknown cards are not cached and that the least recently used
+	 * record is evicted once the cache is full.
+	 */
+	@Test
+	@DisplayName("3. Misses are not cached and the eldest record is evicted")
+	void testEviction() {
+		// Act
+		assertNull(cache.get("0000-0000-0000-0000", number -> null));
+		cache.get("a", this::load);
+		cache.get("b", this::load);
+		cache.get("a", this::load);
+		cache.get("c", this::load);
+		cache.get("a", this::load);
+		cache.get("b", this::load);
+
+		// Assert
+		assertEquals(2, cache.size());
+		assertEquals(4, loads.get());
+	}
+
+	/**
+	 * Tests that the PIN is compared against its hash.
+	 */
+	@Test
+	@DisplayName("4. PIN is checked against the stored hash")
+	void testPinMatches() {
+		// Assert
+		assertEquals(true, authorization.pinMatches("123"));
+		assertEquals(false, authorization.pinMatches("124"));
+		assertEquals(false, authorization.pinMatches(null));
+	}
+}
@@ -0,0 +1,58 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+/**
+ * Unit tests for the CashbackRuleService class, run against the rule file
+ * shipped on the classpath.
+ *
+ * @see CashbackRuleService
+ */
+public class CashbackRuleServiceTest {
+
+	private CashbackRuleService cashbackRuleService;
+
+	@BeforeEach
+	public void setUp() {
+		cashbackRuleService = new CashbackRuleService(new DefaultResourceLoader(), "classpath:cashback_rules.json");
+	}
+
+	/**
+	 * Tests that a rule scoped to one MCC applies to that MCC only.
+	 */
+	@Test
+	@DisplayName("1. MCC rule applies to its merchant category only")
+	void testMccRule() {
+		// Act & Assert
+		assertEquals(0.02, cashbackRuleService.getRate("Ultimate Cashback Card", 1000));
+		assertEquals(0, cashbackRuleService.getRate("Ultimate Cashback Card", 1001));
+	}
+
+	/**
+	 * Tests that a card-wide rule applies to every MCC except those overridden.
+	 */
+	@Test
+	@DisplayName("2. Card-wide rule is overridden by an MCC rule")
+	void testCardWideRule() {
+		// Act & Assert
+		assertEquals(0.015, cashbackRuleService.getRate("SwipeSmart Platinum Card", 1000));
+		assertEquals(0.015, cashbackRuleService.getRate("SwipeSmart Platinum Card", 4321));
+		assertEquals(0, cashbackRuleService.getRate("SwipeSmart Platinum Card", 1005));
+	}
+
+	/**
+	 * Tests that card products without rules earn no cashback.
+	 */
+	@Test
+	@DisplayName("3. Unknown card product earns no cashback")
+	void testUnknownCard() {
+		// Act & Assert
+		assertEquals(0, cashbackRuleService.getRate("Basic Card", 1000));
+		assertEquals(0, cashbackRuleService.getRate(null, 1000));
+	}
+}
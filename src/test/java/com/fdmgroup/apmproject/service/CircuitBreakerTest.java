@@ -0,0 +1,115 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fdmgroup.apmproject.service.CircuitBreaker.State;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the CircuitBreaker class. A manual clock is used so that the
+ * open period can be tested without sleeping.
+ *
+ * @see CircuitBreaker
+ */
+public class CircuitBreakerTest {
+
+	private AtomicLong clock;
+	private CircuitBreaker breaker;
+
+	@BeforeEach
+	public void setUp() {
+		clock = new AtomicLong(0);
+		breaker = new CircuitBreaker("feed", 3, 1000, new SimpleMeterRegistry(), clock::get);
+	}
+
+	private void fail(int times) {
+		for (int i = 0; i < times; i++) {
+			breaker.tryAcquire();
+			breaker.recordFailure();
+		}
+	}
+
+	/**
+	 * Tests that the breaker opens only after the threshold of failures in a row.
+	 */
+	@Test
+	@DisplayName("1. Breaker opens after failures in a row")
+	void testOpensAfterThreshold() {
+		// Act & Assert
+		fail(2);
+		breaker.recordSuccess();
+		fail(2);
+		assertEquals(State.CLOSED, breaker.getState());
+		fail(1);
+		assertEquals(State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+	}
+
+	/**
+	 * Tests that an open breaker lets exactly one probe through after the open
+	 * period.
+	 */
+	@Test
+	@DisplayName("2. Half open breaker lets one probe through")
+	void testSingleProbe() {
+		// Arrange
+		fail(3);
+
+		// Act
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+		// Assert
+		assertTrue(breaker.tryAcquire());
+		assertEquals(State.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+	}
+
+	/**
+	 * Tests that a failed probe opens the breaker again for a full open period.
+	 */
+	@Test
+	@DisplayName("3. Failed probe reopens the breaker")
+	void testFailedProbeReopens() {
+		// Arrange
+		fail(3);
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		breaker.tryAcquire();
+
+		// Act
+		breaker.recordFailure();
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+		// Assert
+		assertEquals(State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+	}
+
+	/**
+	 * Tests that a successful probe closes the breaker.
+	 */
+	@Test
+	@DisplayName("4. Successful probe closes the breaker")
+	void testSuccessfulProbeCloses() {
+		// Arrange
+		fail(3);
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		breaker.tryAcquire();
+
+		// Act
+		breaker.recordSuccess();
+
+		// Assert
+		assertEquals(State.CLOSED, breaker.getState());
+		assertTrue(breaker.tryAcquire());
+	}
+}
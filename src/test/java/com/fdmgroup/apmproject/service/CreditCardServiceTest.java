@@ -42,6 +42,15 @@ public class CreditCardServiceTest {
 	@Mock
 	private CreditCardRepository creditCardRepo;
 
+	@Mock
+	private CardAuthorizationCache authorizationCache;
+
+	@Mock
+	private CacheCoherence cacheCoherence;
+
+	@Mock
+	private AuditJournal auditJournal;
+
 	@Mock
 	private Logger logger;
 
@@ -354,4 +363,27 @@ public class CreditCardServiceTest {
 		// Assert
 		assertEquals(expected, actual, "Actual list should match expected");
 	}
+
+	/**
+	 * Tests that updating a credit card drops its cached authorization record on
+	 * this and every other instance, so the next purchase is authorized against
+	 * the new state.
+	 *
+	 * @see CreditCardService#update(CreditCard)
+	 * @see CardAuthorizationCache#invalidate(String)
+	 */
+	@Test
+	@DisplayName("12. Update test invalidates the cached authorization record")
+	void testUpdateInvalidatesAuthorization() {
+		// Arrange
+		CreditCard existingCard = card;
+		when(creditCardRepo.findById(existingCard.getCreditCardId())).thenReturn(Optional.of(existingCard));
+
+		// Act
+		creditCardService.update(existingCard);
+
+		// Assert
+		verify(authorizationCache).invalidate(existingCard.getCreditCardNumber());
+		verify(cacheCoherence).publish(CardAuthorizationCache.NAME, existingCard.getCreditCardNumber());
+	}
 }
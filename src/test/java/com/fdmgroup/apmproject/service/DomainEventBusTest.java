@@ -0,0 +1,209 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fdmgroup.apmproject.config.DomainEventProperties;
+import com.fdmgroup.apmproject.model.CardStatusChanged;
+import com.fdmgroup.apmproject.model.DomainEvent;
+import com.fdmgroup.apmproject.model.PurchasePosted;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the DomainEventBus class.
+ *
+ * @see DomainEventBus
+ */
+public class DomainEventBusTest {
+
+	private DomainEventProperties properties;
+	private SimpleMeterRegistry meterRegistry;
+	private DomainEventBus bus;
+
+	@BeforeEach
+	public void setUp() {
+		properties = new DomainEventProperties();
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		if (bus != null) {
+			bus.close();
+		}
+	}
+
+	/**
+	 * A listener that records the events it handles and the threads it handles
+	 * them on, failing on events with a zero amount.
+	 */
+	private static class RecordingListener implements DomainEventListener {
+		private final String name;
+		private final Set<Class<? extends DomainEvent>> eventTypes;
+		private final List<DomainEvent> events = new CopyOnWriteArrayList<>();
+		private final List<String> threads = new CopyOnWriteArrayList<>();
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private volatile boolean blockWorker;
+
+		RecordingListener(String name, Set<Class<? extends DomainEvent>> eventTypes) {
+			this.name = name;
+			this.eventTypes = eventTypes;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public Set<Class<? extends DomainEvent>> getEventTypes() {
+			return eventTypes;
+		}
+
+		@Override
+		public void onEvent(DomainEvent event) throws InterruptedException {
+			String thread = Thread.currentThread().getName();
+			if (blockWorker && thread.startsWith("domain-events-")) {
+				started.countDown();
+				release.await(5, TimeUnit.SECONDS);
+			}
+			if (event instanceof PurchasePosted purchase && purchase.amount() == 0) {
+				throw new IllegalStateException("Refresh failed");
+			}
+			threads.add(thread);
+			events.add(event);
+		}
+	}
+
+	private static PurchasePosted purchase(long transactionId, double amount) {
+		return new PurchasePosted(transactionId, 1, 1, amount, 0);
+	}
+
+	private DomainEventBus bus(DomainEventListener... listeners) {
+		bus = new DomainEventBus(List.of(listeners), properties, meterRegistry);
+		return bus;
+	}
+
+	/**
+	 * Tests that each event reaches only the listeners of its class, on their own
+	 * threads and in the order published.
+	 */
+	@Test
+	@DisplayName("1. Events are routed by type to listener threads")
+	void testRouting() {
+		// Arrange
+		RecordingListener purchases = new RecordingListener("purchases", Set.of(PurchasePosted.class));
+		RecordingListener all = new RecordingListener("all", Set.of(PurchasePosted.class, CardStatusChanged.class));
+		DomainEventBus bus = bus(purchases, all);
+		CardStatusChanged statusChange = new CardStatusChanged(1, 1, "Approved", "Frozen");
+
+		// Act
+		bus.publish(purchase(1, 10));
+		bus.publish(statusChange);
+		bus.publish(purchase(2, 20));
+		bus.close();
+
+		// Assert
+		assertEquals(List.of(purchase(1, 10), purchase(2, 20)), purchases.events);
+		assertEquals(List.of(purchase(1, 10), statusChange, purchase(2, 20)), all.events);
+		assertEquals("domain-events-purchases", purchases.threads.get(0));
+	}
+
+	/**
+	 * Tests that an event published inside a transaction is dispatched only once
+	 * the transaction commits, and never if it rolls back.
+	 */
+	@Test
+	@DisplayName("2. Events are dispatched after commit only")
+	void testAfterCommit() {
+		// Arrange
+		RecordingListener listener = new RecordingListener("purchases", Set.of(PurchasePosted.class));
+		DomainEventBus bus = bus(listener);
+
+		// Act
+		TransactionSynchronizationManager.initSynchronization();
+		bus.publish(purchase(1, 10));
+		List<TransactionSynchronization> committed = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationManager.initSynchronization();
+		bus.publish(purchase(2, 20));
+		List<TransactionSynchronization> rolledBack = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		boolean dispatchedBeforeCommit = !listener.events.isEmpty();
+		committed.forEach(TransactionSynchronization::afterCommit);
+		rolledBack.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		bus.close();
+
+		// Assert
+		assertFalse(dispatchedBeforeCommit);
+		assertEquals(List.of(purchase(1, 10)), listener.events);
+	}
+
+	/**
+	 * Tests that when a listener's queue is full the publishing thread handles
+	 * the event itself, and that this is counted.
+	 */
+	@Test
+	@DisplayName("3. Full queue makes the publisher handle the event")
+	void testBackpressure() throws InterruptedException {
+		// Arrange
+		properties.setQueueCapacity(1);
+		RecordingListener listener = new RecordingListener("slow", Set.of(PurchasePosted.class));
+		listener.blockWorker = true;
+		DomainEventBus bus = bus(listener);
+
+		// Act
+		bus.publish(purchase(1, 10));
+		// Once the worker is busy with the first event, the second fills the queue
+		listener.started.await(5, TimeUnit.SECONDS);
+		bus.publish(purchase(2, 20));
+		bus.publish(purchase(3, 30));
+		listener.release.countDown();
+		bus.close();
+
+		// Assert
+		assertEquals(1, meterRegistry.get("domain.events.caller.runs").counter().count());
+		assertEquals(3, listener.events.size());
+		assertEquals(purchase(3, 30), listener.events.get(0));
+		assertEquals(Thread.currentThread().getName(), listener.threads.get(0));
+	}
+
+	/**
+	 * Tests that a failing event is counted and does not stop the listener.
+	 */
+	@Test
+	@DisplayName("4. Failures are counted and skipped")
+	void testFailure() {
+		// Arrange
+		RecordingListener listener = new RecordingListener("purchases", Set.of(PurchasePosted.class));
+		DomainEventBus bus = bus(listener);
+
+		// Act
+		bus.publish(purchase(1, 0));
+		bus.publish(purchase(2, 20));
+		bus.close();
+
+		// Assert
+		assertEquals(List.of(purchase(2, 20)), listener.events);
+		assertEquals(1, meterRegistry.get("domain.events.handled").tag("result", "failure").timer().count());
+		assertEquals(1, meterRegistry.get("domain.events.handled").tag("result", "success").timer().count());
+	}
+}
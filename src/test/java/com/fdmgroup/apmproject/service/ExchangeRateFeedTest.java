@@ -0,0 +1,212 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.fdmgroup.apmproject.config.ExchangeRateFeedProperties;
+import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
+import com.fdmgroup.apmproject.service.CircuitBreaker.State;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the ExchangeRateFeed class. A fake feed on a local port
+ * answers each request with rates, an error or a slow response, as set by the
+ * test.
+ *
+ * @see ExchangeRateFeed
+ */
+public class ExchangeRateFeedTest {
+
+	private static final String RATES = "{\"sgd\":{\"code\":\"SGD\",\"rate\":1.35,\"inverseRate\":0.74}}";
+
+	private HttpServer server;
+	private volatile int status;
+	private volatile long delayMs;
+	private final AtomicInteger requests = new AtomicInteger();
+	private SimpleMeterRegistry meterRegistry;
+	private ExchangeRateFeed feed;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		status = 200;
+		delayMs = 0;
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/daily/usd.json", this::handle);
+		server.start();
+
+		ExchangeRateFeedProperties properties = new ExchangeRateFeedProperties();
+		properties.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/daily/usd.json");
+		properties.setConnectTimeoutMs(500);
+		properties.setReadTimeoutMs(200);
+		properties.setFailureThreshold(2);
+		properties.setOpenMs(300);
+		meterRegistry = new SimpleMeterRegistry();
+		feed = new ExchangeRateFeed(properties, new SingleFlight<>("fx-refresh", meterRegistry), meterRegistry);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		try {
+			Thread.sleep(delayMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		byte[] body = (status == 200 ? RATES : "{}").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		} catch (IOException e) {
+			// The client gave up waiting
+		}
+	}
+
+	/**
+	 * Tests that rates from a healthy feed are returned.
+	 */
+	@Test
+	@DisplayName("1. Healthy feed returns the latest rates")
+	void testHealthyFeed() {
+		// Act
+		Map<String, ForeignExchangeCurrency> rates = feed.fetchRates();
+
+		// Assert
+		assertEquals(1.35, rates.get("sgd").getRate());
+		assertEquals(State.CLOSED, feed.getCircuitBreaker().getState());
+	}
+
+	/**
+	 * Tests that a slow feed is given up on after the read timeout and that the
+	 * last good rates are served instead.
+	 */
+	@Test
+	@DisplayName("2. Slow feed times out and serves the last good rates")
+	void testSlowFeedServesSnapshot() {
+		// Arrange
+		Map<String, ForeignExchangeCurrency> good = feed.fetchRates();
+		delayMs = 2000;
+
+		// Act
+		long start = System.nanoTime();
+		Map<String, ForeignExchangeCurrency> rates = feed.fetchRates();
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		// Assert
+		assertSame(good, rates);
+		assertTrue(elapsedMs < 1500, "took " + elapsedMs + " ms");
+	}
+
+	/**
+	 * Tests that a failing feed opens the breaker, after which the feed is not
+	 * called at all.
+	 */
+	@Test
+	@DisplayName("3. Failing feed opens the breaker")
+	void testFailingFeedOpensBreaker() {
+		// Arrange
+		status = 500;
+
+		// Act
+		assertNull(feed.fetchRates());
+		assertNull(feed.fetchRates());
+		int calls = requests.get();
+		assertNull(feed.fetchRates());
+
+		// Assert
+		assertEquals(State.OPEN, feed.getCircuitBreaker().getState());
+		assertEquals(calls, requests.get());
+		assertEquals(1.0,
+				meterRegistry.get("circuit.breaker.transitions").tag("name", "fx-feed").tag("state", "open")
+						.counter().count());
+	}
+
+	/**
+	 * Tests that once the breaker has been open long enough, a probe to the
+	 * recovered feed closes it again.
+	 */
+	@Test
+	@DisplayName("4. Probe after the open period closes the breaker")
+	void testProbeClosesBreaker() throws InterruptedException {
+		// Arrange
+		status = 500;
+		feed.fetchRates();
+		feed.fetchRates();
+		status = 200;
+
+		// Act
+		Thread.sleep(400);
+		Map<String, ForeignExchangeCurrency> rates = feed.fetchRates();
+
+		// Assert
+		assertEquals(1.35, rates.get("sgd").getRate());
+		assertEquals(State.CLOSED, feed.getCircuitBreaker().getState());
+		assertEquals(1.0,
+				meterRegistry.get("circuit.breaker.transitions").tag("name", "fx-feed").tag("state", "half_open")
+						.counter().count());
+	}
+
+	/**
+	 * Tests that a probe failing with an exception other than a REST client one
+	 * still reopens the breaker, so a later probe can close it again.
+	 */
+	@Test
+	@DisplayName("5. Probe failing with a non-REST exception does not wedge the breaker")
+	@SuppressWarnings("unchecked")
+	void testNonRestProbeFailure() throws InterruptedException {
+		// Arrange
+		status = 500;
+		feed.fetchRates();
+		feed.fetchRates();
+		RestTemplate restTemplate = (RestTemplate) ReflectionTestUtils.getField(feed, "restTemplate");
+		RestTemplate failing = mock(RestTemplate.class);
+		when(failing.exchange(anyString(), eq(HttpMethod.GET), any(), any(ParameterizedTypeReference.class)))
+				.thenThrow(new IllegalStateException("Unexpected rate format"));
+		ReflectionTestUtils.setField(feed, "restTemplate", failing);
+		Thread.sleep(400);
+
+		// Act
+		Map<String, ForeignExchangeCurrency> fallBack = feed.fetchRates();
+		State afterFailedProbe = feed.getCircuitBreaker().getState();
+		ReflectionTestUtils.setField(feed, "restTemplate", restTemplate);
+		status = 200;
+		Thread.sleep(400);
+		Map<String, ForeignExchangeCurrency> rates = feed.fetchRates();
+
+		// Assert
+		assertNull(fallBack);
+		assertEquals(State.OPEN, afterFailedProbe);
+		assertEquals(1.35, rates.get("sgd").getRate());
+		assertEquals(State.CLOSED, feed.getCircuitBreaker().getState());
+	}
+}
@@ -24,10 +24,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.fdmgroup.apmproject.model.ForeignExchangeCurrency;
 import com.fdmgroup.apmproject.repository.ForeignExchangeCurrencyRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Tests the functionality of the ForeignExchangeCurrencyService class methods.
  * This class contains unit tests to verify the behavior of methods in the
@@ -46,6 +49,9 @@ public class ForeignExchangeCurrencyServiceTest {
 	@Mock
 	private Logger logger;
 
+	@Mock
+	private CacheCoherence cacheCoherence;
+
 	@InjectMocks
 	private ForeignExchangeCurrencyService currencyService;
 
@@ -66,6 +72,9 @@ public class ForeignExchangeCurrencyServiceTest {
 		currency.setInverseRate(1.00);
 		currency.setRate(1.00);
 		currency.setCurrencyId(1);
+		ReflectionTestUtils.setField(currencyService, "currencyCatalogLoads",
+				new SingleFlight<>("currency-catalog", new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(currencyService, "cacheCoherence", cacheCoherence);
 	}
 
 	/**
@@ -0,0 +1,168 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.InstallmentPlan;
+import com.fdmgroup.apmproject.model.MerchantCategoryCode;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.model.UpcomingInstallment;
+import com.fdmgroup.apmproject.repository.InstallmentPlanRepository;
+import com.fdmgroup.apmproject.repository.TransactionRepository;
+
+/**
+ * Unit tests for the InstallmentPlanService class. This class utilizes
+ * MockitoExtension for mocking the InstallmentPlanRepository and the
+ * TransactionRepository.
+ *
+ * @see InstallmentPlanService
+ * @see InstallmentPlan
+ */
+@ExtendWith(MockitoExtension.class)
+public class InstallmentPlanServiceTest {
+
+	@Mock
+	private InstallmentPlanRepository installmentPlanRepo;
+
+	@Mock
+	private TransactionRepository transactionRepo;
+
+	@Mock
+	private TransactionOutbox transactionOutbox;
+
+	@InjectMocks
+	private InstallmentPlanService installmentPlanService;
+
+	private Transaction purchase;
+
+	@BeforeEach
+	public void setUp() {
+		CreditCard creditCard = new CreditCard();
+		creditCard.setCreditCardId(1L);
+		purchase = new Transaction(LocalDateTime.now(), "CC Purchase", 1000, null, 20, creditCard, null,
+				new MerchantCategoryCode(1001, "Shopping"), null);
+		purchase.setTransactionId(7L);
+		purchase.setDescription("Rolex");
+	}
+
+	/**
+	 * Tests that converting a purchase stores one plan whatever the tenor and
+	 * deletes the original purchase.
+	 *
+	 * @see InstallmentPlanService#convertToInstallments(Transaction, int)
+	 */
+	@Test
+	@DisplayName("1. Conversion stores a single plan and deletes the purchase")
+	void testConvert() {
+		// Arrange
+		when(installmentPlanRepo.save(any(InstallmentPlan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		// Act
+		InstallmentPlan plan = installmentPlanService.convertToInstallments(purchase, 12);
+
+		// Assert
+		assertNotNull(plan);
+		assertEquals(12, plan.getTenor());
+		assertEquals(12, plan.getUpcomingInstallments().size());
+		verify(installmentPlanRepo, times(1)).save(any(InstallmentPlan.class));
+		verify(transactionRepo).deleteById(7L);
+		verify(transactionRepo, never()).save(any(Transaction.class));
+	}
+
+	/**
+	 * Tests that a tenor that is not offered is rejected.
+	 *
+	 * @see InstallmentPlanService#convertToInstallments(Transaction, int)
+	 */
+	@Test
+	@DisplayName("2. Conversion rejects a tenor that is not offered")
+	void testConvertInvalidTenor() {
+		// Act
+		InstallmentPlan plan = installmentPlanService.convertToInstallments(purchase, 5);
+
+		// Assert
+		assertNull(plan);
+		verify(installmentPlanRepo, never()).save(any(InstallmentPlan.class));
+		verify(transactionRepo, never()).deleteById(any());
+	}
+
+	/**
+	 * Tests that the billing run posts every installment that is due, catching up
+	 * missed months, and that the installments add up to the principal.
+	 *
+	 * @see InstallmentPlanService#postDueInstallments(LocalDateTime)
+	 */
+	@Test
+	@DisplayName("3. Billing run posts due installments in bulk")
+	@SuppressWarnings("unchecked")
+	void testPostDueInstallments() {
+		// Arrange
+		LocalDateTime start = LocalDateTime.of(2024, 1, 15, 10, 0);
+		InstallmentPlan plan = new InstallmentPlan(purchase, 3, start);
+		when(installmentPlanRepo.findByNextDueDateLessThanEqual(start.plusMonths(1))).thenReturn(List.of(plan));
+
+		// Act
+		int posted = installmentPlanService.postDueInstallments(start.plusMonths(1));
+		plan.postNextInstallment();
+
+		// Assert
+		ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+		verify(transactionOutbox).postAll(captor.capture());
+		verify(installmentPlanRepo).saveAll(List.of(plan));
+		assertEquals(2, posted);
+		assertEquals(333.33, captor.getValue().get(0).getTransactionAmount());
+		assertEquals(start.plusMonths(1), captor.getValue().get(1).getTransactionDate());
+		assertTrue(captor.getValue().get(1).getDescription().startsWith("Installment 2 of 3"));
+		assertTrue(plan.isCompleted());
+		assertNull(plan.getNextDueDate());
+		assertEquals(0, plan.getRemaining(), 0.0001);
+	}
+
+	/**
+	 * Tests that upcoming installments are computed from the active plans and
+	 * returned in due date order.
+	 *
+	 * @see InstallmentPlanService#findUpcomingInstallments(long)
+	 */
+	@Test
+	@DisplayName("4. Upcoming installments are computed from the plans")
+	void testFindUpcomingInstallments() {
+		// Arrange
+		LocalDateTime start = LocalDateTime.of(2024, 1, 15, 10, 0);
+		InstallmentPlan later = new InstallmentPlan(purchase, 3, start.plusDays(10));
+		InstallmentPlan earlier = new InstallmentPlan(purchase, 3, start);
+		earlier.postNextInstallment();
+		when(installmentPlanRepo.findByCreditCardCreditCardIdAndNextDueDateIsNotNull(1L))
+				.thenReturn(List.of(later, earlier));
+
+		// Act
+		List<UpcomingInstallment> upcoming = installmentPlanService.findUpcomingInstallments(1L);
+
+		// Assert
+		assertEquals(5, upcoming.size());
+		assertEquals(start.plusDays(10), upcoming.get(0).dueDate());
+		assertEquals(start.plusMonths(1), upcoming.get(1).dueDate());
+		assertEquals(333.34, upcoming.get(4).amount());
+		assertEquals(6.66, upcoming.get(4).cashback());
+	}
+}
@@ -0,0 +1,132 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fdmgroup.apmproject.model.NumberSequence;
+import com.fdmgroup.apmproject.repository.NumberSequenceRepository;
+
+/**
+ * Unit tests for the NumberAllocator class. The sequence table is mocked so
+ * that the number of block reservations can be counted.
+ *
+ * @see NumberAllocator
+ * @see FeistelPermutation
+ */
+@ExtendWith(MockitoExtension.class)
+public class NumberAllocatorTest {
+
+	@Mock
+	private NumberSequenceRepository numberSequenceRepo;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private NumberAllocator numberAllocator;
+	private NumberSequence accountSequence;
+
+	@BeforeEach
+	public void setUp() {
+		numberAllocator = new NumberAllocator(numberSequenceRepo, transactionManager, 100, "test");
+		accountSequence = new NumberSequence(NumberAllocator.ACCOUNT_SEQUENCE, 0);
+	}
+
+	/**
+	 * Tests that account numbers are unique, well formed and not sequential, and
+	 * that one block is reserved per block size numbers.
+	 */
+	@Test
+	@DisplayName("1. Account numbers are unique and reserved one block at a time")
+	void testAccountNumbers() {
+		// Arrange
+		when(numberSequenceRepo.findBySequenceName(NumberAllocator.ACCOUNT_SEQUENCE))
+				.thenReturn(Optional.of(accountSequence));
+		Set<String> numbers = new HashSet<>();
+
+		// Act
+		for (int i = 0; i < 1000; i++) {
+			numbers.add(numberAllocator.nextAccountNumber());
+		}
+
+		// Assert
+		assertEquals(1000, numbers.size());
+		assertEquals(1000, accountSequence.getNextValue());
+		verify(numberSequenceRepo, times(10)).save(any(NumberSequence.class));
+		assertTrue(numbers.stream().allMatch(number -> number.matches("\\d{3}-\\d{3}-\\d{3}")));
+		assertTrue(numbers.stream().noneMatch(number -> number.equals("000-000-001")));
+	}
+
+	/**
+	 * Tests that credit card numbers are well formed and pass the Luhn check.
+	 */
+	@Test
+	@DisplayName("2. Credit card numbers carry a valid Luhn check digit")
+	void testCreditCardNumbers() {
+		// Arrange
+		when(numberSequenceRepo.findBySequenceName(NumberAllocator.CREDIT_CARD_SEQUENCE)).thenReturn(Optional.empty());
+
+		// Act
+		String first = numberAllocator.nextCreditCardNumber();
+		String second = numberAllocator.nextCreditCardNumber();
+
+		// Assert
+		assertNotEquals(first, second);
+		for (String number : new String[] { first, second }) {
+			assertTrue(number.matches("\\d{4}-\\d{4}-\\d{4}-\\d{4}"));
+			String digits = number.replace("-", "");
+			assertEquals(digits.charAt(15) - '0', NumberAllocator.luhnCheckDigit(digits.substring(0, 15)));
+		}
+		assertEquals(3, NumberAllocator.luhnCheckDigit("7992739871"));
+	}
+
+	/**
+	 * Tests that the permutation is a bijection over a small domain.
+	 */
+	@Test
+	@DisplayName("3. Permutation never maps two values to the same number")
+	void testPermutationIsBijective() {
+		// Arrange
+		FeistelPermutation permutation = new FeistelPermutation(1000, "test");
+		Set<Long> images = new HashSet<>();
+
+		// Act
+		for (long value = 0; value < 1000; value++) {
+			images.add(permutation.permute(value));
+		}
+
+		// Assert
+		assertEquals(1000, images.size());
+		assertTrue(images.stream().allMatch(image -> image >= 0 && image < 1000));
+	}
+
+	/**
+	 * Tests that the allocator refuses to start without a secret key.
+	 */
+	@Test
+	@DisplayName("4. Missing secret fails at startup")
+	void testMissingSecret() {
+		// Act & Assert
+		assertThrows(IllegalStateException.class,
+				() -> new NumberAllocator(numberSequenceRepo, transactionManager, 100, ""));
+		assertThrows(IllegalStateException.class,
+				() -> new NumberAllocator(numberSequenceRepo, transactionManager, 100, null));
+	}
+}
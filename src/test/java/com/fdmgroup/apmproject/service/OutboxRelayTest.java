@@ -0,0 +1,284 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.fdmgroup.apmproject.config.OutboxProperties;
+import com.fdmgroup.apmproject.model.OutboxCheckpoint;
+import com.fdmgroup.apmproject.model.OutboxEvent;
+import com.fdmgroup.apmproject.repository.OutboxCheckpointRepository;
+import com.fdmgroup.apmproject.repository.OutboxDeadLetterRepository;
+import com.fdmgroup.apmproject.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the OutboxRelay class, with the outbox and checkpoints held
+ * in memory and a manual clock.
+ *
+ * @see OutboxRelay
+ */
+public class OutboxRelayTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 4, 22, 9, 0);
+
+	private List<OutboxEvent> outbox;
+	private Map<String, Long> checkpoints;
+	private OutboxEventRepository outboxEventRepo;
+	private OutboxCheckpointRepository checkpointRepo;
+	private OutboxDeadLetterRepository deadLetterRepo;
+	private OutboxProperties properties;
+	private SimpleMeterRegistry meterRegistry;
+	private LocalDateTime now;
+
+	@BeforeEach
+	public void setUp() {
+		outbox = new ArrayList<>();
+		checkpoints = new HashMap<>();
+		outboxEventRepo = mock(OutboxEventRepository.class);
+		when(outboxEventRepo.findBatchAfter(anyLong(), any())).thenAnswer(invocation -> {
+			long afterId = invocation.getArgument(0);
+			Pageable pageable = invocation.getArgument(1);
+			return outbox.stream().filter(event -> event.getOutboxEventId() > afterId).limit(pageable.getPageSize())
+					.toList();
+		});
+		checkpointRepo = mock(OutboxCheckpointRepository.class);
+		when(checkpointRepo.findById(any())).thenAnswer(invocation -> Optional
+				.ofNullable(checkpoints.get(invocation.getArgument(0)))
+				.map(id -> new OutboxCheckpoint(invocation.getArgument(0), id)));
+		when(checkpointRepo.save(any())).thenAnswer(invocation -> {
+			OutboxCheckpoint checkpoint = invocation.getArgument(0);
+			checkpoints.put(checkpoint.getConsumerName(), checkpoint.getLastEventId());
+			return checkpoint;
+		});
+		deadLetterRepo = mock(OutboxDeadLetterRepository.class);
+		properties = new OutboxProperties();
+		properties.setBatchSize(3);
+		meterRegistry = new SimpleMeterRegistry();
+		now = START.plusMinutes(1);
+	}
+
+	private void record(int count) {
+		for (int i = 0; i < count; i++) {
+			OutboxEvent event = new OutboxEvent("account", outbox.size() % 2, TransactionOutbox.TRANSACTION_POSTED,
+					"{}", START);
+			event.setOutboxEventId(outbox.size() + 1);
+			outbox.add(event);
+		}
+	}
+
+	private OutboxRelay relay(OutboxConsumer... consumers) {
+		return new OutboxRelay(List.of(consumers), outboxEventRepo, checkpointRepo, deadLetterRepo, properties,
+				meterRegistry, () -> now);
+	}
+
+	/**
+	 * A consumer that records the ids it handles and fails on the given ids.
+	 */
+	private static class RecordingConsumer implements OutboxConsumer {
+		private final String name;
+		private final Set<Long> failOn;
+		private final List<Long> handled = new ArrayList<>();
+
+		RecordingConsumer(String name, Long... failOn) {
+			this.name = name;
+			this.failOn = new HashSet<>(List.of(failOn));
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public void accept(OutboxEvent event) {
+			if (failOn.contains(event.getOutboxEventId())) {
+				throw new IllegalStateException("Consumer unavailable");
+			}
+			handled.add(event.getOutboxEventId());
+		}
+	}
+
+	/**
+	 * Tests that events are handed over in id order, a batch at a time, and that
+	 * the checkpoint moves past each batch.
+	 */
+	@Test
+	@DisplayName("1. Events are delivered in order in batches")
+	void testDeliversInOrder() {
+		// Arrange
+		record(5);
+		RecordingConsumer consumer = new RecordingConsumer("reports");
+		OutboxRelay relay = relay(consumer);
+
+		// Act
+		int first = relay.relay(consumer);
+		int second = relay.relay(consumer);
+		int third = relay.relay(consumer);
+
+		// Assert
+		assertEquals(3, first);
+		assertEquals(2, second);
+		assertEquals(0, third);
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L), consumer.handled);
+		assertEquals(5L, checkpoints.get("reports"));
+		assertEquals(5, meterRegistry.counter("outbox.delivered", "consumer", "reports").count());
+	}
+
+	/**
+	 * Tests that a failed event stops its batch and is handed over again on the
+	 * next poll, before the events after it.
+	 */
+	@Test
+	@DisplayName("2. Failed event is retried before later events")
+	void testRetriesFailedEvent() {
+		// Arrange
+		record(3);
+		RecordingConsumer consumer = new RecordingConsumer("reports", 2L);
+		OutboxRelay relay = relay(consumer);
+
+		// Act
+		int handled = relay.relay(consumer);
+		consumer.failOn.clear();
+		int retried = relay.relay(consumer);
+
+		// Assert
+		assertEquals(1, handled);
+		assertEquals(2, retried);
+		assertEquals(List.of(1L, 2L, 3L), consumer.handled);
+		assertEquals(3L, checkpoints.get("reports"));
+		assertEquals(1, meterRegistry.counter("outbox.failures", "consumer", "reports").count());
+	}
+
+	/**
+	 * Tests that a failing consumer does not hold up another, and that only the
+	 * events every consumer has handled are deleted.
+	 */
+	@Test
+	@DisplayName("3. Consumers have their own checkpoints")
+	void testIndependentConsumers() {
+		// Arrange
+		record(3);
+		RecordingConsumer healthy = new RecordingConsumer("reports");
+		RecordingConsumer failing = new RecordingConsumer("notifications", 2L);
+		OutboxRelay relay = relay(healthy, failing);
+		when(outboxEventRepo.deleteUpTo(anyLong())).thenReturn(1);
+
+		// Act
+		relay.relay(healthy);
+		relay.relay(failing);
+		relay.deleteDelivered();
+
+		// Assert
+		assertEquals(3L, checkpoints.get("reports"));
+		assertEquals(1L, checkpoints.get("notifications"));
+		verify(outboxEventRepo).deleteUpTo(1L);
+	}
+
+	/**
+	 * Tests that a batch stops at a gap in the ids while the event after it is
+	 * younger than the settle time, and that the event which commits late is
+	 * then delivered in order.
+	 */
+	@Test
+	@DisplayName("4. Gap is held until the late event commits")
+	void testGapIsHeld() {
+		// Arrange
+		record(3);
+		OutboxEvent late = outbox.remove(1);
+		now = START.plusNanos(500_000_000);
+		RecordingConsumer consumer = new RecordingConsumer("reports");
+		OutboxRelay relay = relay(consumer);
+
+		// Act
+		int beforeCommit = relay.relay(consumer);
+		outbox.add(1, late);
+		int afterCommit = relay.relay(consumer);
+
+		// Assert
+		assertEquals(1, beforeCommit);
+		assertEquals(2, afterCommit);
+		assertEquals(List.of(1L, 2L, 3L), consumer.handled);
+		assertEquals(3L, checkpoints.get("reports"));
+	}
+
+	/**
+	 * Tests that a gap left by a rolled back transaction is passed once the
+	 * event after it has settled, and that the checkpoint is picked up from the
+	 * database.
+	 */
+	@Test
+	@DisplayName("5. Gap is passed once settled and checkpoints survive a restart")
+	void testGapIsPassedAndRestart() {
+		// Arrange
+		record(3);
+		outbox.remove(1);
+		checkpoints.put("reports", 1L);
+		now = START.plusNanos(500_000_000);
+		RecordingConsumer consumer = new RecordingConsumer("reports");
+		OutboxRelay relay = relay(consumer);
+
+		// Act
+		int early = relay.relay(consumer);
+		now = START.plusSeconds(2);
+		int settled = relay.relay(consumer);
+
+		// Assert
+		assertEquals(0, early);
+		assertEquals(1, settled);
+		assertEquals(List.of(3L), consumer.handled);
+		assertEquals(3L, checkpoints.get("reports"));
+	}
+
+	/**
+	 * Tests that an event the consumer keeps failing on is parked as a dead
+	 * letter after the maximum attempts, so the events after it are delivered,
+	 * and that the failures in a row are published while it is retried.
+	 */
+	@Test
+	@DisplayName("6. Event failing too often is parked")
+	void testParksFailingEvent() {
+		// Arrange
+		properties.setMaxAttempts(3);
+		record(2);
+		RecordingConsumer consumer = new RecordingConsumer("reports", 1L);
+		OutboxRelay relay = relay(consumer);
+
+		// Act
+		int first = relay.relay(consumer);
+		int second = relay.relay(consumer);
+		double stuck = meterRegistry.get("outbox.failing.attempts").tag("consumer", "reports").gauge().value();
+		int third = relay.relay(consumer);
+
+		// Assert
+		assertEquals(0, first);
+		assertEquals(0, second);
+		assertEquals(2.0, stuck);
+		assertEquals(2, third);
+		assertEquals(List.of(2L), consumer.handled);
+		assertEquals(2L, checkpoints.get("reports"));
+		verify(deadLetterRepo).save(argThat(deadLetter -> deadLetter.getOutboxEventId() == 1L
+				&& "reports".equals(deadLetter.getConsumerName()) && deadLetter.getAttempts() == 3));
+		assertEquals(1, meterRegistry.counter("outbox.parked", "consumer", "reports").count());
+		assertEquals(0.0, meterRegistry.get("outbox.failing.attempts").tag("consumer", "reports").gauge().value());
+	}
+}
@@ -0,0 +1,119 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the SingleFlight class.
+ *
+ * @see SingleFlight
+ */
+public class SingleFlightTest {
+
+	private static final int CALLERS = 8;
+
+	private SimpleMeterRegistry meterRegistry;
+	private SingleFlight<String, Object> singleFlight;
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		singleFlight = new SingleFlight<>("test", meterRegistry);
+		executor = Executors.newFixedThreadPool(CALLERS);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	private double calls(String outcome) {
+		return meterRegistry.get("single.flight.calls").tag("name", "test").tag("outcome", outcome).counter().count();
+	}
+
+	/**
+	 * Tests that callers arriving while a load is in flight share its result.
+	 */
+	@Test
+	@DisplayName("1. Concurrent callers share one load")
+	void testConcurrentCallersShare() throws Exception {
+		// Arrange
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		Object value = new Object();
+
+		// Act
+		List<Future<Object>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+				loads.incrementAndGet();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return value;
+			})));
+		}
+		while (calls("executed") + calls("shared") < CALLERS) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		// Assert
+		for (Future<Object> result : results) {
+			assertSame(value, result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, loads.get());
+		assertEquals(CALLERS - 1, calls("shared"));
+	}
+
+	/**
+	 * Tests that a finished load is not cached.
+	 */
+	@Test
+	@DisplayName("2. Sequential callers each load")
+	void testSequentialCallersLoad() {
+		// Arrange
+		AtomicInteger loads = new AtomicInteger();
+
+		// Act
+		singleFlight.execute("key", loads::incrementAndGet);
+		singleFlight.execute("key", loads::incrementAndGet);
+
+		// Assert
+		assertEquals(2, loads.get());
+		assertEquals(0.0, calls("shared"));
+	}
+
+	/**
+	 * Tests that a failed load fails its caller and is not remembered.
+	 */
+	@Test
+	@DisplayName("3. Failed load is rethrown and not kept")
+	void testFailedLoad() {
+		// Act & Assert
+		assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", () -> {
+			throw new IllegalStateException("down");
+		}));
+		assertEquals("up", singleFlight.execute("key", () -> "up"));
+	}
+}
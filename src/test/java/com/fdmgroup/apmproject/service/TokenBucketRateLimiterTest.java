@@ -0,0 +1,107 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fdmgroup.apmproject.config.RateLimitProperties.Budget;
+
+/**
+ * Unit tests for the TokenBucketRateLimiter class. A manual clock is used so
+ * that refills can be tested without sleeping.
+ *
+ * @see TokenBucketRateLimiter
+ */
+public class TokenBucketRateLimiterTest {
+
+	private AtomicLong clock;
+	private TokenBucketRateLimiter limiter;
+	private Budget budget;
+
+	@BeforeEach
+	public void setUp() {
+		clock = new AtomicLong(0);
+		limiter = new TokenBucketRateLimiter(1000, clock::get);
+		budget = new Budget(3, 1);
+	}
+
+	/**
+	 * Tests that a new bucket allows a burst of exactly its capacity.
+	 */
+	@Test
+	@DisplayName("1. Bucket allows a burst up to its capacity")
+	void testBurst() {
+		// Act & Assert
+		assertTrue(limiter.tryAcquire("card", budget));
+		assertTrue(limiter.tryAcquire("card", budget));
+		assertTrue(limiter.tryAcquire("card", budget));
+		assertFalse(limiter.tryAcquire("card", budget));
+	}
+
+	/**
+	 * Tests that an empty bucket regains tokens as time passes.
+	 */
+	@Test
+	@DisplayName("2. Bucket refills lazily over time")
+	void testRefill() {
+		// Arrange
+		for (int i = 0; i < 3; i++) {
+			limiter.tryAcquire("card", budget);
+		}
+
+		// Act
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+		// Assert
+		assertTrue(limiter.tryAcquire("card", budget));
+		assertFalse(limiter.tryAcquire("card", budget));
+	}
+
+	/**
+	 * Tests that buckets of different keys do not share tokens.
+	 */
+	@Test
+	@DisplayName("3. Buckets are independent per key")
+	void testIndependentKeys() {
+		// Arrange
+		for (int i = 0; i < 3; i++) {
+			limiter.tryAcquire("card-1", budget);
+		}
+
+		// Act & Assert
+		assertFalse(limiter.tryAcquire("card-1", budget));
+		assertTrue(limiter.tryAcquire("card-2", budget));
+	}
+
+	/**
+	 * Tests that fully refilled buckets are swept once the limiter is over its
+	 * bound.
+	 */
+	@Test
+	@DisplayName("4. Idle buckets are swept when the limiter is full")
+	void testSweep() {
+		// Arrange
+		TokenBucketRateLimiter small = new TokenBucketRateLimiter(16, clock::get);
+		for (int i = 0; i < 200; i++) {
+			small.tryAcquire("card-" + i, budget);
+		}
+		int before = small.size();
+
+		// Act
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		for (int i = 200; i < 400; i++) {
+			small.tryAcquire("card-" + i, budget);
+		}
+
+		// Assert
+		assertEquals(200, before);
+		assertTrue(small.size() < 400);
+	}
+}
@@ -0,0 +1,121 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.OutboxEvent;
+import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.repository.OutboxEventRepository;
+import com.fdmgroup.apmproject.repository.TransactionRepository;
+
+/**
+ * Unit tests for the TransactionOutbox class.
+ *
+ * @see TransactionOutbox
+ */
+@ExtendWith(MockitoExtension.class)
+public class TransactionOutboxTest {
+
+	@Mock
+	private TransactionRepository transactionRepo;
+
+	@Mock
+	private OutboxEventRepository outboxEventRepo;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private TransactionOutbox transactionOutbox;
+
+	@BeforeEach
+	public void setUp() {
+		transactionOutbox = new TransactionOutbox(transactionRepo, outboxEventRepo, transactionManager, objectMapper);
+	}
+
+	/**
+	 * Tests that a card purchase is saved, followed by its event, in one database
+	 * transaction, and that the event belongs to the card.
+	 */
+	@Test
+	@DisplayName("1. Posting saves the transaction and its event together")
+	void testPost() throws Exception {
+		// Arrange
+		CreditCard creditCard = new CreditCard();
+		creditCard.setCreditCardId(9);
+		Transaction purchase = new Transaction(LocalDateTime.of(2024, 4, 22, 9, 0), "CC Purchase", 120.5, null, 2.41,
+				creditCard, null, null, null);
+		purchase.setTransactionId(31);
+		when(transactionRepo.save(purchase)).thenReturn(purchase);
+
+		// Act
+		transactionOutbox.post(purchase);
+
+		// Assert
+		ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+		InOrder inOrder = inOrder(transactionManager, transactionRepo, outboxEventRepo);
+		inOrder.verify(transactionManager).getTransaction(any());
+		inOrder.verify(transactionRepo).save(purchase);
+		inOrder.verify(outboxEventRepo).save(captor.capture());
+		inOrder.verify(transactionManager).commit(any());
+		OutboxEvent event = captor.getValue();
+		assertEquals(TransactionOutbox.CREDIT_CARD_AGGREGATE, event.getAggregateType());
+		assertEquals(9, event.getAggregateId());
+		assertEquals(TransactionOutbox.TRANSACTION_POSTED, event.getEventType());
+		JsonNode payload = objectMapper.readTree(event.getPayload());
+		assertEquals(31, payload.get("transactionId").asLong());
+		assertEquals("CC Purchase", payload.get("transactionType").asText());
+		assertEquals(120.5, payload.get("amount").asDouble());
+		assertEquals("2024-04-22T09:00", payload.get("transactionDate").asText());
+	}
+
+	/**
+	 * Tests that a batch of account transactions is saved with one event each,
+	 * belonging to the account.
+	 */
+	@Test
+	@DisplayName("2. Account transactions belong to the account")
+	@SuppressWarnings("unchecked")
+	void testPostAll() {
+		// Arrange
+		Account account = new Account();
+		account.setAccountId(4);
+		List<Transaction> deposits = List.of(
+				new Transaction(LocalDateTime.now(), "Deposit", 50, null, 0, null, account, null, null),
+				new Transaction(LocalDateTime.now(), "Deposit", 70, null, 0, null, account, null, null));
+		when(transactionRepo.saveAll(deposits)).thenReturn(deposits);
+
+		// Act
+		transactionOutbox.postAll(deposits);
+
+		// Assert
+		ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+		InOrder inOrder = inOrder(transactionRepo, outboxEventRepo, transactionManager);
+		inOrder.verify(transactionRepo).saveAll(deposits);
+		inOrder.verify(outboxEventRepo).saveAll(captor.capture());
+		inOrder.verify(transactionManager).commit(any());
+		assertEquals(2, captor.getValue().size());
+		assertEquals(TransactionOutbox.ACCOUNT_AGGREGATE, captor.getValue().get(1).getAggregateType());
+		assertEquals(4, captor.getValue().get(1).getAggregateId());
+	}
+}
@@ -3,10 +3,15 @@ package com.fdmgroup.apmproject.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.apache.logging.log4j.core.Logger;
@@ -16,10 +21,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.MerchantCategoryCode;
 import com.fdmgroup.apmproject.model.Transaction;
+import com.fdmgroup.apmproject.model.TransactionView;
+import com.fdmgroup.apmproject.model.Status;
 import com.fdmgroup.apmproject.repository.TransactionRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Tests the functionality of the StatusService class. This includes testing
  * methods related to status creation, update, deletion, and retrieval. The
@@ -36,9 +50,36 @@ public class TransactionServiceTest {
 	@Mock
 	private TransactionRepository transactionRepo;
 
+	@Mock
+	private CashbackRuleService cashbackRuleService;
+
 	@Mock
 	private Logger logger;
 
+	@Mock
+	private InstallmentPlanService installmentPlanService;
+
+	@Mock
+	private StatusService statusService;
+
+	@Mock
+	private CreditCardService creditCardService;
+
+	@Mock
+	private MerchantCategoryCodeService merchantCategoryCodeService;
+
+	@Mock
+	private ForeignExchangeCurrencyService currencyService;
+
+	@Mock
+	private AuditJournal auditJournal;
+
+	@Mock
+	private TransactionOutbox transactionOutbox;
+
+	@Spy
+	private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
 	@InjectMocks
 	private TransactionService transactionService;
 	private Transaction transactions;
@@ -60,7 +101,7 @@ public class TransactionServiceTest {
 	 * behavior for the transaction repository to return an empty optional when
 	 * searching for the transaction by ID. Then, it invokes the persist method with
 	 * the transaction object to be saved. Finally, it asserts that the transaction
-	 * repository's save method is called with the correct transaction object.
+	 * is posted through the outbox, which saves it with its event.
 	 *
 	 * @see TransactionService The service class being tested.
 	 * @see TransactionRepository The repository used by the service class.
@@ -76,7 +117,7 @@ public class TransactionServiceTest {
 		transactionService.persist(transactionOne);
 
 		// Assert
-		verify(transactionRepo).save(transactionOne);
+		verify(transactionOutbox).post(transactionOne);
 	}
 
 	/**
@@ -105,6 +146,7 @@ public class TransactionServiceTest {
 		// Assert
 		verify(transactionRepo, never()).save(transactionOne);
 		verifyNoMoreInteractions(transactionRepo);
+		verifyNoInteractions(transactionOutbox);
 	}
 
 	/**
@@ -293,4 +335,86 @@ public class TransactionServiceTest {
 		verifyNoMoreInteractions(transactionRepo);
 	}
 
+	/**
+	 * Tests that a new credit card purchase is persisted with its cashback already
+	 * set from the cashback rule table, so that the row is written once.
+	 *
+	 * @see TransactionService#persist(Transaction)
+	 * @see CashbackRuleService#getRate(String, int)
+	 */
+	@Test
+	@DisplayName("Test Persist function sets cashback before saving a credit card purchase")
+	public void testPersistCashback() {
+		// Arrange
+		CreditCard creditCard = new CreditCard();
+		creditCard.setCardType("Ultimate Cashback Card");
+		Transaction purchase = new Transaction("CC Purchase", 200, null, 0, creditCard, null,
+				new MerchantCategoryCode(1000, "Dining"), null);
+		when(transactionRepo.findById(purchase.getTransactionId())).thenReturn(Optional.empty());
+		when(cashbackRuleService.getRate("Ultimate Cashback Card", 1000)).thenReturn(0.02);
+
+		// Act
+		transactionService.persist(purchase);
+
+		// Assert
+		assertEquals(4, purchase.getCashback(), 0.0001);
+		verify(transactionOutbox).post(purchase);
+	}
+
+	/**
+	 * Tests that account transactions are returned as masked views straight from
+	 * the repository projection, without touching any Account entity.
+	 *
+	 * @see TransactionService#findByTransactionAccountOrRecipientAccount(Account, Account)
+	 * @see TransactionView
+	 */
+	@Test
+	@DisplayName("Test findByTransactionAccountOrRecipientAccount returns masked views")
+	public void testFindMaskedViews() {
+		// Arrange
+		Account account = new Account();
+		account.setAccountNumber("124-124-124");
+		TransactionView view = new TransactionView(1L, LocalDateTime.now(), "Transfer", 50, "rent", "***-***-124",
+				"***-***-987");
+		when(transactionRepo.findViewsByTransactionAccountOrRecipientAccount(account, account))
+				.thenReturn(List.of(view));
+
+		// Act
+		List<TransactionView> views = transactionService.findByTransactionAccountOrRecipientAccount(account, account);
+
+		// Assert
+		assertEquals(List.of(view), views);
+		assertEquals("124-124-124", account.getAccountNumber());
+		verify(transactionRepo, never()).findByTransactionAccountOrRecipientAccount(account, account);
+	}
+
+	/**
+	 * Tests that billing a partition runs its phases in order over the cards of
+	 * the partition and times each of them.
+	 *
+	 * @see TransactionService#runBillingPartition(long, long)
+	 */
+	@Test
+	@DisplayName("Test runBillingPartition times each billing phase")
+	public void testRunBillingPartition() {
+		// Arrange
+		Status approved = new Status("Approved");
+		List<CreditCard> approvedCreditCards = List.of(new CreditCard());
+		when(statusService.findByStatusName("Approved")).thenReturn(approved);
+		when(creditCardService.findCreditCardsByStatus(approved, 1, 100)).thenReturn(approvedCreditCards);
+
+		// Act
+		transactionService.runBillingPartition(1, 100);
+
+		// Assert
+		verify(installmentPlanService).postDueInstallments(any(LocalDateTime.class), eq(1L), eq(100L));
+		verify(creditCardService).calculateMonthlyBalance(approvedCreditCards);
+		verify(creditCardService).chargeInterest(approvedCreditCards);
+		verify(creditCardService).calculateMinimumBalance(approvedCreditCards);
+		assertEquals(1, meterRegistry.get("billing.run").timer().count());
+		for (String phase : List.of("installments", "load", "monthly-balance", "interest", "minimum-balance-fee",
+				"minimum-balance")) {
+			assertEquals(1, meterRegistry.get("billing.phase").tag("phase", phase).timer().count());
+		}
+	}
 }
@@ -0,0 +1,89 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fdmgroup.apmproject.model.Account;
+import com.fdmgroup.apmproject.model.CreditCard;
+import com.fdmgroup.apmproject.model.PurchasePosted;
+import com.fdmgroup.apmproject.model.TransferCompleted;
+import com.fdmgroup.apmproject.model.User;
+
+/**
+ * Unit tests for the UserAggregateRefresher class.
+ *
+ * @see UserAggregateRefresher
+ */
+@ExtendWith(MockitoExtension.class)
+public class UserAggregateRefresherTest {
+
+	@Mock
+	private UserService userService;
+
+	@Mock
+	private CreditCardService creditCardService;
+
+	@Mock
+	private AccountService accountService;
+
+	private UserAggregateRefresher refresher;
+	private User user;
+
+	@BeforeEach
+	public void setUp() {
+		refresher = new UserAggregateRefresher(userService, creditCardService, accountService);
+		user = new User();
+		user.setUserId(5);
+	}
+
+	/**
+	 * Tests that a purchase reloads the user's credit cards and saves the user.
+	 */
+	@Test
+	@DisplayName("1. Purchase refreshes the user's credit cards")
+	void testPurchase() {
+		// Arrange
+		List<CreditCard> creditCards = List.of(new CreditCard());
+		when(userService.findUserById(5)).thenReturn(user);
+		when(creditCardService.findAllCreditCardByUserId(5)).thenReturn(creditCards);
+
+		// Act
+		refresher.onEvent(new PurchasePosted(11, 2, 5, 120, 2.4));
+
+		// Assert
+		assertEquals(creditCards, user.getCreditCards());
+		verify(userService).update(user);
+		verifyNoInteractions(accountService);
+	}
+
+	/**
+	 * Tests that a transfer reloads the user's accounts and saves the user.
+	 */
+	@Test
+	@DisplayName("2. Transfer refreshes the user's accounts")
+	void testTransfer() {
+		// Arrange
+		List<Account> accounts = List.of(new Account());
+		when(userService.findUserById(5)).thenReturn(user);
+		when(accountService.findAllAccountsByUserId(5)).thenReturn(accounts);
+
+		// Act
+		refresher.onEvent(new TransferCompleted(12, 3, 5, "123-456-789", 50, false));
+
+		// Assert
+		assertEquals(accounts, user.getAccounts());
+		verify(userService).update(user);
+		verifyNoInteractions(creditCardService);
+	}
+}
@@ -0,0 +1,155 @@
+package com.fdmgroup.apmproject.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fdmgroup.apmproject.config.VelocityProperties;
+import com.fdmgroup.apmproject.config.VelocityProperties.Rule;
+import com.fdmgroup.apmproject.config.VelocityProperties.Scope;
+import com.fdmgroup.apmproject.config.VelocityProperties.Window;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the VelocityMonitor class. A manual clock is used so that
+ * windows can be tested without sleeping.
+ *
+ * @see VelocityMonitor
+ */
+public class VelocityMonitorTest {
+
+	private AtomicLong clock;
+	private VelocityProperties properties;
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	public void setUp() {
+		clock = new AtomicLong(TimeUnit.DAYS.toMillis(1000));
+		properties = new VelocityProperties();
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	private VelocityMonitor monitor(Rule... rules) {
+		properties.setRules(List.of(rules));
+		return new VelocityMonitor(properties, meterRegistry, clock::get);
+	}
+
+	/**
+	 * Tests that a card is declined once it exceeds its count within a minute and
+	 * passes again once the minute has slid past.
+	 */
+	@Test
+	@DisplayName("1. Count rule declines within the window only")
+	void testCountRule() {
+		// Arrange
+		VelocityMonitor monitor = monitor(new Rule(Window.MINUTE, Scope.CARD, 2, 0));
+		monitor.screen(1L, 5411, "SGD", 10);
+		monitor.screen(1L, 5411, "SGD", 10);
+
+		// Act
+		String declined = monitor.screen(1L, 5411, "SGD", 10);
+		clock.addAndGet(TimeUnit.SECONDS.toMillis(61));
+		String passed = monitor.screen(1L, 5411, "SGD", 10);
+
+		// Assert
+		assertNotNull(declined);
+		assertNull(passed);
+	}
+
+	/**
+	 * Tests that an amount rule scoped by merchant category does not count
+	 * purchases in other categories.
+	 */
+	@Test
+	@DisplayName("2. Amount rule is counted per merchant category")
+	void testAmountRulePerMcc() {
+		// Arrange
+		VelocityMonitor monitor = monitor(new Rule(Window.DAY, Scope.MCC, 0, 100));
+		monitor.screen(1L, 5411, "SGD", 80);
+
+		// Act & Assert
+		assertNotNull(monitor.screen(1L, 5411, "SGD", 30));
+		assertNull(monitor.screen(1L, 5812, "SGD", 30));
+		assertNull(monitor.screen(2L, 5411, "SGD", 30));
+	}
+
+	/**
+	 * Tests that a purchase far above a card's usual spend is flagged but not
+	 * declined.
+	 */
+	@Test
+	@DisplayName("3. Outliers against the moving average are flagged")
+	void testOutlier() {
+		// Arrange
+		VelocityMonitor monitor = monitor();
+		for (int i = 0; i < 10; i++) {
+			monitor.screen(1L, 5411, "SGD", 20 + i % 3);
+		}
+
+		// Act
+		String result = monitor.screen(1L, 5411, "SGD", 900);
+
+		// Assert
+		assertNull(result);
+		assertEquals(1, meterRegistry.get("purchase.velocity.outliers").functionCounter().count());
+	}
+
+	/**
+	 * Tests that once the table is full the least recently used counters are
+	 * evicted, so the size stays bounded and new cards are still screened.
+	 */
+	@Test
+	@DisplayName("4. Counters are bounded by the configured size")
+	void testBounded() {
+		// Arrange
+		properties.setMaxCounters(6);
+		VelocityMonitor monitor = monitor(new Rule(Window.MINUTE, Scope.CARD, 1, 0));
+
+		// Act
+		for (long card = 1; card <= 5; card++) {
+			clock.addAndGet(1000);
+			monitor.screen(card, 5411, "SGD", 10);
+		}
+
+		// Assert
+		assertTrue(monitor.size() <= 6);
+		assertNotNull(monitor.screen(5L, 5411, "SGD", 10));
+		assertEquals(0, meterRegistry.get("purchase.velocity.untracked").functionCounter().count());
+		assertTrue(meterRegistry.get("purchase.velocity.evicted").functionCounter().count() > 0);
+	}
+
+	/**
+	 * Tests that counters whose windows have emptied are reclaimed when the
+	 * table fills, before any counter in use is evicted.
+	 */
+	@Test
+	@DisplayName("5. Idle counters are reclaimed before active ones are evicted")
+	void testIdleCountersReclaimed() {
+		// Arrange
+		properties.setMaxCounters(6);
+		VelocityMonitor monitor = monitor(new Rule(Window.MINUTE, Scope.CARD, 1, 0));
+		monitor.screen(1L, 5411, "SGD", 10);
+		clock.addAndGet(TimeUnit.DAYS.toMillis(2));
+		monitor.screen(2L, 5411, "SGD", 10);
+
+		// Act
+		monitor.screen(3L, 5411, "SGD", 10);
+
+		// Assert
+		assertEquals(6, monitor.size());
+		assertNotNull(monitor.screen(2L, 5411, "SGD", 10));
+		assertNotNull(monitor.screen(3L, 5411, "SGD", 10));
+		assertEquals(3, meterRegistry.get("purchase.velocity.reclaimed").functionCounter().count());
+		assertEquals(0, meterRegistry.get("purchase.velocity.evicted").functionCounter().count());
+	}
+}